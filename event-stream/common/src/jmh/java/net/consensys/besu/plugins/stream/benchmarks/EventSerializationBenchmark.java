@@ -0,0 +1,184 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.core.Serializer;
+import net.consensys.besu.plugins.stream.model.DefaultEvent;
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.DecodedLogWithMetadata;
+import net.consensys.besu.plugins.types.DecodedParameter;
+import net.consensys.besu.plugins.types.Hash;
+import net.consensys.besu.plugins.types.QuantityFormatter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the streaming event serialization against the previous approach, which built a Jackson
+ * tree with a new {@link ObjectMapper} for every event before writing it as a string.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+  private LogWithMetadata log;
+
+  @Setup
+  public void setUp() {
+    log =
+        new DecodedLogWithMetadata(
+            transferLog(),
+            "Transfer",
+            List.of(
+                new DecodedParameter(
+                    "from", "address", "0xc2ca8977e5c582f938c30f7a5328ac1d101bd564", true),
+                new DecodedParameter(
+                    "to", "address", "0x06e01587ad6b033d4b05156003c3412e8997bfe3", true),
+                new DecodedParameter("value", "uint256", "801976598137298011761447", false)),
+            "transfers");
+  }
+
+  @Benchmark
+  public byte[] streaming() throws Exception {
+    return DefaultEvent.create(Event.Type.LOG_EMITTED, log, Serializer::serialize).bytes();
+  }
+
+  @Benchmark
+  public byte[] objectMapperTree() throws Exception {
+    final ObjectMapper mapper = new ObjectMapper();
+    final ObjectNode rootNode = mapper.createObjectNode();
+    rootNode
+        .put("uuid", UUID.randomUUID().toString())
+        .put("type", Event.Type.LOG_EMITTED)
+        .put("timestamp", System.currentTimeMillis());
+    final ObjectNode eventNode =
+        mapper
+            .createObjectNode()
+            .put("blockNumber", QuantityFormatter.format(log.getBlockNumber()))
+            .put("blockHash", log.getBlockHash().toHexString())
+            .put("transactionHash", log.getTransactionHash().toHexString())
+            .put("transactionIndex", QuantityFormatter.format(log.getTransactionIndex()))
+            .put("address", log.getLogger().toHexString())
+            .put("data", log.getData().toHexString())
+            .put(
+                "topics",
+                log.getTopics().stream()
+                    .map(Bytes::toHexString)
+                    .collect(toUnmodifiableList())
+                    .toString())
+            .put("removed", log.isRemoved())
+            .put("logIndex", QuantityFormatter.format(log.getLogIndex()));
+    final DecodedLogWithMetadata decodedLog = (DecodedLogWithMetadata) log;
+    final ObjectNode decodedNode =
+        eventNode
+            .putObject("decoded")
+            .put("event", decodedLog.getEventName().orElse(null))
+            .put("schemaId", decodedLog.getSchemaId().orElse(null));
+    final ArrayNode parametersNode = decodedNode.putArray("parameters");
+    for (final DecodedParameter parameter : decodedLog.getParameters()) {
+      parametersNode
+          .addObject()
+          .put("name", parameter.getName())
+          .put("type", parameter.getType())
+          .put("value", parameter.getValue())
+          .put("indexed", parameter.isIndexed());
+    }
+    rootNode.set("event", eventNode);
+    return mapper.writeValueAsString(rootNode).getBytes(UTF_8);
+  }
+
+  private static LogWithMetadata transferLog() {
+    return new LogWithMetadata() {
+      @Override
+      public org.hyperledger.besu.plugin.data.Address getLogger() {
+        return Address.fromHexString("0x1dea979ae76f26071870f824088da78979eb91c8");
+      }
+
+      @Override
+      public Bytes getData() {
+        return Bytes.fromHexStringLenient(
+            "00000000000000000000000000000000000000000000a9d33d0e47bfd6c72b27");
+      }
+
+      @Override
+      public int getLogIndex() {
+        return 0;
+      }
+
+      @Override
+      public long getBlockNumber() {
+        return 9365164;
+      }
+
+      @Override
+      public org.hyperledger.besu.plugin.data.Hash getBlockHash() {
+        return Hash.fromHexString(
+            "0x8478d0924e106a2e6ee040842316d015fa6a3b87b252060e975153ea238fb0f3");
+      }
+
+      @Override
+      public org.hyperledger.besu.plugin.data.Hash getTransactionHash() {
+        return Hash.fromHexString(
+            "0xabc0e2d93e34b8a6f093bb44e102684accd3e45a036df43e5d83b18aa74d40fa");
+      }
+
+      @Override
+      public int getTransactionIndex() {
+        return 0;
+      }
+
+      @Override
+      public List<org.hyperledger.besu.plugin.data.Hash> getTopics() {
+        return List.of(
+                "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef",
+                "0x000000000000000000000000c2ca8977e5c582f938c30f7a5328ac1d101bd564",
+                "0x00000000000000000000000006e01587ad6b033d4b05156003c3412e8997bfe3")
+            .stream()
+            .map(Hash::fromHexString)
+            .collect(toUnmodifiableList());
+      }
+
+      @Override
+      public boolean isRemoved() {
+        return false;
+      }
+    };
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.benchmarks;
+
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+import net.consensys.besu.plugins.types.HexEncoder;
+import net.consensys.besu.plugins.types.QuantityFormatter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link HexEncoder} against formatting the values as strings first, with {@link
+ * QuantityFormatter} and {@code toHexString()}, both on their own and when writing the fields of a
+ * JSON object. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexEncodingBenchmark {
+
+  private final char[] buffer = new char[128];
+  private long number;
+  private BigInteger difficulty;
+  private Hash hash;
+  private Address address;
+  private JsonGenerator generator;
+
+  @Setup
+  public void setUp() throws IOException {
+    number = 13_916_165L;
+    difficulty = new BigInteger("58750003716598352816469");
+    hash = Hash.fromHexString("0x8478d0924e106a2e6ee040842316d015fa6a3b87b252060e975153ea238fb0f3");
+    address = Address.fromHexString("0x1dea979ae76f26071870f824088da78979eb91c8");
+    generator = new JsonFactory().createGenerator(OutputStream.nullOutputStream());
+    generator.writeStartObject();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    generator.close();
+  }
+
+  @Benchmark
+  public String formatLong() {
+    return QuantityFormatter.format(number);
+  }
+
+  @Benchmark
+  public int encodeLong() {
+    return HexEncoder.encodeQuantity(number, buffer, 0);
+  }
+
+  @Benchmark
+  public String formatBigInteger() {
+    return QuantityFormatter.format(difficulty);
+  }
+
+  @Benchmark
+  public int encodeBigInteger() {
+    return HexEncoder.encodeQuantity(difficulty, buffer, 0);
+  }
+
+  @Benchmark
+  public String hashToHexString() {
+    return hash.toHexString();
+  }
+
+  @Benchmark
+  public int encodeHash() {
+    return HexEncoder.encode(hash, buffer, 0);
+  }
+
+  @Benchmark
+  public void writeFormattedFields() throws IOException {
+    generator.writeStringField("number", QuantityFormatter.format(number));
+    generator.writeStringField("difficulty", QuantityFormatter.format(difficulty));
+    generator.writeStringField("hash", hash.toHexString());
+    generator.writeStringField("coinbase", address.toHexString());
+  }
+
+  @Benchmark
+  public void writeEncodedFields() throws IOException {
+    HexEncoder.writeQuantityField(generator, "number", number);
+    HexEncoder.writeQuantityField(generator, "difficulty", difficulty);
+    HexEncoder.writeBytesField(generator, "hash", hash);
+    HexEncoder.writeBytesField(generator, "coinbase", address);
+  }
+}
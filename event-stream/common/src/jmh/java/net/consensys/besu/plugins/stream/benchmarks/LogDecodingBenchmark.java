@@ -0,0 +1,124 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.benchmarks;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import net.consensys.besu.plugins.stream.core.config.EventDecodingPlan;
+import net.consensys.besu.plugins.stream.core.config.EventSchema;
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.DecodedParameter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Type;
+
+/**
+ * Compares decoding an ERC-20 Transfer log with the compiled decoding plan of its schema against
+ * the web3j ABI decoder, which goes through hex strings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogDecodingBenchmark {
+
+  private EventSchema schema;
+  private EventDecodingPlan plan;
+  private List<Bytes32> topics;
+  private Bytes data;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws ClassNotFoundException {
+    schema =
+        new EventSchema(
+            "transfer",
+            Address.fromHexString("0x1dea979ae76f26071870f824088da78979eb91c8"),
+            "Transfer",
+            List.of(
+                TypeReference.makeTypeReference("address", true, true),
+                TypeReference.makeTypeReference("address", true, true),
+                TypeReference.makeTypeReference("uint256", false, true)));
+    plan = schema.getDecodingPlan().orElseThrow();
+    topics =
+        List.of(
+            schema.getTopic(),
+            Bytes32.fromHexString(
+                "0x000000000000000000000000c2ca8977e5c582f938c30f7a5328ac1d101bd564"),
+            Bytes32.fromHexString(
+                "0x00000000000000000000000006e01587ad6b033d4b05156003c3412e8997bfe3"));
+    data =
+        Bytes.fromHexString("0x00000000000000000000000000000000000000000000a9d33d0e47bfd6c72b27");
+  }
+
+  @Benchmark
+  public List<DecodedParameter> decodingPlan() {
+    return plan.decode(topics, data);
+  }
+
+  @Benchmark
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public String abiDecoder() {
+    final List<TypeReference<Type>> parameterTypes = schema.getParameterTypes();
+    final List<Type> decodedArguments =
+        FunctionReturnDecoder.decode(
+            data.toHexString(),
+            parameterTypes.stream()
+                .filter(parameterType -> !parameterType.isIndexed())
+                .collect(toUnmodifiableList()));
+    final List<Integer> indexedParameterIndices =
+        IntStream.range(0, parameterTypes.size())
+            .filter(i -> parameterTypes.get(i).isIndexed())
+            .boxed()
+            .collect(toUnmodifiableList());
+    final List<TypeReference> indexedTopicTypes =
+        parameterTypes.stream().filter(TypeReference::isIndexed).collect(toUnmodifiableList());
+    for (int i = 0; i < indexedTopicTypes.size(); i++) {
+      decodedArguments.add(
+          indexedParameterIndices.get(i),
+          FunctionReturnDecoder.decodeIndexedValue(
+              topics.get(i + 1).toHexString(), indexedTopicTypes.get(i)));
+    }
+    return String.format(
+        "%s%s",
+        schema.getEventName(),
+        decodedArguments.stream()
+            .map(Type::getValue)
+            .collect(toUnmodifiableList())
+            .toString()
+            .replace(" ", "")
+            .replace('[', '(')
+            .replace(']', ')'));
+  }
+}
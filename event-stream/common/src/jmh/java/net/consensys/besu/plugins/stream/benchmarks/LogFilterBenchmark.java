@@ -0,0 +1,220 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.benchmarks;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import net.consensys.besu.plugins.stream.core.LogDecoder;
+import net.consensys.besu.plugins.stream.core.LogFilter;
+import net.consensys.besu.plugins.stream.core.config.EventSchema;
+import net.consensys.besu.plugins.stream.core.config.EventSchemas;
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.web3j.abi.TypeReference;
+
+/**
+ * Compares delivering the logs of a block through the two log listeners the plugin used to
+ * register, one for the command line filters and one for the event schemas, against the single
+ * listener of the compiled {@link LogFilter}. Besu matches the logs against the queries of the
+ * listeners as lists, and each delivered log is decoded. A tenth of the logs are Transfers of the
+ * token both the command line and a schema subscribe to, which the two listeners deliver twice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogFilterBenchmark {
+  private static final int LOGS_PER_BLOCK = 200;
+
+  @Param({"10", "100", "1000"})
+  public int schemaCount;
+
+  private EventSchemas eventSchemas;
+  private List<org.hyperledger.besu.plugin.data.Address> commandLineAddresses;
+  private List<List<Bytes32>> commandLineTopics;
+  private List<org.hyperledger.besu.plugin.data.Address> schemaAddresses;
+  private List<List<Bytes32>> schemaTopics;
+  private LogFilter logFilter;
+  private List<LogWithMetadata> block;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws ClassNotFoundException {
+    final Set<EventSchema> schemas = new HashSet<>();
+    for (int i = 1; i <= schemaCount; i++) {
+      schemas.add(
+          new EventSchema(
+              "transfer-" + i,
+              Address.fromHexString(String.format("0x%040x", i)),
+              "Transfer",
+              List.of(
+                  TypeReference.makeTypeReference("address", true, true),
+                  TypeReference.makeTypeReference("address", true, true),
+                  TypeReference.makeTypeReference("uint256", false, true))));
+    }
+    eventSchemas = new EventSchemas(schemas);
+    final Address token = Address.fromHexString(String.format("0x%040x", 1));
+    final Hash transfer = schemas.iterator().next().getTopic();
+    commandLineAddresses = List.of(token);
+    commandLineTopics = List.of(List.of(transfer));
+    schemaAddresses =
+        schemas.stream().map(EventSchema::getContractAddress).collect(toUnmodifiableList());
+    schemaTopics =
+        List.of(schemas.stream().map(EventSchema::getTopic).collect(toUnmodifiableList()));
+    logFilter = LogFilter.compile(commandLineAddresses, commandLineTopics, eventSchemas);
+
+    final Bytes32 from =
+        Bytes32.leftPad(Bytes.fromHexString("0xc2ca8977e5c582f938c30f7a5328ac1d101bd564"));
+    final Bytes32 to =
+        Bytes32.leftPad(Bytes.fromHexString("0x06e01587ad6b033d4b05156003c3412e8997bfe3"));
+    final Bytes amount = Bytes32.leftPad(Bytes.fromHexString("0xa9d33d0e47bfd6c72b27"));
+    block = new ArrayList<>();
+    for (int i = 0; i < LOGS_PER_BLOCK; i++) {
+      final Address logger;
+      if (i % 10 == 0) {
+        logger = token;
+      } else if (i % 10 == 1) {
+        logger = Address.fromHexString(String.format("0x%040x", 1 + (i % schemaCount)));
+      } else {
+        logger = Address.fromHexString(String.format("0x%040x", 0x100000 + i));
+      }
+      block.add(new BlockLog(logger, List.of(transfer, from, to), amount));
+    }
+  }
+
+  @Benchmark
+  public void twoListeners(final Blackhole blackhole) {
+    for (final LogWithMetadata log : block) {
+      if (besuQueryMatches(commandLineAddresses, commandLineTopics, log)) {
+        blackhole.consume(LogDecoder.decode(eventSchemas, log));
+      }
+      if (besuQueryMatches(schemaAddresses, schemaTopics, log)) {
+        blackhole.consume(LogDecoder.decode(eventSchemas, log));
+      }
+    }
+  }
+
+  @Benchmark
+  public void compiledFilter(final Blackhole blackhole) {
+    for (final LogWithMetadata log : block) {
+      if (besuQueryMatches(logFilter.getQueryAddresses(), logFilter.getQueryTopics(), log)
+          && logFilter.matches(log)) {
+        blackhole.consume(LogDecoder.decode(eventSchemas, log));
+      }
+    }
+  }
+
+  /** How Besu matches a log against the query of a log listener */
+  private static boolean besuQueryMatches(
+      final List<? extends Bytes> addresses,
+      final List<List<Bytes32>> topics,
+      final LogWithMetadata log) {
+    if (!addresses.isEmpty() && !addresses.contains(log.getLogger())) {
+      return false;
+    }
+    for (int i = 0; i < topics.size(); i++) {
+      final List<Bytes32> alternatives = topics.get(i);
+      if (alternatives != null
+          && !alternatives.isEmpty()
+          && (i >= log.getTopics().size() || !alternatives.contains(log.getTopics().get(i)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class BlockLog implements LogWithMetadata {
+    private static final Hash ZERO_HASH = Hash.fromUnsignedLong(0);
+
+    private final Address logger;
+    private final List<Bytes32> topics;
+    private final Bytes data;
+
+    private BlockLog(final Address logger, final List<Bytes32> topics, final Bytes data) {
+      this.logger = logger;
+      this.topics = topics;
+      this.data = data;
+    }
+
+    @Override
+    public org.hyperledger.besu.plugin.data.Address getLogger() {
+      return logger;
+    }
+
+    @Override
+    public List<? extends Bytes32> getTopics() {
+      return topics;
+    }
+
+    @Override
+    public Bytes getData() {
+      return data;
+    }
+
+    @Override
+    public int getLogIndex() {
+      return 0;
+    }
+
+    @Override
+    public long getBlockNumber() {
+      return 0;
+    }
+
+    @Override
+    public org.hyperledger.besu.plugin.data.Hash getBlockHash() {
+      return ZERO_HASH;
+    }
+
+    @Override
+    public org.hyperledger.besu.plugin.data.Hash getTransactionHash() {
+      return ZERO_HASH;
+    }
+
+    @Override
+    public int getTransactionIndex() {
+      return 0;
+    }
+
+    @Override
+    public boolean isRemoved() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.benchmarks;
+
+import static java.util.stream.Collectors.toSet;
+
+import net.consensys.besu.plugins.stream.core.LogDecoder;
+import net.consensys.besu.plugins.stream.core.config.EventSchema;
+import net.consensys.besu.plugins.stream.core.config.EventSchemas;
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.web3j.abi.TypeReference;
+
+/**
+ * Measures finding the schema of a log among a growing number of schemas, one Transfer event per
+ * contract. The indexed lookup should cost the same whatever the number of schemas, unlike the
+ * linear scan {@link LogDecoder} used to do. Testing the logs bloom rules out a whole block, and
+ * grows with the number of schemas, so is to be compared with decoding every log of the block. A
+ * single schema matching any contract stands for the Transfer events of every contract at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaLookupBenchmark {
+
+  @Param({"10", "100", "1000", "10000", "100000"})
+  public int schemaCount;
+
+  private EventSchemas eventSchemas;
+  private EventSchemas anyContractSchemas;
+  private List<Bytes32> transferTopics;
+  private Address contract;
+  private Hash topic;
+  private LogWithMetadata unknownLog;
+  private Bytes unrelatedLogsBloom;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() throws ClassNotFoundException {
+    final Set<EventSchema> schemas = new HashSet<>();
+    for (int i = 1; i <= schemaCount; i++) {
+      contract = Address.fromHexString(String.format("0x%040x", i));
+      schemas.add(
+          new EventSchema(
+              "transfer-" + i,
+              contract,
+              "Transfer",
+              List.of(
+                  TypeReference.makeTypeReference("address", true, true),
+                  TypeReference.makeTypeReference("address", true, true),
+                  TypeReference.makeTypeReference("uint256", false, true))));
+    }
+    eventSchemas = new EventSchemas(schemas);
+    topic = schemas.iterator().next().getTopic();
+    anyContractSchemas =
+        new EventSchemas(
+            Set.of(
+                new EventSchema(
+                    "transfer",
+                    null,
+                    "Transfer",
+                    List.of(
+                        TypeReference.makeTypeReference("address", true, true),
+                        TypeReference.makeTypeReference("address", true, true),
+                        TypeReference.makeTypeReference("uint256", false, true)))));
+    transferTopics = List.of(topic, Bytes32.leftPad(contract), Bytes32.leftPad(contract));
+    unknownLog = new UnknownLog(contract, Hash.fromHexString("0x" + "ab".repeat(32)));
+    // a block of about 200 logs of other contracts, three bits per address and topic
+    final Random random = new Random(1);
+    final byte[] logsBloom = new byte[256];
+    for (int i = 0; i < 3 * 600; i++) {
+      final int bit = random.nextInt(2048);
+      logsBloom[bit >>> 3] |= (byte) (1 << (bit & 7));
+    }
+    unrelatedLogsBloom = Bytes.wrap(logsBloom);
+  }
+
+  @Benchmark
+  public List<EventSchema> indexedLookup() {
+    return eventSchemas.getIndex().find(contract, topic);
+  }
+
+  @Benchmark
+  public List<EventSchema> indexedMatch() {
+    return eventSchemas.getIndex().match(contract, transferTopics);
+  }
+
+  @Benchmark
+  public List<EventSchema> anyContractMatch() {
+    return anyContractSchemas.getIndex().match(contract, transferTopics);
+  }
+
+  @Benchmark
+  public Set<EventSchema> linearScan() {
+    return eventSchemas.getSchemas().stream()
+        .filter(
+            schema ->
+                schema.getTopic().equals(topic) && schema.getContractAddress().equals(contract))
+        .collect(toSet());
+  }
+
+  @Benchmark
+  public LogWithMetadata decodeUnknownLog() {
+    return LogDecoder.decode(eventSchemas, unknownLog);
+  }
+
+  @Benchmark
+  public boolean logsBloomTest() {
+    return eventSchemas.getBloom().mayContainLogs(unrelatedLogsBloom);
+  }
+
+  /** A log no schema matches, which used to cost two full scans of the schemas */
+  private static final class UnknownLog implements LogWithMetadata {
+    private static final Hash ZERO_HASH = Hash.fromUnsignedLong(0);
+
+    private final Address logger;
+    private final List<Bytes32> topics;
+
+    private UnknownLog(final Address logger, final Bytes32 topic) {
+      this.logger = logger;
+      this.topics = List.of(topic);
+    }
+
+    @Override
+    public org.hyperledger.besu.plugin.data.Address getLogger() {
+      return logger;
+    }
+
+    @Override
+    public List<? extends Bytes32> getTopics() {
+      return topics;
+    }
+
+    @Override
+    public Bytes getData() {
+      return Bytes.EMPTY;
+    }
+
+    @Override
+    public int getLogIndex() {
+      return 0;
+    }
+
+    @Override
+    public long getBlockNumber() {
+      return 0;
+    }
+
+    @Override
+    public org.hyperledger.besu.plugin.data.Hash getBlockHash() {
+      return ZERO_HASH;
+    }
+
+    @Override
+    public org.hyperledger.besu.plugin.data.Hash getTransactionHash() {
+      return ZERO_HASH;
+    }
+
+    @Override
+    public int getTransactionIndex() {
+      return 0;
+    }
+
+    @Override
+    public boolean isRemoved() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.api.backfill;
+
+import java.util.Optional;
+
+/**
+ * Source of the historical blocks re-published by the backfill. Implementations are loaded by class
+ * name and need a public no argument constructor. They are called from several backfill workers at
+ * once.
+ */
+public interface BlockSource {
+
+  /**
+   * return the number of the current chain head
+   *
+   * @return the chain head block number
+   */
+  long getChainHeadBlockNumber();
+
+  /**
+   * read the canonical block with the given number
+   *
+   * @param blockNumber the block number
+   * @return the block along with its logs, empty when the block is not known
+   */
+  Optional<HistoricalBlock> getBlock(final long blockNumber);
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.api.backfill;
+
+import java.util.List;
+
+import org.hyperledger.besu.plugin.data.AddedBlockContext;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+
+/** A block read by a {@link BlockSource}, replayed as if it had just been added to the chain */
+public final class HistoricalBlock {
+  private final AddedBlockContext context;
+  private final List<? extends LogWithMetadata> logs;
+
+  /**
+   * create a historical block
+   *
+   * @param context the block header, body and transaction receipts
+   * @param logs the logs emitted by the block, in order
+   */
+  public HistoricalBlock(
+      final AddedBlockContext context, final List<? extends LogWithMetadata> logs) {
+    this.context = context;
+    this.logs = List.copyOf(logs);
+  }
+
+  /**
+   * getter for the context
+   *
+   * @return the block header, body and transaction receipts
+   */
+  public AddedBlockContext getContext() {
+    return context;
+  }
+
+  /**
+   * getter for the logs
+   *
+   * @return the logs emitted by the block, in order
+   */
+  public List<? extends LogWithMetadata> getLogs() {
+    return logs;
+  }
+
+  /**
+   * getter for the block number
+   *
+   * @return the number of the block
+   */
+  public long getBlockNumber() {
+    return context.getBlockHeader().getNumber();
+  }
+}
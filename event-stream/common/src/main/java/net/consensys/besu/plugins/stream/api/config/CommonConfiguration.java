@@ -17,6 +17,9 @@ package net.consensys.besu.plugins.stream.api.config;
 import net.consensys.besu.plugins.stream.core.config.EventSchemas;
 import net.consensys.besu.plugins.stream.core.config.LogFilterTopicsWrapper;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.stream.model.EventIdStrategy;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+import net.consensys.besu.plugins.stream.model.OverflowPolicy;
 import net.consensys.besu.plugins.types.Address;
 
 import java.io.File;
@@ -26,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,6 +40,25 @@ public class CommonConfiguration implements EventStreamConfiguration {
   /** Logger */
   private static final Logger LOGGER = LogManager.getLogger(MethodHandles.lookup().lookupClass());
 
+  /** default maximum number of events waiting to be dispatched */
+  public static final int DEFAULT_DISPATCH_QUEUE_CAPACITY = 8192;
+  /** default number of workers dispatching events */
+  public static final int DEFAULT_DISPATCH_WORKERS = 4;
+  /** default interval in milliseconds at which the metadata DB is written to disk */
+  public static final long DEFAULT_METADATA_DB_FLUSH_INTERVAL = 1000;
+  /** default time in milliseconds the events of an added block are collected */
+  public static final long DEFAULT_BLOCK_BATCH_LINGER = 50;
+  /** default number of workers reading the backfilled blocks */
+  public static final int DEFAULT_BACKFILL_WORKERS = 4;
+  /** default size in bytes of a spill journal segment */
+  public static final int DEFAULT_SPILL_JOURNAL_SEGMENT_SIZE = 64 * 1024 * 1024;
+  /** default maximum size in bytes of the spill journal */
+  public static final long DEFAULT_SPILL_JOURNAL_MAX_SIZE = 1024L * 1024 * 1024;
+  /** default window in milliseconds within which the sync status changes are conflated, none */
+  public static final long DEFAULT_SYNC_STATUS_CONFLATION_WINDOW = 0;
+  /** default share of the transaction pool events published */
+  public static final double DEFAULT_MEMPOOL_SAMPLE_RATE = 1.0;
+
   /** whether this config is enabled */
   protected boolean enabled = false;
   /** topic for this config */
@@ -44,6 +67,8 @@ public class CommonConfiguration implements EventStreamConfiguration {
   protected String brokerUrl = "127.0.0.1:9092";
   /** whether metadata DB is enabled */
   protected boolean metadataDBEnabled = true;
+  /** interval in milliseconds at which the metadata DB is written to disk */
+  protected long metadataDBFlushInterval = DEFAULT_METADATA_DB_FLUSH_INTERVAL;
   /** list of addresses to filter on */
   protected List<Address> logFilterAddresses = new ArrayList<>();
   /** wrapped filter topics */
@@ -52,8 +77,51 @@ public class CommonConfiguration implements EventStreamConfiguration {
   protected Optional<List<DomainObjectType>> enabledTopics = Optional.empty();
   /** file for the event schemas */
   protected File eventSchemasFile;
+  /** maximum number of events waiting to be dispatched */
+  protected int dispatchQueueCapacity = DEFAULT_DISPATCH_QUEUE_CAPACITY;
+  /** number of workers dispatching events */
+  protected int dispatchWorkers = DEFAULT_DISPATCH_WORKERS;
+  /** policy applied when the dispatch queue is full */
+  protected OverflowPolicy dispatchOverflowPolicy = OverflowPolicy.BLOCK;
+  /** key within which events are published in order */
+  protected OrderingKey dispatchOrderingKey = OrderingKey.NONE;
+  /** time in milliseconds the events of an added block are collected */
+  protected long blockBatchLinger = DEFAULT_BLOCK_BATCH_LINGER;
+  /** first block replayed by the backfill */
+  protected Long backfillFromBlock;
+  /** last block replayed by the backfill */
+  protected Long backfillToBlock;
+  /** whether the backfill resumes after the delivery checkpoint */
+  protected boolean backfillFromCheckpoint = false;
+  /** number of workers reading the backfilled blocks */
+  protected int backfillWorkers = DEFAULT_BACKFILL_WORKERS;
+  /** maximum number of blocks replayed per second by the backfill */
+  protected int backfillBlocksPerSecond = 0;
+  /** class of the source reading the backfilled blocks */
+  protected String backfillBlockSourceClass;
+  /** directory of the spill journal */
+  protected File spillJournalDirectory;
+  /** size in bytes of a spill journal segment */
+  protected int spillJournalSegmentSize = DEFAULT_SPILL_JOURNAL_SEGMENT_SIZE;
+  /** maximum size in bytes of the spill journal */
+  protected long spillJournalMaxSize = DEFAULT_SPILL_JOURNAL_MAX_SIZE;
+  /** window in milliseconds within which the sync status changes are conflated */
+  protected long syncStatusConflationWindow = DEFAULT_SYNC_STATUS_CONFLATION_WINDOW;
+  /** share of the transaction pool events published */
+  protected double mempoolSampleRate = DEFAULT_MEMPOOL_SAMPLE_RATE;
+  /** number of recently published transactions remembered per transaction pool event type */
+  protected int mempoolDedupCapacity;
+  /** maximum number of transaction added events published per second */
+  protected int mempoolTransactionAddedRateLimit;
+  /** maximum number of transaction dropped events published per second */
+  protected int mempoolTransactionDroppedRateLimit;
+  /** how the event identifiers are generated */
+  protected EventIdStrategy eventIdStrategy = EventIdStrategy.RANDOM;
+  /** identifier of this node, written in the time-ordered event identifiers */
+  protected int eventIdNodeId;
 
-  private EventSchemas eventSchemas = EventSchemas.empty();
+  private final AtomicReference<EventSchemas> eventSchemas =
+      new AtomicReference<>(EventSchemas.empty());
 
   @Override
   public String getBrokerUrl() {
@@ -75,6 +143,11 @@ public class CommonConfiguration implements EventStreamConfiguration {
     return metadataDBEnabled;
   }
 
+  @Override
+  public long getMetadataDBFlushInterval() {
+    return metadataDBFlushInterval;
+  }
+
   @Override
   public List<DomainObjectType> getEnabledTopics() {
     return enabledTopics.orElse(Arrays.asList(DomainObjectType.values()));
@@ -92,7 +165,7 @@ public class CommonConfiguration implements EventStreamConfiguration {
 
   @Override
   public EventSchemas getEventSchemas() {
-    return eventSchemas;
+    return eventSchemas.get();
   }
 
   @Override
@@ -102,18 +175,121 @@ public class CommonConfiguration implements EventStreamConfiguration {
 
   @Override
   public void loadEventSchemas() {
-    this.eventSchemas =
-        Optional.ofNullable(getEventSchemasFile())
-            .map(
-                eventSchemasFile -> {
-                  try {
-                    return EventSchemas.from(getEventSchemasFile());
-                  } catch (IOException e) {
-                    LOGGER.error(e);
-                    return eventSchemas;
-                  }
-                })
-            .orElse(eventSchemas);
+    final File file = getEventSchemasFile();
+    if (file == null) {
+      return;
+    }
+    // the current schemas are used until the new ones are compiled, and kept if they fail to parse
+    try {
+      eventSchemas.set(EventSchemas.from(file));
+    } catch (IOException e) {
+      LOGGER.error(e);
+    }
+  }
+
+  @Override
+  public int getDispatchQueueCapacity() {
+    return dispatchQueueCapacity;
+  }
+
+  @Override
+  public int getDispatchWorkers() {
+    return dispatchWorkers;
+  }
+
+  @Override
+  public OverflowPolicy getDispatchOverflowPolicy() {
+    return dispatchOverflowPolicy;
+  }
+
+  @Override
+  public OrderingKey getDispatchOrderingKey() {
+    return dispatchOrderingKey;
+  }
+
+  @Override
+  public long getBlockBatchLinger() {
+    return blockBatchLinger;
+  }
+
+  @Override
+  public Optional<Long> getBackfillFromBlock() {
+    return Optional.ofNullable(backfillFromBlock);
+  }
+
+  @Override
+  public Optional<Long> getBackfillToBlock() {
+    return Optional.ofNullable(backfillToBlock);
+  }
+
+  @Override
+  public boolean isBackfillFromCheckpoint() {
+    return backfillFromCheckpoint;
+  }
+
+  @Override
+  public int getBackfillWorkers() {
+    return backfillWorkers;
+  }
+
+  @Override
+  public int getBackfillBlocksPerSecond() {
+    return backfillBlocksPerSecond;
+  }
+
+  @Override
+  public Optional<String> getBackfillBlockSourceClass() {
+    return Optional.ofNullable(backfillBlockSourceClass);
+  }
+
+  @Override
+  public File getSpillJournalDirectory() {
+    return spillJournalDirectory;
+  }
+
+  @Override
+  public int getSpillJournalSegmentSize() {
+    return spillJournalSegmentSize;
+  }
+
+  @Override
+  public long getSpillJournalMaxSize() {
+    return spillJournalMaxSize;
+  }
+
+  @Override
+  public long getSyncStatusConflationWindow() {
+    return syncStatusConflationWindow;
+  }
+
+  @Override
+  public double getMempoolSampleRate() {
+    return mempoolSampleRate;
+  }
+
+  @Override
+  public int getMempoolDedupCapacity() {
+    return mempoolDedupCapacity;
+  }
+
+  @Override
+  public int getMempoolTransactionAddedRateLimit() {
+    return mempoolTransactionAddedRateLimit;
+  }
+
+  @Override
+  public int getMempoolTransactionDroppedRateLimit() {
+    return mempoolTransactionDroppedRateLimit;
+  }
+
+  @Override
+  public EventIdStrategy getEventIdStrategy() {
+    return eventIdStrategy;
+  }
+
+  @Override
+  public int getEventIdNodeId() {
+    return eventIdNodeId;
   }
 
   /**
@@ -152,6 +328,16 @@ public class CommonConfiguration implements EventStreamConfiguration {
     this.metadataDBEnabled = metadataDBEnabled;
   }
 
+  /**
+   * setter for metadata DB flush interval
+   *
+   * @param metadataDBFlushInterval the interval in milliseconds at which the metadata DB is written
+   *     to disk, zero to write every update
+   */
+  public void setMetadataDBFlushInterval(final long metadataDBFlushInterval) {
+    this.metadataDBFlushInterval = metadataDBFlushInterval;
+  }
+
   /**
    * setter for enabled topics
    *
@@ -187,4 +373,200 @@ public class CommonConfiguration implements EventStreamConfiguration {
   public void setEventSchemasFile(final File eventSchemasFile) {
     this.eventSchemasFile = eventSchemasFile;
   }
+
+  /**
+   * setter for dispatch queue capacity
+   *
+   * @param dispatchQueueCapacity the maximum number of events waiting to be dispatched
+   */
+  public void setDispatchQueueCapacity(final int dispatchQueueCapacity) {
+    this.dispatchQueueCapacity = dispatchQueueCapacity;
+  }
+
+  /**
+   * setter for dispatch workers
+   *
+   * @param dispatchWorkers the number of workers dispatching events
+   */
+  public void setDispatchWorkers(final int dispatchWorkers) {
+    this.dispatchWorkers = dispatchWorkers;
+  }
+
+  /**
+   * setter for dispatch overflow policy
+   *
+   * @param dispatchOverflowPolicy the policy applied when the dispatch queue is full
+   */
+  public void setDispatchOverflowPolicy(final OverflowPolicy dispatchOverflowPolicy) {
+    this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+  }
+
+  /**
+   * setter for dispatch ordering key
+   *
+   * @param dispatchOrderingKey the key within which events are published in order
+   */
+  public void setDispatchOrderingKey(final OrderingKey dispatchOrderingKey) {
+    this.dispatchOrderingKey = dispatchOrderingKey;
+  }
+
+  /**
+   * setter for block batch linger
+   *
+   * @param blockBatchLinger the time in milliseconds the events of an added block are collected,
+   *     zero to publish every event on its own
+   */
+  public void setBlockBatchLinger(final long blockBatchLinger) {
+    this.blockBatchLinger = blockBatchLinger;
+  }
+
+  /**
+   * setter for backfill from block
+   *
+   * @param backfillFromBlock the first block replayed by the backfill
+   */
+  public void setBackfillFromBlock(final Long backfillFromBlock) {
+    this.backfillFromBlock = backfillFromBlock;
+  }
+
+  /**
+   * setter for backfill to block
+   *
+   * @param backfillToBlock the last block replayed by the backfill, null for the chain head
+   */
+  public void setBackfillToBlock(final Long backfillToBlock) {
+    this.backfillToBlock = backfillToBlock;
+  }
+
+  /**
+   * setter for backfill from checkpoint
+   *
+   * @param backfillFromCheckpoint whether the backfill resumes after the delivery checkpoint
+   */
+  public void setBackfillFromCheckpoint(final boolean backfillFromCheckpoint) {
+    this.backfillFromCheckpoint = backfillFromCheckpoint;
+  }
+
+  /**
+   * setter for backfill workers
+   *
+   * @param backfillWorkers the number of workers reading the backfilled blocks
+   */
+  public void setBackfillWorkers(final int backfillWorkers) {
+    this.backfillWorkers = backfillWorkers;
+  }
+
+  /**
+   * setter for backfill blocks per second
+   *
+   * @param backfillBlocksPerSecond the maximum number of blocks replayed per second, zero for no
+   *     limit
+   */
+  public void setBackfillBlocksPerSecond(final int backfillBlocksPerSecond) {
+    this.backfillBlocksPerSecond = backfillBlocksPerSecond;
+  }
+
+  /**
+   * setter for backfill block source class
+   *
+   * @param backfillBlockSourceClass the class of the source reading the backfilled blocks
+   */
+  public void setBackfillBlockSourceClass(final String backfillBlockSourceClass) {
+    this.backfillBlockSourceClass = backfillBlockSourceClass;
+  }
+
+  /**
+   * setter for spill journal directory
+   *
+   * @param spillJournalDirectory the directory of the spill journal
+   */
+  public void setSpillJournalDirectory(final File spillJournalDirectory) {
+    this.spillJournalDirectory = spillJournalDirectory;
+  }
+
+  /**
+   * setter for spill journal segment size
+   *
+   * @param spillJournalSegmentSize the size in bytes of a spill journal segment
+   */
+  public void setSpillJournalSegmentSize(final int spillJournalSegmentSize) {
+    this.spillJournalSegmentSize = spillJournalSegmentSize;
+  }
+
+  /**
+   * setter for spill journal max size
+   *
+   * @param spillJournalMaxSize the maximum size in bytes of the spill journal
+   */
+  public void setSpillJournalMaxSize(final long spillJournalMaxSize) {
+    this.spillJournalMaxSize = spillJournalMaxSize;
+  }
+
+  /**
+   * setter for sync status conflation window
+   *
+   * @param syncStatusConflationWindow the window in milliseconds within which the sync status
+   *     changes are conflated, zero to publish every change
+   */
+  public void setSyncStatusConflationWindow(final long syncStatusConflationWindow) {
+    this.syncStatusConflationWindow = syncStatusConflationWindow;
+  }
+
+  /**
+   * setter for mempool sample rate
+   *
+   * @param mempoolSampleRate the share of the transaction pool events published, between 0 and 1,
+   *     zero to publish none and one to publish every transaction
+   */
+  public void setMempoolSampleRate(final double mempoolSampleRate) {
+    this.mempoolSampleRate = mempoolSampleRate;
+  }
+
+  /**
+   * setter for mempool dedup capacity
+   *
+   * @param mempoolDedupCapacity the number of recently published transactions remembered per
+   *     transaction pool event type, zero to disable deduplication
+   */
+  public void setMempoolDedupCapacity(final int mempoolDedupCapacity) {
+    this.mempoolDedupCapacity = mempoolDedupCapacity;
+  }
+
+  /**
+   * setter for mempool transaction added rate limit
+   *
+   * @param mempoolTransactionAddedRateLimit the maximum number of transaction added events
+   *     published per second, zero for no limit
+   */
+  public void setMempoolTransactionAddedRateLimit(final int mempoolTransactionAddedRateLimit) {
+    this.mempoolTransactionAddedRateLimit = mempoolTransactionAddedRateLimit;
+  }
+
+  /**
+   * setter for mempool transaction dropped rate limit
+   *
+   * @param mempoolTransactionDroppedRateLimit the maximum number of transaction dropped events
+   *     published per second, zero for no limit
+   */
+  public void setMempoolTransactionDroppedRateLimit(final int mempoolTransactionDroppedRateLimit) {
+    this.mempoolTransactionDroppedRateLimit = mempoolTransactionDroppedRateLimit;
+  }
+
+  /**
+   * setter for event id strategy
+   *
+   * @param eventIdStrategy how the event identifiers are generated
+   */
+  public void setEventIdStrategy(final EventIdStrategy eventIdStrategy) {
+    this.eventIdStrategy = eventIdStrategy;
+  }
+
+  /**
+   * setter for event id node id
+   *
+   * @param eventIdNodeId the identifier of this node, between 0 and 65535
+   */
+  public void setEventIdNodeId(final int eventIdNodeId) {
+    this.eventIdNodeId = eventIdNodeId;
+  }
 }
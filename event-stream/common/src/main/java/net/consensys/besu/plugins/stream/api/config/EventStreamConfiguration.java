@@ -16,10 +16,14 @@ package net.consensys.besu.plugins.stream.api.config;
 
 import net.consensys.besu.plugins.stream.core.config.EventSchemas;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.stream.model.EventIdStrategy;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+import net.consensys.besu.plugins.stream.model.OverflowPolicy;
 import net.consensys.besu.plugins.types.Address;
 
 import java.io.File;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.tuweni.bytes.Bytes32;
 
@@ -54,6 +58,13 @@ public interface EventStreamConfiguration {
    */
   boolean isMetadataDBEnabled();
 
+  /**
+   * return the interval at which the metadata DB is written to disk
+   *
+   * @return the metadata DB flush interval in milliseconds
+   */
+  long getMetadataDBFlushInterval();
+
   /**
    * return the enabled topics
    *
@@ -89,6 +100,160 @@ public interface EventStreamConfiguration {
    */
   File getEventSchemasFile();
 
-  /** load the schemas */
+  /**
+   * load the schemas, replacing the ones returned by {@link #getEventSchemas()} at once when they
+   * are loaded
+   */
   void loadEventSchemas();
+
+  /**
+   * return the maximum number of events waiting to be dispatched
+   *
+   * @return the dispatch queue capacity
+   */
+  int getDispatchQueueCapacity();
+
+  /**
+   * return the number of workers dispatching events
+   *
+   * @return the dispatch worker count
+   */
+  int getDispatchWorkers();
+
+  /**
+   * return the policy applied when the dispatch queue is full
+   *
+   * @return the dispatch overflow policy
+   */
+  OverflowPolicy getDispatchOverflowPolicy();
+
+  /**
+   * return the key within which events are published in order
+   *
+   * @return the dispatch ordering key
+   */
+  OrderingKey getDispatchOrderingKey();
+
+  /**
+   * return how long the events of an added block are collected before being published together
+   *
+   * @return the block batch linger in milliseconds, zero to publish every event on its own
+   */
+  long getBlockBatchLinger();
+
+  /**
+   * return the first block replayed by the backfill
+   *
+   * @return the first backfilled block, empty to not backfill unless resuming from the checkpoint
+   */
+  Optional<Long> getBackfillFromBlock();
+
+  /**
+   * return the last block replayed by the backfill
+   *
+   * @return the last backfilled block, empty to backfill up to the chain head
+   */
+  Optional<Long> getBackfillToBlock();
+
+  /**
+   * return whether the backfill resumes after the delivery checkpoint on start-up
+   *
+   * @return whether to backfill from the checkpoint
+   */
+  boolean isBackfillFromCheckpoint();
+
+  /**
+   * return the number of workers reading the backfilled blocks
+   *
+   * @return the backfill worker count
+   */
+  int getBackfillWorkers();
+
+  /**
+   * return the maximum number of blocks replayed per second by the backfill
+   *
+   * @return the backfill rate, zero for no limit
+   */
+  int getBackfillBlocksPerSecond();
+
+  /**
+   * return the class of the {@link net.consensys.besu.plugins.stream.api.backfill.BlockSource}
+   * reading the backfilled blocks
+   *
+   * @return the block source class name
+   */
+  Optional<String> getBackfillBlockSourceClass();
+
+  /**
+   * return the directory of the journal events are spilled to when the dispatch queue overflows
+   *
+   * @return the spill journal directory, null for the Besu data directory
+   */
+  File getSpillJournalDirectory();
+
+  /**
+   * return the size of a spill journal segment file
+   *
+   * @return the segment size in bytes
+   */
+  int getSpillJournalSegmentSize();
+
+  /**
+   * return the maximum size of the spill journal, events being dropped once it is reached
+   *
+   * @return the maximum size in bytes
+   */
+  long getSpillJournalMaxSize();
+
+  /**
+   * return the window within which the sync status changes are conflated to the newest one
+   *
+   * @return the conflation window in milliseconds, zero to publish every change
+   */
+  long getSyncStatusConflationWindow();
+
+  /**
+   * return the share of the transaction pool events published, chosen by transaction hash
+   *
+   * @return the sample rate, between 0 and 1, zero to publish none and one to publish every
+   *     transaction
+   */
+  double getMempoolSampleRate();
+
+  /**
+   * return the number of recently published transactions remembered to skip their duplicate
+   * transaction pool events
+   *
+   * @return the number of transaction hashes remembered per event type, zero to disable
+   *     deduplication
+   */
+  int getMempoolDedupCapacity();
+
+  /**
+   * return the maximum number of transaction added events published per second
+   *
+   * @return the rate limit, zero for no limit
+   */
+  int getMempoolTransactionAddedRateLimit();
+
+  /**
+   * return the maximum number of transaction dropped events published per second
+   *
+   * @return the rate limit, zero for no limit
+   */
+  int getMempoolTransactionDroppedRateLimit();
+
+  /**
+   * return how the event identifiers are generated
+   *
+   * @return the event id strategy
+   */
+  EventIdStrategy getEventIdStrategy();
+
+  /**
+   * return the identifier of this node, written in the time-ordered event identifiers
+   *
+   * @return the node id, between 0 and 65535
+   */
+  int getEventIdNodeId();
 }
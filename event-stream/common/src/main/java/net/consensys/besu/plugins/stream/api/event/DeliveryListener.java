@@ -0,0 +1,67 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.api.event;
+
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+
+/** Listener notified of the delivery of the published events */
+public interface DeliveryListener {
+  /** listener ignoring every delivery */
+  DeliveryListener NOOP =
+      new DeliveryListener() {
+        @Override
+        public void onSent(final String topic, final Event event) {}
+
+        @Override
+        public void onAcknowledged(final String topic, final Event event) {}
+
+        @Override
+        public void onFailed(
+            final String topic,
+            final DomainObjectType domainObjectType,
+            final Event event,
+            final Exception exception) {}
+      };
+
+  /**
+   * called before the event is handed over to the broker
+   *
+   * @param topic the topic the event is published to
+   * @param event the event
+   */
+  void onSent(final String topic, final Event event);
+
+  /**
+   * called once the broker acknowledged the event
+   *
+   * @param topic the topic the event is published to
+   * @param event the event
+   */
+  void onAcknowledged(final String topic, final Event event);
+
+  /**
+   * called when the event could not be delivered
+   *
+   * @param topic the topic the event is published to
+   * @param domainObjectType the domain object type of the event, to publish it again
+   * @param event the event
+   * @param exception the cause of the failure
+   */
+  void onFailed(
+      final String topic,
+      final DomainObjectType domainObjectType,
+      final Event event,
+      final Exception exception);
+}
@@ -18,6 +18,7 @@ import static java.nio.ByteBuffer.wrap;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.nio.ByteBuffer;
+import java.util.Optional;
 
 /**
  * This interface represents any Ethereum client event.
@@ -33,6 +34,24 @@ public interface Event {
    */
   String type();
 
+  /**
+   * The unique identifier of the event.
+   *
+   * @return the identifier of the event, empty by default
+   */
+  default Optional<String> uuid() {
+    return Optional.empty();
+  }
+
+  /**
+   * What the event is about, used to key and route it.
+   *
+   * @return the metadata of the event, empty by default
+   */
+  default EventMetadata metadata() {
+    return EventMetadata.empty();
+  }
+
   /**
    * Returns the string representation of the event.
    *
@@ -41,7 +60,9 @@ public interface Event {
   String string();
 
   /**
-   * Returns a byte array corresponding to the UTF-8 string representation of the event.
+   * Returns a byte array corresponding to the UTF-8 string representation of the event. Publishers
+   * send these bytes as is, so events holding their encoded form should return it rather than
+   * encoding {@link #string()} again.
    *
    * @return A byte array corresponding to the UTF-8 string representation of the event.
    */
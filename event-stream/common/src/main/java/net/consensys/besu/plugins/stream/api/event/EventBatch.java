@@ -0,0 +1,126 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.api.event;
+
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Events published together, such as the block, reverted transactions and logs derived from one
+ * added block. The entries keep the order in which they were added.
+ */
+public final class EventBatch {
+  private final List<Entry> entries;
+
+  private EventBatch(final List<Entry> entries) {
+    this.entries = Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * create a builder for a batch
+   *
+   * @return an empty builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * getter for the entries
+   *
+   * @return the events of the batch, in order
+   */
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  /**
+   * is the batch empty
+   *
+   * @return whether the batch has no event
+   */
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  /**
+   * getter for the size
+   *
+   * @return the number of events in the batch
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /** An event of a batch along with its domain object type */
+  public static final class Entry {
+    private final DomainObjectType domainObjectType;
+    private final Event event;
+
+    private Entry(final DomainObjectType domainObjectType, final Event event) {
+      this.domainObjectType = domainObjectType;
+      this.event = event;
+    }
+
+    /**
+     * getter for the domain object type
+     *
+     * @return the type of event
+     */
+    public DomainObjectType getDomainObjectType() {
+      return domainObjectType;
+    }
+
+    /**
+     * getter for the event
+     *
+     * @return the event to publish
+     */
+    public Event getEvent() {
+      return event;
+    }
+  }
+
+  /** Builder for {@link EventBatch} */
+  public static final class Builder {
+    private final List<Entry> entries = new ArrayList<>();
+
+    private Builder() {}
+
+    /**
+     * add an event to the batch
+     *
+     * @param domainObjectType the type of event
+     * @param event the event to publish
+     * @return this builder
+     */
+    public Builder add(final DomainObjectType domainObjectType, final Event event) {
+      entries.add(new Entry(domainObjectType, event));
+      return this;
+    }
+
+    /**
+     * build the batch
+     *
+     * @return the batch of the events added so far
+     */
+    public EventBatch build() {
+      return new EventBatch(new ArrayList<>(entries));
+    }
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.api.event;
+
+/** Generates the identifier written in the {@code uuid} field of each event */
+@FunctionalInterface
+public interface EventIdGenerator {
+  /**
+   * generate the identifier of an event, called concurrently by the threads creating events
+   *
+   * @param type the event type
+   * @param metadata what the event is about
+   * @return the event identifier
+   */
+  String generate(final String type, final EventMetadata metadata);
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.api.event;
+
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * What an event is about: the block, transaction, sender and contract it relates to, and the schema
+ * a log was decoded with. Publishers use it to key and route records without parsing the event
+ * payload.
+ */
+public final class EventMetadata {
+  private static final EventMetadata EMPTY = builder().build();
+
+  private final Optional<Long> blockNumber;
+  private final Optional<Bytes> blockHash;
+  private final Optional<Bytes> transactionHash;
+  private final Optional<Bytes> sender;
+  private final Optional<Bytes> contractAddress;
+  private final Optional<String> schemaId;
+  private final Optional<Integer> logIndex;
+  private final boolean removed;
+
+  private EventMetadata(final Builder builder) {
+    this.blockNumber = builder.blockNumber;
+    this.blockHash = builder.blockHash;
+    this.transactionHash = builder.transactionHash;
+    this.sender = builder.sender;
+    this.contractAddress = builder.contractAddress;
+    this.schemaId = builder.schemaId;
+    this.logIndex = builder.logIndex;
+    this.removed = builder.removed;
+  }
+
+  /**
+   * metadata of an event that relates to nothing in particular
+   *
+   * @return the empty metadata
+   */
+  public static EventMetadata empty() {
+    return EMPTY;
+  }
+
+  /**
+   * create a builder for metadata
+   *
+   * @return an empty builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * getter for the block number
+   *
+   * @return the number of the block the event relates to
+   */
+  public Optional<Long> getBlockNumber() {
+    return blockNumber;
+  }
+
+  /**
+   * getter for the block hash
+   *
+   * @return the hash of the block the event relates to
+   */
+  public Optional<Bytes> getBlockHash() {
+    return blockHash;
+  }
+
+  /**
+   * getter for the transaction hash
+   *
+   * @return the hash of the transaction the event relates to
+   */
+  public Optional<Bytes> getTransactionHash() {
+    return transactionHash;
+  }
+
+  /**
+   * getter for the sender
+   *
+   * @return the address of the transaction sender
+   */
+  public Optional<Bytes> getSender() {
+    return sender;
+  }
+
+  /**
+   * getter for the contract address
+   *
+   * @return the address of the contract that emitted the log
+   */
+  public Optional<Bytes> getContractAddress() {
+    return contractAddress;
+  }
+
+  /**
+   * getter for the schema id
+   *
+   * @return the identifier of the schema the log was decoded with
+   */
+  public Optional<String> getSchemaId() {
+    return schemaId;
+  }
+
+  /**
+   * getter for the log index
+   *
+   * @return the index of the log in its block
+   */
+  public Optional<Integer> getLogIndex() {
+    return logIndex;
+  }
+
+  /**
+   * whether the event reports a log removed by a reorg
+   *
+   * @return true when the log was removed
+   */
+  public boolean isRemoved() {
+    return removed;
+  }
+
+  /** Builder for {@link EventMetadata}, where null values are left absent */
+  public static final class Builder {
+    private Optional<Long> blockNumber = Optional.empty();
+    private Optional<Bytes> blockHash = Optional.empty();
+    private Optional<Bytes> transactionHash = Optional.empty();
+    private Optional<Bytes> sender = Optional.empty();
+    private Optional<Bytes> contractAddress = Optional.empty();
+    private Optional<String> schemaId = Optional.empty();
+    private Optional<Integer> logIndex = Optional.empty();
+    private boolean removed;
+
+    private Builder() {}
+
+    /**
+     * setter for the block number
+     *
+     * @param blockNumber the number of the block the event relates to
+     * @return this builder
+     */
+    public Builder blockNumber(final long blockNumber) {
+      this.blockNumber = Optional.of(blockNumber);
+      return this;
+    }
+
+    /**
+     * setter for the block hash
+     *
+     * @param blockHash the hash of the block the event relates to
+     * @return this builder
+     */
+    public Builder blockHash(final Bytes blockHash) {
+      this.blockHash = Optional.ofNullable(blockHash);
+      return this;
+    }
+
+    /**
+     * setter for the transaction hash
+     *
+     * @param transactionHash the hash of the transaction the event relates to
+     * @return this builder
+     */
+    public Builder transactionHash(final Bytes transactionHash) {
+      this.transactionHash = Optional.ofNullable(transactionHash);
+      return this;
+    }
+
+    /**
+     * setter for the sender
+     *
+     * @param sender the address of the transaction sender
+     * @return this builder
+     */
+    public Builder sender(final Bytes sender) {
+      this.sender = Optional.ofNullable(sender);
+      return this;
+    }
+
+    /**
+     * setter for the contract address
+     *
+     * @param contractAddress the address of the contract that emitted the log
+     * @return this builder
+     */
+    public Builder contractAddress(final Bytes contractAddress) {
+      this.contractAddress = Optional.ofNullable(contractAddress);
+      return this;
+    }
+
+    /**
+     * setter for the schema id
+     *
+     * @param schemaId the identifier of the schema the log was decoded with
+     * @return this builder
+     */
+    public Builder schemaId(final Optional<String> schemaId) {
+      this.schemaId = schemaId;
+      return this;
+    }
+
+    /**
+     * setter for the log index
+     *
+     * @param logIndex the index of the log in its block
+     * @return this builder
+     */
+    public Builder logIndex(final int logIndex) {
+      this.logIndex = Optional.of(logIndex);
+      return this;
+    }
+
+    /**
+     * setter for the removed flag
+     *
+     * @param removed whether the log was removed by a reorg
+     * @return this builder
+     */
+    public Builder removed(final boolean removed) {
+      this.removed = removed;
+      return this;
+    }
+
+    /**
+     * build the metadata
+     *
+     * @return the metadata
+     */
+    public EventMetadata build() {
+      return new EventMetadata(this);
+    }
+  }
+}
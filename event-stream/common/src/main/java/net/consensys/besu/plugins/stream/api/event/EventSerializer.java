@@ -14,8 +14,9 @@
  */
 package net.consensys.besu.plugins.stream.api.event;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
 
 /**
  * Functional Interface for event serializer
@@ -25,11 +26,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @FunctionalInterface
 public interface EventSerializer<T> {
   /**
-   * serialize the given event to JSON
+   * serialize the given event as a single JSON value written to the generator
    *
-   * @param mapper the mapper
+   * @param generator the generator to write to
    * @param payload the payload
-   * @return the JSON node representing the event
+   * @throws IOException when the generator fails to write
    */
-  JsonNode serialize(ObjectMapper mapper, T payload);
+  void serialize(JsonGenerator generator, T payload) throws IOException;
 }
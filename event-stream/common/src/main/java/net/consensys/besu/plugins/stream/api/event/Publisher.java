@@ -30,4 +30,31 @@ public interface Publisher {
       final DomainObjectType domainObjectType,
       final TopicResolver topicResolver,
       final Event event);
+
+  /**
+   * publish the given events together, in order. The default implementation publishes them one by
+   * one.
+   *
+   * @param topicResolver the topic resolver for the events
+   * @param batch the events to publish
+   */
+  default void publishBatch(final TopicResolver topicResolver, final EventBatch batch) {
+    batch
+        .getEntries()
+        .forEach(entry -> publish(entry.getDomainObjectType(), topicResolver, entry.getEvent()));
+  }
+
+  /**
+   * set the listener notified of the delivery of the published events. The default implementation
+   * does not report deliveries.
+   *
+   * @param deliveryListener the listener
+   */
+  default void setDeliveryListener(final DeliveryListener deliveryListener) {}
+
+  /**
+   * release the resources of the publisher, once no more event is published. The default
+   * implementation does nothing.
+   */
+  default void close() {}
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.api.backfill.BlockSource;
+import net.consensys.besu.plugins.stream.api.backfill.HistoricalBlock;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Re-publishes a range of historical blocks through the live listener.
+ *
+ * <p>Blocks are read from the {@link BlockSource} by a pool of workers, a few blocks ahead of the
+ * one being replayed, and replayed in block order on the backfill thread. The replay is throttled
+ * to a maximum number of blocks per second, and backpressure from the broker is applied by the
+ * dispatcher the events are handed over to. The backfill stops at the first block that cannot be
+ * read, the delivery checkpoint telling where to resume from.
+ */
+final class BackfillEngine {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int READ_AHEAD_PER_WORKER = 2;
+  private static final long PROGRESS_LOG_INTERVAL = 10_000;
+
+  private final BlockSource source;
+  private final Consumer<HistoricalBlock> sink;
+  private final ExecutorService workers;
+  private final int readAhead;
+  private final long nanosPerBlock;
+  private Thread thread;
+
+  @VisibleForTesting
+  BackfillEngine(
+      final BlockSource source,
+      final Consumer<HistoricalBlock> sink,
+      final int workerCount,
+      final int blocksPerSecond) {
+    this.source = source;
+    this.sink = sink;
+    this.workers =
+        Executors.newFixedThreadPool(
+            workerCount,
+            new ThreadFactoryBuilder()
+                .setNameFormat("event-stream-backfill-worker-%d")
+                .setDaemon(true)
+                .build());
+    this.readAhead = workerCount * READ_AHEAD_PER_WORKER;
+    this.nanosPerBlock = blocksPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / blocksPerSecond : 0;
+  }
+
+  /**
+   * Load the block source from its class name.
+   *
+   * @param className the class implementing {@link BlockSource}
+   * @return the block source
+   */
+  static BlockSource loadSource(final String className) {
+    try {
+      return Class.forName(className, true, BlockSource.class.getClassLoader())
+          .asSubclass(BlockSource.class)
+          .getDeclaredConstructor()
+          .newInstance();
+    } catch (final ReflectiveOperationException | ClassCastException e) {
+      throw new IllegalArgumentException("Cannot instantiate block source class " + className, e);
+    }
+  }
+
+  /**
+   * Replay the blocks on a background thread.
+   *
+   * @param fromBlock the first block to replay
+   * @param toBlock the last block to replay, empty for the chain head
+   */
+  synchronized void start(final long fromBlock, final Optional<Long> toBlock) {
+    thread =
+        new Thread(
+            () -> run(fromBlock, toBlock.orElseGet(source::getChainHeadBlockNumber)),
+            "event-stream-backfill");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Stop replaying blocks, waiting for the block being replayed. */
+  synchronized void close() {
+    workers.shutdownNow();
+    if (thread != null) {
+      thread.interrupt();
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Replay the blocks on the calling thread.
+   *
+   * @param fromBlock the first block to replay
+   * @param toBlock the last block to replay
+   * @return the number of replayed blocks
+   */
+  @VisibleForTesting
+  long run(final long fromBlock, final long toBlock) {
+    LOG.info("Backfilling blocks {} to {}", fromBlock, toBlock);
+    final Deque<Future<Optional<HistoricalBlock>>> pending = new ArrayDeque<>(readAhead);
+    long nextBlock = fromBlock;
+    long replayed = 0;
+    long nextSlot = System.nanoTime();
+    try {
+      while (nextBlock <= toBlock || !pending.isEmpty()) {
+        while (nextBlock <= toBlock && pending.size() < readAhead) {
+          final long blockNumber = nextBlock++;
+          pending.add(workers.submit(() -> source.getBlock(blockNumber)));
+        }
+        final long blockNumber = nextBlock - pending.size();
+        final Optional<HistoricalBlock> block = pending.poll().get();
+        if (block.isEmpty()) {
+          LOG.warn("Backfill stopped at block {} which is not known.", blockNumber);
+          break;
+        }
+        nextSlot = throttle(nextSlot);
+        sink.accept(block.get());
+        if (++replayed % PROGRESS_LOG_INTERVAL == 0) {
+          LOG.info("Backfilled {} blocks, up to block {}", replayed, blockNumber);
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOG.info("Backfill interrupted after {} blocks", replayed);
+    } catch (final ExecutionException e) {
+      LOG.error("Backfill stopped, cannot read block {}.", nextBlock - pending.size() - 1, e);
+    } finally {
+      pending.forEach(future -> future.cancel(true));
+    }
+    LOG.info("Backfilled {} blocks from block {}", replayed, fromBlock);
+    return replayed;
+  }
+
+  private long throttle(final long nextSlot) throws InterruptedException {
+    if (nanosPerBlock == 0) {
+      return nextSlot;
+    }
+    final long now = System.nanoTime();
+    if (nextSlot > now) {
+      TimeUnit.NANOSECONDS.sleep(nextSlot - now);
+      return nextSlot + nanosPerBlock;
+    }
+    return now + nanosPerBlock;
+  }
+}
@@ -14,31 +14,43 @@
  */
 package net.consensys.besu.plugins.stream.core;
 
-import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.stream.Collectors.toUnmodifiableList;
 
 import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
 import net.consensys.besu.plugins.stream.api.errors.SerializationException;
 import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
+import net.consensys.besu.plugins.stream.api.event.EventIdGenerator;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
 import net.consensys.besu.plugins.stream.api.event.EventSerializer;
 import net.consensys.besu.plugins.stream.api.event.Publisher;
 import net.consensys.besu.plugins.stream.api.event.TopicResolver;
 import net.consensys.besu.plugins.stream.model.DefaultEvent;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.stream.model.EventIdStrategy;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+import net.consensys.besu.plugins.stream.model.OverflowPolicy;
 import net.consensys.besu.plugins.stream.model.payload.BlockPayload;
 import net.consensys.besu.plugins.stream.model.payload.TransactionPayload;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.primitives.Longs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.data.AddedBlockContext;
 import org.hyperledger.besu.plugin.data.BlockHeader;
@@ -49,6 +61,9 @@ import org.hyperledger.besu.plugin.data.SyncStatus;
 import org.hyperledger.besu.plugin.data.Transaction;
 import org.hyperledger.besu.plugin.data.TransactionReceipt;
 import org.hyperledger.besu.plugin.services.BesuEvents;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer.TimingContext;
 import org.web3j.abi.FunctionReturnDecoder;
 import org.web3j.abi.TypeReference;
 import org.web3j.abi.datatypes.AbiTypes;
@@ -58,6 +73,13 @@ import org.web3j.abi.datatypes.Type;
  * This class listens events from the Ethereum client and delegates event handling to specific
  * listeners.
  *
+ * <p>The callbacks run on Besu threads, block import included, so they only capture the references
+ * an event is made of and hand them over to the dispatcher. Decoding and serialization happen on
+ * the dispatcher workers.
+ *
+ * <p>The events derived from an added block, that is the block itself, its reverted transactions
+ * and its logs, are grouped by a {@link BlockBatcher} and published as a single batch.
+ *
  * @since 0.1
  */
 public class BesuEventListener
@@ -70,11 +92,25 @@ public class BesuEventListener
         BesuEvents.LogListener {
 
   private static final Logger LOGGER = LogManager.getLogger(BesuEventListener.class);
-  private final Executor executor;
+  private static final Set<DomainObjectType> BLOCK_DOMAIN_OBJECT_TYPES =
+      EnumSet.of(DomainObjectType.BLOCK, DomainObjectType.TRANSACTION, DomainObjectType.LOG);
+  private final EventDispatcher dispatcher;
+  private final OrderingKey orderingKey;
   private final Publisher publisher;
   private final TopicResolver topicResolver;
   private final Optional<net.consensys.besu.plugins.stream.core.MetadataDB> configStore;
+  private final Optional<DeliveryCheckpoints> deliveryCheckpoints;
+  /** the enabled types of the events published for every block */
+  private final List<DomainObjectType> blockDomainObjectTypes;
+
   private final EventStreamConfiguration configuration;
+  private final LabelledMetric<OperationTimer> callbackTimer;
+  private final Optional<BlockBatcher> blockBatcher;
+  private final Optional<SyncStatusConflator> syncStatusConflator;
+  private final Optional<MempoolFilter> mempoolFilter;
+  private final EventIdGenerator eventIdGenerator;
+  /** the latest block whose logs bloom rules out a log of any event schema */
+  private volatile Hash blockWithoutSchemaLogs;
 
   @SuppressWarnings({"rawtypes", "unchecked"})
   private static final List<TypeReference<Type>> revertReasonType =
@@ -87,13 +123,34 @@ public class BesuEventListener
       final Publisher publisher,
       final TopicResolver topicResolver,
       final EventStreamConfiguration configuration) {
-    return new BesuEventListener(
-        publisher,
-        topicResolver,
+    final EventStreamMetrics metrics = EventStreamMetrics.create(context);
+    final Optional<SpillingPublisher> spillingPublisher =
+        configuration.getDispatchOverflowPolicy() == OverflowPolicy.SPILL
+            ? Optional.of(SpillingPublisher.create(context, configuration, publisher))
+            : Optional.empty();
+    spillingPublisher.ifPresent(metrics::registerSpillingPublisher);
+    final BoundedEventDispatcher dispatcher =
+        BoundedEventDispatcher.create(
+            configuration,
+            spillingPublisher.isPresent() ? spillingPublisher.get()::spill : Runnable::run);
+    metrics.registerDispatcher(dispatcher);
+    final Optional<net.consensys.besu.plugins.stream.core.MetadataDB> configStore =
         configuration.isMetadataDBEnabled()
-            ? Optional.of(net.consensys.besu.plugins.stream.core.MetadataDB.create(context))
-            : Optional.empty(),
-        configuration);
+            ? Optional.of(
+                net.consensys.besu.plugins.stream.core.MetadataDB.create(
+                    context, Duration.ofMillis(configuration.getMetadataDBFlushInterval())))
+            : Optional.empty();
+    final BesuEventListener listener =
+        new BesuEventListener(
+            spillingPublisher.isPresent() ? spillingPublisher.get() : publisher,
+            topicResolver,
+            configStore,
+            dispatcher,
+            configuration,
+            metrics.createCallbackTimer(),
+            Duration.ofMillis(configuration.getBlockBatchLinger()));
+    listener.mempoolFilter.ifPresent(metrics::registerMempoolFilter);
+    return listener;
   }
 
   @VisibleForTesting
@@ -102,11 +159,14 @@ public class BesuEventListener
       final TopicResolver topicResolver,
       final Optional<net.consensys.besu.plugins.stream.core.MetadataDB> configStore,
       final Executor executor) {
-    this.publisher = publisher;
-    this.topicResolver = topicResolver;
-    this.configStore = configStore;
-    this.executor = executor;
-    this.configuration = null;
+    this(
+        publisher,
+        topicResolver,
+        configStore,
+        EventDispatcher.of(executor),
+        null,
+        EventStreamMetrics.disabled().createCallbackTimer(),
+        Duration.ZERO);
   }
 
   BesuEventListener(
@@ -115,83 +175,265 @@ public class BesuEventListener
       final Optional<net.consensys.besu.plugins.stream.core.MetadataDB> configStore,
       final Executor executor,
       final EventStreamConfiguration configuration) {
-    this.publisher = publisher;
-    this.topicResolver = topicResolver;
-    this.configStore = configStore;
-    this.executor = executor;
-    this.configuration = configuration;
+    this(publisher, topicResolver, configStore, executor, configuration, Duration.ZERO);
+  }
+
+  @VisibleForTesting
+  BesuEventListener(
+      final Publisher publisher,
+      final TopicResolver topicResolver,
+      final Optional<net.consensys.besu.plugins.stream.core.MetadataDB> configStore,
+      final Executor executor,
+      final EventStreamConfiguration configuration,
+      final Duration blockBatchLinger) {
+    this(
+        publisher,
+        topicResolver,
+        configStore,
+        EventDispatcher.of(executor),
+        configuration,
+        EventStreamMetrics.disabled().createCallbackTimer(),
+        blockBatchLinger);
   }
 
   private BesuEventListener(
       final Publisher publisher,
       final TopicResolver topicResolver,
       final Optional<net.consensys.besu.plugins.stream.core.MetadataDB> configStore,
-      final EventStreamConfiguration configuration) {
-    this(publisher, topicResolver, configStore, newCachedThreadPool(), configuration);
+      final EventDispatcher dispatcher,
+      final EventStreamConfiguration configuration,
+      final LabelledMetric<OperationTimer> callbackTimer,
+      final Duration blockBatchLinger) {
+    this.publisher = publisher;
+    this.topicResolver = topicResolver;
+    this.configStore = configStore;
+    this.deliveryCheckpoints = configStore.map(DeliveryCheckpoints::new);
+    deliveryCheckpoints.ifPresent(publisher::setDeliveryListener);
+    this.blockDomainObjectTypes =
+        Optional.ofNullable(configuration).map(EventStreamConfiguration::getEnabledTopics)
+            .orElse(List.of()).stream()
+            .filter(BLOCK_DOMAIN_OBJECT_TYPES::contains)
+            .collect(toUnmodifiableList());
+    this.dispatcher = dispatcher;
+    this.configuration = configuration;
+    this.callbackTimer = callbackTimer;
+    this.orderingKey =
+        Optional.ofNullable(configuration)
+            .map(EventStreamConfiguration::getDispatchOrderingKey)
+            .orElse(OrderingKey.NONE);
+    this.blockBatcher = BlockBatcher.create(blockBatchLinger, this::dispatchBatch);
+    this.syncStatusConflator =
+        SyncStatusConflator.create(
+            Duration.ofMillis(
+                Optional.ofNullable(configuration)
+                    .map(EventStreamConfiguration::getSyncStatusConflationWindow)
+                    .orElse(0L)),
+            this::applySyncStatus);
+    this.mempoolFilter = MempoolFilter.create(configuration);
+    this.eventIdGenerator =
+        Optional.ofNullable(configuration)
+            .map(EventStreamConfiguration::getEventIdStrategy)
+            .orElse(EventIdStrategy.RANDOM)
+            .createGenerator(configuration == null ? 0 : configuration.getEventIdNodeId());
+  }
+
+  /**
+   * stop dispatching events, waiting for the pending ones to be published, release the publisher
+   * and flush the metadata
+   */
+  void close() {
+    blockBatcher.ifPresent(BlockBatcher::close);
+    syncStatusConflator.ifPresent(SyncStatusConflator::close);
+    dispatcher.close();
+    publisher.close();
+    configStore.ifPresent(net.consensys.besu.plugins.stream.core.MetadataDB::close);
+  }
+
+  /**
+   * Get the lowest delivery checkpoint of the topics of the given types.
+   *
+   * @param domainObjectTypes the types of the topics
+   * @return the lowest checkpoint, empty when none of the topics has one or the MetadataDB is
+   *     disabled
+   */
+  Optional<Long> getDeliveryCheckpoint(final Collection<DomainObjectType> domainObjectTypes) {
+    return configStore.flatMap(
+        store ->
+            domainObjectTypes.stream()
+                .map(domainObjectType -> topicResolver.resolve(domainObjectType, null))
+                .map(store::getCheckpoint)
+                .flatMap(Optional::stream)
+                .min(Long::compare));
   }
 
   @Override
   public void onBlockPropagated(final PropagatedBlockContext propagatedBlockContext) {
-    if (shouldBePublished(
-        propagatedBlockContext.getBlockHeader().getNumber(),
-        propagatedBlockContext.getBlockHeader().getBlockHash())) {
-      applyEvent(
-          DomainObjectType.BLOCK,
-          Event.Type.BLOCK_PROPAGATED,
-          new BlockPayload(
-              propagatedBlockContext.getBlockHeader(), propagatedBlockContext.getTotalDifficulty()),
-          net.consensys.besu.plugins.stream.core.Serializer::serialize);
-      configStore.ifPresent(
-          store ->
-              store.putAllSingleTransaction(
-                  ImmutableMap.<byte[], byte[]>builder()
-                      .put(
-                          net.consensys.besu.plugins.stream.core.MetadataDB.Keys
-                              .LATEST_BLOCK_NUMBER_KEY,
-                          Longs.toByteArray(propagatedBlockContext.getBlockHeader().getNumber()))
-                      .put(
-                          net.consensys.besu.plugins.stream.core.MetadataDB.Keys
-                              .LATEST_BLOCK_HASH_KEY,
-                          propagatedBlockContext.getBlockHeader().getBlockHash().toArray())
-                      .build()));
+    try (TimingContext ignored = callbackTimer.labels(Event.Type.BLOCK_PROPAGATED).startTimer()) {
+      final BlockHeader blockHeader = propagatedBlockContext.getBlockHeader();
+      final UInt256 totalDifficulty = propagatedBlockContext.getTotalDifficulty();
+      if (shouldBePublished(blockHeader.getNumber(), blockHeader.getBlockHash())) {
+        applyEvent(
+            DomainObjectType.BLOCK,
+            Event.Type.BLOCK_PROPAGATED,
+            () -> new BlockPayload(blockHeader, totalDifficulty),
+            net.consensys.besu.plugins.stream.core.Serializer::serialize,
+            EventMetadataFactory::forBlock,
+            EventOrderingKeys.forBlock(blockHeader));
+      }
     }
   }
 
   private boolean shouldBePublished(final long blockNumber, final Hash blockHash) {
-    return configStore
-        .flatMap(net.consensys.besu.plugins.stream.core.MetadataDB::getLatestBlockNumber)
-        .map(
-            latest ->
-                (blockNumber > latest)
-                    || (configStore.get().getLatestBlockHash().isPresent()
-                        && (blockNumber == latest)
-                        && !Arrays.equals(
-                            configStore.get().getLatestBlockHash().get(), blockHash.toArray())))
-        .orElse(true);
+    return configStore.map(store -> store.advanceLatestBlock(blockNumber, blockHash)).orElse(true);
   }
 
   @Override
   public void onBlockAdded(final AddedBlockContext addedBlockContext) {
-    applyEvent(
-        DomainObjectType.BLOCK,
-        Event.Type.BLOCK_ADDED,
-        new BlockPayload(addedBlockContext.getBlockHeader()),
-        net.consensys.besu.plugins.stream.core.Serializer::serialize);
+    try (TimingContext ignored = callbackTimer.labels(Event.Type.BLOCK_ADDED).startTimer()) {
+      final BlockHeader blockHeader = addedBlockContext.getBlockHeader();
+      prepareLogs(blockHeader);
+      final long timestamp = System.currentTimeMillis();
+      if (blockBatcher.isPresent()) {
+        LOGGER.debug("Opening batch of block: {}", blockHeader.getNumber());
+        blockBatcher.get().open(addBlockEvents(batchOf(blockHeader), addedBlockContext, timestamp));
+        return;
+      }
+      applyEvent(
+          DomainObjectType.BLOCK,
+          Event.Type.BLOCK_ADDED,
+          () -> new BlockPayload(blockHeader),
+          net.consensys.besu.plugins.stream.core.Serializer::serialize,
+          EventMetadataFactory::forBlock,
+          EventOrderingKeys.forBlock(blockHeader));
+      dispatcher.dispatch(
+          EventOrderingKeys.forBlockTransactions(blockHeader).select(orderingKey),
+          tracked(
+              blockHeader.getNumber(),
+              blockDomainObjectTypes.stream()
+                  .filter(domainObjectType -> domainObjectType != DomainObjectType.BLOCK)
+                  .collect(toUnmodifiableList()),
+              () ->
+                  publishRevertedTransactions(
+                      addedBlockContext,
+                      timestamp,
+                      (domainObjectType, event) ->
+                          publisher.publish(domainObjectType, topicResolver, event))));
+    }
+  }
 
-    onRevertedTransaction(addedBlockContext);
+  /**
+   * Publish a block read by the backfill as a batch of its own. Unlike a live block, it is neither
+   * opened in the block batcher nor prepared for its logs, so that replaying it leaves the batch
+   * and the logs bloom of the live blocks alone.
+   *
+   * @param addedBlockContext the historical block
+   * @param blockEvents whether to publish the block and its reverted transactions
+   * @param logs the logs of the block to publish
+   * @param mayContainSchemaLogs whether the logs bloom of the block may hold a log of an event
+   *     schema
+   */
+  void replay(
+      final AddedBlockContext addedBlockContext,
+      final boolean blockEvents,
+      final List<? extends LogWithMetadata> logs,
+      final boolean mayContainSchemaLogs) {
+    final BlockHeader blockHeader = addedBlockContext.getBlockHeader();
+    final long timestamp = System.currentTimeMillis();
+    final BlockBatcher.Batch batch = batchOf(blockHeader);
+    if (blockEvents) {
+      addBlockEvents(batch, addedBlockContext, timestamp);
+    }
+    for (final LogWithMetadata logWithMetadata : logs) {
+      batch.add(
+          logEvent(
+              timestamp,
+              mayContainSchemaLogs ? () -> decode(logWithMetadata) : () -> logWithMetadata));
+    }
+    dispatchBatch(batch);
+  }
+
+  private BlockBatcher.Batch batchOf(final BlockHeader blockHeader) {
+    return new BlockBatcher.Batch(
+        blockHeader.getBlockHash(),
+        blockHeader.getNumber(),
+        EventOrderingKeys.forBlock(blockHeader).select(orderingKey));
+  }
+
+  private BlockBatcher.Batch addBlockEvents(
+      final BlockBatcher.Batch batch,
+      final AddedBlockContext addedBlockContext,
+      final long timestamp) {
+    return batch
+        .add(
+            events ->
+                createEvent(
+                        Event.Type.BLOCK_ADDED,
+                        timestamp,
+                        () -> new BlockPayload(addedBlockContext.getBlockHeader()),
+                        net.consensys.besu.plugins.stream.core.Serializer::serialize,
+                        EventMetadataFactory::forBlock)
+                    .ifPresent(event -> events.add(DomainObjectType.BLOCK, event)))
+        .add(events -> publishRevertedTransactions(addedBlockContext, timestamp, events::add));
+  }
+
+  private Consumer<EventBatch.Builder> logEvent(
+      final long timestamp, final Supplier<LogWithMetadata> payload) {
+    return events ->
+        createEvent(
+                Event.Type.LOG_EMITTED,
+                timestamp,
+                payload,
+                net.consensys.besu.plugins.stream.core.Serializer::serialize,
+                EventMetadataFactory::forLog)
+            .ifPresent(event -> events.add(DomainObjectType.LOG, event));
+  }
+
+  /**
+   * Test the logs bloom of a block against the event schemas before its logs are emitted, so that
+   * the logs of a block which cannot hold a log of any schema are published without attempting to
+   * decode them. Logs emitted before their block is prepared are decoded as usual.
+   *
+   * @param blockHeader the header of the block whose logs are about to be emitted
+   */
+  public void prepareLogs(final BlockHeader blockHeader) {
+    if (!blockDomainObjectTypes.contains(DomainObjectType.BLOCK)) {
+      // the checkpoint of the logs moves over the blocks without logs
+      deliveryCheckpoints.ifPresent(
+          checkpoints ->
+              checkpoints.markBlock(blockHeader.getNumber(), topics(blockDomainObjectTypes)));
+    }
+    if (configuration == null || configuration.getEventSchemas() == null) {
+      return;
+    }
+    blockWithoutSchemaLogs =
+        configuration.getEventSchemas().getBloom().mayContainLogs(blockHeader.getLogsBloom())
+            ? null
+            : blockHeader.getBlockHash();
   }
 
   @Override
   public void onBlockReorg(final AddedBlockContext addedBlockContext) {
-    applyEvent(
-        DomainObjectType.BLOCK,
-        Event.Type.BLOCK_REORG,
-        new BlockPayload(addedBlockContext.getBlockHeader()),
-        net.consensys.besu.plugins.stream.core.Serializer::serialize);
+    try (TimingContext ignored = callbackTimer.labels(Event.Type.BLOCK_REORG).startTimer()) {
+      final BlockHeader blockHeader = addedBlockContext.getBlockHeader();
+      applyEvent(
+          DomainObjectType.BLOCK,
+          Event.Type.BLOCK_REORG,
+          () -> new BlockPayload(blockHeader),
+          net.consensys.besu.plugins.stream.core.Serializer::serialize,
+          EventMetadataFactory::forBlock,
+          EventOrderingKeys.forBlock(blockHeader));
+    }
   }
 
+  /**
+   * Decode the revert reasons of the block transactions and hand the events over to the sink. Runs
+   * on a dispatcher worker, so the events are published straight away rather than dispatched again.
+   */
   @SuppressWarnings("rawtypes")
-  private void onRevertedTransaction(AddedBlockContext addedBlockContext) {
+  private void publishRevertedTransactions(
+      final AddedBlockContext addedBlockContext,
+      final long timestamp,
+      final BiConsumer<DomainObjectType, Event> sink) {
     final List<? extends TransactionReceipt> transactionReceipts =
         addedBlockContext.getTransactionReceipts();
     final BlockHeader blockHeader = addedBlockContext.getBlockHeader();
@@ -214,65 +456,217 @@ public class BesuEventListener
               decodedRevertReason ->
                   new TransactionPayload(
                       transaction, blockHeader, decodedRevertReason.get(0).getValue().toString()))
-          .ifPresent(
+          .flatMap(
               transactionPayload ->
-                  applyEvent(
-                      DomainObjectType.TRANSACTION,
+                  createEvent(
                       Event.Type.TRANSACTION_REVERTED,
-                      transactionPayload,
-                      net.consensys.besu.plugins.stream.core.Serializer::serialize));
+                      timestamp,
+                      () -> transactionPayload,
+                      net.consensys.besu.plugins.stream.core.Serializer::serialize,
+                      EventMetadataFactory::forTransaction))
+          .ifPresent(event -> sink.accept(DomainObjectType.TRANSACTION, event));
     }
   }
 
   @Override
   public void onTransactionAdded(final Transaction transaction) {
-    applyEvent(
-        DomainObjectType.TRANSACTION,
-        Event.Type.TRANSACTION_ADDED,
-        new TransactionPayload(transaction),
-        net.consensys.besu.plugins.stream.core.Serializer::serialize);
+    try (TimingContext ignored = callbackTimer.labels(Event.Type.TRANSACTION_ADDED).startTimer()) {
+      if (mempoolFilter.isPresent() && !mempoolFilter.get().acceptAdded(transaction.getHash())) {
+        return;
+      }
+      applyEvent(
+          DomainObjectType.TRANSACTION,
+          Event.Type.TRANSACTION_ADDED,
+          () -> new TransactionPayload(transaction),
+          net.consensys.besu.plugins.stream.core.Serializer::serialize,
+          EventMetadataFactory::forTransaction,
+          EventOrderingKeys.forTransaction(transaction));
+    }
   }
 
   @Override
   public void onTransactionDropped(final Transaction transaction) {
-    applyEvent(
-        DomainObjectType.TRANSACTION,
-        Event.Type.TRANSACTION_DROPPED,
-        new TransactionPayload(transaction),
-        net.consensys.besu.plugins.stream.core.Serializer::serialize);
+    try (TimingContext ignored =
+        callbackTimer.labels(Event.Type.TRANSACTION_DROPPED).startTimer()) {
+      if (mempoolFilter.isPresent() && !mempoolFilter.get().acceptDropped(transaction.getHash())) {
+        return;
+      }
+      applyEvent(
+          DomainObjectType.TRANSACTION,
+          Event.Type.TRANSACTION_DROPPED,
+          () -> new TransactionPayload(transaction),
+          net.consensys.besu.plugins.stream.core.Serializer::serialize,
+          EventMetadataFactory::forTransaction,
+          EventOrderingKeys.forTransaction(transaction));
+    }
   }
 
   @Override
   public void onSyncStatusChanged(final Optional<SyncStatus> syncStatus) {
+    try (TimingContext ignored =
+        callbackTimer.labels(Event.Type.SYNC_STATUS_CHANGED).startTimer()) {
+      final long timestamp = System.currentTimeMillis();
+      if (syncStatusConflator.isPresent()) {
+        syncStatusConflator.get().offer(syncStatus, timestamp);
+      } else {
+        applySyncStatus(syncStatus, timestamp);
+      }
+    }
+  }
+
+  private void applySyncStatus(final Optional<SyncStatus> syncStatus, final long timestamp) {
     applyEvent(
         DomainObjectType.NODE,
         Event.Type.SYNC_STATUS_CHANGED,
-        syncStatus,
-        net.consensys.besu.plugins.stream.core.Serializer::serialize);
+        timestamp,
+        () -> syncStatus,
+        net.consensys.besu.plugins.stream.core.Serializer::serialize,
+        payload -> EventMetadata.empty(),
+        EventOrderingKeys.forNode());
   }
 
   @Override
   public void onLogEmitted(final LogWithMetadata logWithMetadata) {
+    try (TimingContext ignored = callbackTimer.labels(Event.Type.LOG_EMITTED).startTimer()) {
+      final long timestamp = System.currentTimeMillis();
+      final Supplier<LogWithMetadata> payload =
+          logWithMetadata.getBlockHash().equals(blockWithoutSchemaLogs)
+              ? () -> logWithMetadata
+              : () -> decode(logWithMetadata);
+      if (blockBatcher.isPresent()
+          && blockBatcher
+              .get()
+              .addTo(logWithMetadata.getBlockHash(), logEvent(timestamp, payload))) {
+        return;
+      }
+      applyEvent(
+          DomainObjectType.LOG,
+          Event.Type.LOG_EMITTED,
+          payload,
+          net.consensys.besu.plugins.stream.core.Serializer::serialize,
+          EventMetadataFactory::forLog,
+          EventOrderingKeys.forLog(logWithMetadata));
+    }
+  }
+
+  /**
+   * Decode a log with the event schemas, or leave it undecoded when it does not have the parameters
+   * of its schema, so that it is still published, and does not fail the batch of its block.
+   */
+  private LogWithMetadata decode(final LogWithMetadata logWithMetadata) {
+    try {
+      return net.consensys.besu.plugins.stream.core.LogDecoder.decode(
+          configuration.getEventSchemas(), logWithMetadata);
+    } catch (final RuntimeException e) {
+      LOGGER.warn(
+          "Cannot decode log {} of block {}, publishing it undecoded.",
+          logWithMetadata.getLogIndex(),
+          logWithMetadata.getBlockHash(),
+          e);
+      return logWithMetadata;
+    }
+  }
+
+  /**
+   * Hand an event over to the dispatcher. Only the timestamp is taken on the calling thread, the
+   * payload and metadata are built and serialized by the worker publishing it.
+   */
+  private <T> void applyEvent(
+      final DomainObjectType domainObjectType,
+      final String type,
+      final Supplier<T> payload,
+      final EventSerializer<T> serializer,
+      final Function<? super T, EventMetadata> metadata,
+      final EventOrderingKeys orderingKeys) {
     applyEvent(
-        DomainObjectType.LOG,
-        Event.Type.LOG_EMITTED,
-        net.consensys.besu.plugins.stream.core.LogDecoder.decode(
-            configuration.getEventSchemas(), logWithMetadata),
-        net.consensys.besu.plugins.stream.core.Serializer::serialize);
+        domainObjectType,
+        type,
+        System.currentTimeMillis(),
+        payload,
+        serializer,
+        metadata,
+        orderingKeys);
   }
 
-  @SuppressWarnings({"unchecked", "rawtypes"})
   private <T> void applyEvent(
       final DomainObjectType domainObjectType,
       final String type,
-      final T payload,
-      final EventSerializer<T> serializer) {
+      final long timestamp,
+      final Supplier<T> payload,
+      final EventSerializer<T> serializer,
+      final Function<? super T, EventMetadata> metadata,
+      final EventOrderingKeys orderingKeys) {
+    LOGGER.debug("Dispatching message of type: {}", type);
+    final Runnable task =
+        () -> publishEvent(domainObjectType, type, timestamp, payload, serializer, metadata);
+    dispatcher.dispatch(
+        orderingKeys.select(orderingKey),
+        orderingKeys.getBlockNumber().isPresent()
+            ? tracked(orderingKeys.getBlockNumber().get(), List.of(domainObjectType), task)
+            : task);
+  }
+
+  private <T> void publishEvent(
+      final DomainObjectType domainObjectType,
+      final String type,
+      final long timestamp,
+      final Supplier<T> payload,
+      final EventSerializer<T> serializer,
+      final Function<? super T, EventMetadata> metadata) {
+    createEvent(type, timestamp, payload, serializer, metadata)
+        .ifPresent(event -> publisher.publish(domainObjectType, topicResolver, event));
+  }
+
+  /** Build and serialize an event, nothing when it cannot be serialized. */
+  private <T> Optional<Event> createEvent(
+      final String type,
+      final long timestamp,
+      final Supplier<T> payload,
+      final EventSerializer<T> serializer,
+      final Function<? super T, EventMetadata> metadata) {
     try {
       LOGGER.debug("Publishing message of type: {}", type);
-      final DefaultEvent<T> event = DefaultEvent.create(type, payload, serializer);
-      executor.execute(() -> publisher.publish(domainObjectType, topicResolver, event));
+      final T event = payload.get();
+      return Optional.of(
+          DefaultEvent.create(
+              type, timestamp, event, serializer, metadata.apply(event), eventIdGenerator));
     } catch (final SerializationException e) {
       LOGGER.warn("Cannot publish event.", e);
+      return Optional.empty();
     }
   }
+
+  private void dispatchBatch(final BlockBatcher.Batch batch) {
+    dispatcher.dispatch(
+        batch.getOrderingKey(),
+        tracked(
+            batch.getBlockNumber(),
+            blockDomainObjectTypes,
+            () -> {
+              final EventBatch events = batch.build();
+              if (!events.isEmpty()) {
+                publisher.publishBatch(topicResolver, events);
+              }
+            }));
+  }
+
+  /**
+   * Register a task publishing events of a block with the delivery checkpoints of their topics,
+   * before it is handed over to the dispatcher.
+   */
+  private Runnable tracked(
+      final long blockNumber,
+      final Collection<DomainObjectType> domainObjectTypes,
+      final Runnable task) {
+    if (deliveryCheckpoints.isEmpty() || domainObjectTypes.isEmpty()) {
+      return task;
+    }
+    return deliveryCheckpoints.get().track(blockNumber, topics(domainObjectTypes), task);
+  }
+
+  private List<String> topics(final Collection<DomainObjectType> domainObjectTypes) {
+    return domainObjectTypes.stream()
+        .map(domainObjectType -> topicResolver.resolve(domainObjectType, null))
+        .collect(toUnmodifiableList());
+  }
 }
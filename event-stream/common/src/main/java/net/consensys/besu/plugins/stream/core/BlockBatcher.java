@@ -0,0 +1,162 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hyperledger.besu.plugin.data.Hash;
+
+/**
+ * Groups the events derived from one added block into a single batch.
+ *
+ * <p>Besu emits the logs of a block right after the block itself, on the same thread. A batch is
+ * opened when a block is added, collects the logs of that block and is sealed when the next block
+ * is added or when the linger delay expires, whichever comes first. Sealed batches are handed over
+ * to the sink.
+ */
+final class BlockBatcher {
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final Duration linger;
+  private final ScheduledExecutorService scheduler;
+  private final Consumer<Batch> sink;
+  private Batch openBatch;
+
+  @VisibleForTesting
+  BlockBatcher(
+      final Duration linger, final ScheduledExecutorService scheduler, final Consumer<Batch> sink) {
+    this.linger = linger;
+    this.scheduler = scheduler;
+    this.sink = sink;
+  }
+
+  /** Create a batcher, or nothing when the linger delay disables batching. */
+  static Optional<BlockBatcher> create(final Duration linger, final Consumer<Batch> sink) {
+    if (linger.isNegative() || linger.isZero()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new BlockBatcher(
+            linger,
+            Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setNameFormat("event-stream-block-batch")
+                    .setDaemon(true)
+                    .build()),
+            sink));
+  }
+
+  /** Open the batch of a newly added block, sealing the previous one. */
+  void open(final Batch batch) {
+    final Batch previous;
+    synchronized (this) {
+      previous = openBatch;
+      openBatch = batch;
+    }
+    if (previous != null) {
+      sink.accept(previous);
+    }
+    scheduler.schedule(() -> seal(batch), linger.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Add an event to the open batch if it belongs to the given block.
+   *
+   * @return whether the event was added, otherwise it has to be published on its own
+   */
+  synchronized boolean addTo(final Hash blockHash, final Consumer<EventBatch.Builder> event) {
+    if (openBatch == null || !openBatch.blockHash.equals(blockHash)) {
+      return false;
+    }
+    openBatch.events.add(event);
+    return true;
+  }
+
+  /** Seal the open batch and stop the linger timer. */
+  void close() {
+    scheduler.shutdownNow();
+    final Batch batch;
+    synchronized (this) {
+      batch = openBatch;
+      openBatch = null;
+    }
+    if (batch != null) {
+      sink.accept(batch);
+    }
+  }
+
+  private void seal(final Batch batch) {
+    synchronized (this) {
+      if (openBatch != batch) {
+        return;
+      }
+      openBatch = null;
+    }
+    sink.accept(batch);
+  }
+
+  /** The events of one block, built into an {@link EventBatch} when published. */
+  static final class Batch {
+    private final Hash blockHash;
+    private final long blockNumber;
+    private final Object orderingKey;
+    private final List<Consumer<EventBatch.Builder>> events = new ArrayList<>();
+
+    Batch(final Hash blockHash, final long blockNumber, final Object orderingKey) {
+      this.blockHash = blockHash;
+      this.blockNumber = blockNumber;
+      this.orderingKey = orderingKey;
+    }
+
+    Batch add(final Consumer<EventBatch.Builder> event) {
+      events.add(event);
+      return this;
+    }
+
+    long getBlockNumber() {
+      return blockNumber;
+    }
+
+    Object getOrderingKey() {
+      return orderingKey;
+    }
+
+    /** Build the events of the block, leaving out those which fail to build. */
+    EventBatch build() {
+      final EventBatch.Builder builder = EventBatch.builder();
+      for (final Consumer<EventBatch.Builder> event : events) {
+        try {
+          event.accept(builder);
+        } catch (final RuntimeException e) {
+          LOGGER.warn("Cannot publish event of block {}.", blockHash, e);
+        }
+      }
+      return builder.build();
+    }
+  }
+}
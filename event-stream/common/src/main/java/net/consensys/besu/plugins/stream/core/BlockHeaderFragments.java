@@ -0,0 +1,67 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.model.JsonEventWriter;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.hyperledger.besu.plugin.data.Hash;
+
+/**
+ * The JSON of the recent block headers, keyed by block hash.
+ *
+ * <p>A block header is published by the propagated, added and reorg events of its block, and once
+ * more by every transaction reverted in the block. Its JSON is written once, then spliced raw into
+ * the following events, sparing the hex encoding of the logs bloom and of the hashes. The UTF-8
+ * bytes of a fragment are encoded on first use and kept with it.
+ */
+final class BlockHeaderFragments {
+  @VisibleForTesting static final int CAPACITY = 64;
+
+  private static final Cache<Hash, SerializableString> FRAGMENTS =
+      CacheBuilder.newBuilder().maximumSize(CAPACITY).build();
+
+  private BlockHeaderFragments() {}
+
+  /**
+   * Get the JSON of a block header, writing it when it is not cached.
+   *
+   * @param blockHeader the block header
+   * @return the JSON fragment
+   * @throws IOException when the block header cannot be written
+   */
+  static SerializableString get(final BlockHeader blockHeader) throws IOException {
+    final Hash blockHash = blockHeader.getBlockHash();
+    final SerializableString cached = FRAGMENTS.getIfPresent(blockHash);
+    if (cached != null) {
+      return cached;
+    }
+    final SerializableString fragment =
+        JsonEventWriter.writeFragment(blockHeader, Serializer::serializeUncached);
+    FRAGMENTS.put(blockHash, fragment);
+    return fragment;
+  }
+
+  @VisibleForTesting
+  static void clear() {
+    FRAGMENTS.invalidateAll();
+  }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import net.consensys.besu.plugins.stream.api.config.CommonConfiguration;
+import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+import net.consensys.besu.plugins.stream.model.OverflowPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Event dispatcher backed by bounded queues drained by a fixed number of worker threads, so that
+ * memory and thread usage stay flat whatever the broker latency. The {@link OverflowPolicy} decides
+ * what happens to a task submitted while its queue is full.
+ *
+ * <p>Unordered, all the workers share a single queue. Ordered, the dispatcher is striped: each
+ * worker owns a queue and the tasks of a given ordering key always land on the same one, so that
+ * they run in submission order while tasks of other keys run in parallel.
+ *
+ * <p>With the SPILL policy, a task overflowing its stripe is handed over to the spill handler on a
+ * spill worker thread, never on the submitting one, along with the tasks still queued before it on
+ * the stripe. The tasks submitted to the stripe behind it are spilled too until the spill worker
+ * catches up, so that the events of a key keep their order without waiting for the task the stripe
+ * worker is running. The spilled tasks wait in a queue as large as the dispatch queues, the
+ * submitting thread blocking while it is full, so that the heap stays bounded whatever the broker
+ * latency.
+ */
+final class BoundedEventDispatcher implements EventDispatcher {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final long POLL_TIMEOUT_MILLIS = 100;
+  private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+  private final List<Stripe> stripes;
+  private final OverflowPolicy overflowPolicy;
+  private final Consumer<Runnable> spillHandler;
+  private final BlockingQueue<SpilledTask> spilledTasks;
+  private final List<Thread> workers;
+  private final Optional<Thread> spillWorker;
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final AtomicLong spilledCount = new AtomicLong();
+  private volatile boolean running = true;
+
+  /**
+   * Create a dispatcher from the configuration. Sizes lower than one fall back to the defaults.
+   *
+   * @param configuration the event stream configuration
+   * @param spillHandler the handler of the tasks overflowing with the SPILL policy
+   * @return the started dispatcher
+   */
+  static BoundedEventDispatcher create(
+      final EventStreamConfiguration configuration, final Consumer<Runnable> spillHandler) {
+    final OrderingKey orderingKey =
+        Optional.ofNullable(configuration.getDispatchOrderingKey()).orElse(OrderingKey.NONE);
+    return new BoundedEventDispatcher(
+        positiveOrDefault(
+            configuration.getDispatchQueueCapacity(),
+            CommonConfiguration.DEFAULT_DISPATCH_QUEUE_CAPACITY),
+        positiveOrDefault(
+            configuration.getDispatchWorkers(), CommonConfiguration.DEFAULT_DISPATCH_WORKERS),
+        orderingKey != OrderingKey.NONE,
+        Optional.ofNullable(configuration.getDispatchOverflowPolicy()).orElse(OverflowPolicy.BLOCK),
+        spillHandler);
+  }
+
+  @VisibleForTesting
+  BoundedEventDispatcher(
+      final int capacity,
+      final int workerCount,
+      final boolean striped,
+      final OverflowPolicy overflowPolicy,
+      final Consumer<Runnable> spillHandler) {
+    checkArgument(capacity > 0, "Dispatch queue capacity must be positive, got %s", capacity);
+    checkArgument(workerCount > 0, "Dispatch worker count must be positive, got %s", workerCount);
+    final int stripeCount = striped ? workerCount : 1;
+    final int stripeCapacity = (capacity + stripeCount - 1) / stripeCount;
+    this.stripes =
+        IntStream.range(0, stripeCount)
+            .mapToObj(i -> new Stripe(stripeCapacity))
+            .collect(toUnmodifiableList());
+    this.overflowPolicy = overflowPolicy;
+    this.spillHandler = spillHandler;
+    this.spilledTasks = new ArrayBlockingQueue<>(capacity);
+    final ThreadFactory threadFactory =
+        new ThreadFactoryBuilder()
+            .setNameFormat("event-stream-dispatch-%d")
+            .setDaemon(true)
+            .build();
+    this.workers =
+        IntStream.range(0, workerCount)
+            .mapToObj(i -> threadFactory.newThread(() -> drain(stripes.get(i % stripeCount))))
+            .collect(toUnmodifiableList());
+    this.spillWorker =
+        overflowPolicy == OverflowPolicy.SPILL
+            ? Optional.of(
+                new ThreadFactoryBuilder()
+                    .setNameFormat("event-stream-dispatch-spill")
+                    .setDaemon(true)
+                    .build()
+                    .newThread(this::drainSpilled))
+            : Optional.empty();
+    workers.forEach(Thread::start);
+    spillWorker.ifPresent(Thread::start);
+  }
+
+  @Override
+  public void dispatch(final Object orderingKey, final Runnable task) {
+    if (!running) {
+      drop(task);
+      LOG.warn("Event dispatcher is closed, dropping event.");
+      return;
+    }
+    final Stripe stripe = stripeFor(orderingKey);
+    if (stripe.spilled.get() > 0 && spillBehind(stripe, task)) {
+      return;
+    }
+    if (stripe.queue.offer(task)) {
+      return;
+    }
+    switch (overflowPolicy) {
+      case BLOCK:
+        enqueueBlocking(stripe, task);
+        break;
+      case DROP_OLDEST:
+        while (!stripe.queue.offer(task)) {
+          final Runnable oldest = stripe.queue.poll();
+          if (oldest != null) {
+            drop(oldest);
+          }
+        }
+        break;
+      case DROP_NEWEST:
+        drop(task);
+        break;
+      case SPILL:
+        spillWithQueued(stripe, task);
+        break;
+    }
+  }
+
+  private Stripe stripeFor(final Object orderingKey) {
+    if (stripes.size() == 1) {
+      return stripes.get(0);
+    }
+    final int hash = Objects.hashCode(orderingKey);
+    return stripes.get(Math.floorMod(hash ^ (hash >>> 16), stripes.size()));
+  }
+
+  private void enqueueBlocking(final Stripe stripe, final Runnable task) {
+    try {
+      stripe.queue.put(task);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      drop(task);
+      LOG.warn("Interrupted while waiting for room in the dispatch queue, dropping event.");
+    }
+  }
+
+  private void drop(final Runnable task) {
+    droppedCount.incrementAndGet();
+    if (task instanceof DroppableTask) {
+      ((DroppableTask) task).dropped();
+    }
+  }
+
+  /** Spill the task behind the ones of its stripe being spilled, false when they all were. */
+  private boolean spillBehind(final Stripe stripe, final Runnable task) {
+    synchronized (stripe) {
+      if (stripe.spilled.get() == 0) {
+        return false;
+      }
+      spill(stripe, List.of(task));
+      return true;
+    }
+  }
+
+  /** Spill the tasks queued on the stripe, which have not started yet, and then the task. */
+  private void spillWithQueued(final Stripe stripe, final Runnable task) {
+    synchronized (stripe) {
+      final List<Runnable> tasks = new ArrayList<>(stripe.queue.size() + 1);
+      stripe.queue.drainTo(tasks);
+      tasks.add(task);
+      spill(stripe, tasks);
+    }
+  }
+
+  private void spill(final Stripe stripe, final List<Runnable> tasks) {
+    stripe.spilled.addAndGet(tasks.size());
+    spilledCount.addAndGet(tasks.size());
+    for (final Runnable task : tasks) {
+      try {
+        spilledTasks.put(new SpilledTask(stripe, task));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        stripe.spilled.decrementAndGet();
+        drop(task);
+        LOG.warn("Interrupted while waiting for room in the spill queue, dropping event.");
+      }
+    }
+  }
+
+  private void drain(final Stripe stripe) {
+    while (running || !stripe.queue.isEmpty()) {
+      final Runnable task;
+      try {
+        task = stripe.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (task != null) {
+        try {
+          task.run();
+        } catch (final RuntimeException e) {
+          LOG.error("Failed to dispatch event.", e);
+        }
+      }
+    }
+  }
+
+  private void drainSpilled() {
+    while (running || !spilledTasks.isEmpty()) {
+      final SpilledTask spilled;
+      try {
+        spilled = spilledTasks.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (spilled == null) {
+        continue;
+      }
+      try {
+        spillHandler.accept(spilled.task);
+      } catch (final RuntimeException e) {
+        LOG.error("Failed to spill event.", e);
+      } finally {
+        spilled.stripe.spilled.decrementAndGet();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MILLIS);
+    final List<Thread> threads =
+        Stream.concat(workers.stream(), spillWorker.stream()).collect(toUnmodifiableList());
+    for (final Thread worker : threads) {
+      try {
+        TimeUnit.NANOSECONDS.timedJoin(worker, Math.max(1, deadline - System.nanoTime()));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    final int pending = getQueueDepth();
+    if (pending > 0) {
+      LOG.warn("Event dispatcher closed with {} events not dispatched.", pending);
+    }
+  }
+
+  /**
+   * number of tasks waiting in the queues
+   *
+   * @return the queue depth
+   */
+  int getQueueDepth() {
+    return stripes.stream().mapToInt(stripe -> stripe.queue.size()).sum() + spilledTasks.size();
+  }
+
+  /**
+   * number of tasks dropped because of the overflow policy or because the dispatcher was closed
+   *
+   * @return the dropped task count
+   */
+  long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /**
+   * number of tasks handed over to the spill worker
+   *
+   * @return the spilled task count
+   */
+  long getSpilledCount() {
+    return spilledCount.get();
+  }
+
+  private static int positiveOrDefault(final int value, final int defaultValue) {
+    return value > 0 ? value : defaultValue;
+  }
+
+  /** Queue of a stripe, with its tasks waiting to be spilled. */
+  private static final class Stripe {
+    private final BlockingQueue<Runnable> queue;
+    private final AtomicInteger spilled = new AtomicInteger();
+
+    private Stripe(final int capacity) {
+      this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+  }
+
+  private static final class SpilledTask {
+    private final Stripe stripe;
+    private final Runnable task;
+
+    private SpilledTask(final Stripe stripe, final Runnable task) {
+      this.stripe = stripe;
+      this.task = task;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.api.event.DeliveryListener;
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Advances the per topic checkpoints of the {@link MetadataDB} from the broker acknowledgements.
+ *
+ * <p>The checkpoint of a topic is the highest block whose events, along with the events of every
+ * lower block, have all been acknowledged. A block is registered when the task publishing its
+ * events is handed over to the dispatcher, on the thread of the Besu callback, so that a block
+ * completing early cannot move the checkpoint past a block whose events are still to be built. The
+ * task is released once it ran, each event it sent then being counted until it is acknowledged, or
+ * once the dispatcher dropped it. A failed event is released too, so that it does not hold the
+ * checkpoint for good. The checkpoint only moves over contiguous block numbers from the stored one,
+ * a block never registered holding it below. Events without a block number are ignored.
+ */
+final class DeliveryCheckpoints implements DeliveryListener {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final MetadataDB metadataDB;
+  private final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
+
+  DeliveryCheckpoints(final MetadataDB metadataDB) {
+    this.metadataDB = metadataDB;
+  }
+
+  /**
+   * Register the task publishing events of a block to the topics, their checkpoints waiting for it
+   * until it ran or was dropped.
+   *
+   * @param blockNumber the number of the block
+   * @param topics the topics the task publishes to
+   * @param task the task
+   * @return the task releasing the block once run or dropped
+   */
+  EventDispatcher.DroppableTask track(
+      final long blockNumber, final Collection<String> topics, final Runnable task) {
+    topics.forEach(topic -> watermark(topic).register(blockNumber));
+    return new TrackedTask(blockNumber, topics, task);
+  }
+
+  /**
+   * Register a block no event is published for on the topics, so that their checkpoints move over
+   * it.
+   *
+   * @param blockNumber the number of the block
+   * @param topics the topics
+   */
+  void markBlock(final long blockNumber, final Collection<String> topics) {
+    track(blockNumber, topics, () -> {}).run();
+  }
+
+  @Override
+  public void onSent(final String topic, final Event event) {
+    event
+        .metadata()
+        .getBlockNumber()
+        .ifPresent(blockNumber -> watermark(topic).register(blockNumber));
+  }
+
+  @Override
+  public void onAcknowledged(final String topic, final Event event) {
+    event.metadata().getBlockNumber().ifPresent(blockNumber -> release(topic, blockNumber));
+  }
+
+  @Override
+  public void onFailed(
+      final String topic,
+      final DomainObjectType domainObjectType,
+      final Event event,
+      final Exception exception) {
+    event
+        .metadata()
+        .getBlockNumber()
+        .ifPresent(
+            blockNumber -> {
+              LOG.warn(
+                  "Event of block {} failed to be delivered to topic {}, releasing its checkpoint.",
+                  blockNumber,
+                  topic);
+              release(topic, blockNumber);
+            });
+  }
+
+  private Watermark watermark(final String topic) {
+    return watermarks.computeIfAbsent(topic, key -> new Watermark(metadataDB.getCheckpoint(key)));
+  }
+
+  private void release(final String topic, final long blockNumber) {
+    Optional.ofNullable(watermarks.get(topic))
+        .flatMap(watermark -> watermark.release(blockNumber))
+        .ifPresent(checkpoint -> metadataDB.advanceCheckpoint(topic, checkpoint));
+  }
+
+  /** Task releasing its block once run, or once dropped by the dispatcher. */
+  private final class TrackedTask implements EventDispatcher.DroppableTask {
+    private final long blockNumber;
+    private final Collection<String> topics;
+    private final Runnable task;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private TrackedTask(
+        final long blockNumber, final Collection<String> topics, final Runnable task) {
+      this.blockNumber = blockNumber;
+      this.topics = topics;
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      try {
+        task.run();
+      } finally {
+        dropped();
+      }
+    }
+
+    @Override
+    public void dropped() {
+      if (released.compareAndSet(false, true)) {
+        topics.forEach(topic -> release(topic, blockNumber));
+      }
+    }
+  }
+
+  /**
+   * Contiguous acknowledged block of a topic. The in-flight blocks are kept ordered with their
+   * number of pending tasks and events, and the released prefix is dropped as the watermark moves
+   * one block after the other.
+   */
+  private static final class Watermark {
+    private final TreeMap<Long, Integer> inFlight = new TreeMap<>();
+    private Optional<Long> checkpoint;
+
+    private Watermark(final Optional<Long> checkpoint) {
+      this.checkpoint = checkpoint;
+    }
+
+    private synchronized void register(final long blockNumber) {
+      inFlight.merge(blockNumber, 1, Integer::sum);
+    }
+
+    private synchronized Optional<Long> release(final long blockNumber) {
+      inFlight.computeIfPresent(blockNumber, (key, pending) -> pending - 1);
+      Optional<Long> advanced = Optional.empty();
+      while (!inFlight.isEmpty()
+          && inFlight.firstEntry().getValue() <= 0
+          && checkpoint.map(current -> inFlight.firstKey() <= current + 1).orElse(true)) {
+        final long released = inFlight.pollFirstEntry().getKey();
+        if (checkpoint.map(current -> released > current).orElse(true)) {
+          checkpoint = Optional.of(released);
+          advanced = checkpoint;
+        }
+      }
+      return advanced;
+    }
+  }
+}
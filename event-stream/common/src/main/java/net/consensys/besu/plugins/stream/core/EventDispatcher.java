@@ -0,0 +1,49 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import java.util.concurrent.Executor;
+
+/** Hands event tasks over from the Besu callbacks to the workers publishing them */
+interface EventDispatcher {
+
+  /**
+   * dispatch a task, after the tasks previously dispatched with the same ordering key when the
+   * dispatcher is ordered
+   *
+   * @param orderingKey the key the task is ordered by, null when it is not ordered
+   * @param task the task to run
+   */
+  void dispatch(Object orderingKey, Runnable task);
+
+  /** stop accepting tasks and release the workers once the pending tasks are done */
+  default void close() {}
+
+  /**
+   * adapt an executor, for instance a direct executor in tests
+   *
+   * @param executor the executor running the tasks
+   * @return the dispatcher
+   */
+  static EventDispatcher of(final Executor executor) {
+    return (orderingKey, task) -> executor.execute(task);
+  }
+
+  /** Task told when the dispatcher drops it rather than running it */
+  interface DroppableTask extends Runnable {
+    /** called instead of running the task when it is dropped */
+    void dropped();
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.stream.model.payload.BlockPayload;
+import net.consensys.besu.plugins.stream.model.payload.TransactionPayload;
+import net.consensys.besu.plugins.types.DecodedLogWithMetadata;
+
+import java.util.Optional;
+
+import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.hyperledger.besu.plugin.data.Transaction;
+
+/**
+ * Builds the {@link EventMetadata} of the Besu events from their payloads. Transaction hashes may
+ * be computed lazily by Besu, so the metadata is built on the dispatcher workers along with the
+ * payload.
+ */
+final class EventMetadataFactory {
+
+  private EventMetadataFactory() {}
+
+  static EventMetadata forBlock(final BlockPayload blockPayload) {
+    final BlockHeader blockHeader = blockPayload.getBlockHeader();
+    return EventMetadata.builder()
+        .blockNumber(blockHeader.getNumber())
+        .blockHash(blockHeader.getBlockHash())
+        .build();
+  }
+
+  static EventMetadata forTransaction(final TransactionPayload transactionPayload) {
+    final Transaction transaction = transactionPayload.getTransaction();
+    final EventMetadata.Builder metadata =
+        EventMetadata.builder()
+            .transactionHash(transaction.getHash())
+            .sender(transaction.getSender());
+    transactionPayload
+        .getBlockHeader()
+        .ifPresent(
+            blockHeader ->
+                metadata
+                    .blockNumber(blockHeader.getNumber())
+                    .blockHash(blockHeader.getBlockHash()));
+    return metadata.build();
+  }
+
+  static EventMetadata forLog(final LogWithMetadata logWithMetadata) {
+    return EventMetadata.builder()
+        .blockNumber(logWithMetadata.getBlockNumber())
+        .blockHash(logWithMetadata.getBlockHash())
+        .transactionHash(logWithMetadata.getTransactionHash())
+        .contractAddress(logWithMetadata.getLogger())
+        .logIndex(logWithMetadata.getLogIndex())
+        .removed(logWithMetadata.isRemoved())
+        .schemaId(
+            logWithMetadata instanceof DecodedLogWithMetadata
+                ? ((DecodedLogWithMetadata) logWithMetadata).getSchemaId()
+                : Optional.empty())
+        .build();
+  }
+}
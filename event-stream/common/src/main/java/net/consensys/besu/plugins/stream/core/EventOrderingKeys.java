@@ -0,0 +1,129 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+
+import java.util.Optional;
+
+import org.hyperledger.besu.plugin.data.Address;
+import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.hyperledger.besu.plugin.data.Transaction;
+
+/**
+ * The keys an event can be ordered by. The configured {@link OrderingKey} selects one of them, and
+ * events lacking it fall back to their domain object type so that they stay ordered among their own
+ * kind.
+ */
+final class EventOrderingKeys {
+  private final DomainObjectType domainObjectType;
+  private final Optional<Long> blockNumber;
+  private final Optional<? extends Address> sender;
+  private final Optional<? extends Address> contractAddress;
+
+  private EventOrderingKeys(
+      final DomainObjectType domainObjectType,
+      final Optional<Long> blockNumber,
+      final Optional<? extends Address> sender,
+      final Optional<? extends Address> contractAddress) {
+    this.domainObjectType = domainObjectType;
+    this.blockNumber = blockNumber;
+    this.sender = sender;
+    this.contractAddress = contractAddress;
+  }
+
+  static EventOrderingKeys forNode() {
+    return new EventOrderingKeys(
+        DomainObjectType.NODE, Optional.empty(), Optional.empty(), Optional.empty());
+  }
+
+  static EventOrderingKeys forBlock(final BlockHeader blockHeader) {
+    return new EventOrderingKeys(
+        DomainObjectType.BLOCK,
+        Optional.of(blockHeader.getNumber()),
+        Optional.empty(),
+        Optional.empty());
+  }
+
+  static EventOrderingKeys forBlockTransactions(final BlockHeader blockHeader) {
+    return new EventOrderingKeys(
+        DomainObjectType.TRANSACTION,
+        Optional.of(blockHeader.getNumber()),
+        Optional.empty(),
+        Optional.empty());
+  }
+
+  static EventOrderingKeys forTransaction(final Transaction transaction) {
+    return new EventOrderingKeys(
+        DomainObjectType.TRANSACTION,
+        Optional.empty(),
+        Optional.of(transaction.getSender()),
+        transaction.getTo());
+  }
+
+  static EventOrderingKeys forTransaction(
+      final Transaction transaction, final BlockHeader blockHeader) {
+    return new EventOrderingKeys(
+        DomainObjectType.TRANSACTION,
+        Optional.of(blockHeader.getNumber()),
+        Optional.of(transaction.getSender()),
+        transaction.getTo());
+  }
+
+  static EventOrderingKeys forLog(final LogWithMetadata log) {
+    return new EventOrderingKeys(
+        DomainObjectType.LOG,
+        Optional.of(log.getBlockNumber()),
+        Optional.empty(),
+        Optional.of(log.getLogger()));
+  }
+
+  /**
+   * getter for the number of the block of the event
+   *
+   * @return the block number, empty when the event is not part of a block
+   */
+  Optional<Long> getBlockNumber() {
+    return blockNumber;
+  }
+
+  /**
+   * select the key to order the event by
+   *
+   * @param orderingKey the configured ordering key
+   * @return the key, or null when events are not ordered
+   */
+  Object select(final OrderingKey orderingKey) {
+    switch (orderingKey) {
+      case DOMAIN_TYPE:
+        return domainObjectType;
+      case BLOCK_NUMBER:
+        return orDomainObjectType(blockNumber);
+      case SENDER:
+        return orDomainObjectType(sender);
+      case CONTRACT_ADDRESS:
+        return orDomainObjectType(contractAddress);
+      case NONE:
+      default:
+        return null;
+    }
+  }
+
+  private Object orDomainObjectType(final Optional<?> key) {
+    return key.isPresent() ? key.get() : domainObjectType;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import java.util.Optional;
+
+import org.hyperledger.besu.plugin.BesuContext;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.MetricCategory;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+
+/** Event stream metrics, registered with the Besu metrics system when it is available */
+class EventStreamMetrics {
+  private static final OperationTimer.TimingContext NO_OP_TIMING_CONTEXT = () -> 0;
+  private static final LabelledMetric<OperationTimer> NO_OP_TIMER =
+      labels -> () -> NO_OP_TIMING_CONTEXT;
+
+  private final Optional<MetricsSystem> metricsSystem;
+
+  private EventStreamMetrics(final Optional<MetricsSystem> metricsSystem) {
+    this.metricsSystem = metricsSystem;
+  }
+
+  static EventStreamMetrics create(final BesuContext context) {
+    return new EventStreamMetrics(context.getService(MetricsSystem.class));
+  }
+
+  static EventStreamMetrics disabled() {
+    return new EventStreamMetrics(Optional.empty());
+  }
+
+  /**
+   * create the timer of the time spent in the Besu event callbacks, labelled by event type
+   *
+   * @return the callback timer
+   */
+  LabelledMetric<OperationTimer> createCallbackTimer() {
+    return metricsSystem
+        .map(
+            metrics ->
+                metrics.createLabelledTimer(
+                    Category.EVENT_STREAM,
+                    "callback_time",
+                    "Time spent handling Besu event callbacks",
+                    "event"))
+        .orElse(NO_OP_TIMER);
+  }
+
+  void registerDispatcher(final BoundedEventDispatcher dispatcher) {
+    metricsSystem.ifPresent(
+        metrics -> {
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "dispatch_queue_depth",
+              "Number of events waiting to be published",
+              dispatcher::getQueueDepth);
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "dispatch_dropped_total",
+              "Number of events dropped because the dispatch queue was full",
+              dispatcher::getDroppedCount);
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "dispatch_spilled_total",
+              "Number of events spilled because the dispatch queue was full",
+              dispatcher::getSpilledCount);
+        });
+  }
+
+  void registerSpillingPublisher(final SpillingPublisher spillingPublisher) {
+    metricsSystem.ifPresent(
+        metrics -> {
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "spill_journal_pending",
+              "Number of spilled events waiting to be replayed",
+              spillingPublisher::getPendingCount);
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "spill_journal_dropped_total",
+              "Number of events dropped because the spill journal was full",
+              spillingPublisher::getDroppedCount);
+        });
+  }
+
+  void registerMempoolFilter(final MempoolFilter mempoolFilter) {
+    metricsSystem.ifPresent(
+        metrics -> {
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "mempool_sampled_out_total",
+              "Number of transaction pool events skipped by sampling",
+              mempoolFilter::getSampledOutCount);
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "mempool_deduplicated_total",
+              "Number of transaction pool events skipped as duplicates",
+              mempoolFilter::getDeduplicatedCount);
+          metrics.createGauge(
+              Category.EVENT_STREAM,
+              "mempool_rate_limited_total",
+              "Number of transaction pool events skipped by the rate limits",
+              mempoolFilter::getRateLimitedCount);
+        });
+  }
+
+  private enum Category implements MetricCategory {
+    EVENT_STREAM("event_stream");
+
+    private final String name;
+
+    Category(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Optional<String> getApplicationPrefix() {
+      return Optional.of("besu_");
+    }
+  }
+}
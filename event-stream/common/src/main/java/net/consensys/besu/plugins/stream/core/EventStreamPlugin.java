@@ -20,14 +20,16 @@ import static net.consensys.besu.plugins.stream.model.DomainObjectType.LOG;
 import static net.consensys.besu.plugins.stream.model.DomainObjectType.NODE;
 import static net.consensys.besu.plugins.stream.model.DomainObjectType.TRANSACTION;
 
+import net.consensys.besu.plugins.stream.api.backfill.HistoricalBlock;
 import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
 import net.consensys.besu.plugins.stream.api.event.Publisher;
 import net.consensys.besu.plugins.stream.api.event.TopicResolver;
 import net.consensys.besu.plugins.stream.api.monitoring.HealthCheck;
-import net.consensys.besu.plugins.stream.core.config.EventSchema;
+import net.consensys.besu.plugins.stream.core.config.EventSchemas;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
@@ -36,7 +38,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hyperledger.besu.plugin.BesuContext;
 import org.hyperledger.besu.plugin.BesuPlugin;
-import org.hyperledger.besu.plugin.data.Address;
+import org.hyperledger.besu.plugin.data.BlockHeader;
 import org.hyperledger.besu.plugin.services.BesuEvents;
 import org.hyperledger.besu.plugin.services.PicoCLIOptions;
 
@@ -65,6 +67,10 @@ public abstract class EventStreamPlugin<T extends EventStreamConfiguration> impl
   private TopicResolver topicResolver;
   private BesuContext context;
   private BesuEventSubscriptionManager subscriptionManager;
+  private BesuEventListener listener;
+  private BackfillEngine backfill;
+  private volatile LogFilter logFilter;
+  private volatile LogSubscriptions logSubscriptions;
 
   /**
    * Create an event stream plugin from the given inputs
@@ -131,6 +137,7 @@ public abstract class EventStreamPlugin<T extends EventStreamConfiguration> impl
       return;
     }
     LOGGER.debug("Connection to the broker is healthy.");
+    configuration.loadEventSchemas();
     if ((!configuration.getLogFilterAddresses().isEmpty()
             || !configuration
                 .getLogFilterTopics()
@@ -145,16 +152,18 @@ public abstract class EventStreamPlugin<T extends EventStreamConfiguration> impl
           "Ethereum Event filters detected on command line and in configuration file. Taking the union of the two.");
     }
 
-    subscriptionManager =
-        new BesuEventSubscriptionManager(
-            name,
-            BesuEventListener.create(
-                context, publisherFactory.apply(configuration), topicResolver, configuration));
+    final List<DomainObjectType> enabledTopics = configuration.getEnabledTopics();
+    if (enabledTopics.contains(LOG)) {
+      logFilter = compileLogFilter();
+    }
+    listener =
+        BesuEventListener.create(
+            context, publisherFactory.apply(configuration), topicResolver, configuration);
+    subscriptionManager = new BesuEventSubscriptionManager(name, listener);
     context
         .getService(BesuEvents.class)
         .ifPresent(
             events -> {
-              final List<DomainObjectType> enabledTopics = configuration.getEnabledTopics();
               LOGGER.info("Enabled Kafka topics {}", enabledTopics);
               if (enabledTopics.contains(BLOCK)) {
                 subscriptionManager
@@ -182,31 +191,24 @@ public abstract class EventStreamPlugin<T extends EventStreamConfiguration> impl
                         events::addTransactionDroppedListener,
                         events::removeTransactionDroppedListener);
               }
+              if (enabledTopics.contains(LOG) && !enabledTopics.contains(BLOCK)) {
+                // the block added listener tests the logs bloom of the blocks otherwise
+                subscriptionManager.addSubscription(
+                    "logs bloom",
+                    listener ->
+                        events.addBlockAddedListener(
+                            addedBlockContext ->
+                                listener.prepareLogs(addedBlockContext.getBlockHeader())),
+                    events::removeBlockAddedListener);
+              }
               if (enabledTopics.contains(LOG)) {
-                subscriptionManager
-                    .addSubscription(
-                        "log",
-                        listener ->
-                            events.addLogListener(
-                                configuration.getLogFilterAddresses().stream()
-                                    .map(besuPluginAddress -> (Address) besuPluginAddress)
-                                    .collect(toUnmodifiableList()),
-                                configuration.getLogFilterTopics(),
-                                listener),
-                        events::removeLogListener) // add log listener from command line
-                    .addSubscription(
-                        "log",
-                        listener ->
-                            events.addLogListener(
-                                configuration.getEventSchemas().getSchemas().stream()
-                                    .map(EventSchema::getContractAddress)
-                                    .collect(toUnmodifiableList()),
-                                List.of(
-                                    configuration.getEventSchemas().getSchemas().stream()
-                                        .map(EventSchema::getTopic)
-                                        .collect(toUnmodifiableList())),
-                                listener),
-                        events::removeLogListener); // add log listener from config file
+                subscriptionManager.addSubscription(
+                    "log",
+                    listener -> {
+                      logSubscriptions = new LogSubscriptions(events, listener);
+                      return logSubscriptions.subscribe(logFilter);
+                    },
+                    id -> logSubscriptions.close());
               }
               if (enabledTopics.contains(NODE)) {
                 subscriptionManager.addSubscription(
@@ -215,21 +217,108 @@ public abstract class EventStreamPlugin<T extends EventStreamConfiguration> impl
               subscriptionManager.subscribeAll();
             });
 
-    configuration.loadEventSchemas();
+    startBackfill();
+  }
+
+  /**
+   * Re-publish the historical blocks from the configured block, or else from the block following
+   * the delivery checkpoint, while the live events keep on being published.
+   */
+  private void startBackfill() {
+    final List<DomainObjectType> enabledTopics = configuration.getEnabledTopics();
+    final Optional<Long> fromBlock =
+        configuration
+            .getBackfillFromBlock()
+            .or(
+                () ->
+                    configuration.isBackfillFromCheckpoint()
+                        ? listener
+                            .getDeliveryCheckpoint(enabledTopics)
+                            .map(checkpoint -> checkpoint + 1)
+                        : Optional.empty());
+    if (fromBlock.isEmpty()) {
+      return;
+    }
+    final String sourceClass =
+        configuration
+            .getBackfillBlockSourceClass()
+            .orElseThrow(
+                () -> new IllegalArgumentException("Missing block source class for the backfill."));
+    backfill =
+        new BackfillEngine(
+            BackfillEngine.loadSource(sourceClass),
+            block -> replay(block, enabledTopics),
+            Math.max(configuration.getBackfillWorkers(), 1),
+            configuration.getBackfillBlocksPerSecond());
+    backfill.start(fromBlock.get(), configuration.getBackfillToBlock());
+  }
+
+  /**
+   * Replay a historical block the way the subscriptions deliver a live one, as a batch of its own
+   * which does not interfere with the live blocks.
+   */
+  private void replay(final HistoricalBlock block, final List<DomainObjectType> enabledTopics) {
+    final BlockHeader blockHeader = block.getContext().getBlockHeader();
+    final boolean mayContainSchemaLogs =
+        configuration.getEventSchemas().getBloom().mayContainLogs(blockHeader.getLogsBloom());
+    listener.replay(
+        block.getContext(),
+        enabledTopics.contains(BLOCK),
+        enabledTopics.contains(LOG)
+            ? block.getLogs().stream()
+                .filter(log -> logFilter.matches(log, mayContainSchemaLogs))
+                .collect(toUnmodifiableList())
+            : List.of(),
+        mayContainSchemaLogs);
+  }
+
+  private LogFilter compileLogFilter() {
+    return LogFilter.compile(
+        configuration.getLogFilterAddresses(),
+        configuration.getLogFilterTopics(),
+        configuration.getEventSchemas());
   }
 
   @Override
   public void stop() {
     LOGGER.debug("Stopping plugin for {}", name);
+    if (backfill != null) {
+      backfill.close();
+    }
     if (subscriptionManager != null) {
       subscriptionManager.unsubscribeAll();
     }
+    if (listener != null) {
+      listener.close();
+    }
   }
 
   @Override
   public CompletableFuture<Void> reloadConfiguration() {
+    return CompletableFuture.runAsync(this::reloadEventSchemas);
+  }
+
+  /**
+   * Load and compile the event schemas off the calling thread, then replace the log listener with
+   * one filtering on the new schemas. The logs keep on being delivered meanwhile.
+   */
+  @SuppressWarnings("ReferenceEquality")
+  private synchronized void reloadEventSchemas() {
+    final EventSchemas previous = configuration.getEventSchemas();
     configuration.loadEventSchemas();
-    return CompletableFuture.completedFuture(null);
+    // the same instance is kept when there is no schemas file or when it fails to parse, any
+    // successful reload recompiles the filter as schemas may differ only in their parameters
+    if (logFilter == null || configuration.getEventSchemas() == previous) {
+      return;
+    }
+    logFilter = compileLogFilter();
+    if (logSubscriptions != null) {
+      logSubscriptions.subscribe(logFilter);
+    }
+    LOGGER.info(
+        "Reloaded {} event schemas for {}",
+        configuration.getEventSchemas().getSchemas().size(),
+        name);
   }
 
   /**
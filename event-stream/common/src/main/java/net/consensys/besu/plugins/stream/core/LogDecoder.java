@@ -15,19 +15,20 @@
 package net.consensys.besu.plugins.stream.core;
 
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toUnmodifiableList;
 
 import net.consensys.besu.plugins.stream.core.config.EventSchema;
 import net.consensys.besu.plugins.stream.core.config.EventSchemas;
 import net.consensys.besu.plugins.types.DecodedLogWithMetadata;
+import net.consensys.besu.plugins.types.DecodedParameter;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import org.hyperledger.besu.plugin.data.Address;
 import org.hyperledger.besu.plugin.data.LogWithMetadata;
@@ -47,7 +48,6 @@ public class LogDecoder {
    * @return if decoding was successful, {@link DecodedLogWithMetadata}, otherwise the passed in
    *     logWithMetadata
    */
-  @SuppressWarnings({"rawtypes", "unchecked"})
   public static LogWithMetadata decode(
       final EventSchemas eventSchemas, final LogWithMetadata logWithMetadata) {
     final Optional<List<? extends Bytes32>> eventTopics =
@@ -55,31 +55,11 @@ public class LogDecoder {
             ? Optional.empty()
             : Optional.of(logWithMetadata.getTopics());
     final Address loggingContract = logWithMetadata.getLogger();
-    Set<EventSchema> matchingSchemas =
+    // the schemas of the contract first, then those of any contract, then the anonymous ones
+    final List<EventSchema> matchingSchemas =
         eventTopics.isEmpty()
-            ? Collections.emptySet()
-            : eventSchemas.getSchemas().stream()
-                .filter(
-                    eventSchema ->
-                        eventSchema.getTopic().equals(eventTopics.get().get(0))
-                            && eventSchema.getContractAddress().equals(loggingContract))
-                .collect(Collectors.toSet());
-
-    if (matchingSchemas.isEmpty() && eventTopics.isPresent()) {
-      // anonymous event with indexed event parameters
-      matchingSchemas =
-          eventSchemas.getSchemas().stream()
-              .filter(
-                  eventSchema ->
-                      (eventSchema.getContractAddress().equals(loggingContract)
-                          && (eventSchema.getEventName() == null)
-                          && eventSchema.getParameterTypes().stream()
-                                  .filter(TypeReference::isIndexed)
-                                  .collect(toUnmodifiableList())
-                                  .size()
-                              == eventTopics.get().size()))
-              .collect(Collectors.toSet());
-    }
+            ? Collections.emptyList()
+            : eventSchemas.getIndex().match(loggingContract, eventTopics.get());
 
     checkState(
         matchingSchemas.size() <= 1,
@@ -91,63 +71,100 @@ public class LogDecoder {
     return matchingSchemas.stream()
         .findAny()
         .<LogWithMetadata>map(
-            matchingSchema -> {
-              final List<TypeReference<Type>> parameterTypes = matchingSchema.getParameterTypes();
-
-              // First fill a list with the arguments decoded from the data field
-              final List<Type> decodedArguments =
-                  FunctionReturnDecoder.decode(
-                      logWithMetadata.getData().toHexString(),
-                      parameterTypes.stream()
-                          .filter(parameterType -> !parameterType.isIndexed())
-                          .collect(toUnmodifiableList()));
-
-              // Then decode the indexed arguments (which are topics), and insert them into the list
-              // from above at the appropriate indices
-              final int numberOfParamTypes = parameterTypes.size();
-              final List<Integer> indexedParameterIndices =
-                  IntStream.range(0, numberOfParamTypes)
-                      .filter(i -> parameterTypes.get(i).isIndexed())
-                      .boxed()
-                      .collect(toUnmodifiableList());
-
-              final boolean isAnonymous = matchingSchema.getEventName() == null;
-              final List<Bytes32> indexedTopics =
-                  logWithMetadata.getTopics().stream()
-                      // Skip the first topic since it's the hash of the entire log signature
-                      .skip(isAnonymous ? 0 : 1)
-                      .collect(toUnmodifiableList());
-
-              final List<TypeReference> indexedTopicTypes =
-                  parameterTypes.stream()
-                      .filter(TypeReference::isIndexed)
-                      .collect(toUnmodifiableList());
-
-              IntStream.range(0, indexedTopics.size())
-                  .forEach(
-                      i ->
-                          decodedArguments.add(
-                              indexedParameterIndices.get(i),
-                              FunctionReturnDecoder.decodeIndexedValue(
-                                  indexedTopics.get(i).toHexString(), indexedTopicTypes.get(i))));
-
-              checkState(
-                  decodedArguments.size() == numberOfParamTypes, "Mismatched number of args");
-
-              return new DecodedLogWithMetadata(
-                  logWithMetadata,
-                  String.format(
-                      "%s%s",
-                      isAnonymous ? "" : matchingSchema.getEventName(),
-                      decodedArguments.stream()
-                          .map(Type::getValue)
-                          .collect(toUnmodifiableList())
-                          .toString()
-                          .replace(" ", "")
-                          .replace('[', '(')
-                          .replace(']', ')')));
-            })
+            matchingSchema ->
+                matchingSchema
+                    .getDecodingPlan()
+                    .map(
+                        plan ->
+                            new DecodedLogWithMetadata(
+                                logWithMetadata,
+                                matchingSchema.getEventName(),
+                                plan.decode(logWithMetadata.getTopics(), logWithMetadata.getData()),
+                                matchingSchema.getId()))
+                    .orElseGet(() -> decodeWithAbiDecoder(matchingSchema, logWithMetadata)))
         // if there's no matching schema return the same thing we were passed
         .orElse(logWithMetadata);
   }
+
+  /**
+   * decode the log with the web3j ABI decoder, for the schemas without a decoding plan
+   *
+   * @param matchingSchema the schema of the log
+   * @param logWithMetadata log with metadata
+   * @return the decoded log
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static DecodedLogWithMetadata decodeWithAbiDecoder(
+      final EventSchema matchingSchema, final LogWithMetadata logWithMetadata) {
+    final List<TypeReference<Type>> parameterTypes = matchingSchema.getParameterTypes();
+
+    // First fill a list with the arguments decoded from the data field
+    final List<Type> decodedArguments =
+        FunctionReturnDecoder.decode(
+            logWithMetadata.getData().toHexString(),
+            parameterTypes.stream()
+                .filter(parameterType -> !parameterType.isIndexed())
+                .collect(toUnmodifiableList()));
+
+    // Then decode the indexed arguments (which are topics), and insert them into the list
+    // from above at the appropriate indices
+    final int numberOfParamTypes = parameterTypes.size();
+    final List<Integer> indexedParameterIndices =
+        IntStream.range(0, numberOfParamTypes)
+            .filter(i -> parameterTypes.get(i).isIndexed())
+            .boxed()
+            .collect(toUnmodifiableList());
+
+    final boolean isAnonymous = matchingSchema.getEventName() == null;
+    final List<Bytes32> indexedTopics =
+        logWithMetadata.getTopics().stream()
+            // Skip the first topic since it's the hash of the entire log signature
+            .skip(isAnonymous ? 0 : 1)
+            .collect(toUnmodifiableList());
+
+    final List<TypeReference> indexedTopicTypes =
+        parameterTypes.stream().filter(TypeReference::isIndexed).collect(toUnmodifiableList());
+
+    IntStream.range(0, indexedTopics.size())
+        .forEach(
+            i ->
+                decodedArguments.add(
+                    indexedParameterIndices.get(i),
+                    FunctionReturnDecoder.decodeIndexedValue(
+                        indexedTopics.get(i).toHexString(), indexedTopicTypes.get(i))));
+
+    checkState(decodedArguments.size() == numberOfParamTypes, "Mismatched number of args");
+
+    final List<String> parameterNames = matchingSchema.getParameterNames();
+    final List<String> parameterTypeNames = matchingSchema.getParameterTypeNames();
+    return new DecodedLogWithMetadata(
+        logWithMetadata,
+        matchingSchema.getEventName(),
+        IntStream.range(0, numberOfParamTypes)
+            .mapToObj(
+                i ->
+                    new DecodedParameter(
+                        parameterNames.get(i),
+                        parameterTypeNames.get(i),
+                        formatValue(decodedArguments.get(i).getValue()),
+                        parameterTypes.get(i).isIndexed()))
+            .collect(toUnmodifiableList()),
+        matchingSchema.getId());
+  }
+
+  /** Format a value decoded by web3j, with the bytes in hex and the arrays in brackets. */
+  @SuppressWarnings("rawtypes")
+  private static String formatValue(final Object value) {
+    if (value instanceof byte[]) {
+      return Bytes.wrap((byte[]) value).toHexString();
+    } else if (value instanceof List) {
+      return ((List<?>) value)
+          .stream()
+              .map(
+                  element ->
+                      formatValue(element instanceof Type ? ((Type) element).getValue() : element))
+              .collect(joining(",", "[", "]"));
+    }
+    return String.valueOf(value);
+  }
 }
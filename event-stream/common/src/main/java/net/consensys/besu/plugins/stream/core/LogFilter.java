@@ -0,0 +1,180 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.core.config.EventSchema;
+import net.consensys.besu.plugins.stream.core.config.EventSchemaIndex;
+import net.consensys.besu.plugins.stream.core.config.EventSchemas;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.data.Address;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+
+/**
+ * The logs the plugin subscribes to, compiled once from the command line filters and the event
+ * schemas so that a single log listener delivers each log once.
+ *
+ * <p>A log is subscribed to when it matches the command line filters, which match every log when
+ * empty, or one of the event schemas. Besu can only filter logs on one list of addresses and one
+ * list of topics per position, so it is registered with a query covering both sources, and the logs
+ * it delivers are then matched exactly by {@link #matches(LogWithMetadata)}.
+ */
+public final class LogFilter {
+  private final ImmutableSet<Bytes> addresses;
+  private final ImmutableList<ImmutableSet<Bytes>> topics;
+  private final boolean matchesEveryLog;
+  private final EventSchemaIndex schemaIndex;
+  private final List<Address> queryAddresses;
+  private final List<List<Bytes32>> queryTopics;
+
+  private LogFilter(
+      final ImmutableSet<Bytes> addresses,
+      final ImmutableList<ImmutableSet<Bytes>> topics,
+      final EventSchemaIndex schemaIndex,
+      final List<Address> queryAddresses,
+      final List<List<Bytes32>> queryTopics) {
+    this.addresses = addresses;
+    this.topics = topics;
+    this.matchesEveryLog = addresses.isEmpty() && topics.stream().allMatch(ImmutableSet::isEmpty);
+    this.schemaIndex = schemaIndex;
+    this.queryAddresses = queryAddresses;
+    this.queryTopics = queryTopics;
+  }
+
+  /**
+   * compile the filter of the given command line filters and event schemas
+   *
+   * @param addresses the addresses of the command line filter, any address when empty
+   * @param topics the topics of the command line filter by position, any topic for the positions
+   *     which are null or empty
+   * @param eventSchemas the event schemas
+   * @return the compiled filter
+   */
+  public static LogFilter compile(
+      final List<? extends Address> addresses,
+      final List<List<Bytes32>> topics,
+      final EventSchemas eventSchemas) {
+    final ImmutableSet<Bytes> addressSet = ImmutableSet.copyOf(addresses);
+    final ImmutableList<ImmutableSet<Bytes>> topicSets =
+        topics.stream()
+            .map(
+                alternatives ->
+                    alternatives == null
+                        ? ImmutableSet.<Bytes>of()
+                        : ImmutableSet.<Bytes>copyOf(alternatives))
+            .collect(ImmutableList.toImmutableList());
+    final List<Address> queryAddresses;
+    final List<List<Bytes32>> queryTopics;
+    if (eventSchemas.getSchemas().isEmpty()) {
+      queryAddresses = List.copyOf(addresses);
+      queryTopics = topics;
+    } else {
+      // the schemas match logs of their contracts only, unless they match any contract, with their
+      // event topic first unless the event is anonymous, so the query is widened to both sources
+      // position by position
+      final boolean anyContractSchemas =
+          eventSchemas.getSchemas().stream().anyMatch(EventSchema::matchesAnyContract);
+      queryAddresses =
+          addressSet.isEmpty() || anyContractSchemas
+              ? List.of()
+              : ImmutableSet.<Address>builder()
+                  .addAll(addresses)
+                  .addAll(
+                      eventSchemas.getSchemas().stream()
+                          .map(EventSchema::getContractAddress)
+                          .iterator())
+                  .build()
+                  .asList();
+      final boolean anonymousSchemas =
+          eventSchemas.getSchemas().stream().anyMatch(schema -> schema.getEventName() == null);
+      queryTopics =
+          topicSets.isEmpty() || topicSets.get(0).isEmpty() || anonymousSchemas
+              ? List.of()
+              : List.of(
+                  ImmutableSet.<Bytes32>builder()
+                      .addAll(topics.get(0))
+                      .addAll(
+                          eventSchemas.getSchemas().stream().map(EventSchema::getTopic).iterator())
+                      .build()
+                      .asList());
+    }
+    return new LogFilter(
+        addressSet, topicSets, eventSchemas.getIndex(), queryAddresses, queryTopics);
+  }
+
+  /**
+   * getter for the addresses Besu filters the logs on before delivering them
+   *
+   * @return the addresses, any address when empty
+   */
+  public List<Address> getQueryAddresses() {
+    return queryAddresses;
+  }
+
+  /**
+   * getter for the topics Besu filters the logs on before delivering them
+   *
+   * @return the topics by position, any topic for the positions which are null or empty
+   */
+  public List<List<Bytes32>> getQueryTopics() {
+    return queryTopics;
+  }
+
+  /**
+   * whether the log is subscribed to
+   *
+   * @param log the log
+   * @return true when the log matches the command line filters or one of the event schemas
+   */
+  public boolean matches(final LogWithMetadata log) {
+    return matches(log, true);
+  }
+
+  /**
+   * whether the log is subscribed to, looking the event schemas up only when they may match
+   *
+   * @param log the log
+   * @param mayMatchSchemas false when the log is known not to match any event schema, e.g. from the
+   *     logs bloom of its block
+   * @return true when the log matches the command line filters or one of the event schemas
+   */
+  public boolean matches(final LogWithMetadata log, final boolean mayMatchSchemas) {
+    return matchesEveryLog || matchesCommandLine(log) || (mayMatchSchemas && matchesSchemas(log));
+  }
+
+  private boolean matchesCommandLine(final LogWithMetadata log) {
+    if (!addresses.isEmpty() && !addresses.contains(log.getLogger())) {
+      return false;
+    }
+    final List<? extends Bytes32> logTopics = log.getTopics();
+    for (int i = 0; i < topics.size(); i++) {
+      final ImmutableSet<Bytes> alternatives = topics.get(i);
+      if (!alternatives.isEmpty()
+          && (i >= logTopics.size() || !alternatives.contains(logTopics.get(i)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean matchesSchemas(final LogWithMetadata log) {
+    return !schemaIndex.match(log.getLogger(), log.getTopics()).isEmpty();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hyperledger.besu.plugin.data.Hash;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.hyperledger.besu.plugin.services.BesuEvents;
+
+/**
+ * The log listeners registered with Besu for a {@link LogFilter}, which can be replaced while logs
+ * are emitted.
+ *
+ * <p>The listener of a new filter is registered before the previous one is removed, so both receive
+ * logs for a while. Each block is owned by the listener which was the latest registered when its
+ * first log was received, and only the owner delivers its logs: a block is delivered with a single
+ * filter, neither twice nor partly. A replaced listener is removed once a block is owned by a later
+ * one, as Besu has then finished emitting the logs it owns.
+ */
+final class LogSubscriptions {
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final BesuEvents events;
+  private final BesuEvents.LogListener sink;
+  private final List<Registration> replaced = new ArrayList<>();
+  private Registration latest;
+  private Hash currentBlock;
+  private Registration currentBlockOwner;
+  private boolean closed;
+
+  LogSubscriptions(final BesuEvents events, final BesuEvents.LogListener sink) {
+    this.events = events;
+    this.sink = sink;
+  }
+
+  /**
+   * Register a log listener for the filter, replacing the listener of the previous filter. Nothing
+   * is registered once closed.
+   *
+   * @param filter the log filter
+   * @return the identifier of the new log listener
+   */
+  long subscribe(final LogFilter filter) {
+    final Registration registration = new Registration(filter);
+    final long id =
+        events.addLogListener(filter.getQueryAddresses(), filter.getQueryTopics(), registration);
+    synchronized (this) {
+      registration.id = id;
+      if (closed) {
+        events.removeLogListener(id);
+        return id;
+      }
+      if (latest != null) {
+        replaced.add(latest);
+      }
+      latest = registration;
+    }
+    return id;
+  }
+
+  /** Remove every log listener. */
+  synchronized void close() {
+    closed = true;
+    if (latest != null) {
+      replaced.add(latest);
+      latest = null;
+    }
+    removeReplaced();
+    currentBlockOwner = null;
+  }
+
+  private synchronized boolean owns(final Registration registration, final Hash blockHash) {
+    if (!blockHash.equals(currentBlock)) {
+      currentBlock = blockHash;
+      currentBlockOwner = latest;
+      if (!replaced.isEmpty()) {
+        removeReplaced();
+      }
+    }
+    return registration == currentBlockOwner;
+  }
+
+  private void removeReplaced() {
+    replaced.forEach(
+        registration -> {
+          events.removeLogListener(registration.id);
+          LOGGER.debug("Removed replaced log listener {}", registration.id);
+        });
+    replaced.clear();
+  }
+
+  private final class Registration implements BesuEvents.LogListener {
+    private final LogFilter filter;
+    private long id;
+
+    private Registration(final LogFilter filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    public void onLogEmitted(final LogWithMetadata log) {
+      if (owns(this, log.getBlockHash()) && filter.matches(log)) {
+        sink.onLogEmitted(log);
+      }
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import java.util.Arrays;
+
+/**
+ * A bounded set of {@code long} keys evicting the least recently used one when full.
+ *
+ * <p>The keys are held in primitive arrays: an open addressing table with linear probing indexes
+ * the entries, which are chained from the most to the least recently used. Adding or looking up a
+ * key allocates nothing. Not thread safe.
+ */
+final class LongLruSet {
+  private static final int NONE = -1;
+
+  private final int capacity;
+  private final long[] keys;
+  private final int[] previous;
+  private final int[] next;
+  private final int[] table;
+  private final int mask;
+  private int size;
+  private int head = NONE;
+  private int tail = NONE;
+
+  /**
+   * Create an empty set.
+   *
+   * @param capacity the number of keys kept
+   */
+  LongLruSet(final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.keys = new long[capacity];
+    this.previous = new int[capacity];
+    this.next = new int[capacity];
+    this.table = new int[Integer.highestOneBit(capacity) << 2];
+    this.mask = table.length - 1;
+    Arrays.fill(table, NONE);
+  }
+
+  /**
+   * Look a key up, marking it as the most recently used when present.
+   *
+   * @param key the key
+   * @return whether the key is in the set
+   */
+  boolean contains(final long key) {
+    final int entry = table[slotOf(key)];
+    if (entry == NONE) {
+      return false;
+    }
+    unlink(entry);
+    linkFirst(entry);
+    return true;
+  }
+
+  /**
+   * Add a key as the most recently used, evicting the least recently used key when full.
+   *
+   * @param key the key
+   */
+  void add(final long key) {
+    if (contains(key)) {
+      return;
+    }
+    final int entry;
+    if (size == capacity) {
+      entry = tail;
+      unlink(entry);
+      removeSlot(slotOf(keys[entry]));
+    } else {
+      entry = size++;
+    }
+    keys[entry] = key;
+    table[slotOf(key)] = entry;
+    linkFirst(entry);
+  }
+
+  /**
+   * return the number of keys in the set
+   *
+   * @return the number of keys
+   */
+  int size() {
+    return size;
+  }
+
+  /** Find the slot holding the key, or the empty slot ending its probe sequence. */
+  private int slotOf(final long key) {
+    int slot = home(key);
+    while (table[slot] != NONE && keys[table[slot]] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int home(final long key) {
+    return (int) (((key ^ (key >>> 32)) * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+  }
+
+  /** Empty a slot, shifting back the entries of the probe sequence it interrupts. */
+  private void removeSlot(final int slot) {
+    int hole = slot;
+    int current = slot;
+    while (true) {
+      current = (current + 1) & mask;
+      final int entry = table[current];
+      if (entry == NONE) {
+        break;
+      }
+      final int home = home(keys[entry]);
+      if (((current - home) & mask) >= ((current - hole) & mask)) {
+        table[hole] = entry;
+        hole = current;
+      }
+    }
+    table[hole] = NONE;
+  }
+
+  private void unlink(final int entry) {
+    final int before = previous[entry];
+    final int after = next[entry];
+    if (before == NONE) {
+      head = after;
+    } else {
+      next[before] = after;
+    }
+    if (after == NONE) {
+      tail = before;
+    } else {
+      previous[after] = before;
+    }
+  }
+
+  private void linkFirst(final int entry) {
+    previous[entry] = NONE;
+    next[entry] = head;
+    if (head == NONE) {
+      tail = entry;
+    } else {
+      previous[head] = entry;
+    }
+    head = entry;
+  }
+}
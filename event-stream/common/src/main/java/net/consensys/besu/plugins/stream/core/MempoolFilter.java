@@ -0,0 +1,197 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.hyperledger.besu.plugin.data.Hash;
+
+/**
+ * Thins out the transaction pool events before they are serialized.
+ *
+ * <p>Each of the added and dropped transaction events goes through its own stage:
+ *
+ * <ul>
+ *   <li>sampling keeps a fixed share of the transactions, chosen from their hash so that the added
+ *       and dropped events of a transaction are kept or skipped together
+ *   <li>deduplication skips the transactions published recently, which Besu reports again after
+ *       evicting or replacing them
+ *   <li>a token bucket caps the number of events per second, allowing a burst of one second
+ * </ul>
+ *
+ * Transactions are identified by the first eight bytes of their hash.
+ */
+final class MempoolFilter {
+  private static final double UNSAMPLED = 1.0;
+
+  private final long sampleThreshold;
+  private final Stage added;
+  private final Stage dropped;
+  private final AtomicLong sampledOut = new AtomicLong();
+  private final AtomicLong deduplicated = new AtomicLong();
+  private final AtomicLong rateLimited = new AtomicLong();
+
+  @VisibleForTesting
+  MempoolFilter(
+      final double sampleRate,
+      final int dedupCapacity,
+      final int addedRateLimit,
+      final int droppedRateLimit,
+      final LongSupplier nanoClock) {
+    if (sampleRate < 0 || sampleRate > UNSAMPLED) {
+      throw new IllegalArgumentException("sample rate must be between 0 and 1");
+    }
+    this.sampleThreshold = (long) (sampleRate * (1L << 53));
+    this.added = new Stage(dedupCapacity, addedRateLimit, nanoClock);
+    this.dropped = new Stage(dedupCapacity, droppedRateLimit, nanoClock);
+  }
+
+  /**
+   * Create the filter configured, nothing when every stage is disabled. A sample rate of one
+   * disables sampling, a sample rate of zero skips every transaction.
+   */
+  static Optional<MempoolFilter> create(final EventStreamConfiguration configuration) {
+    if (configuration == null) {
+      return Optional.empty();
+    }
+    final double sampleRate = configuration.getMempoolSampleRate();
+    final boolean sampled = sampleRate < UNSAMPLED;
+    if (!sampled
+        && configuration.getMempoolDedupCapacity() <= 0
+        && configuration.getMempoolTransactionAddedRateLimit() <= 0
+        && configuration.getMempoolTransactionDroppedRateLimit() <= 0) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new MempoolFilter(
+            sampled ? sampleRate : UNSAMPLED,
+            configuration.getMempoolDedupCapacity(),
+            configuration.getMempoolTransactionAddedRateLimit(),
+            configuration.getMempoolTransactionDroppedRateLimit(),
+            System::nanoTime));
+  }
+
+  /**
+   * Decide whether a transaction added event is published.
+   *
+   * @param hash the transaction hash
+   * @return whether the event is published
+   */
+  boolean acceptAdded(final Hash hash) {
+    return accept(added, hash);
+  }
+
+  /**
+   * Decide whether a transaction dropped event is published.
+   *
+   * @param hash the transaction hash
+   * @return whether the event is published
+   */
+  boolean acceptDropped(final Hash hash) {
+    return accept(dropped, hash);
+  }
+
+  /**
+   * return the number of events skipped by sampling
+   *
+   * @return the number of events
+   */
+  long getSampledOutCount() {
+    return sampledOut.get();
+  }
+
+  /**
+   * return the number of events skipped as duplicates
+   *
+   * @return the number of events
+   */
+  long getDeduplicatedCount() {
+    return deduplicated.get();
+  }
+
+  /**
+   * return the number of events skipped by the rate limits
+   *
+   * @return the number of events
+   */
+  long getRateLimitedCount() {
+    return rateLimited.get();
+  }
+
+  private boolean accept(final Stage stage, final Hash hash) {
+    final long key = hash.getLong(0);
+    if ((key >>> 11) >= sampleThreshold) {
+      sampledOut.incrementAndGet();
+      return false;
+    }
+    synchronized (stage) {
+      if (stage.seen != null && stage.seen.contains(key)) {
+        deduplicated.incrementAndGet();
+        return false;
+      }
+      if (stage.bucket != null && !stage.bucket.tryAcquire()) {
+        rateLimited.incrementAndGet();
+        return false;
+      }
+      if (stage.seen != null) {
+        stage.seen.add(key);
+      }
+      return true;
+    }
+  }
+
+  private static final class Stage {
+    private final LongLruSet seen;
+    private final TokenBucket bucket;
+
+    private Stage(final int dedupCapacity, final int rateLimit, final LongSupplier nanoClock) {
+      this.seen = dedupCapacity > 0 ? new LongLruSet(dedupCapacity) : null;
+      this.bucket = rateLimit > 0 ? new TokenBucket(rateLimit, nanoClock) : null;
+    }
+  }
+
+  private static final class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long refilledAt;
+
+    private TokenBucket(final int tokensPerSecond, final LongSupplier nanoClock) {
+      this.capacity = tokensPerSecond;
+      this.tokensPerNano = tokensPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+      this.nanoClock = nanoClock;
+      this.tokens = capacity;
+      this.refilledAt = nanoClock.getAsLong();
+    }
+
+    private boolean tryAcquire() {
+      final long now = nanoClock.getAsLong();
+      tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+      refilledAt = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+  }
+}
@@ -15,10 +15,21 @@
 package net.consensys.besu.plugins.stream.core;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hyperledger.besu.plugin.BesuContext;
@@ -30,13 +41,27 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
 
-/** Metadata DB */
+/**
+ * Metadata DB
+ *
+ * <p>The latest published block is kept in memory and is the authoritative value: it is advanced
+ * with compare-and-set and written behind to the storage, coalesced every flush interval and on
+ * {@link #close()}. A crash loses at most the updates of the last flush interval.
+ *
+ * <p>The delivery checkpoints, the highest block acknowledged by the broker per topic, are kept and
+ * flushed the same way.
+ */
 public class MetadataDB {
   private static final Logger LOG = LogManager.getLogger();
 
   private final KeyValueStorage storage;
+  private final AtomicReference<LatestBlock> latestBlock;
+  private final Optional<ScheduledExecutorService> flushScheduler;
+  private final Map<String, Long> checkpoints = new ConcurrentHashMap<>();
+  private final Map<String, Long> flushedCheckpoints = new HashMap<>();
+  private LatestBlock flushedBlock;
 
-  static MetadataDB create(final BesuContext context) {
+  static MetadataDB create(final BesuContext context, final Duration flushInterval) {
     return new MetadataDB(
         context
             .getService(StorageService.class)
@@ -58,53 +83,170 @@ public class MetadataDB {
                     .getService(MetricsSystem.class)
                     .orElseThrow(
                         () ->
-                            new IllegalStateException(
-                                "Missing mandatory MetricsSystem service."))));
+                            new IllegalStateException("Missing mandatory MetricsSystem service."))),
+        flushInterval);
   }
 
-  private MetadataDB(final KeyValueStorage storage) {
+  /**
+   * Load the latest block from the storage. A zero or negative flush interval writes every update
+   * through to the storage.
+   */
+  @VisibleForTesting
+  MetadataDB(final KeyValueStorage storage, final Duration flushInterval) {
     this.storage = storage;
+    this.flushedBlock =
+        new LatestBlock(
+            storage.get(Keys.LATEST_BLOCK_NUMBER_KEY).map(Longs::fromByteArray),
+            storage.get(Keys.LATEST_BLOCK_HASH_KEY));
+    this.latestBlock = new AtomicReference<>(flushedBlock);
+    if (flushInterval.isNegative() || flushInterval.isZero()) {
+      this.flushScheduler = Optional.empty();
+    } else {
+      final ScheduledExecutorService scheduler =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder()
+                  .setNameFormat("event-stream-metadata-flush")
+                  .setDaemon(true)
+                  .build());
+      scheduler.scheduleWithFixedDelay(
+          this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+      this.flushScheduler = Optional.of(scheduler);
+    }
   }
 
   Optional<Long> getLatestBlockNumber() {
-    return storage.get(Keys.LATEST_BLOCK_NUMBER_KEY).map(Longs::fromByteArray);
+    return latestBlock.get().number;
   }
 
   void setLatestBlockNumber(final long latestBlockNumber) {
-    put(Keys.LATEST_BLOCK_NUMBER_KEY, Longs.toByteArray(latestBlockNumber));
+    latestBlock.updateAndGet(
+        current -> new LatestBlock(Optional.of(latestBlockNumber), current.hash));
+    writeThrough();
   }
 
   Optional<byte[]> getLatestBlockHash() {
-    return storage.get(Keys.LATEST_BLOCK_HASH_KEY);
+    return latestBlock.get().hash.map(byte[]::clone);
   }
 
   void setLatestBlockHash(final Hash latestBlockHash) {
-    put(Keys.LATEST_BLOCK_HASH_KEY, latestBlockHash.toArray());
+    setLatestBlockHash(latestBlockHash.toArray());
   }
 
   void setLatestBlockHash(final byte[] latestBlockHash) {
-    put(Keys.LATEST_BLOCK_HASH_KEY, latestBlockHash);
+    final Optional<byte[]> hash = Optional.of(latestBlockHash.clone());
+    latestBlock.updateAndGet(current -> new LatestBlock(current.number, hash));
+    writeThrough();
   }
 
-  private void put(final byte[] key, final byte[] value) {
-    final KeyValueStorageTransaction tx = storage.startTransaction();
-    try {
-      tx.put(key, value);
-      tx.commit();
-    } catch (Exception e) {
-      LOG.error("Cannot store value in config store.", e);
-      tx.rollback();
+  /**
+   * Advance the latest block if the given one is newer, or is a different block at the same height.
+   * Only memory is touched, the new value reaches the storage on the next flush.
+   *
+   * @param blockNumber the number of the block
+   * @param blockHash the hash of the block
+   * @return whether the latest block was advanced
+   */
+  boolean advanceLatestBlock(final long blockNumber, final Hash blockHash) {
+    final byte[] hash = blockHash.toArray();
+    final LatestBlock candidate = new LatestBlock(Optional.of(blockNumber), Optional.of(hash));
+    while (true) {
+      final LatestBlock current = latestBlock.get();
+      if (!current.isSupersededBy(blockNumber, hash)) {
+        return false;
+      }
+      if (latestBlock.compareAndSet(current, candidate)) {
+        writeThrough();
+        return true;
+      }
     }
   }
 
-  void putAllSingleTransaction(final Map<byte[], byte[]> entries) {
+  /**
+   * Get the delivery checkpoint of a topic, from memory or else from the storage.
+   *
+   * @param topic the topic
+   * @return the highest block whose events, and those of every lower block, were acknowledged
+   */
+  Optional<Long> getCheckpoint(final String topic) {
+    final Long checkpoint = checkpoints.get(topic);
+    return checkpoint != null
+        ? Optional.of(checkpoint)
+        : storage.get(Keys.checkpointKey(topic)).map(Longs::fromByteArray);
+  }
+
+  /**
+   * Advance the delivery checkpoint of a topic if the given block is higher. Only memory is
+   * touched, the new value reaches the storage on the next flush.
+   *
+   * @param topic the topic
+   * @param blockNumber the acknowledged block number
+   */
+  void advanceCheckpoint(final String topic, final long blockNumber) {
+    checkpoints.merge(topic, blockNumber, Math::max);
+    writeThrough();
+  }
+
+  /**
+   * Write the latest block and the delivery checkpoints to the storage if they changed since the
+   * previous flush.
+   */
+  synchronized void flush() {
+    final LatestBlock current = latestBlock.get();
+    final Map<String, Long> changedCheckpoints = new HashMap<>();
+    checkpoints.forEach(
+        (topic, checkpoint) -> {
+          if (!checkpoint.equals(flushedCheckpoints.get(topic))) {
+            changedCheckpoints.put(topic, checkpoint);
+          }
+        });
+    if (current == flushedBlock && changedCheckpoints.isEmpty()) {
+      return;
+    }
+    final ImmutableMap.Builder<byte[], byte[]> entries = ImmutableMap.builder();
+    if (current != flushedBlock) {
+      current.number.ifPresent(
+          number -> entries.put(Keys.LATEST_BLOCK_NUMBER_KEY, Longs.toByteArray(number)));
+      current.hash.ifPresent(hash -> entries.put(Keys.LATEST_BLOCK_HASH_KEY, hash));
+    }
+    changedCheckpoints.forEach(
+        (topic, checkpoint) ->
+            entries.put(Keys.checkpointKey(topic), Longs.toByteArray(checkpoint)));
+    if (putAllSingleTransaction(entries.build())) {
+      flushedBlock = current;
+      flushedCheckpoints.putAll(changedCheckpoints);
+    }
+  }
+
+  /** Stop the periodic flush and write the pending updates to the storage. */
+  void close() {
+    flushScheduler.ifPresent(
+        scheduler -> {
+          scheduler.shutdown();
+          try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    flush();
+  }
+
+  private void writeThrough() {
+    if (flushScheduler.isEmpty()) {
+      flush();
+    }
+  }
+
+  boolean putAllSingleTransaction(final Map<byte[], byte[]> entries) {
     final KeyValueStorageTransaction tx = storage.startTransaction();
     try {
       entries.forEach(tx::put);
       tx.commit();
+      return true;
     } catch (Exception e) {
       LOG.error("Cannot store value in config store.", e);
       tx.rollback();
+      return false;
     }
   }
 
@@ -122,10 +264,36 @@ public class MetadataDB {
     };
   }
 
+  private static final class LatestBlock {
+    private final Optional<Long> number;
+    private final Optional<byte[]> hash;
+
+    private LatestBlock(final Optional<Long> number, final Optional<byte[]> hash) {
+      this.number = number;
+      this.hash = hash;
+    }
+
+    private boolean isSupersededBy(final long blockNumber, final byte[] blockHash) {
+      return number
+          .map(
+              latest ->
+                  blockNumber > latest
+                      || (blockNumber == latest
+                          && hash.isPresent()
+                          && !Arrays.equals(hash.get(), blockHash)))
+          .orElse(true);
+    }
+  }
+
   static class Keys {
     static final byte[] LATEST_BLOCK_NUMBER_KEY =
         "LATEST_BLOCK_NUMBER".getBytes(StandardCharsets.UTF_8);
     static final byte[] LATEST_BLOCK_HASH_KEY =
         "LATEST_BLOCK_HASH".getBytes(StandardCharsets.UTF_8);
+    private static final String CHECKPOINT_KEY_PREFIX = "CHECKPOINT:";
+
+    static byte[] checkpointKey(final String topic) {
+      return (CHECKPOINT_KEY_PREFIX + topic).getBytes(StandardCharsets.UTF_8);
+    }
   }
 }
@@ -14,199 +14,249 @@
  */
 package net.consensys.besu.plugins.stream.core;
 
-import static java.util.stream.Collectors.toUnmodifiableList;
-
 import net.consensys.besu.plugins.stream.model.payload.BlockPayload;
 import net.consensys.besu.plugins.stream.model.payload.TransactionPayload;
 import net.consensys.besu.plugins.types.DecodedLogWithMetadata;
-import net.consensys.besu.plugins.types.QuantityFormatter;
+import net.consensys.besu.plugins.types.DecodedParameter;
+import net.consensys.besu.plugins.types.HexEncoder;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.BooleanNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.tuweni.bytes.Bytes;
-import org.hyperledger.besu.plugin.data.Address;
+import org.apache.tuweni.bytes.Bytes32;
 import org.hyperledger.besu.plugin.data.BlockHeader;
 import org.hyperledger.besu.plugin.data.LogWithMetadata;
 import org.hyperledger.besu.plugin.data.SyncStatus;
 import org.hyperledger.besu.plugin.data.Transaction;
 
-/** Interface for the Serializer */
+/**
+ * Streaming JSON serializers for the published payloads. Each method writes exactly one JSON value
+ * to the given generator, keeping the field order of the published events.
+ */
 public interface Serializer {
   /** logger */
   Logger LOG = LogManager.getLogger();
 
+  /** solidity type of the decoded parameters written as JSON booleans */
+  String BOOL_TYPE = "bool";
+
   /**
    * serialize to JSON
    *
-   * @param mapper the mapper to use
+   * @param generator the generator to write to
    * @param maybeSyncStatus the optional {@link SyncStatus} to serialize
-   * @return the serialized JSON
+   * @throws IOException when the generator fails to write
    */
-  static JsonNode serialize(final ObjectMapper mapper, final Optional<SyncStatus> maybeSyncStatus) {
+  static void serialize(final JsonGenerator generator, final Optional<SyncStatus> maybeSyncStatus)
+      throws IOException {
     if (maybeSyncStatus.isPresent()) {
       final SyncStatus syncStatus = maybeSyncStatus.get();
-      final ObjectNode eventNode = mapper.createObjectNode();
-      eventNode
-          .put("startingBlock", QuantityFormatter.format(syncStatus.getStartingBlock()))
-          .put("currentBlock", QuantityFormatter.format(syncStatus.getCurrentBlock()))
-          .put("highestBlock", QuantityFormatter.format(syncStatus.getHighestBlock()));
-      return eventNode;
+      generator.writeStartObject();
+      HexEncoder.writeQuantityField(generator, "startingBlock", syncStatus.getStartingBlock());
+      HexEncoder.writeQuantityField(generator, "currentBlock", syncStatus.getCurrentBlock());
+      HexEncoder.writeQuantityField(generator, "highestBlock", syncStatus.getHighestBlock());
+      generator.writeEndObject();
     } else {
-      return BooleanNode.FALSE;
+      generator.writeBoolean(false);
     }
   }
 
   /**
    * serialize to JSON
    *
-   * @param mapper the mapper to use
+   * @param generator the generator to write to
    * @param blockHeader the {@link BlockHeader} to serialize
-   * @return the serialized JSON
+   * @throws IOException when the generator fails to write
    */
-  static JsonNode serialize(final ObjectMapper mapper, final BlockHeader blockHeader) {
-    final ObjectNode eventNode = mapper.createObjectNode();
-    eventNode
-        .put("hash", blockHeader.getBlockHash().toHexString())
-        .put("number", QuantityFormatter.format(blockHeader.getNumber()))
-        .put("nonce", QuantityFormatter.format(blockHeader.getNonce()))
-        .put("difficulty", QuantityFormatter.format(blockHeader.getDifficulty()))
-        .put("gasLimit", QuantityFormatter.format(blockHeader.getGasLimit()))
-        .put("gasUsed", QuantityFormatter.format(blockHeader.getGasUsed()))
-        .put("timestamp", QuantityFormatter.format(blockHeader.getTimestamp()))
-        .put("coinbase", blockHeader.getCoinbase().toHexString())
-        .put("extraData", blockHeader.getExtraData().toHexString())
-        .put("logsBloom", blockHeader.getLogsBloom().toHexString())
-        .put("mixHash", blockHeader.getMixHash().toHexString())
-        .put("ommersHash", blockHeader.getOmmersHash().toHexString())
-        .put("parentHash", blockHeader.getParentHash().toHexString())
-        .put("receiptsRoot", blockHeader.getReceiptsRoot().toHexString())
-        .put("transactionsRoot", blockHeader.getTransactionsRoot().toHexString())
-        .put("stateRoot", blockHeader.getStateRoot().toHexString());
+  static void serialize(final JsonGenerator generator, final BlockHeader blockHeader)
+      throws IOException {
+    generator.writeRawValue(BlockHeaderFragments.get(blockHeader));
+  }
 
-    return eventNode;
+  /**
+   * serialize to JSON, bypassing the {@link BlockHeaderFragments} cache
+   *
+   * @param generator the generator to write to
+   * @param blockHeader the {@link BlockHeader} to serialize
+   * @throws IOException when the generator fails to write
+   */
+  static void serializeUncached(final JsonGenerator generator, final BlockHeader blockHeader)
+      throws IOException {
+    generator.writeStartObject();
+    HexEncoder.writeBytesField(generator, "hash", blockHeader.getBlockHash());
+    HexEncoder.writeQuantityField(generator, "number", blockHeader.getNumber());
+    HexEncoder.writeQuantityField(generator, "nonce", blockHeader.getNonce());
+    HexEncoder.writeQuantityField(generator, "difficulty", blockHeader.getDifficulty());
+    HexEncoder.writeQuantityField(generator, "gasLimit", blockHeader.getGasLimit());
+    HexEncoder.writeQuantityField(generator, "gasUsed", blockHeader.getGasUsed());
+    HexEncoder.writeQuantityField(generator, "timestamp", blockHeader.getTimestamp());
+    HexEncoder.writeBytesField(generator, "coinbase", blockHeader.getCoinbase());
+    HexEncoder.writeBytesField(generator, "extraData", blockHeader.getExtraData());
+    HexEncoder.writeBytesField(generator, "logsBloom", blockHeader.getLogsBloom());
+    HexEncoder.writeBytesField(generator, "mixHash", blockHeader.getMixHash());
+    HexEncoder.writeBytesField(generator, "ommersHash", blockHeader.getOmmersHash());
+    HexEncoder.writeBytesField(generator, "parentHash", blockHeader.getParentHash());
+    HexEncoder.writeBytesField(generator, "receiptsRoot", blockHeader.getReceiptsRoot());
+    HexEncoder.writeBytesField(generator, "transactionsRoot", blockHeader.getTransactionsRoot());
+    HexEncoder.writeBytesField(generator, "stateRoot", blockHeader.getStateRoot());
+    generator.writeEndObject();
   }
 
   /**
    * serialize to JSON
    *
-   * @param mapper the mapper to use
+   * @param generator the generator to write to
    * @param transaction the {@link Transaction} to serialize
-   * @return the serialized JSON
+   * @throws IOException when the generator fails to write
    */
-  static JsonNode serialize(final ObjectMapper mapper, final Transaction transaction) {
-    final ObjectNode eventNode = mapper.createObjectNode();
-    eventNode
-        .put("nonce", QuantityFormatter.format(transaction.getNonce()))
-        .put("gas", QuantityFormatter.format(transaction.getGasLimit()))
-        .put("value", QuantityFormatter.format(transaction.getValue()))
-        .put("v", QuantityFormatter.format(transaction.getV()))
-        .put("r", QuantityFormatter.format(transaction.getR()))
-        .put("s", QuantityFormatter.format(transaction.getS()))
-        .put("from", transaction.getSender().toHexString())
-        .put("input", transaction.getPayload().toHexString())
-        .put("hash", transaction.getHash().toHexString());
-    transaction
-        .getGasPrice()
-        .ifPresent(
-            gasPrice -> {
-              eventNode.put("gasPrice", QuantityFormatter.format(transaction.getGasPrice().get()));
-            });
-    transaction
-        .getMaxFeePerGas()
-        .ifPresent(
-            gasPrice -> {
-              eventNode.put(
-                  "maxFeePerGas", QuantityFormatter.format(transaction.getMaxFeePerGas().get()));
-              eventNode.put(
-                  "maxPriorityFeePerGas",
-                  QuantityFormatter.format(transaction.getMaxPriorityFeePerGas().get()));
-            });
-    transaction.getTo().map(Address::toHexString).ifPresent(to -> eventNode.put("to", to));
-    transaction
-        .getChainId()
-        .map(QuantityFormatter::format)
-        .ifPresent(chainId -> eventNode.put("chainId", chainId));
-
-    return eventNode;
+  static void serialize(final JsonGenerator generator, final Transaction transaction)
+      throws IOException {
+    generator.writeStartObject();
+    HexEncoder.writeQuantityField(generator, "nonce", transaction.getNonce());
+    HexEncoder.writeQuantityField(generator, "gas", transaction.getGasLimit());
+    HexEncoder.writeQuantityField(generator, "value", transaction.getValue());
+    HexEncoder.writeQuantityField(generator, "v", transaction.getV());
+    HexEncoder.writeQuantityField(generator, "r", transaction.getR());
+    HexEncoder.writeQuantityField(generator, "s", transaction.getS());
+    HexEncoder.writeBytesField(generator, "from", transaction.getSender());
+    HexEncoder.writeBytesField(generator, "input", transaction.getPayload());
+    HexEncoder.writeBytesField(generator, "hash", transaction.getHash());
+    if (transaction.getGasPrice().isPresent()) {
+      HexEncoder.writeQuantityField(generator, "gasPrice", transaction.getGasPrice().get());
+    }
+    if (transaction.getMaxFeePerGas().isPresent()) {
+      HexEncoder.writeQuantityField(generator, "maxFeePerGas", transaction.getMaxFeePerGas().get());
+      HexEncoder.writeQuantityField(
+          generator, "maxPriorityFeePerGas", transaction.getMaxPriorityFeePerGas().get());
+    }
+    if (transaction.getTo().isPresent()) {
+      HexEncoder.writeBytesField(generator, "to", transaction.getTo().get());
+    }
+    if (transaction.getChainId().isPresent()) {
+      HexEncoder.writeQuantityField(generator, "chainId", transaction.getChainId().get());
+    }
+    generator.writeEndObject();
   }
 
   /**
    * serialize to JSON
    *
-   * @param mapper the mapper to use
+   * @param generator the generator to write to
    * @param blockPayload the {@link BlockPayload} to serialize
-   * @return the serialized JSON
+   * @throws IOException when the generator fails to write
    */
-  static JsonNode serialize(final ObjectMapper mapper, final BlockPayload blockPayload) {
-    ObjectNode objectNode =
-        mapper
-            .createObjectNode()
-            .set("blockHeader", serialize(mapper, blockPayload.getBlockHeader()));
-    blockPayload
-        .getTotalDifficulty()
-        .ifPresent(
-            totalDifficulty ->
-                objectNode.put(
-                    "totalDifficulty", QuantityFormatter.format(totalDifficulty.toBigInteger())));
-    return objectNode;
+  static void serialize(final JsonGenerator generator, final BlockPayload blockPayload)
+      throws IOException {
+    generator.writeStartObject();
+    generator.writeFieldName("blockHeader");
+    serialize(generator, blockPayload.getBlockHeader());
+    if (blockPayload.getTotalDifficulty().isPresent()) {
+      HexEncoder.writeQuantityField(
+          generator, "totalDifficulty", blockPayload.getTotalDifficulty().get().toBigInteger());
+    }
+    generator.writeEndObject();
   }
 
   /**
    * serialize to JSON
    *
-   * @param mapper the mapper to use
+   * @param generator the generator to write to
    * @param transactionPayload the {@link TransactionPayload} to serialize
-   * @return the serialized JSON
+   * @throws IOException when the generator fails to write
    */
-  static JsonNode serialize(
-      final ObjectMapper mapper, final TransactionPayload transactionPayload) {
-    final ObjectNode eventNode = mapper.createObjectNode();
-    transactionPayload
-        .getBlockHeader()
-        .ifPresent(blockHeader -> eventNode.set("blockHeader", serialize(mapper, blockHeader)));
-    eventNode.set("transaction", serialize(mapper, transactionPayload.getTransaction()));
-    transactionPayload
-        .getMaybeRevertReason()
-        .ifPresent(revertReason -> eventNode.put("revertReason", revertReason));
-    return eventNode;
+  static void serialize(final JsonGenerator generator, final TransactionPayload transactionPayload)
+      throws IOException {
+    generator.writeStartObject();
+    if (transactionPayload.getBlockHeader().isPresent()) {
+      generator.writeFieldName("blockHeader");
+      serialize(generator, transactionPayload.getBlockHeader().get());
+    }
+    generator.writeFieldName("transaction");
+    serialize(generator, transactionPayload.getTransaction());
+    if (transactionPayload.getMaybeRevertReason().isPresent()) {
+      generator.writeStringField("revertReason", transactionPayload.getMaybeRevertReason().get());
+    }
+    generator.writeEndObject();
   }
 
   /**
    * serialize to JSON
    *
-   * @param mapper the mapper to use
+   * @param generator the generator to write to
    * @param logWithMetadata the {@link LogWithMetadata} to serialize
-   * @return the serialized JSON
+   * @throws IOException when the generator fails to write
    */
-  static JsonNode serialize(final ObjectMapper mapper, final LogWithMetadata logWithMetadata) {
-    final ObjectNode result =
-        mapper
-            .createObjectNode()
-            .put("blockNumber", QuantityFormatter.format(logWithMetadata.getBlockNumber()))
-            .put("blockHash", logWithMetadata.getBlockHash().toHexString())
-            .put("transactionHash", logWithMetadata.getTransactionHash().toHexString())
-            .put(
-                "transactionIndex", QuantityFormatter.format(logWithMetadata.getTransactionIndex()))
-            .put("address", logWithMetadata.getLogger().toHexString())
-            .put("data", logWithMetadata.getData().toHexString())
-            .put(
-                "topics",
-                logWithMetadata.getTopics().stream()
-                    .map(Bytes::toHexString)
-                    .collect(toUnmodifiableList())
-                    .toString())
-            .put("removed", logWithMetadata.isRemoved())
-            .put("logIndex", QuantityFormatter.format(logWithMetadata.getLogIndex()));
-
+  static void serialize(final JsonGenerator generator, final LogWithMetadata logWithMetadata)
+      throws IOException {
+    generator.writeStartObject();
+    HexEncoder.writeQuantityField(generator, "blockNumber", logWithMetadata.getBlockNumber());
+    HexEncoder.writeBytesField(generator, "blockHash", logWithMetadata.getBlockHash());
+    HexEncoder.writeBytesField(generator, "transactionHash", logWithMetadata.getTransactionHash());
+    HexEncoder.writeQuantityField(
+        generator, "transactionIndex", logWithMetadata.getTransactionIndex());
+    HexEncoder.writeBytesField(generator, "address", logWithMetadata.getLogger());
+    HexEncoder.writeBytesField(generator, "data", logWithMetadata.getData());
+    generator.writeStringField("topics", formatTopics(logWithMetadata.getTopics()));
+    generator.writeBooleanField("removed", logWithMetadata.isRemoved());
+    HexEncoder.writeQuantityField(generator, "logIndex", logWithMetadata.getLogIndex());
     if (logWithMetadata instanceof DecodedLogWithMetadata) {
-      result.put("decoded", ((DecodedLogWithMetadata) logWithMetadata).getDecoded());
+      generator.writeFieldName("decoded");
+      serializeDecoded(generator, (DecodedLogWithMetadata) logWithMetadata);
+    }
+    generator.writeEndObject();
+  }
+
+  /**
+   * serialize the decoded event of a log to JSON, with its parameters in declaration order
+   *
+   * @param generator the generator to write to
+   * @param decodedLog the {@link DecodedLogWithMetadata} whose decoded event to serialize
+   * @throws IOException when the generator fails to write
+   */
+  static void serializeDecoded(
+      final JsonGenerator generator, final DecodedLogWithMetadata decodedLog) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("event", decodedLog.getEventName().orElse(null));
+    generator.writeStringField("schemaId", decodedLog.getSchemaId().orElse(null));
+    generator.writeArrayFieldStart("parameters");
+    for (final DecodedParameter parameter : decodedLog.getParameters()) {
+      generator.writeStartObject();
+      generator.writeStringField("name", parameter.getName());
+      generator.writeStringField("type", parameter.getType());
+      if (BOOL_TYPE.equals(parameter.getType())) {
+        generator.writeBooleanField("value", Boolean.parseBoolean(parameter.getValue()));
+      } else {
+        generator.writeStringField("value", parameter.getValue());
+      }
+      generator.writeBooleanField("indexed", parameter.isIndexed());
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+  }
+
+  /**
+   * format the topics like the {@code toString()} of the list of their hex representations
+   *
+   * @param topics the log topics
+   * @return the formatted topics
+   */
+  static String formatTopics(final List<? extends Bytes32> topics) {
+    final char[] buffer = new char[2 + topics.size() * (HexEncoder.length(Bytes32.ZERO) + 2)];
+    int position = 0;
+    buffer[position++] = '[';
+    for (int i = 0; i < topics.size(); i++) {
+      if (i > 0) {
+        buffer[position++] = ',';
+        buffer[position++] = ' ';
+      }
+      position = HexEncoder.encode(topics.get(i), buffer, position);
     }
-    return result;
+    buffer[position++] = ']';
+    return new String(buffer, 0, position);
   }
 }
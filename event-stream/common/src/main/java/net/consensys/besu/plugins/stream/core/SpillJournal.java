@@ -0,0 +1,271 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Append-only journal of records, stored in fixed size memory-mapped segment files.
+ *
+ * <p>Records are appended at the tail and consumed in order from the head by a single reader. A
+ * record is a length followed by its bytes, a negative length marking the end of a segment. The
+ * read position is kept in its own mapped file, so that the records not yet consumed are read again
+ * after a restart, and the segments are deleted as soon as they have been consumed. Appends are
+ * rejected once the journal holds its maximum number of segments.
+ */
+final class SpillJournal {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String SEGMENT_SUFFIX = ".segment";
+  private static final String POSITION_FILE = "read.position";
+  private static final int LENGTH_SIZE = Integer.BYTES;
+  private static final int END_OF_SEGMENT = -1;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private final MappedByteBuffer readPosition;
+  private int readOffset;
+  private final AtomicLong pendingRecords = new AtomicLong();
+
+  /**
+   * Open the journal stored in the directory, recovering the records not consumed yet.
+   *
+   * @param directory the directory of the segment files
+   * @param segmentSize the size of a segment file in bytes
+   * @param maxSize the maximum size of the journal in bytes, at least one segment
+   * @throws UncheckedIOException when the journal cannot be opened
+   */
+  SpillJournal(final Path directory, final int segmentSize, final long maxSize) {
+    checkArgument(segmentSize > LENGTH_SIZE, "Segment size is too small, got %s", segmentSize);
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegments = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxSize / segmentSize));
+    try {
+      Files.createDirectories(directory);
+      this.readPosition = map(directory.resolve(POSITION_FILE), Long.BYTES + Integer.BYTES);
+      recover();
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Cannot open spill journal in " + directory, e);
+    }
+  }
+
+  /**
+   * Append a record at the tail of the journal.
+   *
+   * @param record the record
+   * @return whether the record was appended, false when the journal is full
+   */
+  synchronized boolean append(final byte[] record) {
+    final int size = LENGTH_SIZE + record.length;
+    if (size > segmentSize) {
+      LOG.warn("Record of {} bytes is larger than a spill journal segment.", record.length);
+      return false;
+    }
+    Segment tail = segments.peekLast();
+    if (tail == null || tail.buffer.remaining() < size) {
+      if (segments.size() >= maxSegments) {
+        return false;
+      }
+      if (tail != null && tail.buffer.remaining() >= LENGTH_SIZE) {
+        tail.buffer.putInt(END_OF_SEGMENT);
+      }
+      tail = createSegment(tail == null ? 0 : tail.id + 1);
+    }
+    final int offset = tail.buffer.position();
+    tail.buffer.position(offset + LENGTH_SIZE);
+    tail.buffer.put(record);
+    // the length is written last, so that an append cut short is not recovered as a record
+    tail.buffer.putInt(offset, record.length);
+    pendingRecords.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Read the record at the head of the journal without consuming it.
+   *
+   * @return the record, empty when every record has been consumed
+   */
+  synchronized Optional<byte[]> peek() {
+    while (!segments.isEmpty()) {
+      final Segment head = segments.peekFirst();
+      final int length =
+          readOffset + LENGTH_SIZE <= segmentSize ? head.buffer.getInt(readOffset) : END_OF_SEGMENT;
+      if (length > 0) {
+        final byte[] record = new byte[length];
+        final ByteBuffer view = head.buffer.duplicate();
+        view.position(readOffset + LENGTH_SIZE);
+        view.get(record);
+        return Optional.of(record);
+      }
+      if (length == 0 || segments.size() == 1) {
+        return Optional.empty();
+      }
+      dropHead();
+    }
+    return Optional.empty();
+  }
+
+  /** Consume the record at the head of the journal, the one returned by {@link #peek()}. */
+  synchronized void advance() {
+    final Segment head = segments.peekFirst();
+    if (head == null) {
+      return;
+    }
+    final int length = head.buffer.getInt(readOffset);
+    if (length <= 0) {
+      return;
+    }
+    readOffset += LENGTH_SIZE + length;
+    pendingRecords.decrementAndGet();
+    storeReadPosition(head.id);
+  }
+
+  /**
+   * number of records appended and not consumed yet
+   *
+   * @return the pending record count
+   */
+  long getPendingRecords() {
+    return pendingRecords.get();
+  }
+
+  /**
+   * whether every appended record has been consumed
+   *
+   * @return true when the journal holds no pending record
+   */
+  boolean isEmpty() {
+    return pendingRecords.get() == 0;
+  }
+
+  /** Write the mapped segments and the read position to disk. */
+  synchronized void close() {
+    segments.forEach(segment -> segment.buffer.force());
+    readPosition.force();
+  }
+
+  private void recover() throws IOException {
+    final List<Path> files;
+    try (Stream<Path> paths = Files.list(directory)) {
+      files =
+          paths
+              .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    final long readSegment = readPosition.getLong(0);
+    for (final Path file : files) {
+      final long id = segmentId(file);
+      if (id < readSegment) {
+        Files.delete(file);
+      } else {
+        segments.add(new Segment(id, file, map(file, segmentSize)));
+      }
+    }
+    readOffset =
+        !segments.isEmpty() && segments.peekFirst().id == readSegment
+            ? readPosition.getInt(Long.BYTES)
+            : 0;
+    int offset = readOffset;
+    for (final Segment segment : segments) {
+      int length;
+      while (offset + LENGTH_SIZE <= segmentSize && (length = segment.buffer.getInt(offset)) > 0) {
+        offset += LENGTH_SIZE + length;
+        pendingRecords.incrementAndGet();
+      }
+      segment.buffer.position(offset);
+      offset = 0;
+    }
+    if (pendingRecords.get() > 0) {
+      LOG.info("Recovered {} spilled events from {}", pendingRecords.get(), directory);
+    }
+  }
+
+  private Segment createSegment(final long id) {
+    final Path file = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+    try {
+      final Segment segment = new Segment(id, file, map(file, segmentSize));
+      segments.addLast(segment);
+      if (segments.size() == 1) {
+        readOffset = 0;
+        storeReadPosition(id);
+      }
+      return segment;
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Cannot create spill journal segment " + file, e);
+    }
+  }
+
+  private void dropHead() {
+    final Segment head = segments.removeFirst();
+    readOffset = 0;
+    storeReadPosition(segments.peekFirst().id);
+    try {
+      Files.deleteIfExists(head.file);
+    } catch (final IOException e) {
+      LOG.warn("Cannot delete consumed spill journal segment {}", head.file, e);
+    }
+  }
+
+  private void storeReadPosition(final long segmentId) {
+    readPosition.putLong(0, segmentId);
+    readPosition.putInt(Long.BYTES, readOffset);
+  }
+
+  private static MappedByteBuffer map(final Path file, final int size) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+
+  private static long segmentId(final Path file) {
+    final String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static final class Segment {
+    private final long id;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+
+    private Segment(final long id, final Path file, final MappedByteBuffer buffer) {
+      this.id = id;
+      this.file = file;
+      this.buffer = buffer;
+    }
+  }
+}
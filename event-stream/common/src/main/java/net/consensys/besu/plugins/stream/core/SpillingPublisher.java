@@ -0,0 +1,450 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import net.consensys.besu.plugins.stream.api.config.CommonConfiguration;
+import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
+import net.consensys.besu.plugins.stream.api.event.DeliveryListener;
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.stream.api.event.Publisher;
+import net.consensys.besu.plugins.stream.api.event.TopicResolver;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Sets;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.plugin.BesuContext;
+import org.hyperledger.besu.plugin.services.BesuConfiguration;
+
+/**
+ * Publisher spilling the events to a {@link SpillJournal} on disk when the broker cannot take them,
+ * and replaying them in order once it can again.
+ *
+ * <p>Events are spilled when the dispatcher overflows, the task of the overflowing event then
+ * serializing it to the journal on the spill worker of the dispatcher, when the wrapped publisher
+ * fails to hand it over to the broker, or when the broker fails to acknowledge it. Only the events
+ * of a batch the wrapped publisher did not report as sent are spilled when it fails, the others
+ * being spilled once their delivery fails. As long as the journal holds events, the new ones are
+ * appended behind them, so that a single replay thread publishes every event in order. An event
+ * failing to be delivered after it was sent is appended at the end of the journal. Events are
+ * dropped only once the journal reaches its maximum size.
+ */
+final class SpillingPublisher implements Publisher {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String JOURNAL_DIRECTORY = "event-stream-spill-journal";
+  private static final long IDLE_DELAY_MILLIS = 100;
+  private static final long RETRY_DELAY_MILLIS = 1000;
+
+  private final Publisher delegate;
+  private final SpillJournal journal;
+  private final ThreadLocal<Boolean> spilling = ThreadLocal.withInitial(() -> false);
+  private final ThreadLocal<Set<Event>> handedOver =
+      ThreadLocal.withInitial(Sets::newIdentityHashSet);
+  private final AtomicLong droppedCount = new AtomicLong();
+  private final Thread replayer;
+  private volatile boolean running = true;
+  private volatile DeliveryListener deliveryListener = DeliveryListener.NOOP;
+
+  /**
+   * Wrap the publisher with a journal stored in the configured directory, or else in the Besu data
+   * directory.
+   *
+   * @param context the Besu context
+   * @param configuration the event stream configuration
+   * @param delegate the publisher handing the events over to the broker
+   * @return the started spilling publisher
+   */
+  static SpillingPublisher create(
+      final BesuContext context,
+      final EventStreamConfiguration configuration,
+      final Publisher delegate) {
+    final Path directory =
+        Optional.ofNullable(configuration.getSpillJournalDirectory())
+            .map(File::toPath)
+            .orElseGet(
+                () ->
+                    context
+                        .getService(BesuConfiguration.class)
+                        .orElseThrow(
+                            () ->
+                                new IllegalStateException(
+                                    "Missing mandatory BesuConfiguration service."))
+                        .getDataPath()
+                        .resolve(JOURNAL_DIRECTORY));
+    final int segmentSize =
+        configuration.getSpillJournalSegmentSize() > 0
+            ? configuration.getSpillJournalSegmentSize()
+            : CommonConfiguration.DEFAULT_SPILL_JOURNAL_SEGMENT_SIZE;
+    final long maxSize =
+        configuration.getSpillJournalMaxSize() > 0
+            ? configuration.getSpillJournalMaxSize()
+            : CommonConfiguration.DEFAULT_SPILL_JOURNAL_MAX_SIZE;
+    return new SpillingPublisher(delegate, new SpillJournal(directory, segmentSize, maxSize));
+  }
+
+  @VisibleForTesting
+  SpillingPublisher(final Publisher delegate, final SpillJournal journal) {
+    this.delegate = delegate;
+    this.journal = journal;
+    delegate.setDeliveryListener(new SpillingDeliveryListener());
+    this.replayer = new Thread(this::replay, "event-stream-spill-replay");
+    replayer.setDaemon(true);
+    replayer.start();
+  }
+
+  /**
+   * Run the task of an event the dispatcher has no room for, on its spill worker, its events being
+   * appended to the journal instead of being published.
+   *
+   * @param task the dispatch task
+   */
+  void spill(final Runnable task) {
+    spilling.set(true);
+    try {
+      task.run();
+    } finally {
+      spilling.set(false);
+    }
+  }
+
+  @Override
+  public void publish(
+      final DomainObjectType domainObjectType,
+      final TopicResolver topicResolver,
+      final Event event) {
+    if (spilling.get() || !journal.isEmpty()) {
+      append(domainObjectType, topicResolver, event);
+      return;
+    }
+    final Set<Event> sent = handedOver.get();
+    try {
+      delegate.publish(domainObjectType, topicResolver, event);
+    } catch (final RuntimeException e) {
+      if (!sent.contains(event)) {
+        LOG.warn("Cannot publish event, spilling it to the journal.", e);
+        append(domainObjectType, topicResolver, event);
+      }
+    } finally {
+      sent.clear();
+    }
+  }
+
+  @Override
+  public void publishBatch(final TopicResolver topicResolver, final EventBatch batch) {
+    if (spilling.get() || !journal.isEmpty()) {
+      batch
+          .getEntries()
+          .forEach(entry -> append(entry.getDomainObjectType(), topicResolver, entry.getEvent()));
+      return;
+    }
+    final Set<Event> sent = handedOver.get();
+    try {
+      delegate.publishBatch(topicResolver, batch);
+    } catch (final RuntimeException e) {
+      LOG.warn("Cannot publish batch, spilling the events not sent to the journal.", e);
+      batch.getEntries().stream()
+          .filter(entry -> !sent.contains(entry.getEvent()))
+          .forEach(entry -> append(entry.getDomainObjectType(), topicResolver, entry.getEvent()));
+    } finally {
+      sent.clear();
+    }
+  }
+
+  @Override
+  public void setDeliveryListener(final DeliveryListener deliveryListener) {
+    this.deliveryListener = deliveryListener;
+  }
+
+  /** Stop the replay, keeping the events not replayed yet in the journal for the next start. */
+  @Override
+  public void close() {
+    running = false;
+    replayer.interrupt();
+    try {
+      replayer.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // the events failing while the delegate flushes its buffers are still spilled
+    delegate.close();
+    journal.close();
+    if (!journal.isEmpty()) {
+      LOG.info("{} spilled events are kept for the next start.", journal.getPendingRecords());
+    }
+  }
+
+  /**
+   * number of events waiting in the journal
+   *
+   * @return the pending event count
+   */
+  long getPendingCount() {
+    return journal.getPendingRecords();
+  }
+
+  /**
+   * number of events dropped because the journal was full
+   *
+   * @return the dropped event count
+   */
+  long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  private void append(
+      final DomainObjectType domainObjectType,
+      final TopicResolver topicResolver,
+      final Event event) {
+    append(domainObjectType, topicResolver.resolve(domainObjectType, event), event);
+  }
+
+  private void append(
+      final DomainObjectType domainObjectType, final String topic, final Event event) {
+    if (!journal.append(encode(domainObjectType, topic, event))) {
+      droppedCount.incrementAndGet();
+      LOG.warn("Spill journal is full, dropping event of type {}.", event.type());
+    }
+  }
+
+  private void replay() {
+    while (running) {
+      final Optional<byte[]> record = journal.peek();
+      try {
+        if (record.isEmpty()) {
+          TimeUnit.MILLISECONDS.sleep(IDLE_DELAY_MILLIS);
+          continue;
+        }
+        final SpilledEvent event;
+        try {
+          event = decode(record.get());
+        } catch (final IOException e) {
+          LOG.error("Skipping unreadable spilled event.", e);
+          journal.advance();
+          continue;
+        }
+        final Set<Event> sent = handedOver.get();
+        try {
+          delegate.publish(event.domainObjectType, event, event);
+          journal.advance();
+        } catch (final RuntimeException e) {
+          if (sent.contains(event)) {
+            // its failure is reported to the listener, which spills it again
+            journal.advance();
+          } else {
+            LOG.warn("Cannot replay spilled events, retrying.", e);
+            TimeUnit.MILLISECONDS.sleep(RETRY_DELAY_MILLIS);
+          }
+        } finally {
+          sent.clear();
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  @VisibleForTesting
+  static byte[] encode(
+      final DomainObjectType domainObjectType, final String topic, final Event event) {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(event.bytes().length + 256);
+    try (DataOutputStream out = new DataOutputStream(buffer)) {
+      out.writeByte(domainObjectType.ordinal());
+      out.writeUTF(topic);
+      out.writeUTF(event.type());
+      out.writeUTF(event.uuid().orElse(""));
+      final EventMetadata metadata = event.metadata();
+      out.writeBoolean(metadata.getBlockNumber().isPresent());
+      if (metadata.getBlockNumber().isPresent()) {
+        out.writeLong(metadata.getBlockNumber().get());
+      }
+      writeBytes(out, metadata.getBlockHash());
+      writeBytes(out, metadata.getTransactionHash());
+      writeBytes(out, metadata.getSender());
+      writeBytes(out, metadata.getContractAddress());
+      out.writeUTF(metadata.getSchemaId().orElse(""));
+      out.writeInt(metadata.getLogIndex().orElse(-1));
+      out.writeBoolean(metadata.isRemoved());
+      out.writeInt(event.bytes().length);
+      out.write(event.bytes());
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.toByteArray();
+  }
+
+  @VisibleForTesting
+  static SpilledEvent decode(final byte[] record) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+      final DomainObjectType domainObjectType = DomainObjectType.values()[in.readByte()];
+      final String topic = in.readUTF();
+      final String type = in.readUTF();
+      final String uuid = in.readUTF();
+      final EventMetadata.Builder metadata = EventMetadata.builder();
+      if (in.readBoolean()) {
+        metadata.blockNumber(in.readLong());
+      }
+      metadata
+          .blockHash(readBytes(in))
+          .transactionHash(readBytes(in))
+          .sender(readBytes(in))
+          .contractAddress(readBytes(in));
+      final String schemaId = in.readUTF();
+      metadata.schemaId(schemaId.isEmpty() ? Optional.empty() : Optional.of(schemaId));
+      final int logIndex = in.readInt();
+      if (logIndex >= 0) {
+        metadata.logIndex(logIndex);
+      }
+      metadata.removed(in.readBoolean());
+      final byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      return new SpilledEvent(
+          domainObjectType,
+          topic,
+          type,
+          uuid.isEmpty() ? Optional.empty() : Optional.of(uuid),
+          metadata.build(),
+          bytes);
+    }
+  }
+
+  private static void writeBytes(final DataOutputStream out, final Optional<Bytes> value)
+      throws IOException {
+    if (value.isEmpty()) {
+      out.writeShort(-1);
+      return;
+    }
+    out.writeShort(value.get().size());
+    out.write(value.get().toArrayUnsafe());
+  }
+
+  private static Bytes readBytes(final DataInputStream in) throws IOException {
+    final short size = in.readShort();
+    if (size < 0) {
+      return null;
+    }
+    final byte[] value = new byte[size];
+    in.readFully(value);
+    return Bytes.wrap(value);
+  }
+
+  /**
+   * Listener keeping track of the events handed over to the broker by the publishing thread, and
+   * spilling the events the broker failed to acknowledge. The failure is still reported, the replay
+   * of the spilled event being reported on its own.
+   */
+  private final class SpillingDeliveryListener implements DeliveryListener {
+    @Override
+    public void onSent(final String topic, final Event event) {
+      handedOver.get().add(event);
+      deliveryListener.onSent(topic, event);
+    }
+
+    @Override
+    public void onAcknowledged(final String topic, final Event event) {
+      deliveryListener.onAcknowledged(topic, event);
+    }
+
+    @Override
+    public void onFailed(
+        final String topic,
+        final DomainObjectType domainObjectType,
+        final Event event,
+        final Exception exception) {
+      LOG.warn("Event of type {} was not delivered, spilling it to the journal.", event.type());
+      append(domainObjectType, topic, event);
+      deliveryListener.onFailed(topic, domainObjectType, event, exception);
+    }
+  }
+
+  /** Event read back from the journal, published to the topic it was spilled for. */
+  @VisibleForTesting
+  static final class SpilledEvent implements Event, TopicResolver {
+    private final DomainObjectType domainObjectType;
+    private final String topic;
+    private final String type;
+    private final Optional<String> uuid;
+    private final EventMetadata metadata;
+    private final byte[] bytes;
+
+    private SpilledEvent(
+        final DomainObjectType domainObjectType,
+        final String topic,
+        final String type,
+        final Optional<String> uuid,
+        final EventMetadata metadata,
+        final byte[] bytes) {
+      this.domainObjectType = domainObjectType;
+      this.topic = topic;
+      this.type = type;
+      this.uuid = uuid;
+      this.metadata = metadata;
+      this.bytes = bytes;
+    }
+
+    DomainObjectType getDomainObjectType() {
+      return domainObjectType;
+    }
+
+    @Override
+    public String resolve(final DomainObjectType domainObjectType, final Event event) {
+      return topic;
+    }
+
+    @Override
+    public String type() {
+      return type;
+    }
+
+    @Override
+    public Optional<String> uuid() {
+      return uuid;
+    }
+
+    @Override
+    public EventMetadata metadata() {
+      return metadata;
+    }
+
+    @Override
+    public String string() {
+      return new String(bytes, UTF_8);
+    }
+
+    @Override
+    public byte[] bytes() {
+      return bytes;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.hyperledger.besu.plugin.data.SyncStatus;
+
+/**
+ * Conflates the sync status changes, which Besu reports at a very high rate while syncing.
+ *
+ * <p>A status arriving while no window is open is emitted straight away and opens a window. The
+ * statuses arriving during the window only replace one another, and the newest is emitted when the
+ * window expires, opening the next window. Starting and stopping to sync are never conflated: the
+ * pending status and then the new one are emitted straight away, so that the first and last
+ * transitions are always seen. Statuses are emitted in the order they were reported.
+ */
+final class SyncStatusConflator {
+  private final long windowMillis;
+  private final ScheduledExecutorService scheduler;
+  private final Sink sink;
+  private Optional<SyncStatus> latest;
+  private Pending pending;
+  private boolean windowOpen;
+  private long window;
+
+  @VisibleForTesting
+  SyncStatusConflator(
+      final Duration window, final ScheduledExecutorService scheduler, final Sink sink) {
+    this.windowMillis = window.toMillis();
+    this.scheduler = scheduler;
+    this.sink = sink;
+  }
+
+  /** Create a conflator, or nothing when the window disables conflation. */
+  static Optional<SyncStatusConflator> create(final Duration window, final Sink sink) {
+    if (window.isNegative() || window.isZero()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new SyncStatusConflator(
+            window,
+            Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setNameFormat("event-stream-sync-status-conflation")
+                    .setDaemon(true)
+                    .build()),
+            sink));
+  }
+
+  /**
+   * Offer a new sync status.
+   *
+   * @param syncStatus the status, empty when the node is not syncing
+   * @param timestamp the time the status was reported, in milliseconds
+   */
+  synchronized void offer(final Optional<SyncStatus> syncStatus, final long timestamp) {
+    final boolean transition = latest == null || latest.isPresent() != syncStatus.isPresent();
+    latest = syncStatus;
+    if (windowOpen && !transition) {
+      pending = new Pending(syncStatus, timestamp);
+      return;
+    }
+    emitPending();
+    sink.accept(syncStatus, timestamp);
+    openWindow();
+  }
+
+  /** Emit the pending status and stop the window timer. */
+  synchronized void close() {
+    scheduler.shutdownNow();
+    emitPending();
+    windowOpen = false;
+  }
+
+  private void openWindow() {
+    windowOpen = true;
+    final long current = ++window;
+    scheduler.schedule(() -> expire(current), windowMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void expire(final long expired) {
+    if (expired != window) {
+      return;
+    }
+    if (pending == null) {
+      windowOpen = false;
+      return;
+    }
+    emitPending();
+    openWindow();
+  }
+
+  private void emitPending() {
+    if (pending != null) {
+      sink.accept(pending.syncStatus, pending.timestamp);
+      pending = null;
+    }
+  }
+
+  /** Receives the conflated statuses. */
+  @FunctionalInterface
+  interface Sink {
+    void accept(Optional<SyncStatus> syncStatus, long timestamp);
+  }
+
+  private static final class Pending {
+    private final Optional<SyncStatus> syncStatus;
+    private final long timestamp;
+
+    private Pending(final Optional<SyncStatus> syncStatus, final long timestamp) {
+      this.syncStatus = syncStatus;
+      this.timestamp = timestamp;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+import net.consensys.besu.plugins.types.Address;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Type;
+
+/**
+ * Imports the event schemas of the events of a contract ABI, as output by solc, or as found in the
+ * "abi" field of the Hardhat and Truffle artifacts.
+ */
+final class AbiEventSchemas {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String EVENT = "event";
+  private static final String JSON_EXTENSION = ".json";
+
+  private AbiEventSchemas() {}
+
+  /**
+   * whether the file is a JSON file, which holds an ABI rather than event schema definitions
+   *
+   * @param file the file
+   * @return true when the file name has the JSON extension
+   */
+  static boolean isAbiFile(final File file) {
+    return file.getName().toLowerCase().endsWith(JSON_EXTENSION);
+  }
+
+  /**
+   * import the event schemas of the ABI import entry of an event schema definitions file
+   *
+   * @param parseTarget the representation of the ABI import
+   * @param baseDirectory the directory the relative ABI file paths are resolved against
+   * @return the event schemas
+   * @throws IOException if the ABI file cannot be parsed
+   */
+  static List<EventSchema> from(final AbiImportParseTarget parseTarget, final File baseDirectory)
+      throws IOException {
+    if (parseTarget.getFile() == null) {
+      throw new IOException(
+          String.format("Missing ABI file for the ABI import %s", parseTarget.getId()));
+    }
+    final File abiFile = new File(parseTarget.getFile());
+    return from(
+        abiFile.isAbsolute() ? abiFile : new File(baseDirectory, parseTarget.getFile()),
+        parseTarget.getId(),
+        parseTarget.getContractAddress() == null
+            ? null
+            : Address.fromHexString(parseTarget.getContractAddress()),
+        parseTarget.getEvents());
+  }
+
+  /**
+   * import the event schemas of the events of an ABI
+   *
+   * <p>The schemas are identified by the given id, or else by the contract name of the artifact or
+   * else the ABI file name, followed by the event name, or by the event signature when the event is
+   * overloaded. The events with parameter types the decoder does not support, e.g. tuples, are
+   * skipped, as are the anonymous events when no contract address is given.
+   *
+   * @param abiFile the JSON file of the ABI, or of an artifact holding it in its "abi" field
+   * @param id the prefix of the schema identifiers, null for the contract or file name
+   * @param contractAddress the address of the contract, null to match the logs of any contract
+   * @param eventNames the names of the events to import, every event when empty
+   * @return the event schemas
+   * @throws IOException if the ABI file cannot be parsed
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static List<EventSchema> from(
+      final File abiFile,
+      final String id,
+      final Address contractAddress,
+      final Collection<String> eventNames)
+      throws IOException {
+    final JsonNode root = MAPPER.readTree(abiFile);
+    final JsonNode abi = root.isArray() ? root : root.path("abi");
+    if (!abi.isArray()) {
+      throw new IOException(String.format("No ABI found in %s", abiFile));
+    }
+    final String prefix =
+        id != null ? id : root.path("contractName").asText(baseName(abiFile.getName()));
+    final List<AbiEventDefinition> events =
+        Arrays.stream(MAPPER.treeToValue(abi, AbiEventDefinition[].class))
+            .filter(entry -> EVENT.equals(entry.getType()))
+            .filter(entry -> eventNames.isEmpty() || eventNames.contains(entry.getName()))
+            .collect(toUnmodifiableList());
+    final Map<String, Long> eventNameCounts =
+        events.stream().collect(groupingBy(AbiEventDefinition::getName, counting()));
+
+    final List<EventSchema> schemas = new ArrayList<>(events.size());
+    for (final AbiEventDefinition event : events) {
+      final List<String> parameterTypeNames =
+          event.getInputs().stream()
+              .map(AbiParameterDefinition::getType)
+              .collect(toUnmodifiableList());
+      final String signature =
+          String.format("%s(%s)", event.getName(), String.join(",", parameterTypeNames));
+      if (event.isAnonymous() && contractAddress == null) {
+        LOG.warn(
+            "Skipping anonymous event {} of {} without a contract address to match its logs on",
+            signature,
+            abiFile);
+        continue;
+      }
+      final List<TypeReference<Type>> parameterTypes = new ArrayList<>();
+      try {
+        for (final AbiParameterDefinition input : event.getInputs()) {
+          parameterTypes.add(
+              TypeReference.makeTypeReference(input.getType(), input.isIndexed(), true));
+        }
+      } catch (final ClassNotFoundException | RuntimeException e) {
+        LOG.warn("Skipping event {} of {} with unsupported parameter types", signature, abiFile);
+        continue;
+      }
+      schemas.add(
+          new EventSchema(
+              prefix
+                  + "."
+                  + (eventNameCounts.get(event.getName()) > 1 ? signature : event.getName()),
+              contractAddress,
+              event.isAnonymous() ? null : event.getName(),
+              parameterTypes,
+              event.getInputs().stream()
+                  .map(AbiParameterDefinition::getName)
+                  .collect(toUnmodifiableList()),
+              parameterTypeNames));
+    }
+    return schemas;
+  }
+
+  private static String baseName(final String fileName) {
+    final int extension = fileName.lastIndexOf('.');
+    return extension > 0 ? fileName.substring(0, extension) : fileName;
+  }
+}
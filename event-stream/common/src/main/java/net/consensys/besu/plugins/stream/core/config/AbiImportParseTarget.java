@@ -0,0 +1,60 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import static java.util.Collections.emptyList;
+
+import java.util.List;
+
+class AbiImportParseTarget {
+  private String id;
+  private String file;
+  private String contractAddress;
+  private List<String> events = emptyList();
+
+  AbiImportParseTarget() {}
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public String getContractAddress() {
+    return contractAddress;
+  }
+
+  public void setContractAddress(String contractAddress) {
+    this.contractAddress = contractAddress;
+  }
+
+  public List<String> getEvents() {
+    return events;
+  }
+
+  public void setEvents(List<String> events) {
+    this.events = events == null ? emptyList() : events;
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import net.consensys.besu.plugins.types.DecodedParameter;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Int;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Uint;
+import org.web3j.abi.datatypes.Utf8String;
+
+/**
+ * Decoding plan of an event schema, compiled once when the schema is loaded. Each parameter is read
+ * straight from the log topics or from a fixed offset of the log data, without going through hex
+ * strings, into a {@link DecodedParameter} carrying its name, type and whether it is indexed.
+ *
+ * <p>Only addresses, booleans, integers and strings are supported. Schemas with other parameter
+ * types have no plan and are decoded by the web3j ABI decoder instead.
+ */
+public final class EventDecodingPlan {
+  private static final int WORD_SIZE = 32;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final boolean anonymous;
+  private final List<ParameterDecoder> parameterDecoders;
+  private final int indexedParameterCount;
+  private final int nonIndexedParameterCount;
+
+  private EventDecodingPlan(
+      final boolean anonymous,
+      final List<ParameterDecoder> parameterDecoders,
+      final int indexedParameterCount,
+      final int nonIndexedParameterCount) {
+    this.anonymous = anonymous;
+    this.parameterDecoders = parameterDecoders;
+    this.indexedParameterCount = indexedParameterCount;
+    this.nonIndexedParameterCount = nonIndexedParameterCount;
+  }
+
+  /**
+   * compile the decoding plan of an event
+   *
+   * @param eventName name of the event, null when it is anonymous
+   * @param parameterTypes the event parameter types, in declaration order
+   * @param parameterNames the event parameter names, in declaration order
+   * @param parameterTypeNames the solidity types of the event parameters, in declaration order
+   * @return the plan, or empty when a parameter type is not supported
+   */
+  @SuppressWarnings("rawtypes")
+  static Optional<EventDecodingPlan> compile(
+      final String eventName,
+      final List<TypeReference<Type>> parameterTypes,
+      final List<String> parameterNames,
+      final List<String> parameterTypeNames) {
+    final List<ParameterDecoder> parameterDecoders = new ArrayList<>(parameterTypes.size());
+    // the first topic of a named event is the hash of its signature
+    int topicIndex = eventName == null ? 0 : 1;
+    int dataOffset = 0;
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      final TypeReference<Type> parameterType = parameterTypes.get(i);
+      final Class<?> type;
+      try {
+        type = parameterType.getClassType();
+      } catch (final ClassNotFoundException e) {
+        return Optional.empty();
+      }
+      final Optional<WordDecoder> wordDecoder = wordDecoder(type);
+      if (wordDecoder.isEmpty()) {
+        return Optional.empty();
+      }
+      if (parameterType.isIndexed()) {
+        if (type == Utf8String.class) {
+          // indexed dynamic values are hashed into their topic
+          return Optional.empty();
+        }
+        parameterDecoders.add(
+            new TopicParameterDecoder(
+                parameterNames.get(i), parameterTypeNames.get(i), topicIndex++, wordDecoder.get()));
+      } else {
+        parameterDecoders.add(
+            new DataParameterDecoder(
+                parameterNames.get(i), parameterTypeNames.get(i), dataOffset, wordDecoder.get()));
+        dataOffset += WORD_SIZE;
+      }
+    }
+    final int indexedParameterCount = topicIndex - (eventName == null ? 0 : 1);
+    return Optional.of(
+        new EventDecodingPlan(
+            eventName == null,
+            List.copyOf(parameterDecoders),
+            indexedParameterCount,
+            parameterDecoders.size() - indexedParameterCount));
+  }
+
+  private static Optional<WordDecoder> wordDecoder(final Class<?> type) {
+    if (type == Address.class) {
+      return Optional.of(EventDecodingPlan::decodeAddress);
+    } else if (type == Bool.class) {
+      return Optional.of(EventDecodingPlan::decodeBool);
+    } else if (type == Utf8String.class) {
+      return Optional.of(EventDecodingPlan::decodeString);
+    } else if (type == Uint.class) {
+      return Optional.of(unsignedDecoder(WORD_SIZE));
+    } else if (type == Int.class) {
+      return Optional.of(signedDecoder(WORD_SIZE));
+    } else if (type.getPackageName().equals("org.web3j.abi.datatypes.generated")) {
+      final String name = type.getSimpleName();
+      if (name.matches("Uint\\d+")) {
+        return Optional.of(unsignedDecoder(Integer.parseInt(name.substring(4)) / Byte.SIZE));
+      } else if (name.matches("Int\\d+")) {
+        return Optional.of(signedDecoder(Integer.parseInt(name.substring(3)) / Byte.SIZE));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * decode a log matching the schema
+   *
+   * @param topics the log topics
+   * @param data the log data
+   * @return the decoded parameters, in declaration order
+   * @throws IllegalStateException when the log does not have the parameters of the schema
+   */
+  public List<DecodedParameter> decode(final List<? extends Bytes> topics, final Bytes data) {
+    final int firstTopic = anonymous ? 0 : 1;
+    checkState(
+        topics.size() - firstTopic == indexedParameterCount
+            && data.size() >= nonIndexedParameterCount * WORD_SIZE,
+        "Mismatched number of args");
+    final DecodedParameter[] parameters = new DecodedParameter[parameterDecoders.size()];
+    for (int i = 0; i < parameters.length; i++) {
+      parameters[i] = parameterDecoders.get(i).decode(topics, data);
+    }
+    return Arrays.asList(parameters);
+  }
+
+  private static String decodeAddress(final Bytes word, final Bytes data) {
+    final char[] address = new char[2 + (20 * 2)];
+    address[0] = '0';
+    address[1] = 'x';
+    for (int i = WORD_SIZE - 20, j = 2; i < WORD_SIZE; i++) {
+      final int b = word.get(i) & 0xff;
+      address[j++] = HEX_DIGITS[b >>> 4];
+      address[j++] = HEX_DIGITS[b & 0x0f];
+    }
+    return new String(address);
+  }
+
+  private static String decodeBool(final Bytes word, final Bytes data) {
+    // the ABI decoder only reads a word equal to one as true
+    boolean value = word.get(WORD_SIZE - 1) == 1;
+    for (int i = 0; value && i < WORD_SIZE - 1; i++) {
+      value = word.get(i) == 0;
+    }
+    return Boolean.toString(value);
+  }
+
+  private static WordDecoder unsignedDecoder(final int size) {
+    if (size < Long.BYTES) {
+      return (word, data) -> {
+        long value = 0;
+        for (int i = WORD_SIZE - size; i < WORD_SIZE; i++) {
+          value = (value << 8) | (word.get(i) & 0xff);
+        }
+        return Long.toString(value);
+      };
+    }
+    return (word, data) -> word.slice(WORD_SIZE - size, size).toUnsignedBigInteger().toString();
+  }
+
+  /**
+   * Like the ABI decoder, the sign comes from the first byte of the word and the value from its
+   * last {@code size} bytes.
+   */
+  private static WordDecoder signedDecoder(final int size) {
+    if (size < Long.BYTES) {
+      return (word, data) -> {
+        long value = word.get(0);
+        for (int i = WORD_SIZE - size; i < WORD_SIZE; i++) {
+          value = (value << 8) | (word.get(i) & 0xff);
+        }
+        return Long.toString(value);
+      };
+    }
+    return (word, data) -> {
+      final byte[] value = new byte[size + 1];
+      value[0] = word.get(0);
+      for (int i = 0; i < size; i++) {
+        value[i + 1] = word.get(WORD_SIZE - size + i);
+      }
+      return new BigInteger(value).toString();
+    };
+  }
+
+  /**
+   * The word holds the offset of the string in the data, where its length precedes its bytes. Both
+   * come from the log, so are checked to lie within its data.
+   */
+  private static String decodeString(final Bytes word, final Bytes data) {
+    final int offset = intValue(word);
+    checkState(
+        (long) offset + WORD_SIZE <= data.size(), "String offset %s out of the log data", offset);
+    final int length = intValue(data.slice(offset, WORD_SIZE));
+    checkState(
+        (long) offset + WORD_SIZE + length <= data.size(),
+        "String length %s out of the log data",
+        length);
+    return new String(data.slice(offset + WORD_SIZE, length).toArrayUnsafe(), UTF_8);
+  }
+
+  /** Read a word holding a non negative int, as offsets and lengths are */
+  private static int intValue(final Bytes word) {
+    for (int i = 0; i < WORD_SIZE - Integer.BYTES; i++) {
+      checkState(word.get(i) == 0, "Value %s out of range", word);
+    }
+    final int value = word.getInt(WORD_SIZE - Integer.BYTES);
+    checkState(value >= 0, "Value %s out of range", word);
+    return value;
+  }
+
+  @FunctionalInterface
+  private interface WordDecoder {
+    String decode(Bytes word, Bytes data);
+  }
+
+  private abstract static class ParameterDecoder {
+    private final String name;
+    private final String type;
+    private final WordDecoder wordDecoder;
+
+    private ParameterDecoder(final String name, final String type, final WordDecoder wordDecoder) {
+      this.name = name;
+      this.type = type;
+      this.wordDecoder = wordDecoder;
+    }
+
+    abstract Bytes word(List<? extends Bytes> topics, Bytes data);
+
+    abstract boolean isIndexed();
+
+    DecodedParameter decode(final List<? extends Bytes> topics, final Bytes data) {
+      return new DecodedParameter(
+          name, type, wordDecoder.decode(word(topics, data), data), isIndexed());
+    }
+  }
+
+  private static final class TopicParameterDecoder extends ParameterDecoder {
+    private final int topicIndex;
+
+    private TopicParameterDecoder(
+        final String name, final String type, final int topicIndex, final WordDecoder wordDecoder) {
+      super(name, type, wordDecoder);
+      this.topicIndex = topicIndex;
+    }
+
+    @Override
+    Bytes word(final List<? extends Bytes> topics, final Bytes data) {
+      return topics.get(topicIndex);
+    }
+
+    @Override
+    boolean isIndexed() {
+      return true;
+    }
+  }
+
+  private static final class DataParameterDecoder extends ParameterDecoder {
+    private final int offset;
+
+    private DataParameterDecoder(
+        final String name, final String type, final int offset, final WordDecoder wordDecoder) {
+      super(name, type, wordDecoder);
+      this.offset = offset;
+    }
+
+    @Override
+    Bytes word(final List<? extends Bytes> topics, final Bytes data) {
+      return data.slice(offset, WORD_SIZE);
+    }
+
+    @Override
+    boolean isIndexed() {
+      return false;
+    }
+  }
+}
@@ -14,6 +14,7 @@
  */
 package net.consensys.besu.plugins.stream.core.config;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.toUnmodifiableList;
@@ -25,9 +26,10 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Security;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.IntStream;
+import java.util.Optional;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
@@ -47,10 +49,13 @@ public class EventSchema {
   @SuppressWarnings("rawtypes")
   private final List<TypeReference<Type>> parameterTypes;
 
+  private final List<String> parameterNames;
+  private final List<String> parameterTypeNames;
   private final Hash topic;
+  private final Optional<EventDecodingPlan> decodingPlan;
 
   /**
-   * Create an event schema from the given inputs
+   * Create an event schema from the given inputs, with unnamed parameters
    *
    * @param id the id for the schema
    * @param contractAddress address of the contract
@@ -63,11 +68,70 @@ public class EventSchema {
       final Address contractAddress,
       final String eventName,
       @SuppressWarnings("rawtypes") final List<TypeReference<Type>> parameterTypes) {
+    this(
+        id,
+        contractAddress,
+        eventName,
+        parameterTypes,
+        Collections.nCopies(parameterTypes.size(), ""));
+  }
+
+  /**
+   * Create an event schema from the given inputs
+   *
+   * @param id the id for the schema
+   * @param contractAddress address of the contract, null to match the logs of any contract
+   * @param eventName name of the event
+   * @param parameterTypes list of parameter types
+   * @param parameterNames list of parameter names, empty for the unnamed parameters
+   */
+  @SuppressWarnings("rawtypes")
+  public EventSchema(
+      final String id,
+      final Address contractAddress,
+      final String eventName,
+      final List<TypeReference<Type>> parameterTypes,
+      final List<String> parameterNames) {
+    this(
+        id,
+        contractAddress,
+        eventName,
+        parameterTypes,
+        parameterNames,
+        parameterTypes.stream().map(EventSchema::typeName).collect(toUnmodifiableList()));
+  }
+
+  /**
+   * Create an event schema from the given inputs, with the canonical solidity types of its
+   * parameters as found in an ABI
+   */
+  @SuppressWarnings("rawtypes")
+  EventSchema(
+      final String id,
+      final Address contractAddress,
+      final String eventName,
+      final List<TypeReference<Type>> parameterTypes,
+      final List<String> parameterNames,
+      final List<String> parameterTypeNames) {
+    checkArgument(
+        parameterNames.size() == parameterTypes.size(),
+        "Expected %s parameter names for event %s",
+        parameterTypes.size(),
+        eventName);
+    checkArgument(
+        contractAddress != null || eventName != null,
+        "Anonymous event schema %s must have a contract address",
+        id);
     this.id = id;
     this.contractAddress = contractAddress;
     this.eventName = eventName;
     this.parameterTypes = parameterTypes;
+    this.parameterNames = List.copyOf(parameterNames);
+    this.parameterTypeNames = List.copyOf(parameterTypeNames);
     this.topic = topic();
+    this.decodingPlan =
+        EventDecodingPlan.compile(
+            eventName, parameterTypes, this.parameterNames, parameterTypeNames);
   }
 
   /**
@@ -85,6 +149,8 @@ public class EventSchema {
     final List<TypeReference<Type>> parameterTypes =
         new ArrayList<>(indexedParameterDefinitions.size() + nonIndexedParameterDefinitions.size());
 
+    final List<String> parameterNames = new ArrayList<>(parameterTypes.size());
+
     indexedParameterDefinitions.forEach(
         parameterDefinition -> {
           try {
@@ -94,6 +160,7 @@ public class EventSchema {
           } catch (ClassNotFoundException e) {
             throw new RuntimeException(e);
           }
+          parameterNames.add(parameterDefinition.getPosition(), parameterDefinition.getName());
         });
 
     nonIndexedParameterDefinitions.forEach(
@@ -105,6 +172,7 @@ public class EventSchema {
           } catch (ClassNotFoundException e) {
             throw new RuntimeException(e);
           }
+          parameterNames.add(parameterDefinition.getPosition(), parameterDefinition.getName());
         });
 
     final int nullIndex = parameterTypes.indexOf(null);
@@ -116,9 +184,12 @@ public class EventSchema {
 
     return new EventSchema(
         parseTarget.getId(),
-        Address.fromHexString(parseTarget.getContractAddress()),
+        parseTarget.getContractAddress() == null
+            ? null
+            : Address.fromHexString(parseTarget.getContractAddress()),
         eventName,
-        parameterTypes);
+        parameterTypes,
+        parameterNames);
   }
 
   /**
@@ -132,36 +203,23 @@ public class EventSchema {
       final MessageDigest digest = MessageDigest.getInstance("KECCAK-256");
       return Hash.wrap(
           digest.digest(
-              String.format(
-                      "%s%s",
-                      eventName,
-                      parameterTypes.stream()
-                          // get the solidity type name from the parameter types
-                          .map(
-                              typeReference -> {
-                                try {
-                                  return typeReference.getClassType();
-                                } catch (ClassNotFoundException e) {
-                                  throw new RuntimeException(e);
-                                }
-                              })
-                          .map(Class::getSimpleName)
-                          .map(String::toLowerCase)
-                          .map(typeName -> typeName.replaceFirst("^utf8", ""))
-                          .collect(toUnmodifiableList())
-                          .toString()
-                          // reformat the java toString output to be in the form that is expected by
-                          // the keccak hash
-                          .replace(" ", "")
-                          .toLowerCase()
-                          .replace('[', '(')
-                          .replace(']', ')'))
+              String.format("%s(%s)", eventName, String.join(",", parameterTypeNames))
                   .getBytes(UTF_8)));
     } catch (final NoSuchAlgorithmException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /** Get the solidity type name of a parameter type, from the name of its web3j class */
+  @SuppressWarnings("rawtypes")
+  private static String typeName(final TypeReference<Type> typeReference) {
+    try {
+      return typeReference.getClassType().getSimpleName().toLowerCase().replaceFirst("^utf8", "");
+    } catch (ClassNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * gitter for the ID
    *
@@ -174,12 +232,31 @@ public class EventSchema {
   /**
    * getter for the contract address
    *
-   * @return Address of the contract
+   * @return Address of the contract, null when the schema matches the logs of any contract
    */
   public Address getContractAddress() {
     return contractAddress;
   }
 
+  /**
+   * whether the schema matches the logs of any contract, on their event topic and number of indexed
+   * parameters only
+   *
+   * @return true when the schema has no contract address
+   */
+  public boolean matchesAnyContract() {
+    return contractAddress == null;
+  }
+
+  /**
+   * getter for the number of indexed parameters
+   *
+   * @return the number of parameters of the event held by the topics of its logs
+   */
+  public int getIndexedParameterCount() {
+    return (int) parameterTypes.stream().filter(TypeReference::isIndexed).count();
+  }
+
   /**
    * getter for the event name
    *
@@ -201,18 +278,18 @@ public class EventSchema {
     return Objects.equals(id, that.id)
         && Objects.equals(contractAddress, that.contractAddress)
         && Objects.equals(eventName, that.eventName)
-        && IntStream.range(0, parameterTypes.size())
-            .allMatch(
-                i ->
-                    that.getParameterTypes()
-                        .get(i)
-                        .getClass()
-                        .equals(parameterTypes.get(i).getClass()));
+        && Objects.equals(parameterNames, that.parameterNames)
+        && Objects.equals(parameterTypeNames, that.parameterTypeNames)
+        && Objects.equals(indexedFlags(), that.indexedFlags());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, contractAddress, eventName);
+    return Objects.hash(id, contractAddress, eventName, parameterTypeNames);
+  }
+
+  private List<Boolean> indexedFlags() {
+    return parameterTypes.stream().map(TypeReference::isIndexed).collect(toUnmodifiableList());
   }
 
   /**
@@ -224,6 +301,15 @@ public class EventSchema {
     return topic;
   }
 
+  /**
+   * getter for the decoding plan
+   *
+   * @return the decoding plan, empty when the parameter types are not supported by the plans
+   */
+  public Optional<EventDecodingPlan> getDecodingPlan() {
+    return decodingPlan;
+  }
+
   /**
    * getter for the parameter types
    *
@@ -233,4 +319,22 @@ public class EventSchema {
   public List<TypeReference<Type>> getParameterTypes() {
     return parameterTypes;
   }
+
+  /**
+   * getter for the parameter names
+   *
+   * @return the list of parameter names, empty for the unnamed parameters
+   */
+  public List<String> getParameterNames() {
+    return parameterNames;
+  }
+
+  /**
+   * getter for the parameter type names
+   *
+   * @return the list of the solidity types of the parameters
+   */
+  public List<String> getParameterTypeNames() {
+    return parameterTypeNames;
+  }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * The logs bloom bits of the event schemas, compiled once so that a block can be ruled out with a
+ * few tests of its logs bloom before any of its logs is looked at.
+ *
+ * <p>A log of a schema sets the bits of the contract address and, unless the event is anonymous,
+ * those of the event topic in the logs bloom of its block. A block whose logs bloom misses the bits
+ * of every schema holds no log of any of them. The schemas matching the logs of any contract only
+ * require the bits of their event topic.
+ */
+public final class EventSchemaBloom {
+  private static final EventSchemaBloom EMPTY = new EventSchemaBloom(new int[0][]);
+  private static final int BLOOM_BYTES = 256;
+  private static final int BLOOM_BIT_MASK = (BLOOM_BYTES * 8) - 1;
+
+  /** for each distinct schema, the bloom bits it sets as byte offsets shifted left by 8 | masks */
+  private final int[][] requirements;
+
+  private EventSchemaBloom(final int[][] requirements) {
+    this.requirements = requirements;
+  }
+
+  /**
+   * compile the logs bloom bits of the given schemas
+   *
+   * @param schemas the event schemas
+   * @return the compiled logs bloom bits
+   */
+  static EventSchemaBloom of(final Collection<EventSchema> schemas) {
+    if (schemas.isEmpty()) {
+      return EMPTY;
+    }
+    final MessageDigest digest = keccak256();
+    final Set<Requirement> requirements = new LinkedHashSet<>();
+    schemas.forEach(
+        schema -> {
+          final byte[] bloom = new byte[BLOOM_BYTES];
+          if (!schema.matchesAnyContract()) {
+            setBits(bloom, digest, schema.getContractAddress());
+          }
+          if (schema.getEventName() != null) {
+            setBits(bloom, digest, schema.getTopic());
+          }
+          requirements.add(new Requirement(bloom));
+        });
+    return new EventSchemaBloom(
+        requirements.stream().map(Requirement::compile).toArray(int[][]::new));
+  }
+
+  /**
+   * whether a block with the given logs bloom may hold a log of one of the event schemas
+   *
+   * @param logsBloom the logs bloom of the block
+   * @return false when the block holds no log of any schema, true when it may, or when the logs
+   *     bloom is missing or malformed
+   */
+  public boolean mayContainLogs(final Bytes logsBloom) {
+    if (logsBloom == null || logsBloom.size() != BLOOM_BYTES) {
+      return true;
+    }
+    final byte[] bloom = logsBloom.toArrayUnsafe();
+    for (final int[] requirement : requirements) {
+      if (isSet(bloom, requirement)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSet(final byte[] bloom, final int[] requirement) {
+    for (final int bits : requirement) {
+      final int mask = bits & 0xff;
+      if ((bloom[bits >>> 8] & mask) != mask) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Set the three bits selected by the keccak hash of the value, as the yellow paper defines */
+  private static void setBits(final byte[] bloom, final MessageDigest digest, final Bytes value) {
+    value.update(digest);
+    final byte[] hash = digest.digest();
+    for (int i = 0; i < 6; i += 2) {
+      final int bit = (((hash[i] & 0xff) << 8) | (hash[i + 1] & 0xff)) & BLOOM_BIT_MASK;
+      bloom[BLOOM_BYTES - 1 - (bit >>> 3)] |= (byte) (1 << (bit & 7));
+    }
+  }
+
+  private static MessageDigest keccak256() {
+    try {
+      return MessageDigest.getInstance("KECCAK-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** The bloom bits of a schema, equal to those of the schemas sharing its address and topic */
+  private static final class Requirement {
+    private final byte[] bloom;
+
+    private Requirement(final byte[] bloom) {
+      this.bloom = bloom;
+    }
+
+    private int[] compile() {
+      final int[] bits = new int[BLOOM_BYTES];
+      int count = 0;
+      for (int offset = 0; offset < BLOOM_BYTES; offset++) {
+        if (bloom[offset] != 0) {
+          bits[count++] = (offset << 8) | (bloom[offset] & 0xff);
+        }
+      }
+      return Arrays.copyOf(bits, count);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      return other instanceof Requirement && Arrays.equals(bloom, ((Requirement) other).bloom);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(bloom);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 class EventSchemaConfigurationParseTarget {
 
   private List<SingleEventParseTarget> singleEventParseTargets;
+  private List<AbiImportParseTarget> abiImportParseTargets = emptyList();
 
   EventSchemaConfigurationParseTarget(List<SingleEventParseTarget> singleEventParseTargets) {
     this.singleEventParseTargets = singleEventParseTargets;
@@ -40,4 +41,14 @@ class EventSchemaConfigurationParseTarget {
   public void setSingleEventParseTargets(List<SingleEventParseTarget> singleEventParseTargets) {
     this.singleEventParseTargets = singleEventParseTargets;
   }
+
+  public List<AbiImportParseTarget> getAbiImportParseTargets() {
+    return abiImportParseTargets;
+  }
+
+  @JsonProperty("abis")
+  public void setAbiImportParseTargets(List<AbiImportParseTarget> abiImportParseTargets) {
+    this.abiImportParseTargets =
+        abiImportParseTargets == null ? emptyList() : abiImportParseTargets;
+  }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Immutable index of event schemas by contract address, compiled once so that finding the schema of
+ * a log costs the same whatever the number of schemas.
+ *
+ * <p>The schemas matching the logs of any contract are indexed apart, by event topic and number of
+ * indexed parameters, so that e.g. a single schema of the ERC-20 {@code Transfer} event matches the
+ * transfers of every token without matching the ERC-721 transfers sharing its topic.
+ */
+public final class EventSchemaIndex {
+  private static final EventSchemaIndex EMPTY =
+      new EventSchemaIndex(ImmutableMap.of(), ImmutableMap.of());
+
+  private final Map<Bytes, ContractSchemas> contractSchemas;
+  private final Map<Bytes, ImmutableListMultimap<Integer, EventSchema>> anyContractSchemas;
+
+  private EventSchemaIndex(
+      final Map<Bytes, ContractSchemas> contractSchemas,
+      final Map<Bytes, ImmutableListMultimap<Integer, EventSchema>> anyContractSchemas) {
+    this.contractSchemas = contractSchemas;
+    this.anyContractSchemas = anyContractSchemas;
+  }
+
+  /**
+   * compile the index of the given schemas
+   *
+   * @param schemas the event schemas
+   * @return the index
+   */
+  static EventSchemaIndex of(final Collection<EventSchema> schemas) {
+    if (schemas.isEmpty()) {
+      return EMPTY;
+    }
+    final Map<Bytes, ContractSchemas.Builder> builders = new HashMap<>();
+    final Map<Bytes, ImmutableListMultimap.Builder<Integer, EventSchema>> anyContractBuilders =
+        new HashMap<>();
+    schemas.forEach(
+        schema -> {
+          if (schema.matchesAnyContract()) {
+            anyContractBuilders
+                .computeIfAbsent(schema.getTopic(), __ -> ImmutableListMultimap.builder())
+                .put(schema.getIndexedParameterCount(), schema);
+          } else {
+            builders
+                .computeIfAbsent(schema.getContractAddress(), __ -> new ContractSchemas.Builder())
+                .add(schema);
+          }
+        });
+    final ImmutableMap.Builder<Bytes, ContractSchemas> contractSchemas = ImmutableMap.builder();
+    builders.forEach((address, builder) -> contractSchemas.put(address, builder.build()));
+    final ImmutableMap.Builder<Bytes, ImmutableListMultimap<Integer, EventSchema>>
+        anyContractSchemas = ImmutableMap.builder();
+    anyContractBuilders.forEach((topic, builder) -> anyContractSchemas.put(topic, builder.build()));
+    return new EventSchemaIndex(contractSchemas.build(), anyContractSchemas.build());
+  }
+
+  /**
+   * find the schemas of a log, preferring those of its contract with its event topic, then those of
+   * any contract with its event topic and number of indexed parameters, then the anonymous ones of
+   * its contract with its number of topics
+   *
+   * @param contractAddress address of the contract emitting the log
+   * @param topics topics of the log
+   * @return the matching schemas, empty if there are none
+   */
+  public List<EventSchema> match(final Bytes contractAddress, final List<? extends Bytes> topics) {
+    if (topics == null || topics.isEmpty()) {
+      return List.of();
+    }
+    final List<EventSchema> schemas = find(contractAddress, topics.get(0));
+    if (!schemas.isEmpty()) {
+      return schemas;
+    }
+    final List<EventSchema> anyContract = findAnyContract(topics.get(0), topics.size() - 1);
+    return anyContract.isEmpty() ? findAnonymous(contractAddress, topics.size()) : anyContract;
+  }
+
+  /**
+   * find the schemas of the events of a contract with the given topic
+   *
+   * @param contractAddress address of the contract emitting the log
+   * @param topic first topic of the log
+   * @return the matching schemas, empty if there are none
+   */
+  public List<EventSchema> find(final Bytes contractAddress, final Bytes topic) {
+    final ContractSchemas schemas = contractSchemas.get(contractAddress);
+    return schemas == null ? List.of() : schemas.byTopic.get(topic);
+  }
+
+  /**
+   * find the schemas of the anonymous events of a contract with the given number of indexed
+   * parameters
+   *
+   * @param contractAddress address of the contract emitting the log
+   * @param indexedParameterCount number of topics of the log
+   * @return the matching schemas, empty if there are none
+   */
+  public List<EventSchema> findAnonymous(
+      final Bytes contractAddress, final int indexedParameterCount) {
+    final ContractSchemas schemas = contractSchemas.get(contractAddress);
+    return schemas == null
+        ? List.of()
+        : schemas.anonymousByIndexedParameterCount.get(indexedParameterCount);
+  }
+
+  /**
+   * find the schemas of the events of any contract with the given topic and number of indexed
+   * parameters
+   *
+   * @param topic first topic of the log
+   * @param indexedParameterCount number of topics of the log following its event topic
+   * @return the matching schemas, empty if there are none
+   */
+  public List<EventSchema> findAnyContract(final Bytes topic, final int indexedParameterCount) {
+    final ImmutableListMultimap<Integer, EventSchema> schemas = anyContractSchemas.get(topic);
+    return schemas == null ? List.of() : schemas.get(indexedParameterCount);
+  }
+
+  private static final class ContractSchemas {
+    private final ImmutableListMultimap<Bytes, EventSchema> byTopic;
+    private final ImmutableListMultimap<Integer, EventSchema> anonymousByIndexedParameterCount;
+
+    private ContractSchemas(
+        final ImmutableListMultimap<Bytes, EventSchema> byTopic,
+        final ImmutableListMultimap<Integer, EventSchema> anonymousByIndexedParameterCount) {
+      this.byTopic = byTopic;
+      this.anonymousByIndexedParameterCount = anonymousByIndexedParameterCount;
+    }
+
+    private static final class Builder {
+      private final ImmutableListMultimap.Builder<Bytes, EventSchema> byTopic =
+          ImmutableListMultimap.builder();
+      private final ImmutableListMultimap.Builder<Integer, EventSchema>
+          anonymousByIndexedParameterCount = ImmutableListMultimap.builder();
+
+      private void add(final EventSchema schema) {
+        byTopic.put(schema.getTopic(), schema);
+        if (schema.getEventName() == null) {
+          anonymousByIndexedParameterCount.put(schema.getIndexedParameterCount(), schema);
+        }
+      }
+
+      private ContractSchemas build() {
+        return new ContractSchemas(byTopic.build(), anonymousByIndexedParameterCount.build());
+      }
+    }
+  }
+}
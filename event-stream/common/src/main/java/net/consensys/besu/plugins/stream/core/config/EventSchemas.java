@@ -14,21 +14,32 @@
  */
 package net.consensys.besu.plugins.stream.core.config;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
-import static java.util.stream.Collectors.toUnmodifiableSet;
+import static java.util.stream.Collectors.toCollection;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /** Represents a set of event schemas */
 public class EventSchemas {
+  private static final Logger LOG = LogManager.getLogger();
+
   private final Set<EventSchema> schemas;
+  private final EventSchemaIndex index;
+  private final EventSchemaBloom bloom;
 
   /**
    * constructs a new EventSchemas
@@ -38,6 +49,8 @@ public class EventSchemas {
   @VisibleForTesting
   public EventSchemas(final Set<EventSchema> schemas) {
     this.schemas = schemas;
+    this.index = EventSchemaIndex.of(schemas);
+    this.bloom = EventSchemaBloom.of(schemas);
   }
 
   /**
@@ -50,21 +63,64 @@ public class EventSchemas {
   }
 
   /**
-   * create a new set of event schemas from the given yaml file
+   * create a new set of event schemas from the given yaml file, or from the events of the given
+   * solc or Hardhat ABI JSON file, which then match the logs of any contract
+   *
+   * <p>Besides the event schemas definitions, the yaml file may list ABI files to import the events
+   * of, with paths relative to the yaml file, bound to a contract address or else matching the logs
+   * of any contract.
    *
-   * @param eventSchemasYamlFile a yaml file representing the event schemas definitions
+   * @param eventSchemasYamlFile a yaml file representing the event schemas definitions, or a JSON
+   *     ABI file
    * @throws IOException if the file cannot be parsed
    * @return the newly created EventSchemas object
    */
   public static EventSchemas from(final File eventSchemasYamlFile) throws IOException {
+    if (AbiEventSchemas.isAbiFile(eventSchemasYamlFile)) {
+      return new EventSchemas(
+          withoutDuplicateAnyContractSchemas(
+              AbiEventSchemas.from(eventSchemasYamlFile, null, null, emptyList())));
+    }
     ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
     mapper.findAndRegisterModules();
     final EventSchemaConfigurationParseTarget eventSchemaConfigurationParseTarget =
         mapper.readValue(eventSchemasYamlFile, EventSchemaConfigurationParseTarget.class);
-    return new EventSchemas(
+    final List<EventSchema> schemas =
         eventSchemaConfigurationParseTarget.getSingleEventParseTargets().stream()
             .map(EventSchema::from)
-            .collect(toUnmodifiableSet()));
+            .collect(toCollection(ArrayList::new));
+    final File baseDirectory = eventSchemasYamlFile.getAbsoluteFile().getParentFile();
+    for (final AbiImportParseTarget abiImport :
+        eventSchemaConfigurationParseTarget.getAbiImportParseTargets()) {
+      schemas.addAll(AbiEventSchemas.from(abiImport, baseDirectory));
+    }
+    return new EventSchemas(withoutDuplicateAnyContractSchemas(schemas));
+  }
+
+  /**
+   * Keep the first of the schemas of any contract matching the same logs, e.g. the {@code Transfer}
+   * events of the ABIs of several tokens, which would otherwise make their logs ambiguous.
+   */
+  private static Set<EventSchema> withoutDuplicateAnyContractSchemas(
+      final List<EventSchema> schemas) {
+    final Map<List<Object>, EventSchema> anyContractSchemas = new HashMap<>();
+    final List<EventSchema> distinctSchemas = new ArrayList<>(schemas.size());
+    for (final EventSchema schema : schemas) {
+      if (schema.matchesAnyContract()) {
+        final EventSchema first =
+            anyContractSchemas.putIfAbsent(
+                List.of(schema.getTopic(), schema.getIndexedParameterCount()), schema);
+        if (first != null) {
+          LOG.info(
+              "Skipping event schema {} matching the same logs as event schema {}",
+              schema.getId(),
+              first.getId());
+          continue;
+        }
+      }
+      distinctSchemas.add(schema);
+    }
+    return Set.copyOf(distinctSchemas);
   }
 
   /**
@@ -76,6 +132,24 @@ public class EventSchemas {
     return schemas;
   }
 
+  /**
+   * getter for the index of the event schemas
+   *
+   * @return the index of the event schemas
+   */
+  public EventSchemaIndex getIndex() {
+    return index;
+  }
+
+  /**
+   * getter for the logs bloom bits of the event schemas
+   *
+   * @return the logs bloom bits of the event schemas
+   */
+  public EventSchemaBloom getBloom() {
+    return bloom;
+  }
+
   @Override
   public boolean equals(final Object other) {
     try {
@@ -16,6 +16,7 @@ package net.consensys.besu.plugins.stream.core.config;
 
 class ParameterDefinition {
   private int position;
+  private String name = "";
   private String type;
 
   public int getPosition() {
@@ -26,6 +27,14 @@ class ParameterDefinition {
     this.position = position;
   }
 
+  public String getName() {
+    return name;
+  }
+
+  public void setName(final String name) {
+    this.name = name == null ? "" : name;
+  }
+
   public String getType() {
     return type;
   }
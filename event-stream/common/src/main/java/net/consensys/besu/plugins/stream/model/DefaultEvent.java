@@ -14,19 +14,18 @@
  */
 package net.consensys.besu.plugins.stream.model;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.Instant.now;
-import static java.util.UUID.randomUUID;
 
 import net.consensys.besu.plugins.stream.api.errors.SerializationException;
 import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventIdGenerator;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
 import net.consensys.besu.plugins.stream.api.event.EventSerializer;
 
+import java.io.IOException;
 import java.util.Objects;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.Optional;
 
 /** Super class of all Ethereum client events. This class generates some fields automatically. */
 public class DefaultEvent<T> implements Event {
@@ -34,7 +33,8 @@ public class DefaultEvent<T> implements Event {
   private final String uuid;
   private final long timestamp;
   private final T event;
-  private String rawJSONPayload;
+  private final EventMetadata metadata;
+  private byte[] rawJSONPayload;
 
   /**
    * Creates a {@link DefaultEvent} object using the specified serializer.
@@ -44,23 +44,84 @@ public class DefaultEvent<T> implements Event {
    * @param event event payload object
    * @param serializer the {@link EventSerializer} to use
    * @return DefaultEvent object
-   * @throws SerializationException when JsonProcessingException is caught
+   * @throws SerializationException when the payload cannot be written as JSON
    */
   public static <T> DefaultEvent<T> create(
       final String type, final T event, final EventSerializer<T> serializer)
       throws SerializationException {
-    final DefaultEvent<T> defaultEvent = new DefaultEvent<>(type, event);
+    return create(type, now().toEpochMilli(), event, serializer);
+  }
+
+  /**
+   * Creates a {@link DefaultEvent} object that occurred at the given time, using the specified
+   * serializer.
+   *
+   * @param <T> type of payload object
+   * @param type event type
+   * @param timestamp time the event occurred at, in milliseconds
+   * @param event event payload object
+   * @param serializer the {@link EventSerializer} to use
+   * @return DefaultEvent object
+   * @throws SerializationException when the payload cannot be written as JSON
+   */
+  public static <T> DefaultEvent<T> create(
+      final String type, final long timestamp, final T event, final EventSerializer<T> serializer)
+      throws SerializationException {
+    return create(type, timestamp, event, serializer, EventMetadata.empty());
+  }
+
+  /**
+   * Creates a {@link DefaultEvent} object that occurred at the given time and relates to the given
+   * metadata, using the specified serializer.
+   *
+   * @param <T> type of payload object
+   * @param type event type
+   * @param timestamp time the event occurred at, in milliseconds
+   * @param event event payload object
+   * @param serializer the {@link EventSerializer} to use
+   * @param metadata what the event is about
+   * @return DefaultEvent object
+   * @throws SerializationException when the payload cannot be written as JSON
+   */
+  public static <T> DefaultEvent<T> create(
+      final String type,
+      final long timestamp,
+      final T event,
+      final EventSerializer<T> serializer,
+      final EventMetadata metadata)
+      throws SerializationException {
+    return create(type, timestamp, event, serializer, metadata, RandomEventIdGenerator.INSTANCE);
+  }
+
+  /**
+   * Creates a {@link DefaultEvent} object that occurred at the given time and relates to the given
+   * metadata, using the specified serializer and identifier generator.
+   *
+   * @param <T> type of payload object
+   * @param type event type
+   * @param timestamp time the event occurred at, in milliseconds
+   * @param event event payload object
+   * @param serializer the {@link EventSerializer} to use
+   * @param metadata what the event is about
+   * @param idGenerator the {@link EventIdGenerator} generating the event identifier
+   * @return DefaultEvent object
+   * @throws SerializationException when the payload cannot be written as JSON
+   */
+  public static <T> DefaultEvent<T> create(
+      final String type,
+      final long timestamp,
+      final T event,
+      final EventSerializer<T> serializer,
+      final EventMetadata metadata,
+      final EventIdGenerator idGenerator)
+      throws SerializationException {
+    final DefaultEvent<T> defaultEvent =
+        new DefaultEvent<>(idGenerator.generate(type, metadata), type, timestamp, event, metadata);
     try {
-      final ObjectMapper mapper = new ObjectMapper();
-      final ObjectNode rootNode = mapper.createObjectNode();
-      rootNode
-          .put("uuid", defaultEvent.uuid)
-          .put("type", type)
-          .put("timestamp", defaultEvent.timestamp);
-      final JsonNode eventNode = serializer.serialize(mapper, event);
-      rootNode.set("event", eventNode);
-      defaultEvent.rawJSONPayload = mapper.writeValueAsString(rootNode);
-    } catch (JsonProcessingException e) {
+      defaultEvent.rawJSONPayload =
+          JsonEventWriter.writeEvent(
+              defaultEvent.uuid, type, defaultEvent.timestamp, event, serializer);
+    } catch (IOException e) {
       throw new SerializationException(e);
     }
     return defaultEvent;
@@ -69,30 +130,41 @@ public class DefaultEvent<T> implements Event {
   /**
    * @param uuid event identifier
    * @param type event type
+   * @param timestamp event timestamp in milliseconds
    * @param event event payload object
+   * @param metadata what the event is about
    */
-  private DefaultEvent(final String uuid, final String type, final T event) {
+  private DefaultEvent(
+      final String uuid,
+      final String type,
+      final long timestamp,
+      final T event,
+      final EventMetadata metadata) {
     this.uuid = uuid;
-    this.timestamp = now().toEpochMilli();
+    this.timestamp = timestamp;
     this.type = type;
     this.event = event;
+    this.metadata = metadata;
   }
 
   /**
-   * @param type event type
-   * @param event event payload object
+   * Convert object instance as JSON string.
+   *
+   * @return The JSON string representing the object instance.
    */
-  private DefaultEvent(final String type, final T event) {
-    this(randomUUID().toString(), type, event);
+  @Override
+  public String string() {
+    return new String(rawJSONPayload, UTF_8);
   }
 
   /**
-   * Convert object instance as JSON string.
+   * The UTF-8 encoded JSON written when the event was created. The returned array is shared and
+   * must not be modified.
    *
-   * @return The JSON string representing the object instance.
+   * @return The UTF-8 encoded JSON representing the object instance.
    */
   @Override
-  public String string() {
+  public byte[] bytes() {
     return rawJSONPayload;
   }
 
@@ -120,6 +192,16 @@ public class DefaultEvent<T> implements Event {
     return getType();
   }
 
+  @Override
+  public Optional<String> uuid() {
+    return Optional.of(uuid);
+  }
+
+  @Override
+  public EventMetadata metadata() {
+    return metadata;
+  }
+
   /**
    * get the type
    *
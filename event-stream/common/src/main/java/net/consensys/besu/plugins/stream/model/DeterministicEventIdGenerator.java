@@ -0,0 +1,82 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import net.consensys.besu.plugins.stream.api.event.EventIdGenerator;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Generates name-based version 5 UUIDs from what the event is about: its type, block hash,
+ * transaction hash, log index and whether the log was removed. The same event gets the same
+ * identifier whichever node publishes it and however many times, so consumers can discard the
+ * duplicates. Events about neither a block nor a transaction get an identifier from the fallback
+ * generator.
+ */
+final class DeterministicEventIdGenerator implements EventIdGenerator {
+  private static final ThreadLocal<MessageDigest> DIGEST =
+      ThreadLocal.withInitial(DeterministicEventIdGenerator::createDigest);
+
+  private final EventIdGenerator fallback;
+
+  DeterministicEventIdGenerator(final EventIdGenerator fallback) {
+    this.fallback = fallback;
+  }
+
+  @Override
+  public String generate(final String type, final EventMetadata metadata) {
+    if (metadata.getBlockHash().isEmpty() && metadata.getTransactionHash().isEmpty()) {
+      return fallback.generate(type, metadata);
+    }
+    final MessageDigest digest = DIGEST.get();
+    digest.update(type.getBytes(UTF_8));
+    digest.update((byte) 0);
+    update(digest, metadata.getBlockHash());
+    update(digest, metadata.getTransactionHash());
+    final int logIndex = metadata.getLogIndex().orElse(-1);
+    digest.update((byte) (logIndex >>> 24));
+    digest.update((byte) (logIndex >>> 16));
+    digest.update((byte) (logIndex >>> 8));
+    digest.update((byte) logIndex);
+    digest.update((byte) (metadata.isRemoved() ? 1 : 0));
+    final Bytes hash = Bytes.wrap(digest.digest());
+    return EventIds.uuid(hash.getLong(0), hash.getLong(8), 5);
+  }
+
+  /** Digest a field with its size, so that absent and adjacent fields cannot be confused. */
+  private static void update(final MessageDigest digest, final Optional<Bytes> field) {
+    if (field.isEmpty()) {
+      digest.update((byte) 0);
+      return;
+    }
+    digest.update((byte) field.get().size());
+    field.get().update(digest);
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import net.consensys.besu.plugins.stream.api.event.EventIdGenerator;
+
+/** enumeration of the ways event identifiers are generated */
+public enum EventIdStrategy {
+  /** random version 4 UUIDs, drawn from a per-thread generator rather than a shared secure one */
+  RANDOM,
+  /**
+   * ULIDs sorting in generation order: the time in milliseconds and a sequence number, followed by
+   * the node id and random bits so that nodes and restarts do not collide
+   */
+  TIME_ORDERED,
+  /**
+   * name-based version 5 UUIDs derived from the event type and the block hash, transaction hash and
+   * log index the event is about, identical across restarts and nodes. Events about none of them
+   * get a time-ordered identifier.
+   */
+  DETERMINISTIC;
+
+  /**
+   * create a generator of identifiers
+   *
+   * @param nodeId the identifier of this node, between 0 and 65535, written in the time-ordered
+   *     identifiers
+   * @return the generator
+   */
+  public EventIdGenerator createGenerator(final int nodeId) {
+    switch (this) {
+      case TIME_ORDERED:
+        return new TimeOrderedEventIdGenerator(nodeId);
+      case DETERMINISTIC:
+        return new DeterministicEventIdGenerator(new TimeOrderedEventIdGenerator(nodeId));
+      case RANDOM:
+      default:
+        return RandomEventIdGenerator.INSTANCE;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import java.util.UUID;
+
+/** Formatting of the event identifiers */
+final class EventIds {
+  private static final char[] CROCKFORD_BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+  private static final int ULID_LENGTH = 26;
+
+  private EventIds() {}
+
+  /**
+   * Format 128 bits as a UUID of the given version, with the IETF variant.
+   *
+   * @param high the 64 most significant bits
+   * @param low the 64 least significant bits
+   * @param version the UUID version
+   * @return the UUID string
+   */
+  static String uuid(final long high, final long low, final int version) {
+    return new UUID(
+            (high & ~0xF000L) | ((long) version << 12),
+            (low & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L)
+        .toString();
+  }
+
+  /**
+   * Format 128 bits as a ULID, 26 Crockford base 32 digits.
+   *
+   * @param high the 64 most significant bits
+   * @param low the 64 least significant bits
+   * @return the ULID string
+   */
+  static String ulid(final long high, final long low) {
+    final char[] digits = new char[ULID_LENGTH];
+    long remainingHigh = high;
+    long remainingLow = low;
+    for (int i = ULID_LENGTH - 1; i >= 0; i--) {
+      digits[i] = CROCKFORD_BASE32[(int) (remainingLow & 0x1f)];
+      remainingLow = (remainingLow >>> 5) | (remainingHigh << 59);
+      remainingHigh >>>= 5;
+    }
+    return new String(digits);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import net.consensys.besu.plugins.stream.api.event.EventSerializer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+/**
+ * Streams events as UTF-8 JSON straight into a byte buffer.
+ *
+ * <p>A single {@link JsonFactory} is shared by every writer and each thread reuses its own output
+ * buffer, so serializing an event allocates little more than the resulting byte array.
+ */
+public final class JsonEventWriter {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final int INITIAL_BUFFER_SIZE = 2048;
+
+  private static final ThreadLocal<ByteArrayBuilder> BUFFER =
+      ThreadLocal.withInitial(() -> new ByteArrayBuilder(INITIAL_BUFFER_SIZE));
+
+  private JsonEventWriter() {}
+
+  /**
+   * write the event envelope and its payload as JSON
+   *
+   * @param <T> type of payload object
+   * @param uuid event identifier
+   * @param type event type
+   * @param timestamp event timestamp in milliseconds
+   * @param payload event payload object
+   * @param serializer the {@link EventSerializer} writing the payload
+   * @return the UTF-8 encoded JSON
+   * @throws IOException when the payload cannot be written
+   */
+  public static <T> byte[] writeEvent(
+      final String uuid,
+      final String type,
+      final long timestamp,
+      final T payload,
+      final EventSerializer<T> serializer)
+      throws IOException {
+    return write(
+        generator -> {
+          generator.writeStartObject();
+          generator.writeStringField("uuid", uuid);
+          generator.writeStringField("type", type);
+          generator.writeNumberField("timestamp", timestamp);
+          generator.writeFieldName("event");
+          serializer.serialize(generator, payload);
+          generator.writeEndObject();
+        });
+  }
+
+  /**
+   * write the payload alone as JSON
+   *
+   * @param <T> type of payload object
+   * @param payload payload object
+   * @param serializer the {@link EventSerializer} writing the payload
+   * @return the UTF-8 encoded JSON
+   * @throws IOException when the payload cannot be written
+   */
+  public static <T> byte[] writeValue(final T payload, final EventSerializer<T> serializer)
+      throws IOException {
+    return write(generator -> serializer.serialize(generator, payload));
+  }
+
+  /**
+   * write the payload as a JSON fragment, to be spliced into other events with {@link
+   * JsonGenerator#writeRawValue(SerializableString)}
+   *
+   * <p>The fragment is written to its own buffer, so it can be created while another event is being
+   * written.
+   *
+   * @param <T> type of payload object
+   * @param payload payload object
+   * @param serializer the {@link EventSerializer} writing the payload
+   * @return the JSON fragment
+   * @throws IOException when the payload cannot be written
+   */
+  public static <T> SerializableString writeFragment(
+      final T payload, final EventSerializer<T> serializer) throws IOException {
+    final StringWriter writer = new StringWriter(INITIAL_BUFFER_SIZE);
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+      serializer.serialize(generator, payload);
+    }
+    return new SerializedString(writer.toString());
+  }
+
+  private static byte[] write(final GeneratorAction action) throws IOException {
+    final ByteArrayBuilder buffer = BUFFER.get();
+    buffer.reset();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+      action.apply(generator);
+    }
+    final byte[] json = buffer.toByteArray();
+    buffer.reset();
+    return json;
+  }
+
+  @FunctionalInterface
+  private interface GeneratorAction {
+    void apply(JsonGenerator generator) throws IOException;
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+/**
+ * enumeration of the keys within which events are delivered in the order Besu emitted them. Events
+ * lacking the selected key are ordered within their domain object type instead.
+ */
+public enum OrderingKey {
+  /** no ordering, events are published by whichever worker is free */
+  NONE,
+  /** order events of the same domain object type */
+  DOMAIN_TYPE,
+  /** order events of the same block number */
+  BLOCK_NUMBER,
+  /** order events of the same transaction sender */
+  SENDER,
+  /** order events of the same contract address */
+  CONTRACT_ADDRESS
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+/** enumeration of the policies applied when the event dispatch queue is full */
+public enum OverflowPolicy {
+  /** block the calling thread until the queue has room */
+  BLOCK,
+  /** evict the oldest queued event to make room for the new one */
+  DROP_OLDEST,
+  /** discard the new event */
+  DROP_NEWEST,
+  /** spill the new event to the journal on disk, replayed once the broker catches up */
+  SPILL
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import net.consensys.besu.plugins.stream.api.event.EventIdGenerator;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates random version 4 UUIDs. Unlike {@link UUID#randomUUID()}, the bits are drawn from the
+ * random generator of the calling thread, which neither contends with other threads nor waits for
+ * entropy.
+ */
+final class RandomEventIdGenerator implements EventIdGenerator {
+  static final RandomEventIdGenerator INSTANCE = new RandomEventIdGenerator();
+
+  private RandomEventIdGenerator() {}
+
+  @Override
+  public String generate(final String type, final EventMetadata metadata) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    return EventIds.uuid(random.nextLong(), random.nextLong(), 4);
+  }
+}
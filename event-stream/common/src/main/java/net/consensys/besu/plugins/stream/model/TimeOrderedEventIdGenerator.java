@@ -0,0 +1,72 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import net.consensys.besu.plugins.stream.api.event.EventIdGenerator;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Generates ULIDs in increasing order. The 128 bits hold the time in milliseconds (48 bits), a
+ * sequence number restarting every millisecond (20 bits), the node id (16 bits) and random bits (44
+ * bits).
+ *
+ * <p>The time and sequence number are taken together with a compare-and-set, so identifiers are
+ * generated without locking and sort in generation order, even when the clock goes backwards or
+ * more than a million identifiers are generated in a millisecond: the time then runs ahead of the
+ * clock until it catches up.
+ */
+final class TimeOrderedEventIdGenerator implements EventIdGenerator {
+  private static final int SEQUENCE_BITS = 20;
+  private static final int MAX_NODE_ID = 0xffff;
+  private static final long RANDOM_MASK = (1L << 44) - 1;
+
+  private final long nodeId;
+  private final LongSupplier clock;
+  private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+  TimeOrderedEventIdGenerator(final int nodeId) {
+    this(nodeId, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  TimeOrderedEventIdGenerator(final int nodeId, final LongSupplier clock) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException("node id must be between 0 and " + MAX_NODE_ID);
+    }
+    this.nodeId = nodeId;
+    this.clock = clock;
+  }
+
+  @Override
+  public String generate(final String type, final EventMetadata metadata) {
+    long previous;
+    long next;
+    do {
+      previous = lastTimeAndSequence.get();
+      next = Math.max(clock.getAsLong() << SEQUENCE_BITS, previous + 1);
+    } while (!lastTimeAndSequence.compareAndSet(previous, next));
+    final long time = next >>> SEQUENCE_BITS;
+    final long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+    return EventIds.ulid(
+        (time << 16) | (sequence >>> 4),
+        (sequence << 60) | (nodeId << 44) | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK));
+  }
+}
@@ -15,6 +15,7 @@
 package net.consensys.besu.plugins.types;
 
 import java.util.List;
+import java.util.Optional;
 
 import com.google.common.base.MoreObjects;
 import org.apache.tuweni.bytes.Bytes;
@@ -35,7 +36,9 @@ public class DecodedLogWithMetadata implements LogWithMetadata {
   private final Address address;
   private final Bytes data;
   private final List<? extends Bytes32> topics;
-  private final String decoded;
+  private final Optional<String> eventName;
+  private final List<DecodedParameter> parameters;
+  private final Optional<String> schemaId;
 
   /**
    * Construct a Decoded Log with Metadata from the given inputs
@@ -49,7 +52,9 @@ public class DecodedLogWithMetadata implements LogWithMetadata {
    * @param data the data
    * @param topics the topics
    * @param removed boolean indicating removed
-   * @param decoded boolean indicating decoded
+   * @param eventName the name of the event, empty when it is anonymous
+   * @param parameters the decoded parameters, in declaration order
+   * @param schemaId the identifier of the schema the log was decoded with
    */
   DecodedLogWithMetadata(
       final int logIndex,
@@ -61,7 +66,9 @@ public class DecodedLogWithMetadata implements LogWithMetadata {
       final Bytes data,
       final List<? extends Bytes32> topics,
       final boolean removed,
-      final String decoded) {
+      final Optional<String> eventName,
+      final List<DecodedParameter> parameters,
+      final Optional<String> schemaId) {
     this.logIndex = logIndex;
     this.blockNumber = blockNumber;
     this.blockHash = blockHash;
@@ -71,16 +78,25 @@ public class DecodedLogWithMetadata implements LogWithMetadata {
     this.data = data;
     this.topics = topics;
     this.removed = removed;
-    this.decoded = decoded;
+    this.eventName = eventName;
+    this.parameters = parameters;
+    this.schemaId = schemaId;
   }
 
   /**
-   * Construct a Decoded Log with Metadata from the given Log with Metadata
+   * Construct a Decoded Log with Metadata from the given Log with Metadata and the schema it was
+   * decoded with
    *
    * @param baseLogWithMetadata the log including representing the metadata
-   * @param decoded boolean indicating decoded
+   * @param eventName the name of the event, null when it is anonymous
+   * @param parameters the decoded parameters, in declaration order
+   * @param schemaId the identifier of the schema the log was decoded with
    */
-  public DecodedLogWithMetadata(final LogWithMetadata baseLogWithMetadata, final String decoded) {
+  public DecodedLogWithMetadata(
+      final LogWithMetadata baseLogWithMetadata,
+      final String eventName,
+      final List<DecodedParameter> parameters,
+      final String schemaId) {
     this(
         baseLogWithMetadata.getLogIndex(),
         baseLogWithMetadata.getBlockNumber(),
@@ -91,7 +107,9 @@ public class DecodedLogWithMetadata implements LogWithMetadata {
         baseLogWithMetadata.getData(),
         baseLogWithMetadata.getTopics(),
         baseLogWithMetadata.isRemoved(),
-        decoded);
+        Optional.ofNullable(eventName),
+        parameters,
+        Optional.ofNullable(schemaId));
   }
 
   @Override
@@ -106,7 +124,9 @@ public class DecodedLogWithMetadata implements LogWithMetadata {
         .add("data", data)
         .add("topics", topics)
         .add("removed", removed)
-        .add("decoded", decoded)
+        .add("eventName", eventName.orElse(null))
+        .add("parameters", parameters)
+        .add("schemaId", schemaId.orElse(null))
         .toString();
   }
 
@@ -156,11 +176,58 @@ public class DecodedLogWithMetadata implements LogWithMetadata {
   }
 
   /**
-   * getter for decoded
+   * getter for the event name
    *
-   * @return decoded
+   * @return the name of the event, empty when it is anonymous
+   */
+  public Optional<String> getEventName() {
+    return eventName;
+  }
+
+  /**
+   * getter for the decoded parameters
+   *
+   * @return the decoded parameters, in declaration order
+   */
+  public List<DecodedParameter> getParameters() {
+    return parameters;
+  }
+
+  /**
+   * format the decoded log as {@code Name(value1,value2,...)}, without spaces and with parentheses
+   * in place of the brackets of the values
+   *
+   * @return the formatted decoded log
    */
   public String getDecoded() {
-    return decoded;
+    final StringBuilder decoded = new StringBuilder(64);
+    eventName.ifPresent(decoded::append);
+    decoded.append('(');
+    for (int i = 0; i < parameters.size(); i++) {
+      if (i > 0) {
+        decoded.append(',');
+      }
+      final String value = parameters.get(i).getValue();
+      for (int j = 0; j < value.length(); j++) {
+        final char c = value.charAt(j);
+        if (c == '[') {
+          decoded.append('(');
+        } else if (c == ']') {
+          decoded.append(')');
+        } else if (c != ' ') {
+          decoded.append(c);
+        }
+      }
+    }
+    return decoded.append(')').toString();
+  }
+
+  /**
+   * getter for schema id
+   *
+   * @return the identifier of the schema the log was decoded with
+   */
+  public Optional<String> getSchemaId() {
+    return schemaId;
   }
 }
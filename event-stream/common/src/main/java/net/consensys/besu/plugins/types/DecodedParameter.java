@@ -0,0 +1,110 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.types;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/** Decoded event parameter */
+public final class DecodedParameter {
+  private final String name;
+  private final String type;
+  private final String value;
+  private final boolean indexed;
+
+  /**
+   * Construct a decoded event parameter
+   *
+   * @param name the parameter name, empty when the schema does not name it
+   * @param type the solidity type of the parameter
+   * @param value the decoded value, in decimal for the integers and in hex for the addresses and
+   *     bytes
+   * @param indexed whether the parameter is read from the log topics
+   */
+  public DecodedParameter(
+      final String name, final String type, final String value, final boolean indexed) {
+    this.name = name;
+    this.type = type;
+    this.value = value;
+    this.indexed = indexed;
+  }
+
+  /**
+   * getter for the name
+   *
+   * @return the parameter name, empty when the schema does not name it
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * getter for the type
+   *
+   * @return the solidity type of the parameter
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * getter for the value
+   *
+   * @return the decoded value
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * getter for indexed
+   *
+   * @return whether the parameter is read from the log topics
+   */
+  public boolean isIndexed() {
+    return indexed;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof DecodedParameter)) {
+      return false;
+    }
+    final DecodedParameter that = (DecodedParameter) other;
+    return indexed == that.indexed
+        && name.equals(that.name)
+        && type.equals(that.type)
+        && value.equals(that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, type, value, indexed);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("name", name)
+        .add("type", type)
+        .add("value", value)
+        .add("indexed", indexed)
+        .toString();
+  }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.types;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.plugin.data.Quantity;
+
+/**
+ * Hex encoders writing straight into a caller supplied buffer or a {@link JsonGenerator}.
+ *
+ * <p>Quantities are encoded as {@link QuantityFormatter} formats them, {@code 0x} followed by the
+ * hex digits without leading zeros, and bytes as {@link Bytes#toHexString()} does, two digits per
+ * byte. The encode methods return the offset following the last character written, the buffer must
+ * be large enough. No intermediate strings are created: quantities wider than 63 bits are read
+ * through their byte array, and the generator methods write from a buffer reused by each thread.
+ */
+public final class HexEncoder {
+  /** maximum length of an encoded long quantity */
+  public static final int MAX_LONG_QUANTITY_LENGTH = 18;
+
+  private static final byte[] DIGITS = {
+    '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+  };
+  private static final int RETAINED_BUFFER_SIZE = 16 * 1024;
+  private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[128]);
+
+  private HexEncoder() {}
+
+  /**
+   * return the length of the encoded quantity
+   *
+   * @param value the quantity, read as unsigned
+   * @return the number of characters
+   */
+  public static int quantityLength(final long value) {
+    return 2 + digits(value);
+  }
+
+  /**
+   * return the maximum length of the encoded quantity
+   *
+   * @param value the quantity
+   * @return the maximum number of characters
+   */
+  public static int quantityLength(final BigInteger value) {
+    return 3 + (value.bitLength() + 3) / 4;
+  }
+
+  /**
+   * return the length of the encoded bytes
+   *
+   * @param bytes the bytes
+   * @return the number of characters
+   */
+  public static int length(final Bytes bytes) {
+    return 2 + 2 * bytes.size();
+  }
+
+  /**
+   * encode a quantity
+   *
+   * @param value the quantity, read as unsigned
+   * @param buffer the buffer to write to
+   * @param offset the offset of the first character
+   * @return the offset following the last character
+   */
+  public static int encodeQuantity(final long value, final char[] buffer, final int offset) {
+    buffer[offset] = '0';
+    buffer[offset + 1] = 'x';
+    final int end = offset + quantityLength(value);
+    long remaining = value;
+    for (int i = end - 1; i >= offset + 2; i--) {
+      buffer[i] = (char) DIGITS[(int) remaining & 0xf];
+      remaining >>>= 4;
+    }
+    return end;
+  }
+
+  /**
+   * encode a quantity as ASCII
+   *
+   * @param value the quantity, read as unsigned
+   * @param buffer the buffer to write to
+   * @param offset the offset of the first byte
+   * @return the offset following the last byte
+   */
+  public static int encodeQuantity(final long value, final byte[] buffer, final int offset) {
+    buffer[offset] = '0';
+    buffer[offset + 1] = 'x';
+    final int end = offset + quantityLength(value);
+    long remaining = value;
+    for (int i = end - 1; i >= offset + 2; i--) {
+      buffer[i] = DIGITS[(int) remaining & 0xf];
+      remaining >>>= 4;
+    }
+    return end;
+  }
+
+  /**
+   * encode a quantity
+   *
+   * @param value the quantity
+   * @param buffer the buffer to write to
+   * @param offset the offset of the first character
+   * @return the offset following the last character
+   */
+  public static int encodeQuantity(final BigInteger value, final char[] buffer, final int offset) {
+    if (value.signum() >= 0 && value.bitLength() < Long.SIZE) {
+      return encodeQuantity(value.longValue(), buffer, offset);
+    }
+    int position = offset;
+    buffer[position++] = '0';
+    buffer[position++] = 'x';
+    if (value.signum() < 0) {
+      buffer[position++] = '-';
+    }
+    final byte[] magnitude = (value.signum() < 0 ? value.negate() : value).toByteArray();
+    boolean leading = true;
+    for (final byte b : magnitude) {
+      final int high = (b >> 4) & 0xf;
+      if (!leading || high != 0) {
+        buffer[position++] = (char) DIGITS[high];
+        leading = false;
+      }
+      final int low = b & 0xf;
+      if (!leading || low != 0) {
+        buffer[position++] = (char) DIGITS[low];
+        leading = false;
+      }
+    }
+    return position;
+  }
+
+  /**
+   * encode a quantity as ASCII
+   *
+   * @param value the quantity
+   * @param buffer the buffer to write to
+   * @param offset the offset of the first byte
+   * @return the offset following the last byte
+   */
+  public static int encodeQuantity(final BigInteger value, final byte[] buffer, final int offset) {
+    if (value.signum() >= 0 && value.bitLength() < Long.SIZE) {
+      return encodeQuantity(value.longValue(), buffer, offset);
+    }
+    int position = offset;
+    buffer[position++] = '0';
+    buffer[position++] = 'x';
+    if (value.signum() < 0) {
+      buffer[position++] = '-';
+    }
+    final byte[] magnitude = (value.signum() < 0 ? value.negate() : value).toByteArray();
+    boolean leading = true;
+    for (final byte b : magnitude) {
+      final int high = (b >> 4) & 0xf;
+      if (!leading || high != 0) {
+        buffer[position++] = DIGITS[high];
+        leading = false;
+      }
+      final int low = b & 0xf;
+      if (!leading || low != 0) {
+        buffer[position++] = DIGITS[low];
+        leading = false;
+      }
+    }
+    return position;
+  }
+
+  /**
+   * encode bytes
+   *
+   * @param bytes the bytes, such as a hash or an address
+   * @param buffer the buffer to write to
+   * @param offset the offset of the first character
+   * @return the offset following the last character
+   */
+  public static int encode(final Bytes bytes, final char[] buffer, final int offset) {
+    int position = offset;
+    buffer[position++] = '0';
+    buffer[position++] = 'x';
+    final int size = bytes.size();
+    for (int i = 0; i < size; i++) {
+      final byte b = bytes.get(i);
+      buffer[position++] = (char) DIGITS[(b >> 4) & 0xf];
+      buffer[position++] = (char) DIGITS[b & 0xf];
+    }
+    return position;
+  }
+
+  /**
+   * encode bytes as ASCII
+   *
+   * @param bytes the bytes, such as a hash or an address
+   * @param buffer the buffer to write to
+   * @param offset the offset of the first byte
+   * @return the offset following the last byte
+   */
+  public static int encode(final Bytes bytes, final byte[] buffer, final int offset) {
+    int position = offset;
+    buffer[position++] = '0';
+    buffer[position++] = 'x';
+    final int size = bytes.size();
+    for (int i = 0; i < size; i++) {
+      final byte b = bytes.get(i);
+      buffer[position++] = DIGITS[(b >> 4) & 0xf];
+      buffer[position++] = DIGITS[b & 0xf];
+    }
+    return position;
+  }
+
+  /**
+   * write a quantity field
+   *
+   * @param generator the generator to write to
+   * @param name the field name
+   * @param value the quantity, read as unsigned
+   * @throws IOException when the generator fails to write
+   */
+  public static void writeQuantityField(
+      final JsonGenerator generator, final String name, final long value) throws IOException {
+    generator.writeFieldName(name);
+    final char[] buffer = BUFFER.get();
+    generator.writeString(buffer, 0, encodeQuantity(value, buffer, 0));
+  }
+
+  /**
+   * write a quantity field
+   *
+   * @param generator the generator to write to
+   * @param name the field name
+   * @param value the quantity
+   * @throws IOException when the generator fails to write
+   */
+  public static void writeQuantityField(
+      final JsonGenerator generator, final String name, final BigInteger value) throws IOException {
+    generator.writeFieldName(name);
+    final char[] buffer = buffer(quantityLength(value));
+    generator.writeString(buffer, 0, encodeQuantity(value, buffer, 0));
+  }
+
+  /**
+   * write a quantity field
+   *
+   * @param generator the generator to write to
+   * @param name the field name
+   * @param quantity the quantity
+   * @throws IOException when the generator fails to write
+   */
+  public static void writeQuantityField(
+      final JsonGenerator generator, final String name, final Quantity quantity)
+      throws IOException {
+    final Number value = quantity.getValue();
+    if (value instanceof BigInteger) {
+      writeQuantityField(generator, name, (BigInteger) value);
+    } else {
+      writeQuantityField(generator, name, value.longValue());
+    }
+  }
+
+  /**
+   * write a bytes field
+   *
+   * @param generator the generator to write to
+   * @param name the field name
+   * @param bytes the bytes, such as a hash or an address
+   * @throws IOException when the generator fails to write
+   */
+  public static void writeBytesField(
+      final JsonGenerator generator, final String name, final Bytes bytes) throws IOException {
+    generator.writeFieldName(name);
+    final char[] buffer = buffer(length(bytes));
+    generator.writeString(buffer, 0, encode(bytes, buffer, 0));
+  }
+
+  private static int digits(final long value) {
+    return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 3) / 4);
+  }
+
+  /** The buffer of this thread, or a new one when the length exceeds what threads retain. */
+  private static char[] buffer(final int length) {
+    final char[] buffer = BUFFER.get();
+    if (length <= buffer.length) {
+      return buffer;
+    }
+    if (length > RETAINED_BUFFER_SIZE) {
+      return new char[length];
+    }
+    final char[] larger = new char[Math.max(length, buffer.length * 2)];
+    BUFFER.set(larger);
+    return larger;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import net.consensys.besu.plugins.stream.api.backfill.BlockSource;
+import net.consensys.besu.plugins.stream.api.backfill.HistoricalBlock;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.besu.plugin.data.AddedBlockContext;
+import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BackfillEngineTest {
+  private final List<Long> replayed = new CopyOnWriteArrayList<>();
+  private BackfillEngine engine;
+
+  @AfterEach
+  void tearDown() {
+    engine.close();
+  }
+
+  @Test
+  void blocksAreReplayedInOrder() {
+    engine = new BackfillEngine(new ChainSource(100), this::replay, 4, 0);
+
+    assertThat(engine.run(10, 60)).isEqualTo(51);
+    assertThat(replayed).hasSize(51).isSorted().startsWith(10L).endsWith(60L);
+  }
+
+  @Test
+  void backfillStopsAtUnknownBlock() {
+    engine = new BackfillEngine(new ChainSource(20), this::replay, 2, 0);
+
+    assertThat(engine.run(15, 30)).isEqualTo(6);
+    assertThat(replayed).containsExactly(15L, 16L, 17L, 18L, 19L, 20L);
+  }
+
+  @Test
+  void backfillIsThrottled() {
+    engine = new BackfillEngine(new ChainSource(100), this::replay, 2, 100);
+
+    final long start = System.nanoTime();
+    engine.run(1, 11);
+    assertThat(System.nanoTime() - start)
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+  }
+
+  private void replay(final HistoricalBlock block) {
+    replayed.add(block.getBlockNumber());
+  }
+
+  /** Chain of the given height, answering after a random delay. */
+  private static final class ChainSource implements BlockSource {
+    private final long head;
+
+    private ChainSource(final long head) {
+      this.head = head;
+    }
+
+    @Override
+    public long getChainHeadBlockNumber() {
+      return head;
+    }
+
+    @Override
+    public Optional<HistoricalBlock> getBlock(final long blockNumber) {
+      if (blockNumber > head) {
+        return Optional.empty();
+      }
+      try {
+        TimeUnit.MICROSECONDS.sleep(ThreadLocalRandom.current().nextInt(500));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      final BlockHeader header = mock(BlockHeader.class);
+      when(header.getNumber()).thenReturn(blockNumber);
+      final AddedBlockContext context = mock(AddedBlockContext.class);
+      when(context.getBlockHeader()).thenReturn(header);
+      return Optional.of(new HistoricalBlock(context, List.of()));
+    }
+  }
+}
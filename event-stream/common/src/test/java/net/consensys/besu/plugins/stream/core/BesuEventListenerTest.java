@@ -14,18 +14,26 @@
  */
 package net.consensys.besu.plugins.stream.core;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.Instant.now;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
 import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
 import net.consensys.besu.plugins.stream.api.event.Publisher;
 import net.consensys.besu.plugins.stream.api.event.TopicResolver;
 import net.consensys.besu.plugins.stream.core.config.EventSchema;
@@ -37,9 +45,12 @@ import net.consensys.besu.plugins.stream.model.payload.TransactionPayload;
 import net.consensys.besu.plugins.stream.util.BlockHeaderMockFixture;
 import net.consensys.besu.plugins.stream.util.TransactionMockFixture;
 import net.consensys.besu.plugins.types.DecodedLogWithMetadata;
+import net.consensys.besu.plugins.types.DecodedParameter;
 import net.consensys.besu.plugins.types.Fixture;
 
 import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -73,6 +84,7 @@ class BesuEventListenerTest {
   @Mock private Publisher publisher;
   @Mock private MetadataDB metadataDB;
   @Captor private ArgumentCaptor<Event> eventCaptor;
+  @Captor private ArgumentCaptor<EventBatch> batchCaptor;
   private final TopicResolver fixedTopicResolver = new TopicResolver.Fixed(() -> "test-topic");
   private static final String BYTES_ERROR_MESSAGE =
       "0x08c379a00000000000000000000000000000000000000"
@@ -91,34 +103,32 @@ class BesuEventListenerTest {
     final BesuEventListener besuEventListener =
         new BesuEventListener(
             publisher, fixedTopicResolver, Optional.of(metadataDB), MoreExecutors.directExecutor());
-    final Hash hashMock = mock(Hash.class);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
-    when(hashMock.toArray())
-        .thenReturn(new BigInteger(Fixture.HASH.substring(2), 16).toByteArray());
-    final Address addressMock = mock(Address.class);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
+    final Hash hash = Fixture.createHash();
+    final Hash blockHash = Fixture.createBlockHash();
+    final Address address = Fixture.createAddress();
     final Quantity quantityMock = mock(Quantity.class);
     when(quantityMock.getValue()).thenReturn(BigInteger.ONE);
     final BlockHeader blockHeaderMock = mock(BlockHeader.class);
     final PropagatedBlockContext propagatedBlockContextMock = mock(PropagatedBlockContext.class);
     when(propagatedBlockContextMock.getBlockHeader()).thenReturn(blockHeaderMock);
     when(propagatedBlockContextMock.getTotalDifficulty()).thenReturn(UInt256.ONE);
-    when(blockHeaderMock.getParentHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getCoinbase()).thenReturn(addressMock);
+    when(blockHeaderMock.getParentHash()).thenReturn(hash);
+    when(blockHeaderMock.getCoinbase()).thenReturn(address);
     when(blockHeaderMock.getDifficulty()).thenReturn(quantityMock);
     when(blockHeaderMock.getNumber()).thenReturn(1L);
     when(blockHeaderMock.getGasLimit()).thenReturn(1L);
     when(blockHeaderMock.getTimestamp()).thenReturn(System.currentTimeMillis());
-    when(blockHeaderMock.getOmmersHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getStateRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hashMock);
+    when(blockHeaderMock.getOmmersHash()).thenReturn(hash);
+    when(blockHeaderMock.getStateRoot()).thenReturn(hash);
+    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hash);
     when(blockHeaderMock.getLogsBloom()).thenReturn(Bytes.fromHexStringLenient("0", 256));
     when(blockHeaderMock.getGasUsed()).thenReturn(1L);
     when(blockHeaderMock.getExtraData()).thenReturn(Bytes.fromHexString("4321"));
-    when(blockHeaderMock.getMixHash()).thenReturn(hashMock);
+    when(blockHeaderMock.getMixHash()).thenReturn(hash);
     when(blockHeaderMock.getNonce()).thenReturn(1L);
-    when(blockHeaderMock.getBlockHash()).thenReturn(hashMock);
+    when(blockHeaderMock.getBlockHash()).thenReturn(blockHash);
+    when(metadataDB.advanceLatestBlock(1L, blockHash)).thenReturn(true);
     besuEventListener.onBlockPropagated(propagatedBlockContextMock);
     verify(publisher)
         .publish(eq(DomainObjectType.BLOCK), eq(fixedTopicResolver), eventCaptor.capture());
@@ -126,8 +136,10 @@ class BesuEventListenerTest {
         .isInstanceOf(BlockPayload.class);
     assertThat(((DefaultEvent<BlockPayload>) eventCaptor.getValue()).getEvent().getBlockHeader())
         .isEqualTo(blockHeaderMock);
-    verify(hashMock, times(7)).toHexString();
-    verify(addressMock, times(1)).toHexString();
+    assertThat(eventCaptor.getValue().metadata().getBlockNumber()).contains(1L);
+    assertThat(eventCaptor.getValue().metadata().getBlockHash()).containsSame(blockHash);
+    assertThat(new String(eventCaptor.getValue().bytes(), UTF_8))
+        .contains(blockHash.toHexString(), Fixture.HASH, Fixture.ADDRESS);
     verify(quantityMock, times(1)).getValue();
   }
 
@@ -138,12 +150,10 @@ class BesuEventListenerTest {
         new BesuEventListener(
             publisher, fixedTopicResolver, Optional.of(metadataDB), MoreExecutors.directExecutor());
     final Transaction transactionMock = mock(Transaction.class);
-    final Address addressMock = mock(Address.class);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
+    final Address address = Fixture.createAddress();
     final Quantity quantityMock = mock(Quantity.class);
     when(quantityMock.getValue()).thenReturn(BigInteger.ONE);
-    final Hash hashMock = mock(Hash.class);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
+    final Hash hash = Fixture.createHash();
     when(transactionMock.getNonce()).thenReturn(1L);
     when(transactionMock.getGasPrice()).thenAnswer(invocation -> Optional.of(quantityMock));
     when(transactionMock.getGasLimit()).thenReturn(1L);
@@ -151,9 +161,9 @@ class BesuEventListenerTest {
     when(transactionMock.getV()).thenReturn(BigInteger.ONE);
     when(transactionMock.getR()).thenReturn(BigInteger.ONE);
     when(transactionMock.getS()).thenReturn(BigInteger.ONE);
-    when(transactionMock.getSender()).thenReturn(addressMock);
+    when(transactionMock.getSender()).thenReturn(address);
     when(transactionMock.getTo()).thenReturn(Optional.empty());
-    when(transactionMock.getHash()).thenReturn(hashMock);
+    when(transactionMock.getHash()).thenReturn(hash);
     when(transactionMock.getPayload()).thenReturn(Bytes.fromHexString("1234"));
     besuEventListener.onTransactionAdded(transactionMock);
     verify(publisher)
@@ -165,6 +175,23 @@ class BesuEventListenerTest {
         .isEqualTo(transactionMock);
   }
 
+  @Test
+  void transactionAddedIsSerializedOutsideTheCallback() {
+    final List<Runnable> dispatched = new ArrayList<>();
+    final BesuEventListener besuEventListener =
+        new BesuEventListener(publisher, fixedTopicResolver, Optional.empty(), dispatched::add);
+    final Transaction transactionMock = TransactionMockFixture.createTransactionMock();
+
+    besuEventListener.onTransactionAdded(transactionMock);
+    verifyNoInteractions(publisher);
+    verify(transactionMock, never()).getPayload();
+    assertThat(dispatched).hasSize(1);
+
+    dispatched.get(0).run();
+    verify(publisher).publish(eq(DomainObjectType.TRANSACTION), eq(fixedTopicResolver), any());
+    verify(transactionMock, atLeastOnce()).getPayload();
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   void transactionDropped() {
@@ -172,12 +199,10 @@ class BesuEventListenerTest {
         new BesuEventListener(
             publisher, fixedTopicResolver, Optional.of(metadataDB), MoreExecutors.directExecutor());
     final Transaction transactionMock = mock(Transaction.class);
-    final Address addressMock = mock(Address.class);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
+    final Address address = Fixture.createAddress();
     final Quantity quantityMock = mock(Quantity.class);
     when(quantityMock.getValue()).thenReturn(BigInteger.ONE);
-    final Hash hashMock = mock(Hash.class);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
+    final Hash hash = Fixture.createHash();
     when(transactionMock.getNonce()).thenReturn(1L);
     when(transactionMock.getGasPrice()).thenAnswer(invocation -> Optional.of(quantityMock));
     when(transactionMock.getGasLimit()).thenReturn(1L);
@@ -185,9 +210,9 @@ class BesuEventListenerTest {
     when(transactionMock.getV()).thenReturn(BigInteger.ONE);
     when(transactionMock.getR()).thenReturn(BigInteger.ONE);
     when(transactionMock.getS()).thenReturn(BigInteger.ONE);
-    when(transactionMock.getSender()).thenReturn(addressMock);
+    when(transactionMock.getSender()).thenReturn(address);
     when(transactionMock.getTo()).thenReturn(Optional.empty());
-    when(transactionMock.getHash()).thenReturn(hashMock);
+    when(transactionMock.getHash()).thenReturn(hash);
     when(transactionMock.getPayload()).thenReturn(Bytes.fromHexString("1234"));
     besuEventListener.onTransactionDropped(transactionMock);
     verify(publisher)
@@ -224,23 +249,9 @@ class BesuEventListenerTest {
   }
 
   @Test
-  @SuppressWarnings("unchecked")
   void log() throws ClassNotFoundException {
     final LogWithMetadata logWithMetadata = Fixture.createLogWithMetadata();
-    final EventStreamConfiguration configuration = mock(EventStreamConfiguration.class);
-    when(configuration.getEventSchemas())
-        .thenReturn(
-            new EventSchemas(
-                Set.of(
-                    new EventSchema(
-                        "randomRealLog",
-                        net.consensys.besu.plugins.types.Address.fromHexString(
-                            logWithMetadata.getLogger().toHexString()),
-                        "Transfer",
-                        List.of(
-                            TypeReference.makeTypeReference("address", true, true),
-                            TypeReference.makeTypeReference("address", true, true),
-                            TypeReference.makeTypeReference("uint256", false, true))))));
+    final EventStreamConfiguration configuration = transferSchemaConfiguration(logWithMetadata);
     final BesuEventListener besuEventListener =
         new BesuEventListener(
             publisher,
@@ -252,11 +263,64 @@ class BesuEventListenerTest {
     final DecodedLogWithMetadata expected =
         new DecodedLogWithMetadata(
             logWithMetadata,
-            "Transfer(0xc2ca8977e5c582f938c30f7a5328ac1d101bd564,0x06e01587ad6b033d4b05156003c3412e8997bfe3,801976598137298011761447)");
+            "Transfer",
+            List.of(
+                new DecodedParameter(
+                    "", "address", "0xc2ca8977e5c582f938c30f7a5328ac1d101bd564", true),
+                new DecodedParameter(
+                    "", "address", "0x06e01587ad6b033d4b05156003c3412e8997bfe3", true),
+                new DecodedParameter("", "uint256", "801976598137298011761447", false)),
+            "randomRealLog");
     verify(publisher)
         .publish(eq(DomainObjectType.LOG), eq(fixedTopicResolver), eventCaptor.capture());
     assertThat(((DefaultEvent<?>) eventCaptor.getValue()).getEvent())
         .isEqualToComparingFieldByFieldRecursively(expected);
+    assertThat(eventCaptor.getValue().metadata().getSchemaId()).contains("randomRealLog");
+    assertThat(eventCaptor.getValue().metadata().getContractAddress())
+        .contains(logWithMetadata.getLogger());
+  }
+
+  @Test
+  void logOfABlockRuledOutByItsLogsBloomIsNotDecoded() throws ClassNotFoundException {
+    final LogWithMetadata logWithMetadata = Fixture.createLogWithMetadata();
+    final BesuEventListener besuEventListener =
+        new BesuEventListener(
+            publisher,
+            fixedTopicResolver,
+            Optional.of(metadataDB),
+            MoreExecutors.directExecutor(),
+            transferSchemaConfiguration(logWithMetadata));
+    final BlockHeader blockHeaderMock = mock(BlockHeader.class);
+    when(blockHeaderMock.getBlockHash()).thenReturn(logWithMetadata.getBlockHash());
+    when(blockHeaderMock.getLogsBloom()).thenReturn(Bytes.wrap(new byte[256]));
+
+    besuEventListener.prepareLogs(blockHeaderMock);
+    besuEventListener.onLogEmitted(logWithMetadata);
+
+    verify(publisher)
+        .publish(eq(DomainObjectType.LOG), eq(fixedTopicResolver), eventCaptor.capture());
+    assertThat(((DefaultEvent<?>) eventCaptor.getValue()).getEvent()).isSameAs(logWithMetadata);
+    assertThat(eventCaptor.getValue().metadata().getSchemaId()).isEmpty();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static EventStreamConfiguration transferSchemaConfiguration(
+      final LogWithMetadata logWithMetadata) throws ClassNotFoundException {
+    final EventStreamConfiguration configuration = mock(EventStreamConfiguration.class);
+    when(configuration.getEventSchemas())
+        .thenReturn(
+            new EventSchemas(
+                Set.of(
+                    new EventSchema(
+                        "randomRealLog",
+                        net.consensys.besu.plugins.types.Address.fromHexString(
+                            logWithMetadata.getLogger().toHexString()),
+                        "Transfer",
+                        List.of(
+                            TypeReference.makeTypeReference("address", true, true),
+                            TypeReference.makeTypeReference("address", true, true),
+                            TypeReference.makeTypeReference("uint256", false, true))))));
+    return configuration;
   }
 
   @SuppressWarnings("unchecked")
@@ -268,27 +332,26 @@ class BesuEventListenerTest {
     final AddedBlockContext addedBlockContextMock = mock(AddedBlockContext.class);
     final BlockHeader blockHeaderMock = mock(BlockHeader.class);
     when(addedBlockContextMock.getBlockHeader()).thenReturn(blockHeaderMock);
-    final Hash hashMock = mock(Hash.class);
-    final Address addressMock = mock(Address.class);
+    final Hash hash = Fixture.createHash();
+    final Hash blockHash = Fixture.createBlockHash();
+    final Address address = Fixture.createAddress();
     final Quantity quantityMock = mock(Quantity.class);
-    when(blockHeaderMock.getBlockHash()).thenReturn(hashMock);
+    when(blockHeaderMock.getBlockHash()).thenReturn(blockHash);
     when(blockHeaderMock.getNumber()).thenReturn(1L);
     when(blockHeaderMock.getNonce()).thenReturn(2L);
     when(blockHeaderMock.getDifficulty()).thenReturn(quantityMock);
     when(blockHeaderMock.getGasLimit()).thenReturn(5L);
     when(blockHeaderMock.getGasUsed()).thenReturn(3L);
     when(blockHeaderMock.getTimestamp()).thenReturn(now().toEpochMilli());
-    when(blockHeaderMock.getCoinbase()).thenReturn(addressMock);
+    when(blockHeaderMock.getCoinbase()).thenReturn(address);
     when(blockHeaderMock.getExtraData()).thenReturn(Bytes.EMPTY);
     when(blockHeaderMock.getLogsBloom()).thenReturn(Bytes.EMPTY);
-    when(blockHeaderMock.getMixHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getOmmersHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getParentHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getStateRoot()).thenReturn(hashMock);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
+    when(blockHeaderMock.getMixHash()).thenReturn(hash);
+    when(blockHeaderMock.getOmmersHash()).thenReturn(hash);
+    when(blockHeaderMock.getParentHash()).thenReturn(hash);
+    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getStateRoot()).thenReturn(hash);
     when(quantityMock.getValue()).thenReturn(BigInteger.ONE);
 
     besuEventListener.onBlockAdded(addedBlockContextMock);
@@ -342,6 +405,126 @@ class BesuEventListenerTest {
         .isEqualTo(Event.Type.TRANSACTION_REVERTED);
   }
 
+  @Test
+  void blockAddedEventsArePublishedAsOneBatch() {
+    final EventStreamConfiguration configuration = mock(EventStreamConfiguration.class);
+    when(configuration.getEventSchemas()).thenReturn(EventSchemas.empty());
+    final BesuEventListener besuEventListener =
+        new BesuEventListener(
+            publisher,
+            fixedTopicResolver,
+            Optional.of(metadataDB),
+            MoreExecutors.directExecutor(),
+            configuration,
+            Duration.ofHours(1));
+    final AddedBlockContext addedBlockContextMock = mock(AddedBlockContext.class);
+    final BlockHeader blockHeaderMock =
+        BlockHeaderMockFixture.createBlockHeaderMock(now().toEpochMilli());
+    final LogWithMetadata logWithMetadata =
+        mock(LogWithMetadata.class, delegatesTo(Fixture.createLogWithMetadata()));
+    doReturn(blockHeaderMock.getBlockHash()).when(logWithMetadata).getBlockHash();
+    doReturn(blockHeaderMock).when(addedBlockContextMock).getBlockHeader();
+    doReturn(Collections.emptyList()).when(addedBlockContextMock).getTransactionReceipts();
+
+    besuEventListener.onBlockAdded(addedBlockContextMock);
+    besuEventListener.onLogEmitted(logWithMetadata);
+    verify(publisher).setDeliveryListener(any());
+    verifyNoMoreInteractions(publisher);
+
+    besuEventListener.close();
+    verify(publisher).publishBatch(eq(fixedTopicResolver), batchCaptor.capture());
+    assertThat(batchCaptor.getValue().getEntries())
+        .extracting(entry -> entry.getDomainObjectType(), entry -> entry.getEvent().type())
+        .containsExactly(
+            tuple(DomainObjectType.BLOCK, Event.Type.BLOCK_ADDED),
+            tuple(DomainObjectType.LOG, Event.Type.LOG_EMITTED));
+  }
+
+  @Test
+  void replayedBlockIsPublishedAsABatchOfItsOwn() {
+    final EventStreamConfiguration configuration = mock(EventStreamConfiguration.class);
+    when(configuration.getEventSchemas()).thenReturn(EventSchemas.empty());
+    final BesuEventListener besuEventListener =
+        new BesuEventListener(
+            publisher,
+            fixedTopicResolver,
+            Optional.empty(),
+            MoreExecutors.directExecutor(),
+            configuration,
+            Duration.ofHours(1));
+    final AddedBlockContext liveBlock = mock(AddedBlockContext.class);
+    final BlockHeader liveBlockHeader =
+        BlockHeaderMockFixture.createBlockHeaderMock(now().toEpochMilli());
+    doReturn(liveBlockHeader).when(liveBlock).getBlockHeader();
+    doReturn(Collections.emptyList()).when(liveBlock).getTransactionReceipts();
+    final LogWithMetadata liveLog =
+        mock(LogWithMetadata.class, delegatesTo(Fixture.createLogWithMetadata()));
+    doReturn(liveBlockHeader.getBlockHash()).when(liveLog).getBlockHash();
+    final AddedBlockContext replayedBlock = mock(AddedBlockContext.class);
+    final BlockHeader replayedBlockHeader =
+        BlockHeaderMockFixture.createBlockHeaderMock(now().toEpochMilli());
+    doReturn(replayedBlockHeader).when(replayedBlock).getBlockHeader();
+    doReturn(Collections.emptyList()).when(replayedBlock).getTransactionReceipts();
+
+    besuEventListener.onBlockAdded(liveBlock);
+    besuEventListener.replay(replayedBlock, true, List.of(Fixture.createLogWithMetadata()), false);
+    verify(publisher).publishBatch(eq(fixedTopicResolver), batchCaptor.capture());
+    assertThat(batchCaptor.getValue().getEntries())
+        .extracting(entry -> entry.getDomainObjectType(), entry -> entry.getEvent().type())
+        .containsExactly(
+            tuple(DomainObjectType.BLOCK, Event.Type.BLOCK_ADDED),
+            tuple(DomainObjectType.LOG, Event.Type.LOG_EMITTED));
+
+    besuEventListener.onLogEmitted(liveLog);
+    besuEventListener.close();
+    verify(publisher, times(2)).publishBatch(eq(fixedTopicResolver), batchCaptor.capture());
+    assertThat(batchCaptor.getValue().getEntries())
+        .extracting(entry -> entry.getDomainObjectType(), entry -> entry.getEvent().type())
+        .containsExactly(
+            tuple(DomainObjectType.BLOCK, Event.Type.BLOCK_ADDED),
+            tuple(DomainObjectType.LOG, Event.Type.LOG_EMITTED));
+  }
+
+  @Test
+  void logFailingToDecodeIsPublishedUndecodedWithTheRestOfItsBlock() throws ClassNotFoundException {
+    final LogWithMetadata transferLog = Fixture.createLogWithMetadata();
+    final BesuEventListener besuEventListener =
+        new BesuEventListener(
+            publisher,
+            fixedTopicResolver,
+            Optional.of(metadataDB),
+            MoreExecutors.directExecutor(),
+            transferSchemaConfiguration(transferLog),
+            Duration.ofHours(1));
+    final AddedBlockContext addedBlockContextMock = mock(AddedBlockContext.class);
+    final BlockHeader blockHeaderMock =
+        BlockHeaderMockFixture.createBlockHeaderMock(now().toEpochMilli());
+    doReturn(blockHeaderMock).when(addedBlockContextMock).getBlockHeader();
+    doReturn(Collections.emptyList()).when(addedBlockContextMock).getTransactionReceipts();
+    final LogWithMetadata truncatedLog = mock(LogWithMetadata.class, delegatesTo(transferLog));
+    doReturn(blockHeaderMock.getBlockHash()).when(truncatedLog).getBlockHash();
+    doReturn(Bytes.EMPTY).when(truncatedLog).getData();
+    final LogWithMetadata logWithMetadata = mock(LogWithMetadata.class, delegatesTo(transferLog));
+    doReturn(blockHeaderMock.getBlockHash()).when(logWithMetadata).getBlockHash();
+
+    besuEventListener.onBlockAdded(addedBlockContextMock);
+    besuEventListener.onLogEmitted(truncatedLog);
+    besuEventListener.onLogEmitted(logWithMetadata);
+    besuEventListener.close();
+
+    verify(publisher).publishBatch(eq(fixedTopicResolver), batchCaptor.capture());
+    final List<EventBatch.Entry> entries = batchCaptor.getValue().getEntries();
+    assertThat(entries)
+        .extracting(entry -> entry.getDomainObjectType(), entry -> entry.getEvent().type())
+        .containsExactly(
+            tuple(DomainObjectType.BLOCK, Event.Type.BLOCK_ADDED),
+            tuple(DomainObjectType.LOG, Event.Type.LOG_EMITTED),
+            tuple(DomainObjectType.LOG, Event.Type.LOG_EMITTED));
+    assertThat(((DefaultEvent<?>) entries.get(1).getEvent()).getEvent()).isSameAs(truncatedLog);
+    assertThat(((DefaultEvent<?>) entries.get(2).getEvent()).getEvent())
+        .isInstanceOf(DecodedLogWithMetadata.class);
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   void blockAddedWithEmptyRevertReason() {
@@ -355,27 +538,26 @@ class BesuEventListenerTest {
     when(addedBlockContextMock.getBlockHeader()).thenReturn(blockHeaderMock);
     when(addedBlockContextMock.getBlockBody()).thenReturn(blockBodyMock);
     doReturn(Collections.singletonList(transactionMock)).when(blockBodyMock).getTransactions();
-    final Hash hashMock = mock(Hash.class);
-    final Address addressMock = mock(Address.class);
+    final Hash hash = Fixture.createHash();
+    final Hash blockHash = Fixture.createBlockHash();
+    final Address address = Fixture.createAddress();
     final Quantity quantityMock = mock(Quantity.class);
-    when(blockHeaderMock.getBlockHash()).thenReturn(hashMock);
+    when(blockHeaderMock.getBlockHash()).thenReturn(blockHash);
     when(blockHeaderMock.getNumber()).thenReturn(1L);
     when(blockHeaderMock.getNonce()).thenReturn(2L);
     when(blockHeaderMock.getDifficulty()).thenReturn(quantityMock);
     when(blockHeaderMock.getGasLimit()).thenReturn(5L);
     when(blockHeaderMock.getGasUsed()).thenReturn(3L);
     when(blockHeaderMock.getTimestamp()).thenReturn(now().toEpochMilli());
-    when(blockHeaderMock.getCoinbase()).thenReturn(addressMock);
+    when(blockHeaderMock.getCoinbase()).thenReturn(address);
     when(blockHeaderMock.getExtraData()).thenReturn(Bytes.EMPTY);
     when(blockHeaderMock.getLogsBloom()).thenReturn(Bytes.EMPTY);
-    when(blockHeaderMock.getMixHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getOmmersHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getParentHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getStateRoot()).thenReturn(hashMock);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
+    when(blockHeaderMock.getMixHash()).thenReturn(hash);
+    when(blockHeaderMock.getOmmersHash()).thenReturn(hash);
+    when(blockHeaderMock.getParentHash()).thenReturn(hash);
+    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getStateRoot()).thenReturn(hash);
     when(quantityMock.getValue()).thenReturn(BigInteger.ONE);
 
     final TransactionReceipt transactionReceiptMock = mock(TransactionReceipt.class);
@@ -392,6 +574,7 @@ class BesuEventListenerTest {
         .isInstanceOf(BlockPayload.class);
     assertThat(((DefaultEvent<BlockPayload>) eventCaptor.getValue()).getEvent().getBlockHeader())
         .isEqualTo(blockHeaderMock);
+    verify(publisher).setDeliveryListener(any());
     verifyNoMoreInteractions(publisher);
   }
 
@@ -404,27 +587,26 @@ class BesuEventListenerTest {
     final AddedBlockContext addedBlockContextMock = mock(AddedBlockContext.class);
     final BlockHeader blockHeaderMock = mock(BlockHeader.class);
     when(addedBlockContextMock.getBlockHeader()).thenReturn(blockHeaderMock);
-    final Hash hashMock = mock(Hash.class);
-    final Address addressMock = mock(Address.class);
+    final Hash hash = Fixture.createHash();
+    final Hash blockHash = Fixture.createBlockHash();
+    final Address address = Fixture.createAddress();
     final Quantity quantityMock = mock(Quantity.class);
-    when(blockHeaderMock.getBlockHash()).thenReturn(hashMock);
+    when(blockHeaderMock.getBlockHash()).thenReturn(blockHash);
     when(blockHeaderMock.getNumber()).thenReturn(1L);
     when(blockHeaderMock.getNonce()).thenReturn(2L);
     when(blockHeaderMock.getDifficulty()).thenReturn(quantityMock);
     when(blockHeaderMock.getGasLimit()).thenReturn(5L);
     when(blockHeaderMock.getGasUsed()).thenReturn(3L);
     when(blockHeaderMock.getTimestamp()).thenReturn(now().toEpochMilli());
-    when(blockHeaderMock.getCoinbase()).thenReturn(addressMock);
+    when(blockHeaderMock.getCoinbase()).thenReturn(address);
     when(blockHeaderMock.getExtraData()).thenReturn(Bytes.EMPTY);
     when(blockHeaderMock.getLogsBloom()).thenReturn(Bytes.EMPTY);
-    when(blockHeaderMock.getMixHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getOmmersHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getParentHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getStateRoot()).thenReturn(hashMock);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
+    when(blockHeaderMock.getMixHash()).thenReturn(hash);
+    when(blockHeaderMock.getOmmersHash()).thenReturn(hash);
+    when(blockHeaderMock.getParentHash()).thenReturn(hash);
+    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getStateRoot()).thenReturn(hash);
     when(quantityMock.getValue()).thenReturn(BigInteger.ONE);
 
     besuEventListener.onBlockReorg(addedBlockContextMock);
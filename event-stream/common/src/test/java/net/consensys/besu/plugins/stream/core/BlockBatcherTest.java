@@ -0,0 +1,118 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.types.Hash;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BlockBatcherTest {
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final List<EventBatch> sealed = new CopyOnWriteArrayList<>();
+  private final Event event = mock(Event.class);
+
+  @AfterEach
+  void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void nextBlockSealsOpenBatch() {
+    final BlockBatcher batcher = batcher(Duration.ofHours(1));
+    batcher.open(batch(1).add(builder -> builder.add(DomainObjectType.BLOCK, event)));
+    assertThat(batcher.addTo(Hash.fromUnsignedLong(1), this::addLog)).isTrue();
+    assertThat(batcher.addTo(Hash.fromUnsignedLong(1), this::addLog)).isTrue();
+    assertThat(sealed).isEmpty();
+
+    batcher.open(batch(2));
+    assertThat(sealed).hasSize(1);
+    assertThat(sealed.get(0).getEntries())
+        .extracting(EventBatch.Entry::getDomainObjectType)
+        .containsExactly(DomainObjectType.BLOCK, DomainObjectType.LOG, DomainObjectType.LOG);
+  }
+
+  @Test
+  void eventsOfAnotherBlockAreNotAdded() {
+    final BlockBatcher batcher = batcher(Duration.ofHours(1));
+    assertThat(batcher.addTo(Hash.fromUnsignedLong(1), this::addLog)).isFalse();
+    batcher.open(batch(1));
+    assertThat(batcher.addTo(Hash.fromUnsignedLong(2), this::addLog)).isFalse();
+  }
+
+  @Test
+  void lingerSealsOpenBatch() throws InterruptedException {
+    final BlockBatcher batcher = batcher(Duration.ofMillis(10));
+    batcher.open(batch(1));
+    final long deadline = System.currentTimeMillis() + 5000;
+    while (sealed.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(sealed).hasSize(1);
+    assertThat(batcher.addTo(Hash.fromUnsignedLong(1), this::addLog)).isFalse();
+  }
+
+  @Test
+  void closeSealsOpenBatch() {
+    final BlockBatcher batcher = batcher(Duration.ofHours(1));
+    batcher.open(batch(1));
+    batcher.close();
+    assertThat(sealed).hasSize(1);
+    batcher.close();
+    assertThat(sealed).hasSize(1);
+  }
+
+  @Test
+  void eventFailingToBuildDoesNotLoseTheBatch() {
+    final BlockBatcher batcher = batcher(Duration.ofHours(1));
+    batcher.open(batch(1).add(builder -> builder.add(DomainObjectType.BLOCK, event)));
+    batcher.addTo(
+        Hash.fromUnsignedLong(1),
+        builder -> {
+          throw new IllegalStateException("Mismatched number of args");
+        });
+    batcher.addTo(Hash.fromUnsignedLong(1), this::addLog);
+    batcher.close();
+
+    assertThat(sealed).hasSize(1);
+    assertThat(sealed.get(0).getEntries())
+        .extracting(EventBatch.Entry::getDomainObjectType)
+        .containsExactly(DomainObjectType.BLOCK, DomainObjectType.LOG);
+  }
+
+  private BlockBatcher batcher(final Duration linger) {
+    return new BlockBatcher(linger, scheduler, batch -> sealed.add(batch.build()));
+  }
+
+  private static BlockBatcher.Batch batch(final long blockNumber) {
+    return new BlockBatcher.Batch(Hash.fromUnsignedLong(blockNumber), blockNumber, blockNumber);
+  }
+
+  private void addLog(final EventBatch.Builder builder) {
+    builder.add(DomainObjectType.LOG, event);
+  }
+}
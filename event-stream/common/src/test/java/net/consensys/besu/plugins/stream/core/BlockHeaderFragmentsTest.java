@@ -0,0 +1,57 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static net.consensys.besu.plugins.stream.util.JsonTestUtil.toJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import net.consensys.besu.plugins.stream.model.payload.BlockPayload;
+import net.consensys.besu.plugins.stream.util.BlockHeaderMockFixture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BlockHeaderFragmentsTest {
+
+  @AfterEach
+  void clearFragments() {
+    BlockHeaderFragments.clear();
+  }
+
+  @Test
+  void blockHeaderIsWrittenOncePerBlock() {
+    final BlockHeader blockHeader = BlockHeaderMockFixture.createBlockHeaderMock(1L);
+
+    final JsonNode first = toJson(blockHeader, Serializer::serialize);
+    final JsonNode second = toJson(new BlockPayload(blockHeader), Serializer::serialize);
+
+    assertThat(second.get("blockHeader")).isEqualTo(first);
+    assertThat(first.get("hash").asText()).isEqualTo(blockHeader.getBlockHash().toHexString());
+    verify(blockHeader, times(1)).getLogsBloom();
+  }
+
+  @Test
+  void blockHeadersOfOtherBlocksAreWrittenSeparately() {
+    final BlockHeader first = BlockHeaderMockFixture.createBlockHeaderMock(1L);
+    final BlockHeader second = BlockHeaderMockFixture.createBlockHeaderMock(2L);
+
+    assertThat(toJson(first, Serializer::serialize).get("timestamp").asText()).isEqualTo("0x1");
+    assertThat(toJson(second, Serializer::serialize).get("timestamp").asText()).isEqualTo("0x2");
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.consensys.besu.plugins.stream.model.OverflowPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BoundedEventDispatcherTest {
+  private final CountDownLatch workerStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseWorker = new CountDownLatch(1);
+  private final List<String> executed = new CopyOnWriteArrayList<>();
+  private final List<Runnable> spilled = new CopyOnWriteArrayList<>();
+  private final List<Thread> spillThreads = new CopyOnWriteArrayList<>();
+  private BoundedEventDispatcher dispatcher;
+
+  @AfterEach
+  void tearDown() {
+    releaseWorker.countDown();
+    if (dispatcher != null) {
+      dispatcher.close();
+    }
+  }
+
+  @Test
+  void dispatchRunsTasksOnWorkers() throws InterruptedException {
+    dispatcher = new BoundedEventDispatcher(4, 2, false, OverflowPolicy.BLOCK, spilled::add);
+    final CountDownLatch done = new CountDownLatch(3);
+    for (int i = 0; i < 3; i++) {
+      dispatcher.dispatch(null, done::countDown);
+    }
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(dispatcher.getDroppedCount()).isZero();
+  }
+
+  @Test
+  void dropNewestDiscardsOverflowingTask() throws InterruptedException {
+    dispatcher = blockedDispatcher(OverflowPolicy.DROP_NEWEST);
+    dispatcher.dispatch(null, task("a"));
+    dispatcher.dispatch(null, task("b"));
+    dispatcher.dispatch(null, task("c"));
+
+    assertThat(dispatcher.getQueueDepth()).isEqualTo(2);
+    assertThat(dispatcher.getDroppedCount()).isEqualTo(1);
+    releaseWorker.countDown();
+    dispatcher.close();
+    assertThat(executed).containsExactly("a", "b");
+  }
+
+  @Test
+  void droppedTaskIsTold() throws InterruptedException {
+    dispatcher = blockedDispatcher(OverflowPolicy.DROP_OLDEST);
+    final CountDownLatch dropped = new CountDownLatch(1);
+    dispatcher.dispatch(
+        null,
+        new EventDispatcher.DroppableTask() {
+          @Override
+          public void run() {
+            executed.add("a");
+          }
+
+          @Override
+          public void dropped() {
+            dropped.countDown();
+          }
+        });
+    dispatcher.dispatch(null, task("b"));
+    dispatcher.dispatch(null, task("c"));
+
+    assertThat(dropped.getCount()).isZero();
+    releaseWorker.countDown();
+    dispatcher.close();
+    assertThat(executed).containsExactly("b", "c");
+  }
+
+  @Test
+  void dropOldestEvictsHeadOfQueue() throws InterruptedException {
+    dispatcher = blockedDispatcher(OverflowPolicy.DROP_OLDEST);
+    dispatcher.dispatch(null, task("a"));
+    dispatcher.dispatch(null, task("b"));
+    dispatcher.dispatch(null, task("c"));
+
+    assertThat(dispatcher.getQueueDepth()).isEqualTo(2);
+    assertThat(dispatcher.getDroppedCount()).isEqualTo(1);
+    releaseWorker.countDown();
+    dispatcher.close();
+    assertThat(executed).containsExactly("b", "c");
+  }
+
+  @Test
+  void spillHandsQueuedTasksAndOverflowingOneToHandlerInOrder() throws InterruptedException {
+    dispatcher = blockedDispatcher(OverflowPolicy.SPILL);
+    dispatcher.dispatch(null, task("a"));
+    dispatcher.dispatch(null, task("b"));
+    dispatcher.dispatch(null, task("c"));
+    dispatcher.dispatch(null, task("d"));
+
+    awaitExecuted(3);
+    assertThat(executed).startsWith("a", "b", "c");
+    assertThat(dispatcher.getSpilledCount()).isGreaterThanOrEqualTo(3);
+    assertThat(dispatcher.getDroppedCount()).isZero();
+    releaseWorker.countDown();
+    dispatcher.close();
+    assertThat(spillThreads).doesNotContain(Thread.currentThread());
+    assertThat(executed).containsExactly("a", "b", "c", "d");
+  }
+
+  @Test
+  void stuckStripeDoesNotHoldBackSpillsOfAnotherStripe() throws InterruptedException {
+    dispatcher = new BoundedEventDispatcher(2, 2, true, OverflowPolicy.SPILL, this::spill);
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    for (final long key : new long[] {0L, 1L}) {
+      dispatcher.dispatch(
+          key,
+          () -> {
+            bothStarted.countDown();
+            awaitRelease();
+          });
+    }
+    assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    dispatcher.dispatch(0L, task("a0"));
+    dispatcher.dispatch(0L, task("b0"));
+    dispatcher.dispatch(1L, task("a1"));
+    dispatcher.dispatch(1L, task("b1"));
+
+    awaitExecuted(4);
+    assertThat(executed).containsExactly("a0", "b0", "a1", "b1");
+  }
+
+  @Test
+  void spillKeepsHeapBoundedWhileWorkerIsStuck() throws InterruptedException {
+    dispatcher =
+        new BoundedEventDispatcher(
+            2,
+            1,
+            false,
+            OverflowPolicy.SPILL,
+            task -> {
+              awaitMillis(1);
+              spill(task);
+            });
+    dispatcher.dispatch(
+        null,
+        () -> {
+          workerStarted.countDown();
+          awaitRelease();
+        });
+    assertThat(workerStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    final List<String> names = new ArrayList<>();
+    int maxQueueDepth = 0;
+    for (int i = 0; i < 200; i++) {
+      names.add(String.valueOf(i));
+      dispatcher.dispatch(null, task(String.valueOf(i)));
+      maxQueueDepth = Math.max(maxQueueDepth, dispatcher.getQueueDepth());
+    }
+
+    assertThat(maxQueueDepth).isLessThanOrEqualTo(4);
+    releaseWorker.countDown();
+    dispatcher.close();
+    assertThat(executed).containsExactlyElementsOf(names);
+    assertThat(dispatcher.getDroppedCount()).isZero();
+  }
+
+  @Test
+  void blockWaitsForRoomInQueue() throws InterruptedException {
+    dispatcher = blockedDispatcher(OverflowPolicy.BLOCK);
+    dispatcher.dispatch(null, task("a"));
+    dispatcher.dispatch(null, task("b"));
+
+    final Thread producer = new Thread(() -> dispatcher.dispatch(null, task("c")));
+    producer.start();
+    producer.join(200);
+    assertThat(producer.isAlive()).isTrue();
+
+    releaseWorker.countDown();
+    producer.join(5_000);
+    assertThat(producer.isAlive()).isFalse();
+    dispatcher.close();
+    assertThat(executed).containsExactly("a", "b", "c");
+    assertThat(dispatcher.getDroppedCount()).isZero();
+  }
+
+  @Test
+  void closeDrainsPendingTasksAndRejectsNewOnes() throws InterruptedException {
+    dispatcher = blockedDispatcher(OverflowPolicy.BLOCK);
+    dispatcher.dispatch(null, task("a"));
+    releaseWorker.countDown();
+    dispatcher.close();
+
+    dispatcher.dispatch(null, task("b"));
+    assertThat(executed).containsExactly("a");
+    assertThat(dispatcher.getQueueDepth()).isZero();
+    assertThat(dispatcher.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void stripedDispatchKeepsOrderWithinKey() throws InterruptedException {
+    dispatcher = new BoundedEventDispatcher(64, 4, true, OverflowPolicy.BLOCK, spilled::add);
+    final Map<Long, List<Integer>> executedByKey = new ConcurrentHashMap<>();
+    final CountDownLatch done = new CountDownLatch(100);
+    for (int i = 0; i < 100; i++) {
+      final long key = i % 8;
+      final int sequence = i;
+      dispatcher.dispatch(
+          key,
+          () -> {
+            executedByKey.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(sequence);
+            done.countDown();
+          });
+    }
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(executedByKey).hasSize(8);
+    executedByKey.values().forEach(sequences -> assertThat(sequences).isSorted());
+  }
+
+  @Test
+  void stripedDispatchRunsKeysInParallel() throws InterruptedException {
+    dispatcher = new BoundedEventDispatcher(8, 2, true, OverflowPolicy.BLOCK, spilled::add);
+    dispatcher.dispatch(
+        0L,
+        () -> {
+          workerStarted.countDown();
+          awaitRelease();
+        });
+    assertThat(workerStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    final CountDownLatch otherKeyDone = new CountDownLatch(1);
+    dispatcher.dispatch(1L, otherKeyDone::countDown);
+    assertThat(otherKeyDone.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private BoundedEventDispatcher blockedDispatcher(final OverflowPolicy policy)
+      throws InterruptedException {
+    final BoundedEventDispatcher blocked =
+        new BoundedEventDispatcher(2, 1, false, policy, this::spill);
+    blocked.dispatch(
+        null,
+        () -> {
+          workerStarted.countDown();
+          awaitRelease();
+        });
+    assertThat(workerStarted.await(5, TimeUnit.SECONDS)).isTrue();
+    return blocked;
+  }
+
+  private void spill(final Runnable task) {
+    spilled.add(task);
+    spillThreads.add(Thread.currentThread());
+    task.run();
+  }
+
+  private Runnable task(final String name) {
+    return () -> executed.add(name);
+  }
+
+  private void awaitExecuted(final int count) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (executed.size() < count && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private static void awaitMillis(final long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void awaitRelease() {
+    try {
+      releaseWorker.await(5, TimeUnit.SECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class DeliveryCheckpointsTest {
+  private final MetadataDB metadataDB = mock(MetadataDB.class);
+  private final DeliveryCheckpoints checkpoints = new DeliveryCheckpoints(metadataDB);
+
+  @Test
+  void checkpointWaitsForLowerBlocks() {
+    final Event first = blockEvent(1);
+    final Event second = blockEvent(2);
+    checkpoints.onSent("blocks", first);
+    checkpoints.onSent("blocks", first);
+    checkpoints.onSent("blocks", second);
+
+    checkpoints.onAcknowledged("blocks", second);
+    checkpoints.onAcknowledged("blocks", first);
+    verify(metadataDB, never()).advanceCheckpoint(any(), anyLong());
+
+    checkpoints.onAcknowledged("blocks", first);
+    verify(metadataDB).advanceCheckpoint("blocks", 2);
+  }
+
+  @Test
+  void failedBlockIsReleased() {
+    final Event first = blockEvent(1);
+    final Event second = blockEvent(2);
+    final Event third = blockEvent(3);
+    checkpoints.onSent("blocks", first);
+    checkpoints.onSent("blocks", second);
+    checkpoints.onSent("blocks", third);
+
+    checkpoints.onAcknowledged("blocks", first);
+    checkpoints.onFailed("blocks", DomainObjectType.BLOCK, second, new IllegalStateException());
+    checkpoints.onAcknowledged("blocks", third);
+
+    final InOrder inOrder = inOrder(metadataDB);
+    inOrder.verify(metadataDB).advanceCheckpoint("blocks", 1);
+    inOrder.verify(metadataDB).advanceCheckpoint("blocks", 3);
+  }
+
+  @Test
+  void taskHoldsCheckpointUntilItRuns() {
+    final Runnable first = checkpoints.track(1, List.of("blocks"), () -> {});
+    final Event second = blockEvent(2);
+    checkpoints
+        .track(
+            2,
+            List.of("blocks"),
+            () -> {
+              checkpoints.onSent("blocks", second);
+              checkpoints.onAcknowledged("blocks", second);
+            })
+        .run();
+    verify(metadataDB, never()).advanceCheckpoint(any(), anyLong());
+
+    first.run();
+    verify(metadataDB).advanceCheckpoint("blocks", 2);
+  }
+
+  @Test
+  void droppedTaskIsReleased() {
+    final Runnable task = mock(Runnable.class);
+    final EventDispatcher.DroppableTask tracked =
+        checkpoints.track(1, List.of("blocks", "logs"), task);
+    tracked.dropped();
+    tracked.dropped();
+
+    verify(task, never()).run();
+    verify(metadataDB).advanceCheckpoint("blocks", 1);
+    verify(metadataDB).advanceCheckpoint("logs", 1);
+  }
+
+  @Test
+  void checkpointMovesOverContiguousBlocksFromTheStoredOne() {
+    when(metadataDB.getCheckpoint("blocks")).thenReturn(Optional.of(5L));
+    checkpoints.markBlock(7, List.of("blocks"));
+    verify(metadataDB, never()).advanceCheckpoint(any(), anyLong());
+
+    checkpoints.markBlock(6, List.of("blocks"));
+    verify(metadataDB).advanceCheckpoint("blocks", 7);
+  }
+
+  @Test
+  void topicsAreTrackedSeparately() {
+    final Event block = blockEvent(1);
+    checkpoints.onSent("blocks", block);
+    checkpoints.onSent("logs", block);
+
+    checkpoints.onAcknowledged("logs", block);
+    verify(metadataDB).advanceCheckpoint("logs", 1);
+    verify(metadataDB, never()).advanceCheckpoint(eq("blocks"), anyLong());
+  }
+
+  @Test
+  void eventsWithoutBlockAreIgnored() {
+    final Event event = mock(Event.class);
+    when(event.metadata()).thenReturn(EventMetadata.empty());
+    checkpoints.onSent("sync", event);
+    checkpoints.onAcknowledged("sync", event);
+
+    verifyNoInteractions(metadataDB);
+  }
+
+  private static Event blockEvent(final long blockNumber) {
+    final Event event = mock(Event.class);
+    when(event.metadata()).thenReturn(EventMetadata.builder().blockNumber(blockNumber).build());
+    return event;
+  }
+}
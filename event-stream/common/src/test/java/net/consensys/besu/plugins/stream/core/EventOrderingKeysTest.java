@@ -0,0 +1,96 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+
+import java.util.Optional;
+
+import org.hyperledger.besu.plugin.data.Address;
+import org.hyperledger.besu.plugin.data.BlockHeader;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.hyperledger.besu.plugin.data.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EventOrderingKeysTest {
+
+  @Mock private BlockHeader blockHeader;
+  @Mock private Transaction transaction;
+  @Mock private LogWithMetadata log;
+  @Mock private Address sender;
+  @Mock private Address contract;
+
+  @Test
+  void blockIsOrderedByNumber() {
+    when(blockHeader.getNumber()).thenReturn(42L);
+    final EventOrderingKeys keys = EventOrderingKeys.forBlock(blockHeader);
+
+    assertThat(keys.select(OrderingKey.NONE)).isNull();
+    assertThat(keys.select(OrderingKey.DOMAIN_TYPE)).isEqualTo(DomainObjectType.BLOCK);
+    assertThat(keys.select(OrderingKey.BLOCK_NUMBER)).isEqualTo(42L);
+    assertThat(keys.select(OrderingKey.SENDER)).isEqualTo(DomainObjectType.BLOCK);
+    assertThat(keys.select(OrderingKey.CONTRACT_ADDRESS)).isEqualTo(DomainObjectType.BLOCK);
+  }
+
+  @Test
+  void pendingTransactionIsOrderedBySenderAndRecipient() {
+    when(transaction.getSender()).thenReturn(sender);
+    doReturn(Optional.of(contract)).when(transaction).getTo();
+    final EventOrderingKeys keys = EventOrderingKeys.forTransaction(transaction);
+
+    assertThat(keys.select(OrderingKey.BLOCK_NUMBER)).isEqualTo(DomainObjectType.TRANSACTION);
+    assertThat(keys.select(OrderingKey.SENDER)).isSameAs(sender);
+    assertThat(keys.select(OrderingKey.CONTRACT_ADDRESS)).isSameAs(contract);
+  }
+
+  @Test
+  void minedTransactionIsOrderedByBlockNumber() {
+    when(blockHeader.getNumber()).thenReturn(7L);
+    when(transaction.getSender()).thenReturn(sender);
+    doReturn(Optional.empty()).when(transaction).getTo();
+    final EventOrderingKeys keys = EventOrderingKeys.forTransaction(transaction, blockHeader);
+
+    assertThat(keys.select(OrderingKey.BLOCK_NUMBER)).isEqualTo(7L);
+    assertThat(keys.select(OrderingKey.CONTRACT_ADDRESS)).isEqualTo(DomainObjectType.TRANSACTION);
+  }
+
+  @Test
+  void logIsOrderedByContractAddress() {
+    when(log.getBlockNumber()).thenReturn(3L);
+    doReturn(contract).when(log).getLogger();
+    final EventOrderingKeys keys = EventOrderingKeys.forLog(log);
+
+    assertThat(keys.select(OrderingKey.BLOCK_NUMBER)).isEqualTo(3L);
+    assertThat(keys.select(OrderingKey.SENDER)).isEqualTo(DomainObjectType.LOG);
+    assertThat(keys.select(OrderingKey.CONTRACT_ADDRESS)).isSameAs(contract);
+  }
+
+  @Test
+  void nodeEventIsOrderedByDomainType() {
+    final EventOrderingKeys keys = EventOrderingKeys.forNode();
+
+    assertThat(keys.select(OrderingKey.NONE)).isNull();
+    assertThat(keys.select(OrderingKey.BLOCK_NUMBER)).isEqualTo(DomainObjectType.NODE);
+  }
+}
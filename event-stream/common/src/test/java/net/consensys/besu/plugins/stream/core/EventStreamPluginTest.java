@@ -15,13 +15,27 @@
 package net.consensys.besu.plugins.stream.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
 import net.consensys.besu.plugins.stream.api.event.Publisher;
+import net.consensys.besu.plugins.stream.core.config.EventSchema;
+import net.consensys.besu.plugins.stream.core.config.EventSchemas;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.types.Address;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import org.hyperledger.besu.plugin.BesuContext;
@@ -31,6 +45,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.web3j.abi.TypeReference;
 
 @ExtendWith(MockitoExtension.class)
 class EventStreamPluginTest {
@@ -38,6 +53,7 @@ class EventStreamPluginTest {
   @Mock private EventStreamConfiguration configuration;
   @Mock private Publisher publisher;
   @Mock private BesuContext context;
+  @Mock private BesuEvents events;
 
   @Test
   void assertThatRegisterGetsPicoCLIOptionsService() {
@@ -70,14 +86,118 @@ class EventStreamPluginTest {
     assertThat(plugin.getTopicResolver()).isNotNull().isInstanceOf(DomainObjectTopicResolver.class);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void logsAreSubscribedToWithASingleListener() throws ClassNotFoundException {
+    final EventStreamPlugin<EventStreamConfiguration> plugin =
+        new Plugin<>("test-plugin", configuration, ignored -> publisher);
+    final Address cliContract = Address.fromHexString("0x" + "11".repeat(20));
+    final EventSchema schema =
+        new EventSchema(
+            "transfer",
+            Address.fromHexString("0x" + "22".repeat(20)),
+            "Transfer",
+            List.of(TypeReference.makeTypeReference("uint256", false, true)));
+    when(configuration.isEnabled()).thenReturn(true);
+    when(configuration.getTopic()).thenReturn("test-topic");
+    when(configuration.getEnabledTopics()).thenReturn(List.of(DomainObjectType.LOG));
+    when(configuration.getLogFilterAddresses()).thenReturn(List.of(cliContract));
+    when(configuration.getEventSchemas()).thenReturn(new EventSchemas(Set.of(schema)));
+    lenient().when(context.getService(BesuEvents.class)).thenReturn(Optional.of(events));
+    plugin.register(context);
+    plugin.start();
+
+    verify(events)
+        .addLogListener(
+            eq(List.of(cliContract, schema.getContractAddress())), eq(List.of()), any());
+    verify(events, times(1)).addLogListener(any(), any(), any());
+    plugin.stop();
+  }
+
   @Test
   void assertThatConfigurationReloadWorks() {
     final EventStreamPlugin<EventStreamConfiguration> plugin =
         new Plugin<>("test-plugin", configuration, ignored -> publisher);
-    plugin.reloadConfiguration();
+    plugin.reloadConfiguration().join();
     verify(configuration).loadEventSchemas();
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  void reloadedSchemasReplaceTheLogListener() throws ClassNotFoundException {
+    final EventStreamPlugin<EventStreamConfiguration> plugin =
+        new Plugin<>("test-plugin", configuration, ignored -> publisher);
+    final EventSchema schema =
+        new EventSchema(
+            "transfer",
+            Address.fromHexString("0x" + "22".repeat(20)),
+            "Transfer",
+            List.of(TypeReference.makeTypeReference("uint256", false, true)));
+    final AtomicReference<EventSchemas> eventSchemas = new AtomicReference<>(EventSchemas.empty());
+    when(configuration.isEnabled()).thenReturn(true);
+    when(configuration.getTopic()).thenReturn("test-topic");
+    when(configuration.getEnabledTopics()).thenReturn(List.of(DomainObjectType.LOG));
+    when(configuration.getLogFilterAddresses()).thenReturn(List.of(schema.getContractAddress()));
+    when(configuration.getEventSchemas()).thenAnswer(invocation -> eventSchemas.get());
+    lenient().when(context.getService(BesuEvents.class)).thenReturn(Optional.of(events));
+    when(events.addLogListener(any(), any(), any())).thenReturn(1L, 2L);
+    plugin.register(context);
+    plugin.start();
+
+    doAnswer(invocation -> eventSchemas.getAndSet(new EventSchemas(Set.of(schema))))
+        .when(configuration)
+        .loadEventSchemas();
+    plugin.reloadConfiguration().join();
+
+    verify(events, times(2)).addLogListener(any(), any(), any());
+    verify(events, never()).removeLogListener(1L);
+    plugin.stop();
+    verify(events).removeLogListener(1L);
+    verify(events).removeLogListener(2L);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void reloadedSchemasWithAnotherParameterTypeReplaceTheLogListener()
+      throws ClassNotFoundException {
+    final EventStreamPlugin<EventStreamConfiguration> plugin =
+        new Plugin<>("test-plugin", configuration, ignored -> publisher);
+    final Address contract = Address.fromHexString("0x" + "22".repeat(20));
+    final AtomicReference<EventSchemas> eventSchemas =
+        new AtomicReference<>(
+            new EventSchemas(
+                Set.of(
+                    new EventSchema(
+                        "transfer",
+                        contract,
+                        "Transfer",
+                        List.of(TypeReference.makeTypeReference("uint256", false, true))))));
+    when(configuration.isEnabled()).thenReturn(true);
+    when(configuration.getTopic()).thenReturn("test-topic");
+    when(configuration.getEnabledTopics()).thenReturn(List.of(DomainObjectType.LOG));
+    when(configuration.getEventSchemas()).thenAnswer(invocation -> eventSchemas.get());
+    lenient().when(context.getService(BesuEvents.class)).thenReturn(Optional.of(events));
+    when(events.addLogListener(any(), any(), any())).thenReturn(1L, 2L);
+    plugin.register(context);
+    plugin.start();
+
+    final EventSchemas reloaded =
+        new EventSchemas(
+            Set.of(
+                new EventSchema(
+                    "transfer",
+                    contract,
+                    "Transfer",
+                    List.of(TypeReference.makeTypeReference("int256", false, true)))));
+    doAnswer(invocation -> eventSchemas.getAndSet(reloaded)).when(configuration).loadEventSchemas();
+    plugin.reloadConfiguration().join();
+
+    verify(events, times(2)).addLogListener(any(), any(), any());
+    plugin.stop();
+    verify(events).removeLogListener(1L);
+    verify(events).removeLogListener(2L);
+  }
+
   static class Plugin<T extends EventStreamConfiguration> extends EventStreamPlugin<T> {
 
     Plugin(
@@ -22,9 +22,14 @@ import net.consensys.besu.plugins.stream.core.config.EventSchema;
 import net.consensys.besu.plugins.stream.core.config.EventSchemas;
 import net.consensys.besu.plugins.types.Address;
 import net.consensys.besu.plugins.types.DecodedLogWithMetadata;
+import net.consensys.besu.plugins.types.DecodedParameter;
 import net.consensys.besu.plugins.types.Hash;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.apache.tuweni.bytes.Bytes;
@@ -42,12 +47,21 @@ public class LogDecoderTest {
       "Transfer(0xc2ca8977e5c582f938c30f7a5328ac1d101bd564,0x06e01587ad6b033d4b05156003c3412e8997bfe3,801976598137298011761447)";
   private static final String ANON_DECODED =
       "(0xc2ca8977e5c582f938c30f7a5328ac1d101bd564,0x06e01587ad6b033d4b05156003c3412e8997bfe3,801976598137298011761447)";
+  private static final List<DecodedParameter> TRANSFER_PARAMETERS =
+      List.of(
+          new DecodedParameter(
+              "from", "address", "0xc2ca8977e5c582f938c30f7a5328ac1d101bd564", true),
+          new DecodedParameter("to", "address", "0x06e01587ad6b033d4b05156003c3412e8997bfe3", true),
+          new DecodedParameter("value", "uint256", "801976598137298011761447", false));
+  private static final List<DecodedParameter> ANON_PARAMETERS =
+      List.of(
+          new DecodedParameter("", "address", "0xc2ca8977e5c582f938c30f7a5328ac1d101bd564", true),
+          new DecodedParameter("", "address", "0x06e01587ad6b033d4b05156003c3412e8997bfe3", true),
+          new DecodedParameter("", "uint256", "801976598137298011761447", false));
   private static final String ADDRESS = "0x1dea979ae76f26071870f824088da78979eb91c8";
   private static final String LOG_DATA =
       "00000000000000000000000000000000000000000000a9d33d0e47bfd6c72b27";
 
-  @Mock EventSchemas eventSchemas;
-
   @Mock LogWithMetadata logWithMetadata;
 
   @Test
@@ -63,13 +77,20 @@ public class LogDecoderTest {
         .when(logWithMetadata)
         .getTopics();
     when(logWithMetadata.getLogger()).thenReturn(Address.fromHexString(ADDRESS));
-    when(eventSchemas.getSchemas()).thenReturn(createSchemas());
+    final EventSchemas eventSchemas = new EventSchemas(createSchemas());
     when(logWithMetadata.getData()).thenReturn(Bytes.fromHexStringLenient(LOG_DATA));
 
     final LogWithMetadata result = LogDecoder.decode(eventSchemas, logWithMetadata);
     final DecodedLogWithMetadata expectedResult =
-        new DecodedLogWithMetadata(logWithMetadata, DECODED);
+        new DecodedLogWithMetadata(
+            logWithMetadata, "Transfer", TRANSFER_PARAMETERS, "randomRealLog");
     Assertions.assertEquals(expectedResult.getClass(), result.getClass());
+    Assertions.assertEquals(
+        Optional.of("randomRealLog"), ((DecodedLogWithMetadata) result).getSchemaId());
+    Assertions.assertEquals(
+        Optional.of("Transfer"), ((DecodedLogWithMetadata) result).getEventName());
+    Assertions.assertEquals(TRANSFER_PARAMETERS, ((DecodedLogWithMetadata) result).getParameters());
+    Assertions.assertEquals(DECODED, ((DecodedLogWithMetadata) result).getDecoded());
     Assertions.assertAll(
         () -> Assertions.assertEquals(expectedResult.getBlockHash(), result.getBlockHash()),
         () -> Assertions.assertEquals(expectedResult.getBlockNumber(), result.getBlockNumber()),
@@ -100,13 +121,15 @@ public class LogDecoderTest {
         .when(logWithMetadata)
         .getTopics();
     when(logWithMetadata.getLogger()).thenReturn(Address.fromHexString(ADDRESS));
-    when(eventSchemas.getSchemas()).thenReturn(createSchemas());
+    final EventSchemas eventSchemas = new EventSchemas(createSchemas());
     when(logWithMetadata.getData()).thenReturn(Bytes.fromHexStringLenient(LOG_DATA));
 
     final LogWithMetadata result = LogDecoder.decode(eventSchemas, logWithMetadata);
     final DecodedLogWithMetadata expectedResult =
-        new DecodedLogWithMetadata(logWithMetadata, ANON_DECODED);
+        new DecodedLogWithMetadata(logWithMetadata, null, ANON_PARAMETERS, "AnonymousLog");
     Assertions.assertEquals(expectedResult.getClass(), result.getClass());
+    Assertions.assertEquals(Optional.empty(), ((DecodedLogWithMetadata) result).getEventName());
+    Assertions.assertEquals(ANON_DECODED, ((DecodedLogWithMetadata) result).getDecoded());
     Assertions.assertAll(
         () -> Assertions.assertEquals(expectedResult.getBlockHash(), result.getBlockHash()),
         () -> Assertions.assertEquals(expectedResult.getBlockNumber(), result.getBlockNumber()),
@@ -128,11 +151,58 @@ public class LogDecoderTest {
   @Test
   public void testDecodeNoTopics() {
     when(logWithMetadata.getTopics()).thenReturn(null);
-    final LogWithMetadata result = LogDecoder.decode(eventSchemas, logWithMetadata);
+    final LogWithMetadata result = LogDecoder.decode(EventSchemas.empty(), logWithMetadata);
 
     Assertions.assertEquals(logWithMetadata, result);
   }
 
+  @Test
+  public void testDecodeTokenTransfersOfAnyContract() throws IOException {
+    final Set<EventSchema> schemas = new HashSet<>();
+    schemas.addAll(EventSchemas.from(resource("/ERC20.json")).getSchemas());
+    schemas.addAll(EventSchemas.from(resource("/ERC721.json")).getSchemas());
+    final EventSchemas eventSchemas = new EventSchemas(schemas);
+    when(logWithMetadata.getLogger())
+        .thenReturn(Address.fromHexString("0xf216b6b2d9e76f94f97be597e2cec81730520585"));
+
+    doReturn(
+            List.of(
+                    "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef",
+                    "0x000000000000000000000000c2ca8977e5c582f938c30f7a5328ac1d101bd564",
+                    "0x00000000000000000000000006e01587ad6b033d4b05156003c3412e8997bfe3")
+                .stream()
+                .map(Hash::fromHexString)
+                .collect(toUnmodifiableList()))
+        .when(logWithMetadata)
+        .getTopics();
+    when(logWithMetadata.getData()).thenReturn(Bytes.fromHexStringLenient(LOG_DATA));
+    final DecodedLogWithMetadata erc20Transfer =
+        (DecodedLogWithMetadata) LogDecoder.decode(eventSchemas, logWithMetadata);
+    Assertions.assertEquals(Optional.of("ERC20.Transfer"), erc20Transfer.getSchemaId());
+    Assertions.assertEquals(
+        new DecodedParameter("value", "uint256", "801976598137298011761447", false),
+        erc20Transfer.getParameters().get(2));
+
+    doReturn(
+            List.of(
+                    "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef",
+                    "0x000000000000000000000000c2ca8977e5c582f938c30f7a5328ac1d101bd564",
+                    "0x00000000000000000000000006e01587ad6b033d4b05156003c3412e8997bfe3",
+                    "0x0000000000000000000000000000000000000000000000000000000000000007")
+                .stream()
+                .map(Hash::fromHexString)
+                .collect(toUnmodifiableList()))
+        .when(logWithMetadata)
+        .getTopics();
+    when(logWithMetadata.getData()).thenReturn(Bytes.EMPTY);
+    final DecodedLogWithMetadata erc721Transfer =
+        (DecodedLogWithMetadata) LogDecoder.decode(eventSchemas, logWithMetadata);
+    Assertions.assertEquals(Optional.of("ERC721.Transfer"), erc721Transfer.getSchemaId());
+    Assertions.assertEquals(
+        new DecodedParameter("tokenId", "uint256", "7", true),
+        erc721Transfer.getParameters().get(2));
+  }
+
   @Test()
   public void testDecodeTooManyMatches() throws ClassNotFoundException {
     doReturn(
@@ -145,12 +215,16 @@ public class LogDecoderTest {
         .when(logWithMetadata)
         .getTopics();
     when(logWithMetadata.getLogger()).thenReturn(Address.fromHexString(ADDRESS));
-    when(eventSchemas.getSchemas()).thenReturn(createDupSchemas());
+    final EventSchemas eventSchemas = new EventSchemas(createDupSchemas());
 
     Assertions.assertThrows(
         IllegalStateException.class, () -> LogDecoder.decode(eventSchemas, logWithMetadata));
   }
 
+  private File resource(final String name) {
+    return new File(getClass().getResource(name).getFile());
+  }
+
   @SuppressWarnings("unchecked")
   private Set<EventSchema> createSchemas() throws ClassNotFoundException {
     return Set.of(
@@ -161,7 +235,8 @@ public class LogDecoderTest {
             List.of(
                 TypeReference.makeTypeReference("address", true, true),
                 TypeReference.makeTypeReference("address", true, true),
-                TypeReference.makeTypeReference("uint256", false, true))),
+                TypeReference.makeTypeReference("uint256", false, true)),
+            List.of("from", "to", "value")),
         new EventSchema(
             "AnonymousLog",
             Address.fromHexString(ADDRESS),
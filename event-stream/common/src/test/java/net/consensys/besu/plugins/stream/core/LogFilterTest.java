@@ -0,0 +1,130 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import net.consensys.besu.plugins.stream.core.config.EventSchema;
+import net.consensys.besu.plugins.stream.core.config.EventSchemas;
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.TypeReference;
+
+class LogFilterTest {
+  private static final Address CLI_CONTRACT = Address.fromHexString("0x" + "11".repeat(20));
+  private static final Address SCHEMA_CONTRACT = Address.fromHexString("0x" + "22".repeat(20));
+  private static final Address OTHER_CONTRACT = Address.fromHexString("0x" + "33".repeat(20));
+  private static final Hash CLI_TOPIC = Hash.fromHexString("0x" + "aa".repeat(32));
+  private static final Hash OTHER_TOPIC = Hash.fromHexString("0x" + "bb".repeat(32));
+
+  @Test
+  void emptyFilterMatchesEveryLog() throws ClassNotFoundException {
+    final LogFilter filter =
+        LogFilter.compile(List.of(), List.of(), schemas(transfer(SCHEMA_CONTRACT, "Transfer")));
+
+    assertThat(filter.matches(log(OTHER_CONTRACT))).isTrue();
+    assertThat(filter.getQueryAddresses()).isEmpty();
+    assertThat(filter.getQueryTopics()).isEmpty();
+  }
+
+  @Test
+  void commandLineFilterMatchesTopicsByPosition() {
+    final List<List<Bytes32>> topics = Arrays.asList(null, List.of(CLI_TOPIC));
+    final LogFilter filter = LogFilter.compile(List.of(CLI_CONTRACT), topics, EventSchemas.empty());
+
+    assertThat(filter.matches(log(CLI_CONTRACT, OTHER_TOPIC, CLI_TOPIC))).isTrue();
+    assertThat(filter.matches(log(CLI_CONTRACT, CLI_TOPIC, OTHER_TOPIC))).isFalse();
+    assertThat(filter.matches(log(CLI_CONTRACT, OTHER_TOPIC))).isFalse();
+    assertThat(filter.matches(log(OTHER_CONTRACT, OTHER_TOPIC, CLI_TOPIC))).isFalse();
+    assertThat(filter.getQueryAddresses()).containsExactly(CLI_CONTRACT);
+    assertThat(filter.getQueryTopics()).isSameAs(topics);
+  }
+
+  @Test
+  void filterIsTheUnionOfTheCommandLineAndTheSchemas() throws ClassNotFoundException {
+    final EventSchema transfer = transfer(SCHEMA_CONTRACT, "Transfer");
+    final LogFilter filter =
+        LogFilter.compile(List.of(CLI_CONTRACT), List.of(List.of(CLI_TOPIC)), schemas(transfer));
+
+    assertThat(filter.matches(log(CLI_CONTRACT, CLI_TOPIC))).isTrue();
+    assertThat(filter.matches(log(SCHEMA_CONTRACT, transfer.getTopic()))).isTrue();
+    assertThat(filter.matches(log(SCHEMA_CONTRACT, transfer.getTopic()), false)).isFalse();
+    assertThat(filter.matches(log(SCHEMA_CONTRACT, CLI_TOPIC))).isFalse();
+    assertThat(filter.matches(log(CLI_CONTRACT, transfer.getTopic()))).isFalse();
+    assertThat(filter.getQueryAddresses()).containsExactly(CLI_CONTRACT, SCHEMA_CONTRACT);
+    assertThat(filter.getQueryTopics()).containsExactly(List.of(CLI_TOPIC, transfer.getTopic()));
+  }
+
+  @Test
+  void anonymousSchemasMatchAnyFirstTopic() throws ClassNotFoundException {
+    final LogFilter filter =
+        LogFilter.compile(
+            List.of(CLI_CONTRACT),
+            List.of(List.of(CLI_TOPIC)),
+            schemas(transfer(SCHEMA_CONTRACT, null)));
+
+    assertThat(filter.matches(log(SCHEMA_CONTRACT, OTHER_TOPIC, OTHER_TOPIC))).isTrue();
+    assertThat(filter.matches(log(SCHEMA_CONTRACT, OTHER_TOPIC))).isFalse();
+    assertThat(filter.getQueryTopics()).isEmpty();
+  }
+
+  @Test
+  void schemasOfAnyContractMatchTheLogsOfEveryContract() throws ClassNotFoundException {
+    final EventSchema transfer = transfer(null, "Transfer");
+    final LogFilter filter =
+        LogFilter.compile(List.of(CLI_CONTRACT), List.of(List.of(CLI_TOPIC)), schemas(transfer));
+
+    assertThat(filter.matches(log(OTHER_CONTRACT, transfer.getTopic(), OTHER_TOPIC, OTHER_TOPIC)))
+        .isTrue();
+    assertThat(filter.matches(log(OTHER_CONTRACT, transfer.getTopic(), OTHER_TOPIC))).isFalse();
+    assertThat(filter.matches(log(OTHER_CONTRACT, CLI_TOPIC))).isFalse();
+    assertThat(filter.getQueryAddresses()).isEmpty();
+    assertThat(filter.getQueryTopics()).containsExactly(List.of(CLI_TOPIC, transfer.getTopic()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static EventSchema transfer(final Address contract, final String eventName)
+      throws ClassNotFoundException {
+    return new EventSchema(
+        "transfer",
+        contract,
+        eventName,
+        List.of(
+            TypeReference.makeTypeReference("address", true, true),
+            TypeReference.makeTypeReference("address", true, true),
+            TypeReference.makeTypeReference("uint256", false, true)));
+  }
+
+  private static EventSchemas schemas(final EventSchema schema) {
+    return new EventSchemas(Set.of(schema));
+  }
+
+  private static LogWithMetadata log(final Address logger, final Bytes32... topics) {
+    final LogWithMetadata log = mock(LogWithMetadata.class);
+    doReturn(logger).when(log).getLogger();
+    doReturn(List.of(topics)).when(log).getTopics();
+    return log;
+  }
+}
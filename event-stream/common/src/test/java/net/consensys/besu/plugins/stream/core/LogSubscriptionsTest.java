@@ -0,0 +1,111 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import net.consensys.besu.plugins.stream.core.config.EventSchemas;
+import net.consensys.besu.plugins.types.Fixture;
+
+import java.util.List;
+
+import org.hyperledger.besu.plugin.data.Hash;
+import org.hyperledger.besu.plugin.data.LogWithMetadata;
+import org.hyperledger.besu.plugin.services.BesuEvents;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LogSubscriptionsTest {
+  private static final LogFilter EVERY_LOG =
+      LogFilter.compile(List.of(), List.of(), EventSchemas.empty());
+
+  @Mock private BesuEvents events;
+  @Mock private BesuEvents.LogListener sink;
+  private LogSubscriptions logSubscriptions;
+
+  @BeforeEach
+  void setUp() {
+    when(events.addLogListener(any(), any(), any())).thenReturn(1L, 2L);
+    logSubscriptions = new LogSubscriptions(events, sink);
+  }
+
+  @Test
+  void replacedListenerDeliversTheRestOfItsBlock() {
+    final Hash block = Fixture.createBlockHash();
+    final Hash nextBlock = Fixture.createBlockHash();
+    logSubscriptions.subscribe(EVERY_LOG);
+    final BesuEvents.LogListener first = listener(1);
+    first.onLogEmitted(log(block));
+
+    logSubscriptions.subscribe(EVERY_LOG);
+    final BesuEvents.LogListener second = listener(2);
+    final LogWithMetadata secondLog = log(block);
+    second.onLogEmitted(secondLog);
+    first.onLogEmitted(secondLog);
+    verify(sink, times(2)).onLogEmitted(any());
+    verify(events, never()).removeLogListener(1L);
+
+    final LogWithMetadata nextLog = log(nextBlock);
+    first.onLogEmitted(nextLog);
+    second.onLogEmitted(nextLog);
+    verify(sink).onLogEmitted(nextLog);
+    verify(sink, times(3)).onLogEmitted(any());
+    verify(events).removeLogListener(1L);
+  }
+
+  @Test
+  void closeRemovesEveryListener() {
+    logSubscriptions.subscribe(EVERY_LOG);
+    logSubscriptions.subscribe(EVERY_LOG);
+
+    logSubscriptions.close();
+    listener(2).onLogEmitted(log(Fixture.createBlockHash()));
+
+    verify(events).removeLogListener(1L);
+    verify(events).removeLogListener(2L);
+    verify(sink, never()).onLogEmitted(any());
+  }
+
+  @Test
+  void nothingIsSubscribedOnceClosed() {
+    logSubscriptions.close();
+    logSubscriptions.subscribe(EVERY_LOG);
+
+    verify(events).removeLogListener(1L);
+  }
+
+  private BesuEvents.LogListener listener(final int count) {
+    final ArgumentCaptor<BesuEvents.LogListener> listener =
+        ArgumentCaptor.forClass(BesuEvents.LogListener.class);
+    verify(events, times(count)).addLogListener(any(), any(), listener.capture());
+    return listener.getValue();
+  }
+
+  private static LogWithMetadata log(final Hash blockHash) {
+    final LogWithMetadata log = mock(LogWithMetadata.class);
+    when(log.getBlockHash()).thenReturn(blockHash);
+    return log;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LongLruSetTest {
+
+  @Test
+  void leastRecentlyUsedKeyIsEvicted() {
+    final LongLruSet set = new LongLruSet(3);
+    set.add(1);
+    set.add(2);
+    set.add(3);
+    assertThat(set.contains(1)).isTrue();
+
+    set.add(4);
+
+    assertThat(set.size()).isEqualTo(3);
+    assertThat(set.contains(2)).isFalse();
+    assertThat(set.contains(1)).isTrue();
+    assertThat(set.contains(3)).isTrue();
+    assertThat(set.contains(4)).isTrue();
+  }
+
+  @Test
+  void keysSurviveEvictionsOfCollidingKeys() {
+    final int capacity = 1000;
+    final LongLruSet set = new LongLruSet(capacity);
+    for (long key = 0; key < 10 * capacity; key++) {
+      set.add(key * 4096);
+    }
+
+    assertThat(set.size()).isEqualTo(capacity);
+    for (long key = 0; key < 10 * capacity; key++) {
+      assertThat(set.contains(key * 4096)).isEqualTo(key >= 9 * capacity);
+    }
+  }
+}
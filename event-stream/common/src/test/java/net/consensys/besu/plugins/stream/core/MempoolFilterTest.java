@@ -0,0 +1,115 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import net.consensys.besu.plugins.stream.api.config.EventStreamConfiguration;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hyperledger.besu.plugin.data.Hash;
+import org.junit.jupiter.api.Test;
+
+class MempoolFilterTest {
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @Test
+  void duplicateTransactionsAreSkippedPerEventType() {
+    final MempoolFilter filter = new MempoolFilter(1.0, 2, 0, 0, nanoTime::get);
+    final Hash first = hash(1);
+
+    assertThat(filter.acceptAdded(first)).isTrue();
+    assertThat(filter.acceptAdded(first)).isFalse();
+    assertThat(filter.acceptDropped(first)).isTrue();
+
+    filter.acceptAdded(hash(2));
+    filter.acceptAdded(hash(3));
+
+    assertThat(filter.acceptAdded(first)).isTrue();
+    assertThat(filter.getDeduplicatedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void eventsAboveTheRateLimitAreSkipped() {
+    final MempoolFilter filter = new MempoolFilter(1.0, 0, 2, 0, nanoTime::get);
+
+    assertThat(filter.acceptAdded(hash(1))).isTrue();
+    assertThat(filter.acceptAdded(hash(2))).isTrue();
+    assertThat(filter.acceptAdded(hash(3))).isFalse();
+    assertThat(filter.acceptDropped(hash(3))).isTrue();
+
+    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+    assertThat(filter.acceptAdded(hash(3))).isTrue();
+    assertThat(filter.acceptAdded(hash(4))).isFalse();
+    assertThat(filter.getRateLimitedCount()).isEqualTo(2);
+  }
+
+  @Test
+  void rateLimitedTransactionsAreNotRememberedAsPublished() {
+    final MempoolFilter filter = new MempoolFilter(1.0, 10, 1, 0, nanoTime::get);
+
+    assertThat(filter.acceptAdded(hash(1))).isTrue();
+    assertThat(filter.acceptAdded(hash(2))).isFalse();
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+    assertThat(filter.acceptAdded(hash(2))).isTrue();
+  }
+
+  @Test
+  void samplingKeepsTheSameTransactionsForEveryEventType() {
+    final MempoolFilter filter = new MempoolFilter(0.5, 0, 0, 0, nanoTime::get);
+    final Hash low = hash(0x1000L);
+    final Hash high = hash(0xF000_0000_0000_0000L);
+
+    assertThat(filter.acceptAdded(low)).isTrue();
+    assertThat(filter.acceptDropped(low)).isTrue();
+    assertThat(filter.acceptAdded(high)).isFalse();
+    assertThat(filter.acceptDropped(high)).isFalse();
+    assertThat(filter.getSampledOutCount()).isEqualTo(2);
+  }
+
+  @Test
+  void zeroSampleRateSkipsEveryTransaction() {
+    final EventStreamConfiguration configuration = mock(EventStreamConfiguration.class);
+    when(configuration.getMempoolSampleRate()).thenReturn(0.0);
+    final Optional<MempoolFilter> filter = MempoolFilter.create(configuration);
+
+    assertThat(filter).isPresent();
+    assertThat(filter.get().acceptAdded(hash(0))).isFalse();
+    assertThat(filter.get().acceptDropped(hash(0))).isFalse();
+    assertThat(filter.get().getSampledOutCount()).isEqualTo(2);
+  }
+
+  @Test
+  void fullSampleRateDisablesTheFilter() {
+    final EventStreamConfiguration configuration = mock(EventStreamConfiguration.class);
+    when(configuration.getMempoolSampleRate()).thenReturn(1.0);
+
+    assertThat(MempoolFilter.create(configuration)).isEmpty();
+  }
+
+  private static Hash hash(final long prefix) {
+    final Hash hash = mock(Hash.class);
+    when(hash.getLong(0)).thenReturn(prefix);
+    return hash;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import net.consensys.besu.plugins.types.Hash;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import com.google.common.primitives.Longs;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MetadataDBTest {
+  private static final Duration NEVER = Duration.ofHours(1);
+
+  @Mock private KeyValueStorage storage;
+  @Mock private KeyValueStorageTransaction transaction;
+
+  @BeforeEach
+  void setUp() {
+    when(storage.get(MetadataDB.Keys.LATEST_BLOCK_NUMBER_KEY)).thenReturn(Optional.empty());
+    when(storage.get(MetadataDB.Keys.LATEST_BLOCK_HASH_KEY)).thenReturn(Optional.empty());
+  }
+
+  @Test
+  void advanceLatestBlockOnlyTouchesMemory() {
+    final MetadataDB metadataDB = new MetadataDB(storage, NEVER);
+    assertThat(metadataDB.advanceLatestBlock(1, Hash.fromUnsignedLong(1))).isTrue();
+    assertThat(metadataDB.advanceLatestBlock(1, Hash.fromUnsignedLong(1))).isFalse();
+    assertThat(metadataDB.advanceLatestBlock(0, Hash.fromUnsignedLong(2))).isFalse();
+    assertThat(metadataDB.advanceLatestBlock(1, Hash.fromUnsignedLong(3))).isTrue();
+    assertThat(metadataDB.advanceLatestBlock(2, Hash.fromUnsignedLong(3))).isTrue();
+    assertThat(metadataDB.getLatestBlockNumber()).contains(2L);
+    assertThat(metadataDB.getLatestBlockHash()).contains(Hash.fromUnsignedLong(3).toArray());
+    verify(storage, times(2)).get(any());
+    verify(storage, never()).startTransaction();
+
+    when(storage.startTransaction()).thenReturn(transaction);
+    metadataDB.close();
+  }
+
+  @Test
+  void flushWritesOnlyTheLatestBlock() {
+    when(storage.startTransaction()).thenReturn(transaction);
+    final MetadataDB metadataDB = new MetadataDB(storage, NEVER);
+    metadataDB.advanceLatestBlock(1, Hash.fromUnsignedLong(1));
+    metadataDB.advanceLatestBlock(2, Hash.fromUnsignedLong(2));
+    metadataDB.flush();
+    metadataDB.flush();
+    metadataDB.close();
+
+    verify(storage, times(1)).startTransaction();
+    verify(transaction).put(MetadataDB.Keys.LATEST_BLOCK_NUMBER_KEY, Longs.toByteArray(2));
+    verify(transaction)
+        .put(MetadataDB.Keys.LATEST_BLOCK_HASH_KEY, Hash.fromUnsignedLong(2).toArray());
+    verify(transaction).commit();
+  }
+
+  @Test
+  void closeFlushesPendingBlock() {
+    when(storage.startTransaction()).thenReturn(transaction);
+    final MetadataDB metadataDB = new MetadataDB(storage, NEVER);
+    metadataDB.advanceLatestBlock(3, Hash.fromUnsignedLong(3));
+    metadataDB.close();
+
+    verify(transaction).put(MetadataDB.Keys.LATEST_BLOCK_NUMBER_KEY, Longs.toByteArray(3));
+    verify(transaction).commit();
+  }
+
+  @Test
+  void zeroFlushIntervalWritesThrough() {
+    when(storage.startTransaction()).thenReturn(transaction);
+    final MetadataDB metadataDB = new MetadataDB(storage, Duration.ZERO);
+    metadataDB.advanceLatestBlock(1, Hash.fromUnsignedLong(1));
+    metadataDB.advanceLatestBlock(2, Hash.fromUnsignedLong(2));
+
+    verify(transaction, times(2)).commit();
+  }
+
+  @Test
+  void latestBlockIsLoadedFromStorage() {
+    when(storage.get(MetadataDB.Keys.LATEST_BLOCK_NUMBER_KEY))
+        .thenReturn(Optional.of(Longs.toByteArray(5)));
+    when(storage.get(MetadataDB.Keys.LATEST_BLOCK_HASH_KEY))
+        .thenReturn(Optional.of(Hash.fromUnsignedLong(5).toArray()));
+    final MetadataDB metadataDB = new MetadataDB(storage, Duration.ZERO);
+
+    assertThat(metadataDB.advanceLatestBlock(5, Hash.fromUnsignedLong(5))).isFalse();
+    assertThat(metadataDB.advanceLatestBlock(4, Hash.fromUnsignedLong(4))).isFalse();
+    verify(storage, never()).startTransaction();
+  }
+
+  @Test
+  void checkpointsAreFlushedWhenAdvanced() {
+    when(storage.startTransaction()).thenReturn(transaction);
+    final MetadataDB metadataDB = new MetadataDB(storage, NEVER);
+    metadataDB.advanceCheckpoint("blocks", 2);
+    metadataDB.advanceCheckpoint("blocks", 1);
+    metadataDB.advanceCheckpoint("logs", 1);
+    assertThat(metadataDB.getCheckpoint("blocks")).contains(2L);
+    metadataDB.flush();
+    metadataDB.advanceCheckpoint("logs", 3);
+    metadataDB.close();
+
+    verify(storage, times(2)).startTransaction();
+    verify(transaction).put(MetadataDB.Keys.checkpointKey("blocks"), Longs.toByteArray(2));
+    verify(transaction).put(MetadataDB.Keys.checkpointKey("logs"), Longs.toByteArray(1));
+    verify(transaction).put(MetadataDB.Keys.checkpointKey("logs"), Longs.toByteArray(3));
+    verify(transaction, times(3)).put(any(), any());
+  }
+
+  @Test
+  void checkpointIsLoadedFromStorage() {
+    when(storage.get(MetadataDB.Keys.checkpointKey("blocks")))
+        .thenReturn(Optional.of(Longs.toByteArray(7)));
+    final MetadataDB metadataDB = new MetadataDB(storage, Duration.ZERO);
+
+    assertThat(metadataDB.getCheckpoint("blocks")).contains(7L);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpillJournalTest {
+  private static final int SEGMENT_SIZE = 64;
+
+  @TempDir Path directory;
+
+  @Test
+  void recordsAreReadInOrderAcrossSegments() throws Exception {
+    final SpillJournal journal = new SpillJournal(directory, SEGMENT_SIZE, 1024);
+    for (int i = 0; i < 20; i++) {
+      assertThat(journal.append(record(i))).isTrue();
+    }
+    assertThat(journal.getPendingRecords()).isEqualTo(20);
+    assertThat(segmentCount()).isGreaterThan(1);
+
+    assertThat(drain(journal)).containsExactlyElementsOf(records(0, 20));
+    assertThat(journal.isEmpty()).isTrue();
+    assertThat(segmentCount()).isEqualTo(1);
+  }
+
+  @Test
+  void appendIsRejectedOnceFull() {
+    final SpillJournal journal = new SpillJournal(directory, SEGMENT_SIZE, 2 * SEGMENT_SIZE);
+    int appended = 0;
+    while (journal.append(record(appended))) {
+      appended++;
+    }
+    assertThat(appended).isPositive();
+    assertThat(journal.append(new byte[SEGMENT_SIZE])).isFalse();
+
+    journal.peek();
+    journal.advance();
+    assertThat(journal.getPendingRecords()).isEqualTo(appended - 1);
+  }
+
+  @Test
+  void pendingRecordsAreRecoveredAfterRestart() {
+    final SpillJournal journal = new SpillJournal(directory, SEGMENT_SIZE, 1024);
+    for (int i = 0; i < 10; i++) {
+      journal.append(record(i));
+    }
+    journal.peek();
+    journal.advance();
+    journal.peek();
+    journal.advance();
+    journal.close();
+
+    final SpillJournal reopened = new SpillJournal(directory, SEGMENT_SIZE, 1024);
+    assertThat(reopened.getPendingRecords()).isEqualTo(8);
+    reopened.append(record(10));
+    assertThat(drain(reopened)).containsExactlyElementsOf(records(2, 11));
+  }
+
+  private static List<String> drain(final SpillJournal journal) {
+    final List<String> records = new ArrayList<>();
+    Optional<byte[]> record;
+    while ((record = journal.peek()).isPresent()) {
+      records.add(new String(record.get(), UTF_8));
+      journal.advance();
+    }
+    return records;
+  }
+
+  private static byte[] record(final int index) {
+    return ("record-" + index).getBytes(UTF_8);
+  }
+
+  private static List<String> records(final int from, final int to) {
+    final List<String> records = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      records.add("record-" + i);
+    }
+    return records;
+  }
+
+  private long segmentCount() throws Exception {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(".segment")).count();
+    }
+  }
+}
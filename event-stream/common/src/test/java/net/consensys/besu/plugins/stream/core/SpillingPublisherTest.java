@@ -0,0 +1,201 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import net.consensys.besu.plugins.stream.api.event.DeliveryListener;
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.stream.api.event.Publisher;
+import net.consensys.besu.plugins.stream.api.event.TopicResolver;
+import net.consensys.besu.plugins.stream.model.DefaultEvent;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpillingPublisherTest {
+  private static final TopicResolver TOPIC = (domainObjectType, event) -> "blocks";
+
+  @TempDir Path directory;
+  private final List<String> published = new CopyOnWriteArrayList<>();
+  private final CountDownLatch replayed = new CountDownLatch(2);
+  private SpillingPublisher spillingPublisher;
+
+  @AfterEach
+  void tearDown() {
+    if (spillingPublisher != null) {
+      spillingPublisher.close();
+    }
+  }
+
+  @Test
+  void spilledEventsAreReplayedInOrder() throws Exception {
+    spillingPublisher = create((domainObjectType, topicResolver, event) -> record(event));
+
+    final Event first = event(1);
+    spillingPublisher.spill(() -> spillingPublisher.publish(DomainObjectType.BLOCK, TOPIC, first));
+    spillingPublisher.publish(DomainObjectType.BLOCK, TOPIC, event(2));
+
+    assertThat(replayed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(published).containsExactly("1", "2");
+    spillingPublisher.close();
+    assertThat(spillingPublisher.getPendingCount()).isZero();
+    spillingPublisher = null;
+  }
+
+  @Test
+  void eventsAreSpilledWhileTheBrokerIsDown() throws Exception {
+    final Publisher broker = mock(Publisher.class);
+    doThrow(new IllegalStateException("broker down")).when(broker).publish(any(), any(), any());
+    spillingPublisher = create(broker);
+
+    final Event event = event(1);
+    spillingPublisher.publish(DomainObjectType.BLOCK, TOPIC, event);
+
+    assertThat(spillingPublisher.getPendingCount()).isEqualTo(1);
+    verify(broker).publish(DomainObjectType.BLOCK, TOPIC, event);
+  }
+
+  @Test
+  void eventsFailingToBeDeliveredAreSpilled() throws Exception {
+    final Broker broker = new Broker();
+    spillingPublisher = create(broker);
+    final DeliveryListener deliveryListener = mock(DeliveryListener.class);
+    spillingPublisher.setDeliveryListener(deliveryListener);
+
+    final Event event = event(1);
+    spillingPublisher.publish(DomainObjectType.BLOCK, TOPIC, event);
+    broker.deliveryListener.onFailed(
+        "blocks", DomainObjectType.BLOCK, event, new IllegalStateException("timeout"));
+
+    assertThat(replayed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(published).containsExactly("1", "1");
+    verify(deliveryListener, times(2)).onSent(eq("blocks"), any());
+    verify(deliveryListener).onFailed(eq("blocks"), eq(DomainObjectType.BLOCK), eq(event), any());
+  }
+
+  @Test
+  void onlyTheEventsOfAFailedBatchNotSentAreSpilled() throws Exception {
+    final Broker broker = new Broker();
+    broker.failAfter = 1;
+    spillingPublisher = create(broker);
+
+    spillingPublisher.publishBatch(
+        TOPIC,
+        EventBatch.builder()
+            .add(DomainObjectType.BLOCK, event(1))
+            .add(DomainObjectType.BLOCK, event(2))
+            .build());
+
+    assertThat(replayed.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(published).containsExactly("1", "2");
+  }
+
+  @Test
+  void eventIsRestoredFromTheJournal() throws Exception {
+    final Event event =
+        DefaultEvent.create(
+            "BlockAdded",
+            7L,
+            "0x07",
+            (generator, payload) -> generator.writeString(payload),
+            EventMetadata.builder()
+                .blockNumber(7)
+                .blockHash(Bytes.fromHexString("0x0707"))
+                .logIndex(3)
+                .removed(true)
+                .build());
+
+    final SpillingPublisher.SpilledEvent spilled =
+        SpillingPublisher.decode(SpillingPublisher.encode(DomainObjectType.BLOCK, "blocks", event));
+
+    assertThat(spilled.getDomainObjectType()).isEqualTo(DomainObjectType.BLOCK);
+    assertThat(spilled.resolve(DomainObjectType.BLOCK, spilled)).isEqualTo("blocks");
+    assertThat(spilled.type()).isEqualTo("BlockAdded");
+    assertThat(spilled.uuid()).isEqualTo(event.uuid());
+    assertThat(spilled.bytes()).isEqualTo(event.bytes());
+    assertThat(spilled.metadata().getBlockNumber()).contains(7L);
+    assertThat(spilled.metadata().getBlockHash()).contains(Bytes.fromHexString("0x0707"));
+    assertThat(spilled.metadata().getTransactionHash()).isEmpty();
+    assertThat(spilled.metadata().getLogIndex()).contains(3);
+    assertThat(spilled.metadata().isRemoved()).isTrue();
+  }
+
+  /** Broker reporting the events it is handed over, failing the batches after a number of them. */
+  private class Broker implements Publisher {
+    private volatile DeliveryListener deliveryListener = DeliveryListener.NOOP;
+    private int failAfter = Integer.MAX_VALUE;
+
+    @Override
+    public void publish(
+        final DomainObjectType domainObjectType,
+        final TopicResolver topicResolver,
+        final Event event) {
+      deliveryListener.onSent(topicResolver.resolve(domainObjectType, event), event);
+      record(event);
+    }
+
+    @Override
+    public void publishBatch(final TopicResolver topicResolver, final EventBatch batch) {
+      final List<EventBatch.Entry> entries = batch.getEntries();
+      for (int i = 0; i < entries.size(); i++) {
+        if (i == failAfter) {
+          throw new IllegalStateException("broker down");
+        }
+        publish(entries.get(i).getDomainObjectType(), topicResolver, entries.get(i).getEvent());
+      }
+    }
+
+    @Override
+    public void setDeliveryListener(final DeliveryListener deliveryListener) {
+      this.deliveryListener = deliveryListener;
+    }
+  }
+
+  private SpillingPublisher create(final Publisher delegate) {
+    return new SpillingPublisher(delegate, new SpillJournal(directory, 4096, 1 << 20));
+  }
+
+  private void record(final Event event) {
+    published.add(event.metadata().getBlockNumber().map(String::valueOf).orElse(""));
+    replayed.countDown();
+  }
+
+  private static Event event(final long blockNumber) throws Exception {
+    return DefaultEvent.create(
+        "BlockAdded",
+        blockNumber,
+        "block",
+        (generator, payload) -> generator.writeString(payload),
+        EventMetadata.builder().blockNumber(blockNumber).build());
+  }
+}
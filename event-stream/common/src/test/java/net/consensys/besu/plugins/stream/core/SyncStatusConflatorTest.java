@@ -0,0 +1,84 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.hyperledger.besu.plugin.data.SyncStatus;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class SyncStatusConflatorTest {
+  private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+  private final List<Long> emitted = new ArrayList<>();
+  private final SyncStatusConflator conflator =
+      new SyncStatusConflator(
+          Duration.ofSeconds(1), scheduler, (syncStatus, timestamp) -> emitted.add(timestamp));
+  private final Optional<SyncStatus> syncing = Optional.of(mock(SyncStatus.class));
+
+  @Test
+  void newestStatusIsEmittedWhenTheWindowExpires() {
+    conflator.offer(syncing, 1);
+    conflator.offer(syncing, 2);
+    conflator.offer(syncing, 3);
+    assertThat(emitted).containsExactly(1L);
+
+    expireWindow(1);
+    assertThat(emitted).containsExactly(1L, 3L);
+
+    expireWindow(2);
+    conflator.offer(syncing, 4);
+    assertThat(emitted).containsExactly(1L, 3L, 4L);
+  }
+
+  @Test
+  void transitionsAreEmittedStraightAway() {
+    conflator.offer(Optional.empty(), 1);
+    conflator.offer(syncing, 2);
+    conflator.offer(syncing, 3);
+    conflator.offer(syncing, 4);
+    conflator.offer(Optional.empty(), 5);
+
+    assertThat(emitted).containsExactly(1L, 2L, 4L, 5L);
+  }
+
+  @Test
+  void closeEmitsPendingStatus() {
+    conflator.offer(syncing, 1);
+    conflator.offer(syncing, 2);
+    conflator.close();
+
+    assertThat(emitted).containsExactly(1L, 2L);
+  }
+
+  private void expireWindow(final int scheduledWindows) {
+    final ArgumentCaptor<Runnable> expiry = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler, times(scheduledWindows))
+        .schedule(expiry.capture(), anyLong(), any(TimeUnit.class));
+    expiry.getValue().run();
+  }
+}
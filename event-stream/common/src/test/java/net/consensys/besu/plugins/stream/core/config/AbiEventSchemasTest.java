@@ -0,0 +1,147 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AbiEventSchemasTest {
+  private static final Hash TRANSFER_TOPIC =
+      Hash.fromHexString("0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef");
+  private static final Address PUNKS =
+      Address.fromHexString("0xb47e3cd837dDF8e4c57F05d70Ab865de6e193BBB");
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void importsTheEventsOfASolcAbiForAnyContract() throws IOException {
+    final Map<String, EventSchema> schemas = byId(EventSchemas.from(resource("/ERC20.json")));
+
+    assertThat(schemas).containsOnlyKeys("ERC20.Approval", "ERC20.Transfer");
+    final EventSchema transfer = schemas.get("ERC20.Transfer");
+    assertThat(transfer.matchesAnyContract()).isTrue();
+    assertThat(transfer.getEventName()).isEqualTo("Transfer");
+    assertThat(transfer.getTopic()).isEqualTo(TRANSFER_TOPIC);
+    assertThat(transfer.getParameterNames()).containsExactly("from", "to", "value");
+    assertThat(transfer.getParameterTypeNames()).containsExactly("address", "address", "uint256");
+    assertThat(transfer.getIndexedParameterCount()).isEqualTo(2);
+    assertThat(transfer.getDecodingPlan()).isPresent();
+  }
+
+  @Test
+  public void importsTheEventsOfAHardhatArtifact() throws IOException {
+    final Map<String, EventSchema> schemas =
+        byId(AbiEventSchemas.from(resource("/ERC721.json"), null, null, List.of()));
+
+    assertThat(schemas)
+        .containsOnlyKeys("ERC721.Approval", "ERC721.ApprovalForAll", "ERC721.Transfer");
+    assertThat(schemas.get("ERC721.Transfer").getTopic()).isEqualTo(TRANSFER_TOPIC);
+    assertThat(schemas.get("ERC721.Transfer").getIndexedParameterCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void importsTheAbisListedInTheSchemasFile() throws IOException {
+    final EventSchemas eventSchemas = EventSchemas.from(resource("/abi-event-schema-config.yaml"));
+    final Map<String, EventSchema> schemas = byId(eventSchemas);
+
+    assertThat(schemas)
+        .containsOnlyKeys("deposit", "ERC20.Approval", "ERC20.Transfer", "punks.Transfer");
+    assertThat(schemas.get("deposit").matchesAnyContract()).isTrue();
+    assertThat(schemas.get("deposit").getParameterNames()).containsExactly("dst", "wad");
+    assertThat(schemas.get("ERC20.Transfer").matchesAnyContract()).isTrue();
+    assertThat(schemas.get("punks.Transfer").getContractAddress()).isEqualTo(PUNKS);
+    assertThat(eventSchemas.getIndex().find(PUNKS, TRANSFER_TOPIC))
+        .containsExactly(schemas.get("punks.Transfer"));
+    assertThat(eventSchemas.getIndex().findAnyContract(TRANSFER_TOPIC, 2))
+        .containsExactly(schemas.get("ERC20.Transfer"));
+  }
+
+  @Test
+  public void keepsTheFirstOfTheSchemasOfAnyContractMatchingTheSameLogs() throws IOException {
+    final String abi = resource("/ERC20.json").getAbsolutePath();
+    final File schemasFile =
+        write(
+            "schemas.yaml",
+            "abis:\n"
+                + " - id: first\n"
+                + "   file: "
+                + abi
+                + "\n"
+                + " - id: second\n"
+                + "   file: "
+                + abi
+                + "\n"
+                + " - id: bound\n"
+                + "   file: "
+                + abi
+                + "\n"
+                + "   contractAddress: \"0x1dea979ae76f26071870f824088da78979eb91c8\"\n");
+
+    assertThat(byId(EventSchemas.from(schemasFile)))
+        .containsOnlyKeys("first.Approval", "first.Transfer", "bound.Approval", "bound.Transfer");
+  }
+
+  @Test
+  public void namesOverloadedEventsBySignatureAndSkipsUnsupportedOnes() throws IOException {
+    final File abiFile =
+        write(
+            "Logger.json",
+            "[{\"type\":\"event\",\"name\":\"Log\",\"inputs\":[{\"name\":\"value\",\"type\":\"uint256\"}]},"
+                + "{\"type\":\"event\",\"name\":\"Log\",\"inputs\":[{\"name\":\"message\",\"type\":\"string\"}]},"
+                + "{\"type\":\"event\",\"name\":\"Order\",\"inputs\":[{\"name\":\"order\",\"type\":\"tuple\","
+                + "\"components\":[{\"name\":\"id\",\"type\":\"uint256\"}]}]},"
+                + "{\"type\":\"event\",\"name\":\"Raw\",\"anonymous\":true,"
+                + "\"inputs\":[{\"name\":\"sender\",\"type\":\"address\",\"indexed\":true}]}]");
+
+    assertThat(byId(AbiEventSchemas.from(abiFile, null, null, List.of())))
+        .containsOnlyKeys("Logger.Log(uint256)", "Logger.Log(string)");
+
+    final Map<String, EventSchema> boundSchemas =
+        byId(AbiEventSchemas.from(abiFile, "logger", PUNKS, List.of("Raw")));
+    assertThat(boundSchemas).containsOnlyKeys("logger.Raw");
+    assertThat(boundSchemas.get("logger.Raw").getEventName()).isNull();
+  }
+
+  private File write(final String fileName, final String content) throws IOException {
+    return Files.write(tempDir.resolve(fileName), content.getBytes(UTF_8)).toFile();
+  }
+
+  private static Map<String, EventSchema> byId(final EventSchemas eventSchemas) {
+    return byId(List.copyOf(eventSchemas.getSchemas()));
+  }
+
+  private static Map<String, EventSchema> byId(final List<EventSchema> schemas) {
+    return schemas.stream().collect(Collectors.toMap(EventSchema::getId, Function.identity()));
+  }
+
+  private File resource(final String name) {
+    return new File(getClass().getResource(name).getFile());
+  }
+}
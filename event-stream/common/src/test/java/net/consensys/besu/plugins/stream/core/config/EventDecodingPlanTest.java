@@ -0,0 +1,312 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.DecodedParameter;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Int256;
+import org.web3j.abi.datatypes.generated.Int72;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint64;
+import org.web3j.abi.datatypes.generated.Uint8;
+
+public class EventDecodingPlanTest {
+  private static final Address CONTRACT =
+      Address.fromHexString("0x1dea979ae76f26071870f824088da78979eb91c8");
+  private static final String TRANSFER_DATA =
+      "0x00000000000000000000000000000000000000000000a9d33d0e47bfd6c72b27";
+  private static final List<Bytes32> TRANSFER_TOPICS =
+      List.of(
+          Bytes32.fromHexString(
+              "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef"),
+          Bytes32.fromHexString(
+              "0x000000000000000000000000c2ca8977e5c582f938c30f7a5328ac1d101bd564"),
+          Bytes32.fromHexString(
+              "0x00000000000000000000000006e01587ad6b033d4b05156003c3412e8997bfe3"));
+
+  private final Random random = new Random(42);
+
+  @Test
+  public void decodesTransfer() throws ClassNotFoundException {
+    final EventSchema schema = schema("Transfer", "address", "address", "uint256");
+
+    assertThat(plan(schema).decode(TRANSFER_TOPICS, Bytes.fromHexString(TRANSFER_DATA)))
+        .containsExactly(
+            new DecodedParameter("", "address", "0xc2ca8977e5c582f938c30f7a5328ac1d101bd564", true),
+            new DecodedParameter("", "address", "0x06e01587ad6b033d4b05156003c3412e8997bfe3", true),
+            new DecodedParameter("", "uint256", "801976598137298011761447", false));
+  }
+
+  @Test
+  public void decodesLikeTheAbiDecoder() throws ClassNotFoundException {
+    final String[] types = {
+      "address", "bool", "uint", "uint8", "uint64", "uint256", "int72", "int256"
+    };
+    for (int i = 0; i < 500; i++) {
+      final List<String> parameters = new ArrayList<>();
+      final List<Boolean> indexed = new ArrayList<>();
+      final int parameterCount = 1 + random.nextInt(6);
+      int indexedCount = 0;
+      for (int p = 0; p < parameterCount; p++) {
+        final boolean isString = random.nextInt(5) == 0;
+        final boolean isIndexed = !isString && indexedCount < 3 && random.nextBoolean();
+        parameters.add(isString ? "string" : types[random.nextInt(types.length)]);
+        indexed.add(isIndexed);
+        indexedCount += isIndexed ? 1 : 0;
+      }
+      final String eventName = random.nextInt(4) == 0 ? null : "Event";
+      final EventSchema schema = schema(eventName, parameters, indexed);
+      final List<Bytes32> topics = new ArrayList<>();
+      if (eventName != null) {
+        topics.add(schema.getTopic());
+      }
+      final List<Type<?>> dataValues = new ArrayList<>();
+      for (int p = 0; p < parameterCount; p++) {
+        final Type<?> value = randomValue(parameters.get(p));
+        if (indexed.get(p)) {
+          topics.add(Bytes32.fromHexString(TypeEncoder.encode(value)));
+        } else {
+          dataValues.add(value);
+        }
+      }
+      final Bytes data = encode(dataValues);
+
+      assertThat(values(plan(schema).decode(topics, data)))
+          .as("%s with topics %s and data %s", parameters, topics, data)
+          .isEqualTo(abiDecode(schema, topics, data));
+    }
+  }
+
+  @Test
+  public void decodesStringsVerbatim() throws ClassNotFoundException {
+    final EventSchema schema = schema("Message", "string");
+
+    assertThat(
+            values(
+                plan(schema)
+                    .decode(
+                        List.of(schema.getTopic()), encode(List.of(new Utf8String("a [b] c"))))))
+        .containsExactly("a [b] c");
+  }
+
+  @Test
+  public void readsOnlyOneAsTrue() throws ClassNotFoundException {
+    final EventSchema schema = schema("Flag", "bool");
+
+    assertThat(
+            values(plan(schema).decode(List.of(schema.getTopic()), Bytes32.leftPad(Bytes.of(2)))))
+        .containsExactly("false");
+    assertThat(
+            values(plan(schema).decode(List.of(schema.getTopic()), Bytes32.leftPad(Bytes.of(1)))))
+        .containsExactly("true");
+  }
+
+  @Test
+  public void rejectsLogWithMissingTopics() throws ClassNotFoundException {
+    final EventSchema schema = schema("Transfer", "address", "address", "uint256");
+
+    assertThatThrownBy(
+            () ->
+                plan(schema)
+                    .decode(TRANSFER_TOPICS.subList(0, 2), Bytes.fromHexString(TRANSFER_DATA)))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void rejectsLogWithTruncatedData() throws ClassNotFoundException {
+    final EventSchema schema = schema("Transfer", "address", "address", "uint256");
+
+    assertThatThrownBy(
+            () ->
+                plan(schema)
+                    .decode(TRANSFER_TOPICS, Bytes.fromHexString(TRANSFER_DATA).slice(0, 31)))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void rejectsStringsOutOfTheLogData() throws ClassNotFoundException {
+    final EventSchema schema = schema("Message", "string");
+    final List<Bytes32> topics = List.of(schema.getTopic());
+    final Bytes data = encode(List.of(new Utf8String("message")));
+    final Bytes offset = data.slice(0, 32);
+    final Bytes length = data.slice(32, 32);
+    final Bytes value = data.slice(64);
+
+    // offset past the end of the data
+    assertThatThrownBy(() -> plan(schema).decode(topics, Bytes32.leftPad(Bytes.of(96))))
+        .isInstanceOf(IllegalStateException.class);
+    // negative offset
+    assertThatThrownBy(
+            () ->
+                plan(schema)
+                    .decode(
+                        topics,
+                        Bytes.concatenate(
+                            Bytes32.leftPad(Bytes.fromHexString("0xffffffe0")), length, value)))
+        .isInstanceOf(IllegalStateException.class);
+    // offset with its high bytes set
+    assertThatThrownBy(
+            () ->
+                plan(schema)
+                    .decode(topics, Bytes.concatenate(Bytes.of(1), offset.slice(1), length, value)))
+        .isInstanceOf(IllegalStateException.class);
+    // length past the end of the data
+    assertThatThrownBy(
+            () ->
+                plan(schema)
+                    .decode(
+                        topics, Bytes.concatenate(offset, Bytes32.leftPad(Bytes.of(100)), value)))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(values(plan(schema).decode(topics, Bytes.concatenate(offset, length, value))))
+        .containsExactly("message");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void hasNoPlanForUnsupportedTypes() throws ClassNotFoundException {
+    assertThat(schema("Hashed", "bytes32").getDecodingPlan()).isEmpty();
+    assertThat(schema("Small", "int8").getDecodingPlan()).isEmpty();
+    assertThat(schema("Array", "address[]").getDecodingPlan()).isEmpty();
+    assertThat(
+            new EventSchema(
+                    "indexedString",
+                    CONTRACT,
+                    "Indexed",
+                    List.of(TypeReference.makeTypeReference("string", true, true)))
+                .getDecodingPlan())
+        .isEmpty();
+  }
+
+  private static EventDecodingPlan plan(final EventSchema schema) {
+    assertThat(schema.getDecodingPlan()).isPresent();
+    return schema.getDecodingPlan().get();
+  }
+
+  private static EventSchema schema(final String eventName, final String... types)
+      throws ClassNotFoundException {
+    final List<Boolean> indexed =
+        IntStream.range(0, types.length)
+            .mapToObj(i -> eventName.equals("Transfer") && i < 2)
+            .collect(toUnmodifiableList());
+    return schema(eventName, List.of(types), indexed);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static EventSchema schema(
+      final String eventName, final List<String> types, final List<Boolean> indexed)
+      throws ClassNotFoundException {
+    final List<TypeReference<Type>> parameterTypes = new ArrayList<>();
+    for (int i = 0; i < types.size(); i++) {
+      parameterTypes.add(TypeReference.makeTypeReference(types.get(i), indexed.get(i), true));
+    }
+    return new EventSchema("schema", CONTRACT, eventName, parameterTypes);
+  }
+
+  private Type<?> randomValue(final String type) {
+    switch (type) {
+      case "address":
+        return new org.web3j.abi.datatypes.Address(new BigInteger(160, random));
+      case "bool":
+        return new Bool(random.nextBoolean());
+      case "uint8":
+        return new Uint8(new BigInteger(8, random));
+      case "uint64":
+        return new Uint64(new BigInteger(64, random));
+      case "uint":
+      case "uint256":
+        return new Uint256(new BigInteger(random.nextInt(257), random));
+      case "int72":
+        return new Int72(BigInteger.valueOf(random.nextLong()));
+      case "int256":
+        // the ABI decoder fails on values that do not fit in 31 bytes
+        return new Int256(
+            new BigInteger(random.nextInt(247), random)
+                .subtract(BigInteger.ONE.shiftLeft(random.nextInt(247))));
+      case "string":
+        return new Utf8String(randomString());
+      default:
+        throw new IllegalArgumentException(type);
+    }
+  }
+
+  private String randomString() {
+    final String alphabet = "ab [] \u00e9\u20ac\ud83d\ude00";
+    final StringBuilder value = new StringBuilder();
+    final int length = random.nextInt(80);
+    for (int i = 0; i < length; i++) {
+      value.appendCodePoint(
+          alphabet.codePointAt(
+              alphabet.offsetByCodePoints(
+                  0, random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+    }
+    return value.toString();
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static Bytes encode(final List<Type<?>> values) {
+    final List<Type> types = new ArrayList<>(values);
+    return Bytes.fromHexString("0x" + FunctionEncoder.encodeConstructor(types));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static List<String> abiDecode(
+      final EventSchema schema, final List<Bytes32> topics, final Bytes data) {
+    final List<TypeReference<Type>> parameterTypes = schema.getParameterTypes();
+    final List<Type> decoded =
+        new ArrayList<>(
+            FunctionReturnDecoder.decode(
+                data.toHexString(),
+                parameterTypes.stream()
+                    .filter(parameterType -> !parameterType.isIndexed())
+                    .collect(toUnmodifiableList())));
+    int topic = schema.getEventName() == null ? 0 : 1;
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      if (parameterTypes.get(i).isIndexed()) {
+        decoded.add(
+            i,
+            FunctionReturnDecoder.decodeIndexedValue(
+                topics.get(topic++).toHexString(), (TypeReference) parameterTypes.get(i)));
+      }
+    }
+    return decoded.stream()
+        .map(value -> String.valueOf(value.getValue()))
+        .collect(toUnmodifiableList());
+  }
+
+  private static List<String> values(final List<DecodedParameter> parameters) {
+    return parameters.stream().map(DecodedParameter::getValue).collect(toUnmodifiableList());
+  }
+}
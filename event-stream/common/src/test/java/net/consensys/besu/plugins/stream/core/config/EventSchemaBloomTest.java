@@ -0,0 +1,104 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.consensys.besu.plugins.types.Address;
+
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.TypeReference;
+
+class EventSchemaBloomTest {
+  private static final Address CONTRACT = Address.fromHexString("0x" + "11".repeat(20));
+  private static final Address OTHER_CONTRACT = Address.fromHexString("0x" + "22".repeat(20));
+
+  @Test
+  void blockWithTheLogOfASchemaMayContainLogs() throws Exception {
+    final EventSchema transfer = transfer(CONTRACT, "Transfer");
+    final EventSchemaBloom bloom = new EventSchemas(Set.of(transfer)).getBloom();
+
+    assertThat(bloom.mayContainLogs(logsBloom(CONTRACT, transfer.getTopic()))).isTrue();
+    assertThat(bloom.mayContainLogs(logsBloom(OTHER_CONTRACT, transfer.getTopic()))).isFalse();
+    assertThat(bloom.mayContainLogs(logsBloom(CONTRACT))).isFalse();
+    assertThat(bloom.mayContainLogs(Bytes.wrap(new byte[256]))).isFalse();
+  }
+
+  @Test
+  void anonymousEventsOnlyNeedTheContractAddress() throws Exception {
+    final EventSchemaBloom bloom =
+        new EventSchemas(Set.of(transfer(CONTRACT, null), transfer(OTHER_CONTRACT, "Transfer")))
+            .getBloom();
+
+    assertThat(bloom.mayContainLogs(logsBloom(CONTRACT))).isTrue();
+    assertThat(bloom.mayContainLogs(logsBloom(OTHER_CONTRACT))).isFalse();
+  }
+
+  @Test
+  void eventsOfAnyContractOnlyNeedTheTopic() throws Exception {
+    final EventSchema transfer = transfer(null, "Transfer");
+    final EventSchemaBloom bloom = new EventSchemas(Set.of(transfer)).getBloom();
+
+    assertThat(bloom.mayContainLogs(logsBloom(OTHER_CONTRACT, transfer.getTopic()))).isTrue();
+    assertThat(bloom.mayContainLogs(logsBloom(OTHER_CONTRACT))).isFalse();
+  }
+
+  @Test
+  void unknownLogsBloomMayContainLogs() throws Exception {
+    final EventSchemaBloom bloom =
+        new EventSchemas(Set.of(transfer(CONTRACT, "Transfer"))).getBloom();
+
+    assertThat(bloom.mayContainLogs(null)).isTrue();
+    assertThat(bloom.mayContainLogs(Bytes.EMPTY)).isTrue();
+  }
+
+  @Test
+  void noBlockContainsLogsOfNoSchema() {
+    final Bytes everyBit = Bytes.fromHexString("0x" + "ff".repeat(256));
+
+    assertThat(EventSchemas.empty().getBloom().mayContainLogs(everyBit)).isFalse();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static EventSchema transfer(final Address contract, final String eventName)
+      throws ClassNotFoundException {
+    return new EventSchema(
+        (contract == null ? "any" : contract.toHexString()) + eventName,
+        contract,
+        eventName,
+        List.of(
+            TypeReference.makeTypeReference("address", true, true),
+            TypeReference.makeTypeReference("address", true, true),
+            TypeReference.makeTypeReference("uint256", false, true)));
+  }
+
+  /** the logs bloom of a block holding the given addresses and topics */
+  private static Bytes logsBloom(final Bytes... values) throws Exception {
+    final byte[] bloom = new byte[256];
+    for (final Bytes value : values) {
+      final byte[] hash = MessageDigest.getInstance("KECCAK-256").digest(value.toArrayUnsafe());
+      for (int i = 0; i < 6; i += 2) {
+        final int bit = (((hash[i] & 0xff) << 8) | (hash[i + 1] & 0xff)) % 2048;
+        bloom[255 - bit / 8] |= (byte) (1 << (bit % 8));
+      }
+    }
+    return Bytes.wrap(bloom);
+  }
+}
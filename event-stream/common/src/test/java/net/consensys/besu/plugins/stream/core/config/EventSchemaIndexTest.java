@@ -0,0 +1,132 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.core.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+
+import java.util.List;
+import java.util.Set;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.TypeReference;
+
+public class EventSchemaIndexTest {
+  private static final Address TOKEN =
+      Address.fromHexString("0x1dea979ae76f26071870f824088da78979eb91c8");
+  private static final Address OTHER_TOKEN =
+      Address.fromHexString("0xf216b6b2d9e76f94f97be597e2cec81730520585");
+
+  @Test
+  public void findsSchemaByAddressAndTopic() throws ClassNotFoundException {
+    final EventSchema transfer = transfer("transfer", TOKEN);
+    final EventSchema otherTransfer = transfer("otherTransfer", OTHER_TOKEN);
+    final EventSchemaIndex index = EventSchemaIndex.of(Set.of(transfer, otherTransfer));
+
+    assertThat(index.find(TOKEN, transfer.getTopic())).containsExactly(transfer);
+    assertThat(index.find(OTHER_TOKEN, transfer.getTopic())).containsExactly(otherTransfer);
+    assertThat(index.find(TOKEN, Hash.fromHexString("0x" + "00".repeat(32)))).isEmpty();
+    assertThat(index.find(Address.fromHexString("0x01"), transfer.getTopic())).isEmpty();
+  }
+
+  @Test
+  public void findsSchemaWithAnyBytesImplementation() throws ClassNotFoundException {
+    final EventSchema transfer = transfer("transfer", TOKEN);
+    final EventSchemaIndex index = EventSchemaIndex.of(Set.of(transfer));
+
+    assertThat(
+            index.find(
+                Bytes.fromHexString(TOKEN.toHexString()),
+                Bytes.fromHexString(transfer.getTopic().toHexString())))
+        .containsExactly(transfer);
+  }
+
+  @Test
+  public void findsAnonymousSchemaByIndexedParameterCount() throws ClassNotFoundException {
+    final EventSchema anonymous = transfer("anonymous", TOKEN, null);
+    final EventSchemaIndex index =
+        EventSchemaIndex.of(Set.of(anonymous, transfer("transfer", TOKEN)));
+
+    assertThat(index.findAnonymous(TOKEN, 2)).containsExactly(anonymous);
+    assertThat(index.findAnonymous(TOKEN, 3)).isEmpty();
+    assertThat(index.findAnonymous(OTHER_TOKEN, 2)).isEmpty();
+  }
+
+  @Test
+  public void findsSchemaOfAnyContractByTopicAndIndexedParameterCount()
+      throws ClassNotFoundException {
+    final EventSchema transfer = transfer("erc20Transfer", null);
+    final EventSchemaIndex index = EventSchemaIndex.of(Set.of(transfer));
+
+    assertThat(index.findAnyContract(transfer.getTopic(), 2)).containsExactly(transfer);
+    assertThat(index.findAnyContract(transfer.getTopic(), 3)).isEmpty();
+    assertThat(index.find(TOKEN, transfer.getTopic())).isEmpty();
+    assertThat(index.match(TOKEN, List.of(transfer.getTopic(), TOKEN, OTHER_TOKEN)))
+        .containsExactly(transfer);
+    assertThat(index.match(OTHER_TOKEN, List.of(transfer.getTopic(), TOKEN))).isEmpty();
+  }
+
+  @Test
+  public void matchPrefersTheSchemasOfTheContract() throws ClassNotFoundException {
+    final EventSchema tokenTransfer = transfer("tokenTransfer", TOKEN);
+    final EventSchema anyTransfer = transfer("anyTransfer", null);
+    final EventSchema anonymous = transfer("anonymous", OTHER_TOKEN, null);
+    final EventSchemaIndex index =
+        EventSchemaIndex.of(Set.of(tokenTransfer, anyTransfer, anonymous));
+    final List<Bytes> topics = List.of(tokenTransfer.getTopic(), TOKEN, OTHER_TOKEN);
+
+    assertThat(index.match(TOKEN, topics)).containsExactly(tokenTransfer);
+    assertThat(index.match(OTHER_TOKEN, topics)).containsExactly(anyTransfer);
+    assertThat(index.match(OTHER_TOKEN, List.of(TOKEN, OTHER_TOKEN))).containsExactly(anonymous);
+    assertThat(index.match(TOKEN, List.of())).isEmpty();
+  }
+
+  @Test
+  public void keepsAllSchemasSharingAKey() throws ClassNotFoundException {
+    final EventSchemaIndex index =
+        EventSchemaIndex.of(Set.of(transfer("first", TOKEN), transfer("second", TOKEN)));
+
+    assertThat(index.find(TOKEN, transfer("first", TOKEN).getTopic())).hasSize(2);
+  }
+
+  @Test
+  public void emptyIndexFindsNothing() throws ClassNotFoundException {
+    final EventSchemaIndex index = EventSchemaIndex.of(Set.of());
+
+    assertThat(index.find(TOKEN, transfer("transfer", TOKEN).getTopic())).isEmpty();
+    assertThat(index.findAnonymous(TOKEN, 2)).isEmpty();
+  }
+
+  private static EventSchema transfer(final String id, final Address address)
+      throws ClassNotFoundException {
+    return transfer(id, address, "Transfer");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static EventSchema transfer(final String id, final Address address, final String name)
+      throws ClassNotFoundException {
+    return new EventSchema(
+        id,
+        address,
+        name,
+        List.of(
+            TypeReference.makeTypeReference("address", true, true),
+            TypeReference.makeTypeReference("address", true, true),
+            TypeReference.makeTypeReference("uint256", false, true)));
+  }
+}
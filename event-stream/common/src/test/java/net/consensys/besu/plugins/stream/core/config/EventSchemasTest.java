@@ -14,7 +14,6 @@
  */
 package net.consensys.besu.plugins.stream.core.config;
 
-import static java.util.stream.Collectors.toUnmodifiableList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import net.consensys.besu.plugins.types.Address;
@@ -25,7 +24,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.web3j.abi.TypeReference;
@@ -39,76 +37,34 @@ public class EventSchemasTest {
           new File(this.getClass().getResource("/example-event-schema-config.yaml").getFile()));
 
   @Test
-  @SuppressWarnings({"unchecked", "rawtypes"})
+  @SuppressWarnings("rawtypes")
   public void loadsConfigYaml() throws ClassNotFoundException {
-    final List<TypeReference<Type>> balanceIndexedParameters =
-        List.of(
-            TypeReference.makeTypeReference("bytes32", true, true),
-            TypeReference.makeTypeReference("address", true, true),
-            TypeReference.makeTypeReference("address", true, true));
-    final List<TypeReference<Type>> balanceUpdateNonIndexedParameters =
-        List.of(
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true));
     final List<TypeReference<Type>> balanceParameters =
-        Stream.concat(balanceIndexedParameters.stream(), balanceUpdateNonIndexedParameters.stream())
-            .collect(toUnmodifiableList());
-    final List<TypeReference<Type>> purchasePowerParameters = balanceParameters.subList(0, 12);
-    final List<TypeReference<Type>> securityParameters = new ArrayList<>(balanceIndexedParameters);
-    securityParameters.addAll(
-        List.<TypeReference<Type>>of(
-            TypeReference.makeTypeReference("bytes32", true, true),
-            TypeReference.makeTypeReference("address", true, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true)));
-
+        parameters(
+            3, "bytes32", "address", "address", "string", "string", "string", "int256", "uint256",
+            "int256", "uint256", "int256", "uint256", "int256", "uint256");
+    final List<TypeReference<Type>> purchasePowerParameters =
+        parameters(
+            3, "bytes32", "address", "address", "string", "string", "string", "int256", "uint256",
+            "int256", "uint256", "int256", "uint256");
+    final List<TypeReference<Type>> securityParameters =
+        parameters(
+            2, "bytes32", "address", "string", "string", "string", "int256", "uint256", "int256",
+            "uint256", "int256", "uint256");
+    final List<TypeReference<Type>> issuanceBalanceUpdateParams =
+        parameters(
+            2, "bytes32", "address", "string", "int256", "uint256", "int256", "uint256", "int256",
+            "uint256");
     final List<TypeReference<Type>> cashIssuanceBalanceUpdateParams =
-        new ArrayList<>(balanceIndexedParameters);
-    cashIssuanceBalanceUpdateParams.addAll(
-        List.<TypeReference<Type>>of(
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true)));
-
+        parameters(3, "bytes32", "address", "address", "string", "int256", "uint256");
     final List<TypeReference<Type>> cashBrokerFeeUpdateParams =
-        new ArrayList<>(balanceIndexedParameters);
-    cashBrokerFeeUpdateParams.addAll(
-        List.<TypeReference<Type>>of(
-            TypeReference.makeTypeReference("address", false, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("int256", false, true),
-            TypeReference.makeTypeReference("uint256", false, true)));
-
+        parameters(
+            3, "bytes32", "address", "address", "address", "string", "string", "string", "int256",
+            "uint256");
     final List<TypeReference<Type>> securityCreationParams =
-        new ArrayList<>(balanceIndexedParameters);
-    securityCreationParams.addAll(
-        List.<TypeReference<Type>>of(
-            TypeReference.makeTypeReference("string", false, true),
-            TypeReference.makeTypeReference("uint", false, true)));
-
+        parameters(3, "bytes32", "address", "address", "string", "uint256");
     final List<TypeReference<Type>> anonymousTestParameters =
-        List.of(
-            TypeReference.makeTypeReference("address", true, true),
-            TypeReference.makeTypeReference("address", true, true),
-            TypeReference.makeTypeReference("uint256", false, true));
+        parameters(2, "address", "address", "uint256");
 
     assertThat(actual)
         .isEqualTo(
@@ -178,7 +134,7 @@ public class EventSchemasTest {
                         "issuanceIssuanceBalanceUpdate",
                         Address.fromHexString("0x464c01295B7a736CE04974301683000f333cF142"),
                         "IssuanceBalanceUpdate",
-                        securityParameters.subList(0, 9)),
+                        issuanceBalanceUpdateParams),
                     new EventSchema(
                         "issuanceSecurityCreation",
                         Address.fromHexString("0x464c01295B7a736CE04974301683000f333cF142"),
@@ -188,7 +144,53 @@ public class EventSchemasTest {
                         "anonymousTestEvent",
                         Address.fromHexString("0x464c01295B7a736CE04974301683000f333cF142"),
                         null,
-                        anonymousTestParameters))));
+                        anonymousTestParameters,
+                        List.of("from", "to", "value")))));
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static List<TypeReference<Type>> parameters(final int indexedCount, final String... types)
+      throws ClassNotFoundException {
+    final List<TypeReference<Type>> parameters = new ArrayList<>(types.length);
+    for (int i = 0; i < types.length; i++) {
+      parameters.add(TypeReference.makeTypeReference(types[i], i < indexedCount, true));
+    }
+    return parameters;
+  }
+
+  @Test
+  public void loadsParameterNamesAndTypes() {
+    final EventSchema anonymousTestEvent =
+        actual.getSchemas().stream()
+            .filter(schema -> schema.getId().equals("anonymousTestEvent"))
+            .findFirst()
+            .orElseThrow();
+    assertThat(anonymousTestEvent.getParameterNames()).containsExactly("from", "to", "value");
+    assertThat(anonymousTestEvent.getParameterTypeNames())
+        .containsExactly("address", "address", "uint256");
+  }
+
+  @Test
+  public void schemasDifferingInTheirParametersAreNotEqual() throws ClassNotFoundException {
+    final Address contract = Address.fromHexString("0x464c01295B7a736CE04974301683000f333cF142");
+    final EventSchema transfer =
+        new EventSchema("transfer", contract, "Transfer", parameters(2, "address", "uint256"));
+
+    assertThat(transfer)
+        .isEqualTo(
+            new EventSchema("transfer", contract, "Transfer", parameters(2, "address", "uint256")))
+        .isNotEqualTo(
+            new EventSchema("transfer", contract, "Transfer", parameters(2, "address", "int256")))
+        .isNotEqualTo(
+            new EventSchema("transfer", contract, "Transfer", parameters(1, "address", "uint256")))
+        .isNotEqualTo(new EventSchema("transfer", contract, "Transfer", parameters(1, "address")))
+        .isNotEqualTo(
+            new EventSchema(
+                "transfer",
+                contract,
+                "Transfer",
+                parameters(2, "address", "uint256"),
+                List.of("to", "value")));
   }
 
   @Test
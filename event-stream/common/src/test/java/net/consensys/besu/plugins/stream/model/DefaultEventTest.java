@@ -0,0 +1,54 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.core.Serializer;
+
+import java.util.Optional;
+
+import org.hyperledger.besu.plugin.data.SyncStatus;
+import org.junit.jupiter.api.Test;
+
+class DefaultEventTest {
+
+  @Test
+  void createWritesEnvelopeInFieldOrder() throws Exception {
+    final DefaultEvent<Optional<SyncStatus>> event =
+        DefaultEvent.create(
+            Event.Type.SYNC_STATUS_CHANGED, Optional.empty(), Serializer::serialize);
+
+    assertThat(event.string())
+        .isEqualTo(
+            "{\"uuid\":\""
+                + event.getUuid()
+                + "\",\"type\":\"SyncStatusChanged\",\"timestamp\":"
+                + event.getTimestamp()
+                + ",\"event\":false}");
+    assertThat(event.bytes()).isEqualTo(event.string().getBytes(UTF_8));
+  }
+
+  @Test
+  void createEscapesStringValues() throws Exception {
+    final DefaultEvent<String> event =
+        DefaultEvent.create(
+            "Custom", "quote \" and tab\t", (generator, payload) -> generator.writeString(payload));
+
+    assertThat(event.string()).endsWith(",\"event\":\"quote \\\" and tab\\t\"}");
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventIdGenerator;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.types.Fixture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class EventIdStrategyTest {
+
+  @Test
+  void randomIdsAreVersion4Uuids() {
+    final EventIdGenerator generator = EventIdStrategy.RANDOM.createGenerator(0);
+
+    final UUID first = UUID.fromString(generator.generate(Event.Type.LOG_EMITTED, log(0)));
+    final UUID second = UUID.fromString(generator.generate(Event.Type.LOG_EMITTED, log(0)));
+
+    assertThat(first.version()).isEqualTo(4);
+    assertThat(first.variant()).isEqualTo(2);
+    assertThat(first).isNotEqualTo(second);
+  }
+
+  @Test
+  void timeOrderedIdsSortInGenerationOrder() {
+    final AtomicLong clock = new AtomicLong(1_000);
+    final EventIdGenerator generator = new TimeOrderedEventIdGenerator(42, clock::get);
+    final List<String> ids = new ArrayList<>();
+    ids.add(generator.generate(Event.Type.LOG_EMITTED, EventMetadata.empty()));
+    ids.add(generator.generate(Event.Type.LOG_EMITTED, EventMetadata.empty()));
+    clock.set(2_000);
+    ids.add(generator.generate(Event.Type.LOG_EMITTED, EventMetadata.empty()));
+    clock.set(1_500);
+    ids.add(generator.generate(Event.Type.LOG_EMITTED, EventMetadata.empty()));
+
+    assertThat(ids).allMatch(id -> id.matches("[0-9A-HJKMNP-TV-Z]{26}")).isSorted();
+    assertThat(ids).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void timeOrderedIdsEncodeTheTimeLikeUlids() {
+    final EventIdGenerator generator = new TimeOrderedEventIdGenerator(0, () -> 1_469_918_176_385L);
+
+    assertThat(generator.generate(Event.Type.LOG_EMITTED, EventMetadata.empty()))
+        .startsWith("01ARYZ6S41");
+  }
+
+  @Test
+  void nodeIdMustFitIn16Bits() {
+    assertThatThrownBy(() -> EventIdStrategy.TIME_ORDERED.createGenerator(65536))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void deterministicIdsDependOnlyOnWhatTheEventIsAbout() {
+    final EventIdGenerator generator = EventIdStrategy.DETERMINISTIC.createGenerator(0);
+    final String id = generator.generate(Event.Type.LOG_EMITTED, log(1));
+
+    assertThat(UUID.fromString(id).version()).isEqualTo(5);
+    assertThat(
+            EventIdStrategy.DETERMINISTIC
+                .createGenerator(7)
+                .generate(Event.Type.LOG_EMITTED, log(1)))
+        .isEqualTo(id);
+    assertThat(generator.generate(Event.Type.LOG_EMITTED, log(2))).isNotEqualTo(id);
+    assertThat(generator.generate(Event.Type.LOG_EMITTED, logBuilder(1).removed(true).build()))
+        .isNotEqualTo(id);
+    assertThat(generator.generate(Event.Type.TRANSACTION_REVERTED, log(1))).isNotEqualTo(id);
+  }
+
+  @Test
+  void deterministicIdsFallBackToTimeOrderedIds() {
+    final EventIdGenerator generator = EventIdStrategy.DETERMINISTIC.createGenerator(0);
+
+    assertThat(generator.generate(Event.Type.SYNC_STATUS_CHANGED, EventMetadata.empty()))
+        .hasSize(26);
+  }
+
+  private static EventMetadata log(final int logIndex) {
+    return logBuilder(logIndex).build();
+  }
+
+  private static EventMetadata.Builder logBuilder(final int logIndex) {
+    return EventMetadata.builder()
+        .blockNumber(1)
+        .blockHash(Fixture.createHash(1))
+        .transactionHash(Fixture.createHash(2))
+        .logIndex(logIndex);
+  }
+}
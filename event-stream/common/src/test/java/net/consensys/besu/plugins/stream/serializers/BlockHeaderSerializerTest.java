@@ -15,6 +15,7 @@
 package net.consensys.besu.plugins.stream.serializers;
 
 import static java.time.Instant.now;
+import static net.consensys.besu.plugins.stream.util.JsonTestUtil.toJson;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
@@ -26,7 +27,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import org.apache.tuweni.bytes.Bytes;
@@ -41,23 +41,22 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
 class BlockHeaderSerializerTest {
-  @Mock private Address senderMock;
-  @Mock private Hash hashMock;
+  private final Address sender = Fixture.createAddress();
+  private final Hash hash = Fixture.createHash();
+  private final Hash blockHash = Fixture.createBlockHash();
   @Mock private Quantity quantityMock;
   @Mock private BlockHeader blockHeader;
 
   @Test
   void serializeBlockHeader() {
-    when(senderMock.toHexString()).thenReturn(Fixture.ADDRESS);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
     when(quantityMock.getValue()).thenReturn(5L);
     long now = now().toEpochMilli();
-    when(blockHeader.getParentHash()).thenReturn(hashMock);
-    when(blockHeader.getOmmersHash()).thenReturn(hashMock);
-    when(blockHeader.getCoinbase()).thenReturn(senderMock);
-    when(blockHeader.getStateRoot()).thenReturn(hashMock);
-    when(blockHeader.getTransactionsRoot()).thenReturn(hashMock);
-    when(blockHeader.getReceiptsRoot()).thenReturn(hashMock);
+    when(blockHeader.getParentHash()).thenReturn(hash);
+    when(blockHeader.getOmmersHash()).thenReturn(hash);
+    when(blockHeader.getCoinbase()).thenReturn(sender);
+    when(blockHeader.getStateRoot()).thenReturn(hash);
+    when(blockHeader.getTransactionsRoot()).thenReturn(hash);
+    when(blockHeader.getReceiptsRoot()).thenReturn(hash);
     when(blockHeader.getLogsBloom()).thenReturn(Bytes.EMPTY);
     when(blockHeader.getDifficulty()).thenReturn(quantityMock);
     when(blockHeader.getNumber()).thenReturn(1L);
@@ -65,10 +64,10 @@ class BlockHeaderSerializerTest {
     when(blockHeader.getGasUsed()).thenReturn(2L);
     when(blockHeader.getTimestamp()).thenReturn(now);
     when(blockHeader.getExtraData()).thenReturn(Bytes.EMPTY);
-    when(blockHeader.getMixHash()).thenReturn(hashMock);
+    when(blockHeader.getMixHash()).thenReturn(hash);
     when(blockHeader.getNonce()).thenReturn(3L);
-    when(blockHeader.getBlockHash()).thenReturn(hashMock);
-    JsonNode json = Serializer.serialize(new ObjectMapper(), blockHeader);
+    when(blockHeader.getBlockHash()).thenReturn(blockHash);
+    JsonNode json = toJson(blockHeader, Serializer::serialize);
     assertThat(json).isNotNull();
     assertThat(json.isObject()).isTrue();
     final ObjectNode jsonObject = (ObjectNode) json;
@@ -93,7 +92,7 @@ class BlockHeaderSerializerTest {
             "stateRoot");
     assertThat(ImmutableList.copyOf(jsonObject.fieldNames()))
         .containsExactlyInAnyOrderElementsOf(expectedFields);
-    assertThat(jsonObject.get("hash").asText()).isEqualTo(Fixture.HASH);
+    assertThat(jsonObject.get("hash").asText()).isEqualTo(blockHash.toHexString());
     assertThat(jsonObject.get("number").asText()).isEqualTo("0x1");
     assertThat(jsonObject.get("nonce").asText()).isEqualTo("0x3");
     assertThat(jsonObject.get("difficulty").asText()).isEqualTo("0x5");
@@ -14,16 +14,21 @@
  */
 package net.consensys.besu.plugins.stream.serializers;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static net.consensys.besu.plugins.stream.util.JsonTestUtil.toJson;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import net.consensys.besu.plugins.stream.core.Serializer;
+import net.consensys.besu.plugins.stream.model.JsonEventWriter;
 import net.consensys.besu.plugins.types.DecodedLogWithMetadata;
+import net.consensys.besu.plugins.types.DecodedParameter;
 import net.consensys.besu.plugins.types.Fixture;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import org.junit.jupiter.api.Test;
@@ -33,11 +38,18 @@ class DecodedLogWithMetadataSerializerTest {
   @Test
   void serialize() {
     final JsonNode json =
-        Serializer.serialize(
-            new ObjectMapper(),
+        toJson(
             new DecodedLogWithMetadata(
                 Fixture.createLogWithMetadata(),
-                "Transfer(0x0c2ca8977e5c582f938c30f7a5328ac1d101bd564,0x06e01587ad6b033d4b05156003c3412e8997bfe3,801976598137298011761447)"));
+                "Transfer",
+                List.of(
+                    new DecodedParameter(
+                        "from", "address", "0xc2ca8977e5c582f938c30f7a5328ac1d101bd564", true),
+                    new DecodedParameter(
+                        "to", "address", "0x06e01587ad6b033d4b05156003c3412e8997bfe3", true),
+                    new DecodedParameter("value", "uint256", "801976598137298011761447", false)),
+                "transfers"),
+            Serializer::serialize);
 
     assertThat(json.isObject()).isTrue();
     final ObjectNode jsonObject = (ObjectNode) json;
@@ -71,8 +83,66 @@ class DecodedLogWithMetadataSerializerTest {
     assertThat(jsonObject.get("topics").asText())
         .isEqualTo(
             "[0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef, 0x000000000000000000000000c2ca8977e5c582f938c30f7a5328ac1d101bd564, 0x00000000000000000000000006e01587ad6b033d4b05156003c3412e8997bfe3]");
-    assertThat(jsonObject.get("decoded").asText())
+    final JsonNode decoded = jsonObject.get("decoded");
+    assertThat(decoded.get("event").asText()).isEqualTo("Transfer");
+    assertThat(decoded.get("schemaId").asText()).isEqualTo("transfers");
+    final JsonNode parameters = decoded.get("parameters");
+    assertThat(parameters.size()).isEqualTo(3);
+    assertThat(parameters.get(0).get("name").asText()).isEqualTo("from");
+    assertThat(parameters.get(0).get("type").asText()).isEqualTo("address");
+    assertThat(parameters.get(0).get("value").asText())
+        .isEqualTo("0xc2ca8977e5c582f938c30f7a5328ac1d101bd564");
+    assertThat(parameters.get(0).get("indexed").asBoolean()).isTrue();
+    assertThat(parameters.get(2).get("name").asText()).isEqualTo("value");
+    assertThat(parameters.get(2).get("type").asText()).isEqualTo("uint256");
+    assertThat(parameters.get(2).get("value").isTextual()).isTrue();
+    assertThat(parameters.get(2).get("value").asText()).isEqualTo("801976598137298011761447");
+    assertThat(parameters.get(2).get("indexed").asBoolean()).isFalse();
+  }
+
+  @Test
+  void serializeWritesBooleanParametersAsBooleans() {
+    final JsonNode json =
+        toJson(
+            new DecodedLogWithMetadata(
+                Fixture.createLogWithMetadata(),
+                null,
+                List.of(new DecodedParameter("paused", "bool", "true", false)),
+                null),
+            Serializer::serialize);
+
+    final JsonNode decoded = json.get("decoded");
+    assertThat(decoded.get("event").isNull()).isTrue();
+    assertThat(decoded.get("schemaId").isNull()).isTrue();
+    assertThat(decoded.get("parameters").get(0).get("value").isBoolean()).isTrue();
+    assertThat(decoded.get("parameters").get(0).get("value").asBoolean()).isTrue();
+  }
+
+  @Test
+  void serializeWritesCompactJsonInFieldOrder() throws IOException {
+    final byte[] json =
+        JsonEventWriter.writeValue(
+            new DecodedLogWithMetadata(
+                Fixture.createLogWithMetadata(),
+                "Transfer",
+                List.of(new DecodedParameter("value", "uint256", "1", false)),
+                "transfers"),
+            Serializer::serialize);
+
+    assertThat(new String(json, UTF_8))
         .isEqualTo(
-            "Transfer(0x0c2ca8977e5c582f938c30f7a5328ac1d101bd564,0x06e01587ad6b033d4b05156003c3412e8997bfe3,801976598137298011761447)");
+            "{\"blockNumber\":\"0x8ee6ac\","
+                + "\"blockHash\":\"0x8478d0924e106a2e6ee040842316d015fa6a3b87b252060e975153ea238fb0f3\","
+                + "\"transactionHash\":\"0xabc0e2d93e34b8a6f093bb44e102684accd3e45a036df43e5d83b18aa74d40fa\","
+                + "\"transactionIndex\":\"0x0\","
+                + "\"address\":\"0x1dea979ae76f26071870f824088da78979eb91c8\","
+                + "\"data\":\"0x00000000000000000000000000000000000000000000a9d33d0e47bfd6c72b27\","
+                + "\"topics\":\"[0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef, "
+                + "0x000000000000000000000000c2ca8977e5c582f938c30f7a5328ac1d101bd564, "
+                + "0x00000000000000000000000006e01587ad6b033d4b05156003c3412e8997bfe3]\","
+                + "\"removed\":false,"
+                + "\"logIndex\":\"0x0\","
+                + "\"decoded\":{\"event\":\"Transfer\",\"schemaId\":\"transfers\","
+                + "\"parameters\":[{\"name\":\"value\",\"type\":\"uint256\",\"value\":\"1\",\"indexed\":false}]}}");
   }
 }
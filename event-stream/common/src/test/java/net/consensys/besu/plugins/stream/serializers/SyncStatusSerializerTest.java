@@ -14,6 +14,7 @@
  */
 package net.consensys.besu.plugins.stream.serializers;
 
+import static net.consensys.besu.plugins.stream.util.JsonTestUtil.toJson;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
@@ -22,7 +23,6 @@ import net.consensys.besu.plugins.stream.core.Serializer;
 import java.util.Optional;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import org.hyperledger.besu.plugin.data.SyncStatus;
@@ -41,7 +41,7 @@ class SyncStatusSerializerTest {
     when(syncStatusMock.getStartingBlock()).thenReturn(0L);
     when(syncStatusMock.getCurrentBlock()).thenReturn(2L);
     when(syncStatusMock.getHighestBlock()).thenReturn(32L);
-    JsonNode json = Serializer.serialize(new ObjectMapper(), Optional.of(syncStatusMock));
+    JsonNode json = toJson(Optional.of(syncStatusMock), Serializer::serialize);
 
     assertThat(json.isObject()).isTrue();
     final ObjectNode jsonObject = (ObjectNode) json;
@@ -54,7 +54,7 @@ class SyncStatusSerializerTest {
 
   @Test
   void serialise_emptySyncStatus() {
-    JsonNode json = Serializer.serialize(new ObjectMapper(), Optional.empty());
+    JsonNode json = toJson(Optional.<SyncStatus>empty(), Serializer::serialize);
 
     assertThat(json.isBoolean()).isTrue();
     assertThat(json.asBoolean()).isEqualTo(false);
@@ -16,6 +16,7 @@ package net.consensys.besu.plugins.stream.serializers;
 
 import static java.time.Instant.now;
 import static net.consensys.besu.plugins.stream.util.BlockHeaderMockFixture.createBlockHeaderMock;
+import static net.consensys.besu.plugins.stream.util.JsonTestUtil.toJson;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import net.consensys.besu.plugins.stream.core.Serializer;
@@ -28,7 +29,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import org.apache.tuweni.bytes.Bytes;
@@ -48,7 +48,7 @@ class TransactionPayloadSerializerTest {
 
     final TransactionPayload transactionPayload = new TransactionPayload(transactionMock);
 
-    final JsonNode json = Serializer.serialize(new ObjectMapper(), transactionPayload);
+    final JsonNode json = toJson(transactionPayload, Serializer::serialize);
     assertThat(json.isObject()).isTrue();
     checkIsValidTransaction((ObjectNode) json);
   }
@@ -65,14 +65,15 @@ class TransactionPayloadSerializerTest {
     final TransactionPayload transactionPayload =
         new TransactionPayload(transactionMock, blockHeaderMock, revertReason);
 
-    final JsonNode json = Serializer.serialize(new ObjectMapper(), transactionPayload);
+    final JsonNode json = toJson(transactionPayload, Serializer::serialize);
     assertThat(json.isObject()).isTrue();
-    checkIsValidBlockHeader(now, (ObjectNode) json);
+    checkIsValidBlockHeader(blockHeaderMock, now, (ObjectNode) json);
     checkIsValidTransaction((ObjectNode) json);
     assertThat(json.get("revertReason").asText()).isEqualTo(revertReason);
   }
 
-  private void checkIsValidBlockHeader(final long now, final ObjectNode jsonObject) {
+  private void checkIsValidBlockHeader(
+      final BlockHeader blockHeaderMock, final long now, final ObjectNode jsonObject) {
 
     final JsonNode blockNode = jsonObject.get("blockHeader");
     assertThat(blockNode.isObject()).isTrue();
@@ -99,7 +100,8 @@ class TransactionPayloadSerializerTest {
         .containsExactlyInAnyOrderElementsOf(expectedFields);
     // Check each field
     // Check each field
-    assertThat(blockNode.get("hash").asText()).isEqualTo(Fixture.HASH);
+    assertThat(blockNode.get("hash").asText())
+        .isEqualTo(blockHeaderMock.getBlockHash().toHexString());
     assertThat(blockNode.get("number").asText()).isEqualTo("0x1");
     assertThat(blockNode.get("nonce").asText()).isEqualTo("0x3");
     assertThat(blockNode.get("difficulty").asText()).isEqualTo("0x1");
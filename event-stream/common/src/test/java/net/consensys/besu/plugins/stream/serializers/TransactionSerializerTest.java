@@ -14,6 +14,7 @@
  */
 package net.consensys.besu.plugins.stream.serializers;
 
+import static net.consensys.besu.plugins.stream.util.JsonTestUtil.toJson;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
@@ -27,7 +28,6 @@ import java.util.List;
 import java.util.Optional;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import org.apache.tuweni.bytes.Bytes;
@@ -41,14 +41,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionSerializerTest {
-  @Mock private Address senderMock;
-  @Mock private Hash hashMock;
+  private final Address sender = Fixture.createAddress();
+  private final Hash hash = Fixture.createHash();
   @Mock private Transaction transactionMock;
 
   @Test
   void serialise() {
-    when(senderMock.toHexString()).thenReturn(Fixture.ADDRESS);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
     when(transactionMock.getNonce()).thenReturn(1L);
     when(transactionMock.getGasPrice())
         .thenAnswer(invocation -> Optional.of(new BigIntegerQuantity(BigInteger.valueOf(0x7d0))));
@@ -58,11 +56,11 @@ class TransactionSerializerTest {
     when(transactionMock.getV()).thenReturn(BigInteger.valueOf(5L));
     when(transactionMock.getR()).thenReturn(BigInteger.valueOf(6L));
     when(transactionMock.getS()).thenReturn(BigInteger.valueOf(7L));
-    when(transactionMock.getSender()).thenReturn(senderMock);
+    when(transactionMock.getSender()).thenReturn(sender);
     when(transactionMock.getChainId()).thenReturn(Optional.empty());
-    when(transactionMock.getHash()).thenReturn(hashMock);
+    when(transactionMock.getHash()).thenReturn(hash);
     when(transactionMock.getPayload()).thenReturn(Bytes.fromHexString("1234"));
-    final JsonNode json = Serializer.serialize(new ObjectMapper(), transactionMock);
+    final JsonNode json = toJson(transactionMock, Serializer::serialize);
     assertThat(json.isObject()).isTrue();
     final ObjectNode jsonObject = (ObjectNode) json;
 
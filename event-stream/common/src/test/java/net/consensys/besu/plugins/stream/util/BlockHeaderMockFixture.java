@@ -31,30 +31,26 @@ public final class BlockHeaderMockFixture {
 
   public static BlockHeader createBlockHeaderMock(final long timestamp) {
     final BlockHeader blockHeaderMock = mock(BlockHeader.class);
-    final Hash hashMock = mock(Hash.class);
-    final Address addressMock = mock(Address.class);
+    final Hash hash = Fixture.createHash();
+    final Address address = Fixture.createAddress();
     final Quantity quantityMock = mock(Quantity.class);
-    when(blockHeaderMock.getBlockHash()).thenReturn(hashMock);
+    when(blockHeaderMock.getBlockHash()).thenReturn(Fixture.createBlockHash());
     when(blockHeaderMock.getNumber()).thenReturn(1L);
     when(blockHeaderMock.getNonce()).thenReturn(3L);
     when(blockHeaderMock.getDifficulty()).thenReturn(quantityMock);
     when(blockHeaderMock.getGasLimit()).thenReturn(5L);
     when(blockHeaderMock.getGasUsed()).thenReturn(2L);
     when(blockHeaderMock.getTimestamp()).thenReturn(timestamp);
-    when(blockHeaderMock.getCoinbase()).thenReturn(addressMock);
+    when(blockHeaderMock.getCoinbase()).thenReturn(address);
     when(blockHeaderMock.getExtraData()).thenReturn(Bytes.EMPTY);
     when(blockHeaderMock.getLogsBloom()).thenReturn(Bytes.EMPTY);
-    when(blockHeaderMock.getMixHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getOmmersHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getParentHash()).thenReturn(hashMock);
-    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hashMock);
-    when(blockHeaderMock.getStateRoot()).thenReturn(hashMock);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
-
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
-    when(addressMock.toHexString()).thenReturn(Fixture.ADDRESS);
+    when(blockHeaderMock.getMixHash()).thenReturn(hash);
+    when(blockHeaderMock.getOmmersHash()).thenReturn(hash);
+    when(blockHeaderMock.getParentHash()).thenReturn(hash);
+    when(blockHeaderMock.getReceiptsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getTransactionsRoot()).thenReturn(hash);
+    when(blockHeaderMock.getStateRoot()).thenReturn(hash);
+
     when(quantityMock.getValue()).thenReturn(BigInteger.ONE);
 
     return blockHeaderMock;
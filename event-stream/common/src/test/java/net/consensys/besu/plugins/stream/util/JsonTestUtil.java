@@ -0,0 +1,36 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.stream.util;
+
+import net.consensys.besu.plugins.stream.api.event.EventSerializer;
+import net.consensys.besu.plugins.stream.model.JsonEventWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public final class JsonTestUtil {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  public static <T> JsonNode toJson(final T payload, final EventSerializer<T> serializer) {
+    try {
+      return MAPPER.readTree(JsonEventWriter.writeValue(payload, serializer));
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -17,7 +17,6 @@ package net.consensys.besu.plugins.stream.util;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-import net.consensys.besu.plugins.types.Address;
 import net.consensys.besu.plugins.types.BigIntegerQuantity;
 import net.consensys.besu.plugins.types.Fixture;
 
@@ -25,6 +24,7 @@ import java.math.BigInteger;
 import java.util.Optional;
 
 import org.apache.tuweni.bytes.Bytes;
+import org.hyperledger.besu.plugin.data.Address;
 import org.hyperledger.besu.plugin.data.Hash;
 import org.hyperledger.besu.plugin.data.Transaction;
 
@@ -32,11 +32,8 @@ public final class TransactionMockFixture {
 
   public static Transaction createTransactionMock() {
     final Transaction transactionMock = mock(Transaction.class);
-    final Address senderMock = mock(Address.class);
-    final Hash hashMock = mock(Hash.class);
-
-    when(senderMock.toHexString()).thenReturn(Fixture.ADDRESS);
-    when(hashMock.toHexString()).thenReturn(Fixture.HASH);
+    final Address sender = Fixture.createAddress();
+    final Hash hash = Fixture.createHash();
 
     when(transactionMock.getNonce()).thenReturn(1L);
     when(transactionMock.getGasPrice())
@@ -47,9 +44,9 @@ public final class TransactionMockFixture {
     when(transactionMock.getV()).thenReturn(BigInteger.valueOf(5L));
     when(transactionMock.getR()).thenReturn(BigInteger.valueOf(6L));
     when(transactionMock.getS()).thenReturn(BigInteger.valueOf(7L));
-    when(transactionMock.getSender()).thenReturn(senderMock);
+    when(transactionMock.getSender()).thenReturn(sender);
     when(transactionMock.getChainId()).thenReturn(Optional.empty());
-    when(transactionMock.getHash()).thenReturn(hashMock);
+    when(transactionMock.getHash()).thenReturn(hash);
     when(transactionMock.getPayload()).thenReturn(Bytes.fromHexString("1234"));
 
     return transactionMock;
@@ -17,6 +17,7 @@ package net.consensys.besu.plugins.types;
 import static java.util.stream.Collectors.toUnmodifiableList;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.hyperledger.besu.plugin.data.Address;
@@ -28,6 +29,8 @@ public class Fixture {
       "0x0e6319c0087f3bb7ca95388871ed5f210942a44bcfa0e67155f00f221e2b8a48";
   public static final String ADDRESS = "0xfe3b557e8fb62b89f4916b721be55ceb828dbd73";
 
+  private static final AtomicLong BLOCK_HASHES = new AtomicLong();
+
   public static LogWithMetadata createLogWithMetadata() {
     return new LogWithMetadata() {
       @Override
@@ -94,4 +97,17 @@ public class Fixture {
   public static Address createAddress(final long value) {
     return net.consensys.besu.plugins.types.Address.fromUnsignedLong(value);
   }
+
+  public static Hash createHash() {
+    return net.consensys.besu.plugins.types.Hash.fromHexString(HASH);
+  }
+
+  public static Address createAddress() {
+    return net.consensys.besu.plugins.types.Address.fromHexString(ADDRESS);
+  }
+
+  /** A block hash used by no other block header, their JSON being cached by block hash. */
+  public static Hash createBlockHash() {
+    return createHash(BLOCK_HASHES.incrementAndGet());
+  }
 }
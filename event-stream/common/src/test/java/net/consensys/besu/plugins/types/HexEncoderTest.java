@@ -0,0 +1,116 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugins.types;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.jupiter.api.Test;
+
+class HexEncoderTest {
+  private static final List<Long> LONGS =
+      List.of(0L, 1L, 0xfL, 0x10L, 4885L, Long.MAX_VALUE, Long.MIN_VALUE, -1L);
+
+  @Test
+  void longQuantitiesAreEncodedLikeTheFormatter() {
+    final char[] chars = new char[HexEncoder.MAX_LONG_QUANTITY_LENGTH + 1];
+    final byte[] bytes = new byte[HexEncoder.MAX_LONG_QUANTITY_LENGTH + 1];
+    for (final long value : LONGS) {
+      final int charsEnd = HexEncoder.encodeQuantity(value, chars, 1);
+      final int bytesEnd = HexEncoder.encodeQuantity(value, bytes, 1);
+
+      assertThat(new String(chars, 1, charsEnd - 1)).isEqualTo(QuantityFormatter.format(value));
+      assertThat(new String(bytes, 1, bytesEnd - 1, US_ASCII))
+          .isEqualTo(QuantityFormatter.format(value));
+      assertThat(HexEncoder.quantityLength(value)).isEqualTo(charsEnd - 1);
+    }
+  }
+
+  @Test
+  void bigIntegerQuantitiesAreEncodedLikeTheFormatter() {
+    final List<BigInteger> values =
+        List.of(
+            BigInteger.ZERO,
+            BigInteger.TEN,
+            BigInteger.valueOf(Long.MAX_VALUE),
+            BigInteger.ONE.shiftLeft(63),
+            BigInteger.ONE.shiftLeft(255),
+            new BigInteger(256, ThreadLocalRandom.current()),
+            BigInteger.valueOf(-255));
+    for (final BigInteger value : values) {
+      final char[] chars = new char[HexEncoder.quantityLength(value)];
+      final byte[] bytes = new byte[HexEncoder.quantityLength(value)];
+
+      assertThat(new String(chars, 0, HexEncoder.encodeQuantity(value, chars, 0)))
+          .isEqualTo(QuantityFormatter.format(value));
+      assertThat(new String(bytes, 0, HexEncoder.encodeQuantity(value, bytes, 0), US_ASCII))
+          .isEqualTo(QuantityFormatter.format(value));
+    }
+  }
+
+  @Test
+  void bytesAreEncodedLikeToHexString() {
+    final List<Bytes> values =
+        List.of(
+            Bytes.EMPTY,
+            Bytes32.random(),
+            Address.fromHexString(Fixture.ADDRESS),
+            Hash.fromHexString(Fixture.HASH));
+    for (final Bytes value : values) {
+      final char[] chars = new char[HexEncoder.length(value)];
+      final byte[] bytes = new byte[HexEncoder.length(value)];
+
+      assertThat(HexEncoder.encode(value, chars, 0)).isEqualTo(chars.length);
+      assertThat(new String(chars)).isEqualTo(value.toHexString());
+      assertThat(HexEncoder.encode(value, bytes, 0)).isEqualTo(bytes.length);
+      assertThat(new String(bytes, US_ASCII)).isEqualTo(value.toHexString());
+    }
+  }
+
+  @Test
+  void fieldsAreWrittenToTheGenerator() throws IOException {
+    final Bytes largeBytes = Bytes.wrap(new byte[64 * 1024]);
+    final StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = new JsonFactory().createGenerator(writer)) {
+      generator.writeStartObject();
+      HexEncoder.writeQuantityField(generator, "long", 4885L);
+      HexEncoder.writeQuantityField(generator, "bigInteger", BigInteger.ONE.shiftLeft(64));
+      HexEncoder.writeQuantityField(
+          generator, "quantity", new BigIntegerQuantity(BigInteger.valueOf(0x7d0)));
+      HexEncoder.writeBytesField(generator, "hash", Hash.fromHexString(Fixture.HASH));
+      HexEncoder.writeBytesField(generator, "large", largeBytes);
+      generator.writeEndObject();
+    }
+
+    assertThat(writer.toString())
+        .isEqualTo(
+            "{\"long\":\"0x1315\",\"bigInteger\":\"0x10000000000000000\",\"quantity\":\"0x7d0\","
+                + "\"hash\":\""
+                + Fixture.HASH
+                + "\",\"large\":\""
+                + largeBytes.toHexString()
+                + "\"}");
+  }
+}
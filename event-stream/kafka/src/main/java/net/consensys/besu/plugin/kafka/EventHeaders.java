@@ -0,0 +1,78 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugin.kafka;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.primitives.Longs;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+/**
+ * Headers attached to the published records so that consumers can filter and route events without
+ * parsing their JSON. Strings are UTF-8 encoded, the block number is an 8 bytes big-endian long and
+ * hashes and addresses are their raw bytes. Headers are only present when the event relates to the
+ * value.
+ */
+public final class EventHeaders {
+  /** the event type */
+  public static final String TYPE = "type";
+  /** the event unique identifier */
+  public static final String UUID = "uuid";
+  /** the number of the block the event relates to */
+  public static final String BLOCK_NUMBER = "blockNumber";
+  /** the hash of the block the event relates to */
+  public static final String BLOCK_HASH = "blockHash";
+  /** the address of the contract that emitted the log */
+  public static final String CONTRACT_ADDRESS = "contractAddress";
+  /** the identifier of the schema the log was decoded with */
+  public static final String SCHEMA_ID = "schemaId";
+
+  private EventHeaders() {}
+
+  /**
+   * Build the headers of the record of an event.
+   *
+   * @param event the event to publish
+   * @return the record headers
+   */
+  public static List<Header> of(final Event event) {
+    final EventMetadata metadata = event.metadata();
+    final List<Header> headers = new ArrayList<>(6);
+    headers.add(new RecordHeader(TYPE, event.type().getBytes(UTF_8)));
+    event.uuid().ifPresent(uuid -> headers.add(new RecordHeader(UUID, uuid.getBytes(UTF_8))));
+    metadata
+        .getBlockNumber()
+        .ifPresent(
+            number -> headers.add(new RecordHeader(BLOCK_NUMBER, Longs.toByteArray(number))));
+    metadata
+        .getBlockHash()
+        .ifPresent(hash -> headers.add(new RecordHeader(BLOCK_HASH, hash.toArrayUnsafe())));
+    metadata
+        .getContractAddress()
+        .ifPresent(
+            address -> headers.add(new RecordHeader(CONTRACT_ADDRESS, address.toArrayUnsafe())));
+    metadata
+        .getSchemaId()
+        .ifPresent(schemaId -> headers.add(new RecordHeader(SCHEMA_ID, schemaId.getBytes(UTF_8))));
+    return headers;
+  }
+}
@@ -20,6 +20,9 @@ import net.consensys.besu.plugins.stream.core.config.DomainObjectTypeConverter;
 import net.consensys.besu.plugins.stream.core.config.LogFilterTopicsWrapper;
 import net.consensys.besu.plugins.stream.core.config.TopicTypeConverter;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.stream.model.EventIdStrategy;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+import net.consensys.besu.plugins.stream.model.OverflowPolicy;
 import net.consensys.besu.plugins.types.Address;
 
 import java.io.File;
@@ -50,6 +53,33 @@ public final class KafkaPluginConfiguration extends CommonConfiguration {
       description = "Enables overriding of Kafka producer properties.")
   private boolean producerConfigOverrideEnabled = false;
 
+  @Option(
+      names = "--plugin-kafka-record-key",
+      paramLabel = "<KEY>",
+      description =
+          "Key of the published records, records of a key being published to the same partition: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  private RecordKey recordKey = RecordKey.NONE;
+
+  @Option(
+      names = "--plugin-kafka-record-key-class",
+      paramLabel = "<CLASS>",
+      description = "Class implementing RecordKeyStrategy, used with the CUSTOM record key")
+  private String recordKeyClass;
+
+  @Option(
+      names = "--plugin-kafka-record-headers-enabled",
+      description =
+          "Enable to attach the event type, uuid, block, contract and schema to the records headers (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private boolean recordHeadersEnabled = true;
+
+  @Option(
+      names = "--plugin-kafka-transactional-id",
+      paramLabel = "<ID>",
+      description =
+          "Enables the idempotent transactional producer with the given transactional id, publishing each block along with its transactions and logs in one transaction")
+  private String transactionalId;
+
   public Properties properties() throws ClassNotFoundException {
     return saslConfig(
         KafkaHelper.extendWith(
@@ -77,7 +107,12 @@ public final class KafkaPluginConfiguration extends CommonConfiguration {
         Class.forName("org.apache.kafka.common.serialization.StringSerializer"));
     props.put(
         ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
-        Class.forName("org.apache.kafka.common.serialization.StringSerializer"));
+        Class.forName("org.apache.kafka.common.serialization.ByteArraySerializer"));
+    if (isTransactional()) {
+      props.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalId);
+      props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+      props.put(ProducerConfig.ACKS_CONFIG, "all");
+    }
     return props;
   }
 
@@ -97,6 +132,51 @@ public final class KafkaPluginConfiguration extends CommonConfiguration {
     this.producerProperties = producerProperties;
   }
 
+  public RecordKey getRecordKey() {
+    return recordKey;
+  }
+
+  public void setRecordKey(final RecordKey recordKey) {
+    this.recordKey = recordKey;
+  }
+
+  public String getRecordKeyClass() {
+    return recordKeyClass;
+  }
+
+  public void setRecordKeyClass(final String recordKeyClass) {
+    this.recordKeyClass = recordKeyClass;
+  }
+
+  public boolean isRecordHeadersEnabled() {
+    return recordHeadersEnabled;
+  }
+
+  public void setRecordHeadersEnabled(final boolean recordHeadersEnabled) {
+    this.recordHeadersEnabled = recordHeadersEnabled;
+  }
+
+  public String getTransactionalId() {
+    return transactionalId;
+  }
+
+  public void setTransactionalId(final String transactionalId) {
+    this.transactionalId = transactionalId;
+  }
+
+  public boolean isTransactional() {
+    return transactionalId != null;
+  }
+
+  /**
+   * Build the strategy keying the published records.
+   *
+   * @return the configured record key strategy
+   */
+  public RecordKeyStrategy recordKeyStrategy() {
+    return RecordKeyStrategy.of(recordKey, recordKeyClass);
+  }
+
   @Option(names = "--plugin-kafka-enabled", description = "Enables event streaming plugin.")
   @Override
   public void setEnabled(final boolean enabled) {
@@ -129,6 +209,16 @@ public final class KafkaPluginConfiguration extends CommonConfiguration {
     super.setMetadataDBEnabled(metadataDBEnabled);
   }
 
+  @Option(
+      names = "--plugin-kafka-metadata-db-flush-interval",
+      paramLabel = "<MILLISECONDS>",
+      description =
+          "Interval at which the latest published block is written to the metadata database, 0 to write every block (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setMetadataDBFlushInterval(final long metadataDBFlushInterval) {
+    super.setMetadataDBFlushInterval(metadataDBFlushInterval);
+  }
+
   @Option(
       names = {"--plugin-kafka-enabled-topic", "--plugin-kafka-enabled-topics"},
       paramLabel = "<topic name>",
@@ -164,4 +254,208 @@ public final class KafkaPluginConfiguration extends CommonConfiguration {
   public void setEventSchemasFile(final File eventSchemasFile) {
     super.setEventSchemasFile(eventSchemasFile);
   }
+
+  @Option(
+      names = "--plugin-kafka-dispatch-queue-capacity",
+      paramLabel = "<INTEGER>",
+      description =
+          "Maximum number of events waiting to be published to Kafka (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setDispatchQueueCapacity(final int dispatchQueueCapacity) {
+    super.setDispatchQueueCapacity(dispatchQueueCapacity);
+  }
+
+  @Option(
+      names = "--plugin-kafka-dispatch-workers",
+      paramLabel = "<INTEGER>",
+      description = "Number of threads publishing events to Kafka (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setDispatchWorkers(final int dispatchWorkers) {
+    super.setDispatchWorkers(dispatchWorkers);
+  }
+
+  @Option(
+      names = "--plugin-kafka-dispatch-overflow-policy",
+      paramLabel = "<POLICY>",
+      description =
+          "Policy applied when the dispatch queue is full: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setDispatchOverflowPolicy(final OverflowPolicy dispatchOverflowPolicy) {
+    super.setDispatchOverflowPolicy(dispatchOverflowPolicy);
+  }
+
+  @Option(
+      names = "--plugin-kafka-dispatch-ordering-key",
+      paramLabel = "<KEY>",
+      description =
+          "Key within which events are published in order, events of different keys being published in parallel: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setDispatchOrderingKey(final OrderingKey dispatchOrderingKey) {
+    super.setDispatchOrderingKey(dispatchOrderingKey);
+  }
+
+  @Option(
+      names = "--plugin-kafka-block-batch-linger",
+      paramLabel = "<MILLISECONDS>",
+      description =
+          "Time the block, reverted transactions and logs of an added block are collected before being published as one batch, 0 to publish every event on its own (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setBlockBatchLinger(final long blockBatchLinger) {
+    super.setBlockBatchLinger(blockBatchLinger);
+  }
+
+  @Option(
+      names = "--plugin-kafka-backfill-from-block",
+      paramLabel = "<BLOCK>",
+      description = "First block re-published by the backfill on start-up")
+  @Override
+  public void setBackfillFromBlock(final Long backfillFromBlock) {
+    super.setBackfillFromBlock(backfillFromBlock);
+  }
+
+  @Option(
+      names = "--plugin-kafka-backfill-to-block",
+      paramLabel = "<BLOCK>",
+      description = "Last block re-published by the backfill, the chain head if not set")
+  @Override
+  public void setBackfillToBlock(final Long backfillToBlock) {
+    super.setBackfillToBlock(backfillToBlock);
+  }
+
+  @Option(
+      names = "--plugin-kafka-backfill-from-checkpoint",
+      description =
+          "Enable to re-publish on start-up the blocks following the last block acknowledged by the broker (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  @Override
+  public void setBackfillFromCheckpoint(final boolean backfillFromCheckpoint) {
+    super.setBackfillFromCheckpoint(backfillFromCheckpoint);
+  }
+
+  @Option(
+      names = "--plugin-kafka-backfill-workers",
+      paramLabel = "<INTEGER>",
+      description = "Number of workers reading the backfilled blocks (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setBackfillWorkers(final int backfillWorkers) {
+    super.setBackfillWorkers(backfillWorkers);
+  }
+
+  @Option(
+      names = "--plugin-kafka-backfill-blocks-per-second",
+      paramLabel = "<INTEGER>",
+      description =
+          "Maximum number of blocks re-published per second by the backfill, 0 for no limit (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setBackfillBlocksPerSecond(final int backfillBlocksPerSecond) {
+    super.setBackfillBlocksPerSecond(backfillBlocksPerSecond);
+  }
+
+  @Option(
+      names = "--plugin-kafka-backfill-block-source-class",
+      paramLabel = "<CLASS>",
+      description = "Class implementing BlockSource, reading the backfilled blocks")
+  @Override
+  public void setBackfillBlockSourceClass(final String backfillBlockSourceClass) {
+    super.setBackfillBlockSourceClass(backfillBlockSourceClass);
+  }
+
+  @Option(
+      names = "--plugin-kafka-spill-journal-directory",
+      paramLabel = "<PATH>",
+      description =
+          "Directory of the journal events are spilled to with the SPILL overflow policy (default: event-stream-spill-journal in the Besu data directory)")
+  @Override
+  public void setSpillJournalDirectory(final File spillJournalDirectory) {
+    super.setSpillJournalDirectory(spillJournalDirectory);
+  }
+
+  @Option(
+      names = "--plugin-kafka-spill-journal-segment-size",
+      paramLabel = "<BYTES>",
+      description = "Size of a spill journal segment file (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setSpillJournalSegmentSize(final int spillJournalSegmentSize) {
+    super.setSpillJournalSegmentSize(spillJournalSegmentSize);
+  }
+
+  @Option(
+      names = "--plugin-kafka-spill-journal-max-size",
+      paramLabel = "<BYTES>",
+      description =
+          "Maximum size of the spill journal, events being dropped once it is full (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setSpillJournalMaxSize(final long spillJournalMaxSize) {
+    super.setSpillJournalMaxSize(spillJournalMaxSize);
+  }
+
+  @Option(
+      names = "--plugin-kafka-sync-status-conflation-window",
+      paramLabel = "<MILLISECONDS>",
+      description =
+          "Window within which only the newest sync status change is published, the first and last transitions always being published, 0 to publish every change (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setSyncStatusConflationWindow(final long syncStatusConflationWindow) {
+    super.setSyncStatusConflationWindow(syncStatusConflationWindow);
+  }
+
+  @Option(
+      names = "--plugin-kafka-mempool-sample-rate",
+      paramLabel = "<RATE>",
+      description =
+          "Share of the transactions whose transaction pool events are published, chosen by hash, between 0 and 1, 0 to publish none and 1 to publish every transaction (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setMempoolSampleRate(final double mempoolSampleRate) {
+    super.setMempoolSampleRate(mempoolSampleRate);
+  }
+
+  @Option(
+      names = "--plugin-kafka-mempool-dedup-capacity",
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of recently published transactions remembered to skip their duplicate transaction pool events, 0 to disable deduplication (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setMempoolDedupCapacity(final int mempoolDedupCapacity) {
+    super.setMempoolDedupCapacity(mempoolDedupCapacity);
+  }
+
+  @Option(
+      names = "--plugin-kafka-mempool-transaction-added-rate-limit",
+      paramLabel = "<EVENTS_PER_SECOND>",
+      description =
+          "Maximum number of transaction added events published per second, 0 for no limit (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setMempoolTransactionAddedRateLimit(final int mempoolTransactionAddedRateLimit) {
+    super.setMempoolTransactionAddedRateLimit(mempoolTransactionAddedRateLimit);
+  }
+
+  @Option(
+      names = "--plugin-kafka-mempool-transaction-dropped-rate-limit",
+      paramLabel = "<EVENTS_PER_SECOND>",
+      description =
+          "Maximum number of transaction dropped events published per second, 0 for no limit (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setMempoolTransactionDroppedRateLimit(final int mempoolTransactionDroppedRateLimit) {
+    super.setMempoolTransactionDroppedRateLimit(mempoolTransactionDroppedRateLimit);
+  }
+
+  @Option(
+      names = "--plugin-kafka-event-id-strategy",
+      paramLabel = "<STRATEGY>",
+      description =
+          "How the event identifiers are generated: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setEventIdStrategy(final EventIdStrategy eventIdStrategy) {
+    super.setEventIdStrategy(eventIdStrategy);
+  }
+
+  @Option(
+      names = "--plugin-kafka-event-id-node-id",
+      paramLabel = "<INTEGER>",
+      description =
+          "Identifier of this node between 0 and 65535, written in the TIME_ORDERED event identifiers so that nodes do not collide (default: ${DEFAULT-VALUE})")
+  @Override
+  public void setEventIdNodeId(final int eventIdNodeId) {
+    super.setEventIdNodeId(eventIdNodeId);
+  }
 }
@@ -14,30 +14,80 @@
  */
 package net.consensys.besu.plugin.kafka;
 
+import net.consensys.besu.plugins.stream.api.event.DeliveryListener;
 import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
 import net.consensys.besu.plugins.stream.api.event.Publisher;
 import net.consensys.besu.plugins.stream.api.event.TopicResolver;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * Utility class used to publish event objects to kafka stream.
  *
+ * <p>In transactional mode every batch, that is every block along with its transactions and logs,
+ * is committed in its own Kafka transaction so that {@code read_committed} consumers see whole
+ * blocks or nothing. A producer runs one transaction at a time, so batches are published one after
+ * the other. Events published on their own are queued and committed together in the next
+ * transaction, rather than each one waiting for a transaction of its own. A producer that can no
+ * longer be used, because it was fenced or refused, is closed and created again from its factory.
+ *
+ * <p>The {@link DeliveryListener} is notified of each record acknowledged by the broker, or in
+ * transactional mode of each record of a committed transaction. Every record it was told was sent
+ * is then either acknowledged or failed, including the records the producer refuses right away.
+ *
  * @since 0.1
  */
 public class KafkaPublisher implements Publisher {
   private static final Logger LOGGER = LogManager.getLogger(KafkaPublisher.class);
-  private final KafkaProducer<String, String> producer;
+  private final Supplier<KafkaProducer<String, byte[]>> producerFactory;
+  private final RecordKeyStrategy recordKeyStrategy;
+  private final boolean recordHeadersEnabled;
+  private final boolean transactional;
+  private final ReentrantLock transactionLock = new ReentrantLock();
+  private final Queue<OutgoingRecord> pendingRecords = new ConcurrentLinkedQueue<>();
+  private volatile KafkaProducer<String, byte[]> producer;
+  private boolean producerClosed;
+  private volatile DeliveryListener deliveryListener = DeliveryListener.NOOP;
 
-  public KafkaPublisher(final KafkaProducer<String, String> producer) {
-    this.producer = producer;
+  public KafkaPublisher(final KafkaProducer<String, byte[]> producer) {
+    this(() -> producer, RecordKeyStrategy.NONE, false, false);
+  }
+
+  public KafkaPublisher(
+      final Supplier<KafkaProducer<String, byte[]>> producerFactory,
+      final RecordKeyStrategy recordKeyStrategy,
+      final boolean recordHeadersEnabled,
+      final boolean transactional) {
+    this.producerFactory = producerFactory;
+    this.producer = producerFactory.get();
+    this.recordKeyStrategy = recordKeyStrategy;
+    this.recordHeadersEnabled = recordHeadersEnabled;
+    this.transactional = transactional;
+    if (transactional) {
+      producer.initTransactions();
+    }
   }
 
   /**
@@ -48,10 +98,17 @@ public class KafkaPublisher implements Publisher {
    */
   public static Publisher build(final KafkaPluginConfiguration pluginConfiguration) {
     try {
-      // This enables to load the org.apache.kafka.common.security.plain.PlainLoginModule.
-      // When starting by Besu the plugin fails to build a KafkaProducer without this line.
-      Thread.currentThread().setContextClassLoader(KafkaPublisher.class.getClassLoader());
-      return new KafkaPublisher(new KafkaProducer<>(pluginConfiguration.properties()));
+      final Properties properties = pluginConfiguration.properties();
+      return new KafkaPublisher(
+          () -> {
+            // This enables to load the org.apache.kafka.common.security.plain.PlainLoginModule.
+            // When starting by Besu the plugin fails to build a KafkaProducer without this line.
+            Thread.currentThread().setContextClassLoader(KafkaPublisher.class.getClassLoader());
+            return new KafkaProducer<>(properties);
+          },
+          pluginConfiguration.recordKeyStrategy(),
+          pluginConfiguration.isRecordHeadersEnabled(),
+          pluginConfiguration.isTransactional());
     } catch (Throwable e) {
       e.printStackTrace();
       LOGGER.error(e);
@@ -59,6 +116,11 @@ public class KafkaPublisher implements Publisher {
     }
   }
 
+  @Override
+  public void setDeliveryListener(final DeliveryListener deliveryListener) {
+    this.deliveryListener = deliveryListener;
+  }
+
   /**
    * Publish an event to a kafka stream.
    *
@@ -69,10 +131,212 @@ public class KafkaPublisher implements Publisher {
       final DomainObjectType domainObjectType,
       final TopicResolver topicResolver,
       final Event event) {
+    final OutgoingRecord outgoingRecord = outgoing(domainObjectType, topicResolver, event);
+    if (transactional) {
+      pendingRecords.add(outgoingRecord);
+      commitPending();
+      return;
+    }
+    try {
+      producer.send(
+          record(outgoingRecord),
+          (metadata, exception) -> {
+            onCompletion(metadata, exception);
+            reportDelivery(outgoingRecord, exception);
+          });
+    } catch (final KafkaException e) {
+      LOGGER.error("Error occurred while publishing message.", e);
+      reportDelivery(outgoingRecord, e);
+    }
+  }
+
+  /**
+   * Publish a batch of events to kafka streams in a single send loop. The records are appended to
+   * the producer buffers without flushing, so they are sent along with the producer batching, and
+   * the batch is acknowledged through a single callback.
+   *
+   * @param topicResolver the topic resolver for the events
+   * @param batch The events to publish.
+   */
+  @Override
+  public void publishBatch(final TopicResolver topicResolver, final EventBatch batch) {
+    LOGGER.debug("Publishing batch of {} events", batch.size());
+    final List<OutgoingRecord> outgoingRecords = new ArrayList<>(batch.size());
+    for (final EventBatch.Entry entry : batch.getEntries()) {
+      outgoingRecords.add(outgoing(entry.getDomainObjectType(), topicResolver, entry.getEvent()));
+    }
+    if (transactional) {
+      transactionLock.lock();
+      try {
+        commit(outgoingRecords);
+      } finally {
+        transactionLock.unlock();
+      }
+      commitPending();
+    } else {
+      send(outgoingRecords);
+    }
+  }
+
+  private OutgoingRecord outgoing(
+      final DomainObjectType domainObjectType,
+      final TopicResolver topicResolver,
+      final Event event) {
     final String topic = topicResolver.resolve(domainObjectType, event);
     LOGGER.debug("Publishing in topic: {}", topic);
-    LOGGER.debug("Publishing event: {}", event.string());
-    producer.send(new ProducerRecord<>(topic, event.string()), this::onCompletion);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Publishing event: {}", event.string());
+    }
+    deliveryListener.onSent(topic, event);
+    return new OutgoingRecord(topic, domainObjectType, event);
+  }
+
+  private void send(final List<OutgoingRecord> outgoingRecords) {
+    final BatchCallback callback = new BatchCallback(outgoingRecords.size());
+    for (final OutgoingRecord outgoingRecord : outgoingRecords) {
+      try {
+        producer.send(
+            record(outgoingRecord),
+            (metadata, exception) -> {
+              callback.onCompletion(metadata, exception);
+              reportDelivery(outgoingRecord, exception);
+            });
+      } catch (final KafkaException e) {
+        callback.onCompletion(null, e);
+        reportDelivery(outgoingRecord, e);
+      }
+    }
+  }
+
+  /**
+   * Commit the queued records in one transaction, unless another thread holds the producer, in
+   * which case that thread commits them once its own transaction is done.
+   */
+  private void commitPending() {
+    do {
+      if (!transactionLock.tryLock()) {
+        return;
+      }
+      try {
+        final List<OutgoingRecord> outgoingRecords = new ArrayList<>();
+        OutgoingRecord outgoingRecord;
+        while ((outgoingRecord = pendingRecords.poll()) != null) {
+          outgoingRecords.add(outgoingRecord);
+        }
+        if (!outgoingRecords.isEmpty()) {
+          commit(outgoingRecords);
+        }
+      } finally {
+        transactionLock.unlock();
+      }
+    } while (!pendingRecords.isEmpty());
+  }
+
+  /** Send the records in one transaction, to be called while holding the transaction lock. */
+  private void commit(final List<OutgoingRecord> outgoingRecords) {
+    try {
+      openProducer();
+    } catch (final KafkaException e) {
+      LOGGER.error("Cannot recreate the producer, failing the batch.", e);
+      reportDelivery(outgoingRecords, e);
+      return;
+    }
+    try {
+      producer.beginTransaction();
+      final BatchCallback callback = new BatchCallback(outgoingRecords.size());
+      for (final OutgoingRecord outgoingRecord : outgoingRecords) {
+        producer.send(record(outgoingRecord), callback);
+      }
+      producer.commitTransaction();
+      reportDelivery(outgoingRecords, null);
+    } catch (final ProducerFencedException
+        | OutOfOrderSequenceException
+        | AuthorizationException e) {
+      LOGGER.error("Cannot publish batch, the producer can no longer be used.", e);
+      reportDelivery(outgoingRecords, e);
+      closeProducer();
+    } catch (final KafkaException e) {
+      LOGGER.error("Error occurred while publishing batch, aborting its transaction.", e);
+      reportDelivery(outgoingRecords, e);
+      abortTransaction();
+    }
+  }
+
+  private void abortTransaction() {
+    try {
+      producer.abortTransaction();
+    } catch (final KafkaException e) {
+      LOGGER.error("Cannot abort the transaction, the producer can no longer be used.", e);
+      closeProducer();
+    }
+  }
+
+  private void closeProducer() {
+    try {
+      producer.close(Duration.ZERO);
+    } catch (final KafkaException e) {
+      LOGGER.warn("Error occurred while closing the producer.", e);
+    }
+    producerClosed = true;
+  }
+
+  private void openProducer() {
+    if (!producerClosed) {
+      return;
+    }
+    final KafkaProducer<String, byte[]> reopened = producerFactory.get();
+    try {
+      reopened.initTransactions();
+    } catch (final KafkaException e) {
+      reopened.close(Duration.ZERO);
+      throw e;
+    }
+    producer = reopened;
+    producerClosed = false;
+  }
+
+  private void reportDelivery(
+      final List<OutgoingRecord> outgoingRecords, final Exception exception) {
+    for (final OutgoingRecord outgoingRecord : outgoingRecords) {
+      reportDelivery(outgoingRecord, exception);
+    }
+  }
+
+  private void reportDelivery(final OutgoingRecord outgoingRecord, final Exception exception) {
+    if (Objects.isNull(exception)) {
+      deliveryListener.onAcknowledged(outgoingRecord.topic, outgoingRecord.event);
+    } else {
+      deliveryListener.onFailed(
+          outgoingRecord.topic, outgoingRecord.domainObjectType, outgoingRecord.event, exception);
+    }
+  }
+
+  /** Send the buffered records and release the producer. */
+  @Override
+  public void close() {
+    commitPending();
+    transactionLock.lock();
+    try {
+      if (!producerClosed) {
+        producer.close();
+      }
+    } finally {
+      transactionLock.unlock();
+    }
+  }
+
+  private ProducerRecord<String, byte[]> record(final OutgoingRecord outgoingRecord) {
+    return record(outgoingRecord.topic, outgoingRecord.domainObjectType, outgoingRecord.event);
+  }
+
+  private ProducerRecord<String, byte[]> record(
+      final String topic, final DomainObjectType domainObjectType, final Event event) {
+    return new ProducerRecord<>(
+        topic,
+        null,
+        recordKeyStrategy.key(domainObjectType, event),
+        event.bytes(),
+        recordHeadersEnabled ? EventHeaders.of(event) : null);
   }
 
   private void onCompletion(final RecordMetadata metadata, final Exception exception) {
@@ -86,4 +350,41 @@ public class KafkaPublisher implements Publisher {
       LOGGER.error("Error occurred while publishing message.", exception);
     }
   }
+
+  /** Event along with the topic it is sent to. */
+  private static class OutgoingRecord {
+    private final String topic;
+    private final DomainObjectType domainObjectType;
+    private final Event event;
+
+    private OutgoingRecord(
+        final String topic, final DomainObjectType domainObjectType, final Event event) {
+      this.topic = topic;
+      this.domainObjectType = domainObjectType;
+      this.event = event;
+    }
+  }
+
+  /** Completion of the records of a batch, logging once every record has been acknowledged. */
+  private static class BatchCallback implements Callback {
+    private final int size;
+    private final AtomicInteger pending;
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private BatchCallback(final int size) {
+      this.size = size;
+      this.pending = new AtomicInteger(size);
+    }
+
+    @Override
+    public void onCompletion(final RecordMetadata metadata, final Exception exception) {
+      if (Objects.nonNull(exception)) {
+        failed.incrementAndGet();
+        LOGGER.error("Error occurred while publishing message.", exception);
+      }
+      if (pending.decrementAndGet() == 0) {
+        LOGGER.debug("Batch of {} records sent with {} failures.", size, failed.get());
+      }
+    }
+  }
 }
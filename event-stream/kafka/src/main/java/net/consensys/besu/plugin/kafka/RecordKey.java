@@ -0,0 +1,33 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugin.kafka;
+
+/** What the Kafka records are keyed by, so that the records of a key land in one partition. */
+public enum RecordKey {
+  /** no key, records are spread by the producer partitioner */
+  NONE,
+  /** the number of the block the event relates to */
+  BLOCK_NUMBER,
+  /** the hash of the block the event relates to */
+  BLOCK_HASH,
+  /** the hash of the transaction the event relates to */
+  TRANSACTION_HASH,
+  /** the sender of the transaction the event relates to */
+  SENDER,
+  /** the contract that emitted the log */
+  CONTRACT_ADDRESS,
+  /** a {@link RecordKeyStrategy} implementation given by class name */
+  CUSTOM
+}
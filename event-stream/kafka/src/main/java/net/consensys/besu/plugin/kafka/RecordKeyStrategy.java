@@ -0,0 +1,97 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugin.kafka;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Computes the key of the Kafka record an event is published with. Records sharing a key go to the
+ * same partition, which keeps them in order for the consumers.
+ *
+ * <p>Custom strategies implement this interface with a public no-argument constructor and are
+ * selected with {@code --plugin-kafka-record-key=CUSTOM} and {@code
+ * --plugin-kafka-record-key-class}.
+ */
+@FunctionalInterface
+public interface RecordKeyStrategy {
+
+  /** Publish records without key. */
+  RecordKeyStrategy NONE = (domainObjectType, event) -> null;
+
+  /**
+   * Compute the record key of an event.
+   *
+   * @param domainObjectType the type of event
+   * @param event the event to publish
+   * @return the record key, null to publish the record without key
+   */
+  String key(DomainObjectType domainObjectType, Event event);
+
+  /**
+   * Build the strategy for the configured record key.
+   *
+   * @param recordKey the configured record key
+   * @param customClassName the strategy class name, used with {@link RecordKey#CUSTOM}
+   * @return the record key strategy
+   */
+  static RecordKeyStrategy of(final RecordKey recordKey, final String customClassName) {
+    switch (recordKey) {
+      case BLOCK_NUMBER:
+        return (domainObjectType, event) ->
+            event.metadata().getBlockNumber().map(String::valueOf).orElse(null);
+      case BLOCK_HASH:
+        return fromMetadata(EventMetadata::getBlockHash);
+      case TRANSACTION_HASH:
+        return fromMetadata(EventMetadata::getTransactionHash);
+      case SENDER:
+        return fromMetadata(EventMetadata::getSender);
+      case CONTRACT_ADDRESS:
+        return fromMetadata(EventMetadata::getContractAddress);
+      case CUSTOM:
+        return custom(customClassName);
+      case NONE:
+      default:
+        return NONE;
+    }
+  }
+
+  private static RecordKeyStrategy fromMetadata(
+      final Function<EventMetadata, Optional<Bytes>> field) {
+    return (domainObjectType, event) ->
+        field.apply(event.metadata()).map(Bytes::toHexString).orElse(null);
+  }
+
+  private static RecordKeyStrategy custom(final String className) {
+    if (className == null) {
+      throw new IllegalArgumentException(
+          "Missing --plugin-kafka-record-key-class for the CUSTOM record key.");
+    }
+    try {
+      return Class.forName(className, true, RecordKeyStrategy.class.getClassLoader())
+          .asSubclass(RecordKeyStrategy.class)
+          .getDeclaredConstructor()
+          .newInstance();
+    } catch (final ReflectiveOperationException | ClassCastException e) {
+      throw new IllegalArgumentException("Cannot instantiate record key class " + className, e);
+    }
+  }
+}
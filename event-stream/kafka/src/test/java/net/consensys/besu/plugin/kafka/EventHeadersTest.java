@@ -0,0 +1,73 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugin.kafka;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.stream.model.DefaultEvent;
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+
+import java.util.Optional;
+
+import com.google.common.primitives.Longs;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.Test;
+
+class EventHeadersTest {
+
+  @Test
+  void decodedLogHeaders() throws Exception {
+    final Hash blockHash = Hash.fromUnsignedLong(1);
+    final Address contract = Address.fromHexString("0xc2ca8977e5c582f938c30f7a5328ac1d101bd564");
+    final DefaultEvent<String> event =
+        DefaultEvent.create(
+            "LogEmitted",
+            0L,
+            "Transfer()",
+            (generator, payload) -> generator.writeString(payload),
+            EventMetadata.builder()
+                .blockNumber(42)
+                .blockHash(blockHash)
+                .transactionHash(Hash.fromUnsignedLong(2))
+                .contractAddress(contract)
+                .schemaId(Optional.of("erc20-transfer"))
+                .build());
+
+    assertThat(EventHeaders.of(event))
+        .extracting(Header::key, Header::value)
+        .containsExactly(
+            tuple(EventHeaders.TYPE, "LogEmitted".getBytes(UTF_8)),
+            tuple(EventHeaders.UUID, event.getUuid().getBytes(UTF_8)),
+            tuple(EventHeaders.BLOCK_NUMBER, Longs.toByteArray(42)),
+            tuple(EventHeaders.BLOCK_HASH, blockHash.toArray()),
+            tuple(EventHeaders.CONTRACT_ADDRESS, contract.toArray()),
+            tuple(EventHeaders.SCHEMA_ID, "erc20-transfer".getBytes(UTF_8)));
+  }
+
+  @Test
+  void absentMetadataHasNoHeader() throws Exception {
+    final DefaultEvent<String> event =
+        DefaultEvent.create(
+            "SyncStatusChanged", "{}", (generator, payload) -> generator.writeRawValue(payload));
+
+    assertThat(EventHeaders.of(event))
+        .extracting(Header::key)
+        .containsExactly(EventHeaders.TYPE, EventHeaders.UUID);
+  }
+}
@@ -16,7 +16,11 @@ package net.consensys.besu.plugin.kafka;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import net.consensys.besu.plugins.stream.api.config.CommonConfiguration;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.stream.model.EventIdStrategy;
+import net.consensys.besu.plugins.stream.model.OrderingKey;
+import net.consensys.besu.plugins.stream.model.OverflowPolicy;
 import net.consensys.besu.plugins.types.Address;
 
 import java.io.File;
@@ -25,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.junit.jupiter.api.Test;
 import picocli.CommandLine;
 
@@ -102,4 +107,215 @@ public class KafkaPluginConfigurationTest {
     assertThat(kafkaPluginConfiguration.getEnabledTopics())
         .containsExactly(DomainObjectType.values());
   }
+
+  @Test
+  public void pluginKafkaDispatchOptionsAreParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getDispatchQueueCapacity())
+        .isEqualTo(KafkaPluginConfiguration.DEFAULT_DISPATCH_QUEUE_CAPACITY);
+    assertThat(kafkaPluginConfiguration.getDispatchWorkers())
+        .isEqualTo(KafkaPluginConfiguration.DEFAULT_DISPATCH_WORKERS);
+    assertThat(kafkaPluginConfiguration.getDispatchOverflowPolicy())
+        .isEqualTo(OverflowPolicy.BLOCK);
+    assertThat(kafkaPluginConfiguration.getDispatchOrderingKey()).isEqualTo(OrderingKey.NONE);
+
+    commandLine.parseArgs(
+        "--plugin-kafka-dispatch-queue-capacity",
+        "128",
+        "--plugin-kafka-dispatch-workers",
+        "2",
+        "--plugin-kafka-dispatch-overflow-policy",
+        "DROP_OLDEST",
+        "--plugin-kafka-dispatch-ordering-key",
+        "BLOCK_NUMBER");
+    assertThat(kafkaPluginConfiguration.getDispatchQueueCapacity()).isEqualTo(128);
+    assertThat(kafkaPluginConfiguration.getDispatchWorkers()).isEqualTo(2);
+    assertThat(kafkaPluginConfiguration.getDispatchOverflowPolicy())
+        .isEqualTo(OverflowPolicy.DROP_OLDEST);
+    assertThat(kafkaPluginConfiguration.getDispatchOrderingKey())
+        .isEqualTo(OrderingKey.BLOCK_NUMBER);
+  }
+
+  @Test
+  public void pluginKafkaMetadataDBFlushIntervalIsParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getMetadataDBFlushInterval())
+        .isEqualTo(CommonConfiguration.DEFAULT_METADATA_DB_FLUSH_INTERVAL);
+
+    commandLine.parseArgs("--plugin-kafka-metadata-db-flush-interval", "250");
+    assertThat(kafkaPluginConfiguration.getMetadataDBFlushInterval()).isEqualTo(250);
+  }
+
+  @Test
+  public void pluginKafkaRecordKeyIsParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getRecordKey()).isEqualTo(RecordKey.NONE);
+
+    commandLine.parseArgs(
+        "--plugin-kafka-record-key",
+        "CUSTOM",
+        "--plugin-kafka-record-key-class",
+        "com.example.KeyStrategy");
+    assertThat(kafkaPluginConfiguration.getRecordKey()).isEqualTo(RecordKey.CUSTOM);
+    assertThat(kafkaPluginConfiguration.getRecordKeyClass()).isEqualTo("com.example.KeyStrategy");
+  }
+
+  @Test
+  public void pluginKafkaRecordHeadersEnabledIsParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.isRecordHeadersEnabled()).isTrue();
+
+    commandLine.parseArgs("--plugin-kafka-record-headers-enabled", "false");
+    assertThat(kafkaPluginConfiguration.isRecordHeadersEnabled()).isFalse();
+  }
+
+  @Test
+  public void pluginKafkaTransactionalIdEnablesTransactionalProducer() throws Exception {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.isTransactional()).isFalse();
+    assertThat(kafkaPluginConfiguration.properties())
+        .doesNotContainKey(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+
+    commandLine.parseArgs("--plugin-kafka-transactional-id", "besu-node-1");
+    assertThat(kafkaPluginConfiguration.isTransactional()).isTrue();
+    assertThat(kafkaPluginConfiguration.properties())
+        .containsEntry(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "besu-node-1")
+        .containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true)
+        .containsEntry(ProducerConfig.ACKS_CONFIG, "all");
+  }
+
+  @Test
+  public void pluginKafkaBackfillOptionsAreParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getBackfillFromBlock()).isEmpty();
+    assertThat(kafkaPluginConfiguration.getBackfillToBlock()).isEmpty();
+    assertThat(kafkaPluginConfiguration.isBackfillFromCheckpoint()).isFalse();
+    assertThat(kafkaPluginConfiguration.getBackfillWorkers())
+        .isEqualTo(KafkaPluginConfiguration.DEFAULT_BACKFILL_WORKERS);
+    assertThat(kafkaPluginConfiguration.getBackfillBlocksPerSecond()).isZero();
+
+    commandLine.parseArgs(
+        "--plugin-kafka-backfill-from-block",
+        "100",
+        "--plugin-kafka-backfill-to-block",
+        "200",
+        "--plugin-kafka-backfill-from-checkpoint",
+        "true",
+        "--plugin-kafka-backfill-workers",
+        "8",
+        "--plugin-kafka-backfill-blocks-per-second",
+        "500",
+        "--plugin-kafka-backfill-block-source-class",
+        "com.example.Source");
+    assertThat(kafkaPluginConfiguration.getBackfillFromBlock()).contains(100L);
+    assertThat(kafkaPluginConfiguration.getBackfillToBlock()).contains(200L);
+    assertThat(kafkaPluginConfiguration.isBackfillFromCheckpoint()).isTrue();
+    assertThat(kafkaPluginConfiguration.getBackfillWorkers()).isEqualTo(8);
+    assertThat(kafkaPluginConfiguration.getBackfillBlocksPerSecond()).isEqualTo(500);
+    assertThat(kafkaPluginConfiguration.getBackfillBlockSourceClass())
+        .contains("com.example.Source");
+  }
+
+  @Test
+  public void pluginKafkaSpillJournalOptionsAreParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getSpillJournalDirectory()).isNull();
+    assertThat(kafkaPluginConfiguration.getSpillJournalSegmentSize())
+        .isEqualTo(KafkaPluginConfiguration.DEFAULT_SPILL_JOURNAL_SEGMENT_SIZE);
+    assertThat(kafkaPluginConfiguration.getSpillJournalMaxSize())
+        .isEqualTo(KafkaPluginConfiguration.DEFAULT_SPILL_JOURNAL_MAX_SIZE);
+
+    commandLine.parseArgs(
+        "--plugin-kafka-spill-journal-directory",
+        "/tmp/journal",
+        "--plugin-kafka-spill-journal-segment-size",
+        "1048576",
+        "--plugin-kafka-spill-journal-max-size",
+        "10485760");
+    assertThat(kafkaPluginConfiguration.getSpillJournalDirectory())
+        .isEqualTo(new File("/tmp/journal"));
+    assertThat(kafkaPluginConfiguration.getSpillJournalSegmentSize()).isEqualTo(1048576);
+    assertThat(kafkaPluginConfiguration.getSpillJournalMaxSize()).isEqualTo(10485760L);
+  }
+
+  @Test
+  public void pluginKafkaSyncStatusConflationWindowIsParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getSyncStatusConflationWindow())
+        .isEqualTo(KafkaPluginConfiguration.DEFAULT_SYNC_STATUS_CONFLATION_WINDOW)
+        .isZero();
+
+    commandLine.parseArgs("--plugin-kafka-sync-status-conflation-window", "1000");
+    assertThat(kafkaPluginConfiguration.getSyncStatusConflationWindow()).isEqualTo(1000);
+  }
+
+  @Test
+  public void pluginKafkaMempoolOptionsAreParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getMempoolSampleRate())
+        .isEqualTo(KafkaPluginConfiguration.DEFAULT_MEMPOOL_SAMPLE_RATE);
+    assertThat(kafkaPluginConfiguration.getMempoolDedupCapacity()).isZero();
+    assertThat(kafkaPluginConfiguration.getMempoolTransactionAddedRateLimit()).isZero();
+    assertThat(kafkaPluginConfiguration.getMempoolTransactionDroppedRateLimit()).isZero();
+
+    commandLine.parseArgs(
+        "--plugin-kafka-mempool-sample-rate",
+        "0.25",
+        "--plugin-kafka-mempool-dedup-capacity",
+        "65536",
+        "--plugin-kafka-mempool-transaction-added-rate-limit",
+        "500",
+        "--plugin-kafka-mempool-transaction-dropped-rate-limit",
+        "100");
+    assertThat(kafkaPluginConfiguration.getMempoolSampleRate()).isEqualTo(0.25);
+    assertThat(kafkaPluginConfiguration.getMempoolDedupCapacity()).isEqualTo(65536);
+    assertThat(kafkaPluginConfiguration.getMempoolTransactionAddedRateLimit()).isEqualTo(500);
+    assertThat(kafkaPluginConfiguration.getMempoolTransactionDroppedRateLimit()).isEqualTo(100);
+  }
+
+  @Test
+  public void pluginKafkaEventIdOptionsAreParsedCorrectly() {
+    final KafkaPluginConfiguration kafkaPluginConfiguration = new KafkaPluginConfiguration();
+    final CommandLine commandLine = new CommandLine(kafkaPluginConfiguration);
+
+    commandLine.parseArgs();
+    assertThat(kafkaPluginConfiguration.getEventIdStrategy()).isEqualTo(EventIdStrategy.RANDOM);
+    assertThat(kafkaPluginConfiguration.getEventIdNodeId()).isZero();
+
+    commandLine.parseArgs(
+        "--plugin-kafka-event-id-strategy",
+        "TIME_ORDERED",
+        "--plugin-kafka-event-id-node-id",
+        "12");
+    assertThat(kafkaPluginConfiguration.getEventIdStrategy())
+        .isEqualTo(EventIdStrategy.TIME_ORDERED);
+    assertThat(kafkaPluginConfiguration.getEventIdNodeId()).isEqualTo(12);
+  }
 }
@@ -14,25 +14,46 @@
  */
 package net.consensys.besu.plugin.kafka;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import net.consensys.besu.plugins.stream.api.event.DeliveryListener;
 import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventBatch;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
 import net.consensys.besu.plugins.stream.api.event.Publisher;
 import net.consensys.besu.plugins.stream.api.event.TopicResolver;
 import net.consensys.besu.plugins.stream.model.DefaultEvent;
 import net.consensys.besu.plugins.stream.model.DomainObjectType;
 
+import java.time.Duration;
+import java.util.List;
+
+import com.google.common.primitives.Longs;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.header.Headers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.platform.runner.JUnitPlatform;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -40,8 +61,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @RunWith(JUnitPlatform.class)
 @SuppressWarnings("rawtypes")
 public class KafkaPublisherTest {
-  @Mock private KafkaProducer<String, String> producer;
+  @Mock private KafkaProducer<String, byte[]> producer;
+  @Mock private KafkaProducer<String, byte[]> recreatedProducer;
+  @Mock private DeliveryListener deliveryListener;
   @Captor private ArgumentCaptor<ProducerRecord> record;
+  @Captor private ArgumentCaptor<Callback> callback;
 
   @Test
   void build() {
@@ -57,10 +81,255 @@ public class KafkaPublisherTest {
         DefaultEvent.create(
             "BlockAdded",
             "0xfe88c94d860f01a17f961bf4bdfb6e0c6cd10d3fda5cc861e805ca1240c58553",
-            (mapper, payload) -> mapper.createObjectNode());
+            (generator, payload) -> {
+              generator.writeStartObject();
+              generator.writeEndObject();
+            });
+    kafkaPublisher.publish(
+        DomainObjectType.BLOCK, new TopicResolver.Fixed(() -> "test-topic"), blockAddedEvent);
+    verify(producer).send(record.capture(), any());
+    assertThat(record.getValue().value()).isSameAs(blockAddedEvent.bytes());
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void publishBatch() throws Exception {
+    final Publisher kafkaPublisher = new KafkaPublisher(producer);
+    final Event blockAddedEvent =
+        DefaultEvent.create(
+            "BlockAdded",
+            "0xfe88c94d860f01a17f961bf4bdfb6e0c6cd10d3fda5cc861e805ca1240c58553",
+            (generator, payload) -> {
+              generator.writeStartObject();
+              generator.writeEndObject();
+            });
+    final Event logEmittedEvent =
+        DefaultEvent.create(
+            "LogEmitted",
+            "Transfer(0x1,0x2,3)",
+            (generator, payload) -> generator.writeString(payload));
+    kafkaPublisher.publishBatch(
+        (domainObjectType, event) -> domainObjectType.name(),
+        EventBatch.builder()
+            .add(DomainObjectType.BLOCK, blockAddedEvent)
+            .add(DomainObjectType.LOG, logEmittedEvent)
+            .build());
+    verify(producer, times(2)).send(record.capture(), any());
+    assertThat(record.getAllValues())
+        .extracting(ProducerRecord::topic, ProducerRecord::value)
+        .containsExactly(
+            tuple("BLOCK", blockAddedEvent.bytes()), tuple("LOG", logEmittedEvent.bytes()));
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void publishWithRecordKey() throws Exception {
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(
+            () -> producer, RecordKeyStrategy.of(RecordKey.BLOCK_NUMBER, null), false, false);
+    final Event blockAddedEvent =
+        DefaultEvent.create(
+            "BlockAdded",
+            0L,
+            "0xfe88c94d860f01a17f961bf4bdfb6e0c6cd10d3fda5cc861e805ca1240c58553",
+            (generator, payload) -> generator.writeString(payload),
+            EventMetadata.builder().blockNumber(7).build());
     kafkaPublisher.publish(
         DomainObjectType.BLOCK, new TopicResolver.Fixed(() -> "test-topic"), blockAddedEvent);
     verify(producer).send(record.capture(), any());
-    assertThat(record.getValue().value()).isEqualTo(blockAddedEvent.string());
+    assertThat(record.getValue().key()).isEqualTo("7");
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void publishWithHeaders() throws Exception {
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(() -> producer, RecordKeyStrategy.NONE, true, false);
+    final Event blockAddedEvent =
+        DefaultEvent.create(
+            "BlockAdded",
+            0L,
+            "0xfe88c94d860f01a17f961bf4bdfb6e0c6cd10d3fda5cc861e805ca1240c58553",
+            (generator, payload) -> generator.writeString(payload),
+            EventMetadata.builder().blockNumber(7).build());
+    kafkaPublisher.publish(
+        DomainObjectType.BLOCK, new TopicResolver.Fixed(() -> "test-topic"), blockAddedEvent);
+    verify(producer).send(record.capture(), any());
+    final Headers headers = record.getValue().headers();
+    assertThat(headers.lastHeader(EventHeaders.TYPE).value())
+        .isEqualTo("BlockAdded".getBytes(UTF_8));
+    assertThat(headers.lastHeader(EventHeaders.BLOCK_NUMBER).value())
+        .isEqualTo(Longs.toByteArray(7));
+    assertThat(headers.lastHeader(EventHeaders.CONTRACT_ADDRESS)).isNull();
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void publishBatchInTransaction() throws Exception {
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(() -> producer, RecordKeyStrategy.NONE, false, true);
+    kafkaPublisher.publishBatch(
+        (domainObjectType, event) -> domainObjectType.name(),
+        EventBatch.builder()
+            .add(DomainObjectType.BLOCK, stringEvent("BlockAdded", "0x01"))
+            .add(DomainObjectType.LOG, stringEvent("LogEmitted", "Transfer(0x1,0x2,3)"))
+            .build());
+    final InOrder inOrder = inOrder(producer);
+    inOrder.verify(producer).initTransactions();
+    inOrder.verify(producer).beginTransaction();
+    inOrder.verify(producer, times(2)).send(any(ProducerRecord.class), any());
+    inOrder.verify(producer).commitTransaction();
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void publishBatchAbortsTransactionOnFailure() throws Exception {
+    when(producer.send(any(ProducerRecord.class), any())).thenThrow(new KafkaException("boom"));
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(() -> producer, RecordKeyStrategy.NONE, false, true);
+    kafkaPublisher.publish(
+        DomainObjectType.BLOCK,
+        new TopicResolver.Fixed(() -> "test-topic"),
+        stringEvent("BlockAdded", "0x01"));
+    verify(producer).beginTransaction();
+    verify(producer, never()).commitTransaction();
+    verify(producer).abortTransaction();
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void fencedProducerIsRecreated() throws Exception {
+    doThrow(new ProducerFencedException("fenced")).when(producer).commitTransaction();
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(
+            List.of(producer, recreatedProducer).iterator()::next,
+            RecordKeyStrategy.NONE,
+            false,
+            true);
+    kafkaPublisher.setDeliveryListener(deliveryListener);
+    final Event firstEvent = stringEvent("BlockAdded", "0x01");
+    final Event secondEvent = stringEvent("BlockAdded", "0x02");
+    final TopicResolver topicResolver = new TopicResolver.Fixed(() -> "test-topic");
+
+    kafkaPublisher.publish(DomainObjectType.BLOCK, topicResolver, firstEvent);
+    verify(producer, never()).abortTransaction();
+    verify(producer).close(Duration.ZERO);
+    verify(deliveryListener)
+        .onFailed(eq("test-topic"), eq(DomainObjectType.BLOCK), eq(firstEvent), any());
+
+    kafkaPublisher.publish(DomainObjectType.BLOCK, topicResolver, secondEvent);
+    final InOrder inOrder = inOrder(recreatedProducer);
+    inOrder.verify(recreatedProducer).initTransactions();
+    inOrder.verify(recreatedProducer).beginTransaction();
+    inOrder.verify(recreatedProducer).commitTransaction();
+    verify(deliveryListener).onAcknowledged("test-topic", secondEvent);
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void failingAbortRecreatesProducer() throws Exception {
+    when(producer.send(any(ProducerRecord.class), any())).thenThrow(new KafkaException("boom"));
+    doThrow(new KafkaException("cannot abort")).when(producer).abortTransaction();
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(
+            List.of(producer, recreatedProducer).iterator()::next,
+            RecordKeyStrategy.NONE,
+            false,
+            true);
+    final TopicResolver topicResolver = new TopicResolver.Fixed(() -> "test-topic");
+
+    kafkaPublisher.publish(
+        DomainObjectType.BLOCK, topicResolver, stringEvent("BlockAdded", "0x01"));
+    verify(producer).close(Duration.ZERO);
+
+    kafkaPublisher.publish(
+        DomainObjectType.BLOCK, topicResolver, stringEvent("BlockAdded", "0x02"));
+    verify(recreatedProducer).initTransactions();
+    verify(recreatedProducer).commitTransaction();
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void eventsPublishedDuringATransactionAreCommittedTogether() throws Exception {
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(() -> producer, RecordKeyStrategy.NONE, false, true);
+    final TopicResolver topicResolver = new TopicResolver.Fixed(() -> "test-topic");
+    final Event blockAddedEvent = stringEvent("BlockAdded", "0x01");
+    final Event firstTransactionEvent = stringEvent("TransactionAdded", "0x02");
+    final Event secondTransactionEvent = stringEvent("TransactionAdded", "0x03");
+    doAnswer(
+            invocation -> {
+              final Thread publishing =
+                  new Thread(
+                      () -> {
+                        kafkaPublisher.publish(
+                            DomainObjectType.TRANSACTION, topicResolver, firstTransactionEvent);
+                        kafkaPublisher.publish(
+                            DomainObjectType.TRANSACTION, topicResolver, secondTransactionEvent);
+                      });
+              publishing.start();
+              publishing.join();
+              return null;
+            })
+        .doNothing()
+        .when(producer)
+        .commitTransaction();
+
+    kafkaPublisher.publishBatch(
+        topicResolver, EventBatch.builder().add(DomainObjectType.BLOCK, blockAddedEvent).build());
+    final InOrder inOrder = inOrder(producer);
+    inOrder.verify(producer).beginTransaction();
+    inOrder.verify(producer).send(record.capture(), any());
+    inOrder.verify(producer).commitTransaction();
+    inOrder.verify(producer).beginTransaction();
+    inOrder.verify(producer, times(2)).send(record.capture(), any());
+    inOrder.verify(producer).commitTransaction();
+    assertThat(record.getAllValues())
+        .extracting(ProducerRecord::value)
+        .containsExactly(
+            blockAddedEvent.bytes(), firstTransactionEvent.bytes(), secondTransactionEvent.bytes());
+  }
+
+  private static Event stringEvent(final String type, final String payload) throws Exception {
+    return DefaultEvent.create(type, payload, (generator, value) -> generator.writeString(value));
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void publishReportsDelivery() throws Exception {
+    final Publisher kafkaPublisher = new KafkaPublisher(producer);
+    kafkaPublisher.setDeliveryListener(deliveryListener);
+    final Event blockAddedEvent = stringEvent("BlockAdded", "0x01");
+    final Event logEmittedEvent = stringEvent("LogEmitted", "Transfer(0x1,0x2,3)");
+    kafkaPublisher.publishBatch(
+        (domainObjectType, event) -> domainObjectType.name(),
+        EventBatch.builder()
+            .add(DomainObjectType.BLOCK, blockAddedEvent)
+            .add(DomainObjectType.LOG, logEmittedEvent)
+            .build());
+    verify(deliveryListener).onSent("BLOCK", blockAddedEvent);
+    verify(deliveryListener).onSent("LOG", logEmittedEvent);
+    verify(producer, times(2)).send(any(ProducerRecord.class), callback.capture());
+
+    final KafkaException failure = new KafkaException("boom");
+    callback.getAllValues().get(0).onCompletion(null, null);
+    callback.getAllValues().get(1).onCompletion(null, failure);
+    verify(deliveryListener).onAcknowledged("BLOCK", blockAddedEvent);
+    verify(deliveryListener).onFailed("LOG", DomainObjectType.LOG, logEmittedEvent, failure);
+  }
+
+  @Test
+  @SuppressWarnings({"MockitoInternalUsage", "unchecked"})
+  void publishInTransactionReportsDeliveryOnCommit() throws Exception {
+    final Publisher kafkaPublisher =
+        new KafkaPublisher(() -> producer, RecordKeyStrategy.NONE, false, true);
+    kafkaPublisher.setDeliveryListener(deliveryListener);
+    final Event blockAddedEvent = stringEvent("BlockAdded", "0x01");
+    kafkaPublisher.publish(
+        DomainObjectType.BLOCK, new TopicResolver.Fixed(() -> "test-topic"), blockAddedEvent);
+    final InOrder inOrder = inOrder(producer, deliveryListener);
+    inOrder.verify(deliveryListener).onSent("test-topic", blockAddedEvent);
+    inOrder.verify(producer).commitTransaction();
+    inOrder.verify(deliveryListener).onAcknowledged("test-topic", blockAddedEvent);
   }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package net.consensys.besu.plugin.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import net.consensys.besu.plugins.stream.api.event.Event;
+import net.consensys.besu.plugins.stream.api.event.EventMetadata;
+import net.consensys.besu.plugins.stream.model.DefaultEvent;
+import net.consensys.besu.plugins.stream.model.DomainObjectType;
+import net.consensys.besu.plugins.types.Address;
+import net.consensys.besu.plugins.types.Hash;
+
+import org.junit.jupiter.api.Test;
+
+class RecordKeyStrategyTest {
+  private static final Hash BLOCK_HASH = Hash.fromUnsignedLong(1);
+  private static final Hash TRANSACTION_HASH = Hash.fromUnsignedLong(2);
+  private static final Address SENDER =
+      Address.fromHexString("0x1dea979ae76f26071870f824088da78979eb91c8");
+  private static final Address CONTRACT =
+      Address.fromHexString("0xc2ca8977e5c582f938c30f7a5328ac1d101bd564");
+
+  @Test
+  void builtInKeysReadTheEventMetadata() throws Exception {
+    final Event log =
+        event(
+            EventMetadata.builder()
+                .blockNumber(42)
+                .blockHash(BLOCK_HASH)
+                .transactionHash(TRANSACTION_HASH)
+                .sender(SENDER)
+                .contractAddress(CONTRACT)
+                .build());
+
+    assertThat(key(RecordKey.NONE, log)).isNull();
+    assertThat(key(RecordKey.BLOCK_NUMBER, log)).isEqualTo("42");
+    assertThat(key(RecordKey.BLOCK_HASH, log)).isEqualTo(BLOCK_HASH.toHexString());
+    assertThat(key(RecordKey.TRANSACTION_HASH, log)).isEqualTo(TRANSACTION_HASH.toHexString());
+    assertThat(key(RecordKey.SENDER, log)).isEqualTo(SENDER.toHexString());
+    assertThat(key(RecordKey.CONTRACT_ADDRESS, log)).isEqualTo(CONTRACT.toHexString());
+  }
+
+  @Test
+  void missingMetadataLeavesRecordUnkeyed() throws Exception {
+    final Event syncStatus = event(EventMetadata.empty());
+
+    assertThat(key(RecordKey.BLOCK_NUMBER, syncStatus)).isNull();
+    assertThat(key(RecordKey.CONTRACT_ADDRESS, syncStatus)).isNull();
+  }
+
+  @Test
+  void customStrategyIsInstantiatedByClassName() throws Exception {
+    final RecordKeyStrategy strategy =
+        RecordKeyStrategy.of(RecordKey.CUSTOM, TypeKeyStrategy.class.getName());
+
+    assertThat(strategy.key(DomainObjectType.LOG, event(EventMetadata.empty())))
+        .isEqualTo("LOG:LogEmitted");
+  }
+
+  @Test
+  void customStrategyRequiresAStrategyClass() {
+    assertThatThrownBy(() -> RecordKeyStrategy.of(RecordKey.CUSTOM, null))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RecordKeyStrategy.of(RecordKey.CUSTOM, String.class.getName()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static String key(final RecordKey recordKey, final Event event) {
+    return RecordKeyStrategy.of(recordKey, null).key(DomainObjectType.LOG, event);
+  }
+
+  private static Event event(final EventMetadata metadata) throws Exception {
+    return DefaultEvent.create(
+        "LogEmitted",
+        0L,
+        "payload",
+        (generator, payload) -> generator.writeString(payload),
+        metadata);
+  }
+
+  public static class TypeKeyStrategy implements RecordKeyStrategy {
+    @Override
+    public String key(final DomainObjectType domainObjectType, final Event event) {
+      return domainObjectType + ":" + event.type();
+    }
+  }
+}